@@ -0,0 +1,372 @@
+package com.example.reqsmanager.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * 需求 + 架构需求的内存列式快照，用于任意维度组合的交叉统计。
+ * - 每个维度一列 int 数组，字符串以字典编码保存 (编码 0 表示空值)；评分、是否递交概要设计各为一列基本类型数组；
+ * - 行按主键存放 (主键假定为从 1 开始、基本连续的自增整数)，修改与删除都是 O(1) 的原地覆盖；
+ * - 聚合时把行区间切成若干块在 ForkJoin 公共线程池中并行扫描，各块分别累加后再合并；
+ *   组合数较少时用下标直接寻址的数组累加，否则退回哈希表。
+ * 线程安全：查询之间可并发，修改时独占。
+ */
+public class ColumnarRequirementSnapshot {
+
+    private static final int DIMENSIONS = RequirementDimension.values().length;
+    private static final byte PRESENT = 1;
+    private static final byte SUBMITTED = 2;
+    private static final byte SCORED = 4;
+    private static final int SCAN_CHUNK_SIZE = 1 << 16;
+    /**
+     * 分组组合数不超过该值时使用数组累加。
+     */
+    private static final int DENSE_GROUP_LIMIT = 1 << 14;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Dictionary[] dictionaries = new Dictionary[DIMENSIONS];
+    private int[][] codes = new int[DIMENSIONS][1024];
+    private int[] scores = new int[1024];
+    private byte[] flags = new byte[1024];
+    /**
+     * 已使用的最大主键 + 1，扫描的上界。
+     */
+    private int limit;
+    private int size;
+
+    public ColumnarRequirementSnapshot() {
+        for (int d = 0; d < DIMENSIONS; d++) {
+            dictionaries[d] = new Dictionary();
+        }
+    }
+
+    /**
+     * 新增或覆盖一行。
+     *
+     * @param values    按 RequirementDimension 顺序排列的维度值 (null 或空白表示空值)
+     * @param submitted 是否已递交概要设计
+     * @param score     概要设计评分，可为 null
+     */
+    public void put(int id, String[] values, boolean submitted, Integer score) {
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(id);
+            for (int d = 0; d < DIMENSIONS; d++) {
+                codes[d][id] = dictionaries[d].encode(values[d]);
+            }
+            scores[id] = score == null ? 0 : score;
+            if ((flags[id] & PRESENT) == 0) {
+                size++;
+            }
+            flags[id] = (byte) (PRESENT | (submitted ? SUBMITTED : 0) | (score == null ? 0 : SCORED));
+            limit = Math.max(limit, id + 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            if (id < limit && (flags[id] & PRESENT) != 0) {
+                flags[id] = 0;
+                size--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return 快照中的行数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按给定维度分组统计。
+     *
+     * @param groupBy 分组维度 (可为空，此时只返回一个合计单元)
+     * @param filters 各维度允许的取值 (空字符串表示空值)；未出现的维度不过滤
+     * @param maxCells 最多返回的分组单元数
+     * @return 非空的分组单元，顺序不确定；单元数超过 maxCells 时返回 null (分组过细，不适合作为交叉统计结果)
+     * @throws ArithmeticException 分组组合数超出 long 的表示范围
+     */
+    public List<Cell> aggregate(List<RequirementDimension> groupBy, Map<RequirementDimension, Collection<String>> filters,
+                                int maxCells) {
+        lock.readLock().lock();
+        try {
+            int[] dims = groupBy.stream().mapToInt(Enum::ordinal).toArray();
+            long[] radix = new long[dims.length];
+            long groups = 1;
+            for (int i = dims.length - 1; i >= 0; i--) {
+                radix[i] = groups;
+                groups = Math.multiplyExact(groups, dictionaries[dims[i]].size());
+            }
+            // 只把有筛选条件的列和参与分组的列传给扫描循环
+            int[][] filterColumns = new int[filters.size()][];
+            boolean[][] accepted = new boolean[filters.size()][];
+            int f = 0;
+            for (Map.Entry<RequirementDimension, Collection<String>> filter : filters.entrySet()) {
+                int d = filter.getKey().ordinal();
+                filterColumns[f] = codes[d];
+                accepted[f++] = dictionaries[d].accepted(filter.getValue());
+            }
+            int[][] keyColumns = new int[dims.length][];
+            for (int i = 0; i < dims.length; i++) {
+                keyColumns[i] = codes[dims[i]];
+            }
+
+            long groupCount = groups;
+            int end = limit;
+            byte[] flagColumn = flags;
+            int[] scoreColumn = scores;
+            int chunks = (end + SCAN_CHUNK_SIZE - 1) / SCAN_CHUNK_SIZE;
+            Accumulator total = IntStream.range(0, chunks).parallel().collect(
+                    () -> new Accumulator(groupCount),
+                    (acc, chunk) -> scan(acc, chunk * SCAN_CHUNK_SIZE, Math.min(end, (chunk + 1) * SCAN_CHUNK_SIZE),
+                            flagColumn, scoreColumn, keyColumns, radix, filterColumns, accepted),
+                    Accumulator::merge);
+            if (total.cellCount() > maxCells) {
+                return null;
+            }
+            return total.toCells(dims, radix, dictionaries);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void scan(Accumulator acc, int from, int to, byte[] flags, int[] scores,
+                             int[][] keyColumns, long[] radix, int[][] filterColumns, boolean[][] accepted) {
+        rows:
+        for (int id = from; id < to; id++) {
+            byte flag = flags[id];
+            if ((flag & PRESENT) == 0) {
+                continue;
+            }
+            for (int f = 0; f < filterColumns.length; f++) {
+                if (!accepted[f][filterColumns[f][id]]) {
+                    continue rows;
+                }
+            }
+            long key = 0;
+            for (int i = 0; i < keyColumns.length; i++) {
+                key += keyColumns[i][id] * radix[i];
+            }
+            // 已递交 / 已评分以 0、1 直接累加，避免在随机分布的数据上产生分支预测失败
+            acc.add(key, (flag & SUBMITTED) >> 1, scores[id], (flag & SCORED) >> 2);
+        }
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < flags.length) {
+            return;
+        }
+        int capacity = Math.max(id + 1, flags.length * 2);
+        for (int d = 0; d < DIMENSIONS; d++) {
+            codes[d] = Arrays.copyOf(codes[d], capacity);
+        }
+        scores = Arrays.copyOf(scores, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    /**
+     * 一个分组单元的统计结果。
+     *
+     * @param values 按分组维度顺序排列的取值 (空值为 null)
+     */
+    public record Cell(String[] values, long count, long summaryDesignsSubmitted, long scoreSum, long scoreCount) {
+    }
+
+    /**
+     * 单个维度的字符串字典。编码只增不减，编码 0 固定表示空值。
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>(List.of(""));
+
+        int encode(String value) {
+            if (value == null || value.isBlank()) {
+                return 0;
+            }
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        String decode(int code) {
+            return code == 0 ? null : values.get(code);
+        }
+
+        boolean[] accepted(Collection<String> filterValues) {
+            boolean[] accepted = new boolean[values.size()];
+            for (String value : filterValues) {
+                if (value == null || value.isBlank()) {
+                    accepted[0] = true;
+                } else {
+                    Integer code = codes.get(value);
+                    if (code != null) {
+                        accepted[code] = true;
+                    }
+                }
+            }
+            return accepted;
+        }
+    }
+
+    /**
+     * 一个扫描线程的累加结果，各项统计按槽位存放在基本类型数组中。
+     * 组合数较少时槽位就是组合编号；否则使用开放寻址的哈希表 (keys 记录每个槽位的组合编号)，避免装箱。
+     */
+    private static final class Accumulator {
+        private static final long EMPTY = -1;
+
+        /**
+         * 哈希模式下各槽位的组合编号；直接寻址模式下为 null
+         */
+        private long[] keys;
+        private long[] counts;
+        private long[] submittedCounts;
+        private long[] scoreSums;
+        private long[] scoreCounts;
+        private int used;
+
+        Accumulator(long groups) {
+            int slots;
+            if (groups <= DENSE_GROUP_LIMIT) {
+                slots = (int) groups;
+            } else {
+                slots = 1024;
+                keys = new long[slots];
+                Arrays.fill(keys, EMPTY);
+            }
+            counts = new long[slots];
+            submittedCounts = new long[slots];
+            scoreSums = new long[slots];
+            scoreCounts = new long[slots];
+        }
+
+        void add(long key, int submitted, int score, int scored) {
+            int slot = keys == null ? (int) key : slotOf(key);
+            counts[slot]++;
+            submittedCounts[slot] += submitted;
+            scoreSums[slot] += score;
+            scoreCounts[slot] += scored;
+        }
+
+        void merge(Accumulator other) {
+            for (int k = 0; k < other.counts.length; k++) {
+                if (other.counts[k] == 0) {
+                    continue;
+                }
+                int slot = keys == null ? k : slotOf(other.keys[k]);
+                counts[slot] += other.counts[k];
+                submittedCounts[slot] += other.submittedCounts[k];
+                scoreSums[slot] += other.scoreSums[k];
+                scoreCounts[slot] += other.scoreCounts[k];
+            }
+        }
+
+        /**
+         * @return 非空的分组单元数
+         */
+        int cellCount() {
+            if (keys != null) {
+                return used;
+            }
+            int cells = 0;
+            for (long count : counts) {
+                if (count > 0) {
+                    cells++;
+                }
+            }
+            return cells;
+        }
+
+        private int slotOf(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) (mix(key) & mask);
+            while (keys[slot] != key) {
+                if (keys[slot] == EMPTY) {
+                    if (++used * 2 > keys.length) {
+                        grow();
+                        return slotOf(key);
+                    }
+                    keys[slot] = key;
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldCounts = counts;
+            long[] oldSubmitted = submittedCounts;
+            long[] oldScoreSums = scoreSums;
+            long[] oldScoreCounts = scoreCounts;
+            int slots = oldKeys.length * 2;
+            keys = new long[slots];
+            Arrays.fill(keys, EMPTY);
+            counts = new long[slots];
+            submittedCounts = new long[slots];
+            scoreSums = new long[slots];
+            scoreCounts = new long[slots];
+            used = 0;
+            for (int k = 0; k < oldKeys.length; k++) {
+                if (oldKeys[k] != EMPTY) {
+                    int slot = slotOf(oldKeys[k]);
+                    counts[slot] = oldCounts[k];
+                    submittedCounts[slot] = oldSubmitted[k];
+                    scoreSums[slot] = oldScoreSums[k];
+                    scoreCounts[slot] = oldScoreCounts[k];
+                }
+            }
+        }
+
+        private static long mix(long key) {
+            key *= 0x9E3779B97F4A7C15L;
+            return key ^ (key >>> 32);
+        }
+
+        List<Cell> toCells(int[] dims, long[] radix, Dictionary[] dictionaries) {
+            List<Cell> cells = new ArrayList<>();
+            for (int k = 0; k < counts.length; k++) {
+                if (counts[k] > 0) {
+                    long key = keys == null ? k : keys[k];
+                    cells.add(new Cell(decode(key, dims, radix, dictionaries), counts[k],
+                            submittedCounts[k], scoreSums[k], scoreCounts[k]));
+                }
+            }
+            return cells;
+        }
+
+        private static String[] decode(long key, int[] dims, long[] radix, Dictionary[] dictionaries) {
+            String[] values = new String[dims.length];
+            for (int i = 0; i < dims.length; i++) {
+                values[i] = dictionaries[dims[i]].decode((int) (key / radix[i]));
+                key %= radix[i];
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.reqsmanager.analytics;
+
+/**
+ * 需求分析快照中可用于分组和筛选的维度。
+ */
+public enum RequirementDimension {
+    GROUP_NAME("groupName"),
+    STATUS("status"),
+    REQ_TYPE("reqType"),
+    LEAD_DEPARTMENT("leadDepartment"),
+    /**
+     * 计划投产月份，格式 yyyy-MM
+     */
+    SCHEDULE_MONTH("scheduleMonth");
+
+    private final String paramName;
+
+    RequirementDimension(String paramName) {
+        this.paramName = paramName;
+    }
+
+    /**
+     * @return 接口参数中使用的名称
+     */
+    public String getParamName() {
+        return paramName;
+    }
+
+    /**
+     * @return 参数名对应的维度；不是维度名时返回 null
+     */
+    public static RequirementDimension fromParamName(String paramName) {
+        for (RequirementDimension dimension : values()) {
+            if (dimension.paramName.equals(paramName)) {
+                return dimension;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.reqsmanager.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * 后台 CSV 导入任务专用的有界线程池。
+     * 导入不再占用 Tomcat 的请求线程；同时运行的任务数和排队数都有上限，
+     * 超出时提交会被拒绝 (TaskRejectedException)，由调用方提示用户稍后再试。
+     * @return 配置好的 ThreadPoolTaskExecutor 实例。
+     */
+    @Bean
+    public ThreadPoolTaskExecutor importExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("csv-import-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+}
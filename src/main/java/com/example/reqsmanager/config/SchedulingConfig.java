@@ -0,0 +1,12 @@
+package com.example.reqsmanager.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 启用定时任务 (@Scheduled)，如分组统计的定期校准、需求状态的每日重算。
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,12 +1,13 @@
 package com.example.reqsmanager.controller;
 
+import com.example.reqsmanager.dto.KeysetPage;
 import com.example.reqsmanager.dto.RequirementAnalysisDTO;
+import com.example.reqsmanager.dto.RequirementAnalysisRowDTO;
 import com.example.reqsmanager.entity.Requirement;
 import com.example.reqsmanager.service.RequirementService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -23,23 +24,27 @@ public class AnalysisController {
      *
      * @param model   用于向视图传递数据
      * @param reqId   筛选条件：需求编号
-     * @param page    当前页码
+     * @param cursor  翻页游标 (为空表示第一页)
      * @param size    每页显示条数
+     * @param count   是否显示总记录数
      * @return 布局模板名
      */
     @GetMapping("/")
     public String list(Model model,
                        @RequestParam(required = false) String reqId,
-                       @RequestParam(defaultValue = "0") int page,
-                       @RequestParam(defaultValue = "10") int size) {
+                       @RequestParam(required = false) String cursor,
+                       @RequestParam(defaultValue = "10") int size,
+                       @RequestParam(defaultValue = "false") boolean count) {
 
-        Pageable pageable = PageRequest.of(page, size);
-        // 复用通用的查询方法
+        // 复用通用的查询方法 (键集分页)
         // === START: 核心修正：为新增的筛选参数传递 null ===
-        Page<Requirement> requirementPage = requirementService.findRequirements(reqId, null, null, null, null, null, null, null, pageable);
+        KeysetPage<RequirementAnalysisRowDTO> requirementPage = requirementService.findAnalysisRowsByKeyset(
+                reqId, null, null, null, null, null, null, null, cursor, size);
         // === END ===
 
-        model.addAttribute("page", requirementPage); // 向前端传递 Page 对象
+        model.addAttribute("page", requirementPage); // 向前端传递分页结果
+        model.addAttribute("cursor", cursor);
+        model.addAttribute("showCount", count);
         model.addAttribute("reqId", reqId); // 回传筛选条件
 
         // 关键：指定内容视图，并返回布局
@@ -62,6 +67,7 @@ public class AnalysisController {
         // 将实体(Entity)转换为数据传输对象(DTO)，只暴露本页面需要的字段
         RequirementAnalysisDTO dto = new RequirementAnalysisDTO();
         dto.setId(req.getId());
+        dto.setVersion(req.getVersion());
         dto.setReqId(req.getReqId());
         dto.setName(req.getName());
         dto.setIsAnalysisInvolved(req.getIsAnalysisInvolved());
@@ -82,12 +88,18 @@ public class AnalysisController {
     /**
      * 保存表单提交的数据。
      *
+     * 编辑期间需求已被他人修改时不保存，回到列表页提示重新编辑。
+     *
      * @param dto Spring自动从表单封装的数据传输对象
      * @return 重定向到列表页的URL
      */
     @PostMapping("/save")
-    public String save(@ModelAttribute("dto") RequirementAnalysisDTO dto) {
-        requirementService.saveAnalysisInfo(dto);
+    public String save(@ModelAttribute("dto") RequirementAnalysisDTO dto, RedirectAttributes redirectAttributes) {
+        try {
+            requirementService.saveAnalysisInfo(dto);
+        } catch (OptimisticLockingFailureException e) {
+            redirectAttributes.addFlashAttribute("error", "保存失败：该记录在打开编辑页面之后已被他人修改，请重新打开后再编辑。");
+        }
         // 保存后重定向到列表页，避免表单重复提交
         return "redirect:/analysis/";
     }
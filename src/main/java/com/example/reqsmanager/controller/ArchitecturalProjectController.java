@@ -1,11 +1,18 @@
 package com.example.reqsmanager.controller;
 
+import com.example.reqsmanager.csv.CsvWriter;
 import com.example.reqsmanager.entity.ArchitecturalProject;
+import com.example.reqsmanager.export.ExportRowWriter;
+import com.example.reqsmanager.export.XlsxWriter;
 import com.example.reqsmanager.service.ArchitecturalProjectService;
+import com.example.reqsmanager.service.ChangeTrackingService;
+import com.example.reqsmanager.service.ImportJobService;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable; // 确保 Pageable 已导入
 import org.springframework.stereotype.Controller;
@@ -16,8 +23,8 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
 
 @Controller
 @RequestMapping("/arch-projects")
@@ -26,6 +33,24 @@ public class ArchitecturalProjectController {
     @Autowired
     private ArchitecturalProjectService projectService;
 
+    @Autowired
+    private ImportJobService importJobService;
+
+    @Autowired
+    private ChangeTrackingService changeTrackingService;
+
+    private static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    /**
+     * 导出文件的表头 (CSV 与 XLSX 相同，与 list.html 页面保持一致)。
+     */
+    private static final String[] EXPORT_HEADERS = {
+            "项目编号", "需求编号", "需求名称", "是否重点项目", "可行性方案递交人", "可行性方案递交日期",
+            "可行性方案评审通过日期", "总体设计递交人", "总体设计递交日期", "总体设计评审通过日期",
+            "详细设计递交人", "详细设计递交日期", "可行性方案评分", "可行性方案扣分原因", "总体设计评分",
+            "总体设计扣分原因", "详细设计评分", "详细设计扣分原因", "备注"
+    };
+
     /**
      * 显示项目列表页.
      */
@@ -83,10 +108,15 @@ public class ArchitecturalProjectController {
 
     /**
      * 保存新增或维护后的项目信息.
+     * 维护期间项目已被他人修改时不保存，回到列表页提示重新编辑。
      */
     @PostMapping("/save")
-    public String save(@ModelAttribute("project") ArchitecturalProject project) {
-        projectService.save(project);
+    public String save(@ModelAttribute("project") ArchitecturalProject project, RedirectAttributes redirectAttributes) {
+        try {
+            projectService.save(project);
+        } catch (OptimisticLockingFailureException e) {
+            redirectAttributes.addFlashAttribute("error", "保存失败：该记录在打开编辑页面之后已被他人修改，请重新打开后再编辑。");
+        }
         return "redirect:/arch-projects/";
     }
 
@@ -102,6 +132,7 @@ public class ArchitecturalProjectController {
     // === START: 新增的导出方法 ===
     /**
      * 导出所有架构项目数据为 CSV 文件.
+     * 数据按 id 顺序流式读取并逐行写出，内存占用不随数据量增长。
      * @param response HttpServletResponse 对象，用于直接写入文件流
      */
     @GetMapping("/export")
@@ -110,73 +141,69 @@ public class ArchitecturalProjectController {
         response.setContentType("text/csv; charset=UTF-8");
         response.setCharacterEncoding(StandardCharsets.UTF_8.name());
         response.setHeader("Content-Disposition", "attachment; filename=\"architectural_projects_export.csv\"");
+        // 导出开始时的数据库时间，下游可将其作为第一次增量导出 (/api/delta/...) 的 since
+        response.setHeader("X-Export-Watermark", changeTrackingService.currentWatermark().toString());
 
-        // 2. 获取所有数据
-        List<ArchitecturalProject> projects = projectService.findAll();
+        try (CsvWriter csv = new CsvWriter(response.getOutputStream())) {
+            // 2. 写入 BOM 以兼容 Excel，并写入表头行
+            csv.writeBom().writeRow(EXPORT_HEADERS);
 
-        // 3. 定义 CSV 表头 (与 list.html 页面保持一致)
-        String[] headers = {
-                "项目编号", "需求编号", "需求名称", "是否重点项目", "可行性方案递交人", "可行性方案递交日期",
-                "可行性方案评审通过日期", "总体设计递交人", "总体设计递交日期", "总体设计评审通过日期",
-                "详细设计递交人", "详细设计递交日期", "可行性方案评分", "可行性方案扣分原因", "总体设计评分",
-                "总体设计扣分原因", "详细设计评分", "详细设计扣分原因", "备注"
-        };
-
-        try (PrintWriter writer = response.getWriter()) {
-            // 写入 BOM 以兼容 Excel
-            writer.write('\ufeff');
-            // 写入表头行
-            writer.println(String.join(",", headers));
-
-            // 4. 遍历数据并写入每一行
-            for (ArchitecturalProject proj : projects) {
-                String[] data = {
-                        escapeCsv(proj.getProjectNumber()),
-                        escapeCsv(proj.getReqId()),
-                        escapeCsv(proj.getReqName()),
-                        escapeCsv(proj.getKeyProject()),
-                        escapeCsv(proj.getFeasibilitySubmitter()),
-                        escapeCsv(proj.getFeasibilitySubmitDate()),
-                        escapeCsv(proj.getFeasibilityReviewPassDate()),
-                        escapeCsv(proj.getGeneralDesignSubmitter()),
-                        escapeCsv(proj.getGeneralDesignSubmitDate()),
-                        escapeCsv(proj.getGeneralDesignReviewPassDate()),
-                        escapeCsv(proj.getDetailedDesignSubmitter()),
-                        escapeCsv(proj.getDetailedDesignSubmitDate()),
-                        escapeCsv(proj.getFeasibilityScore()),
-                        escapeCsv(proj.getFeasibilityDeductionReason()),
-                        escapeCsv(proj.getGeneralDesignScore()),
-                        escapeCsv(proj.getGeneralDesignDeductionReason()),
-                        escapeCsv(proj.getDetailedDesignScore()),
-                        escapeCsv(proj.getDetailedDesignDeductionReason()),
-                        escapeCsv(proj.getRemarks())
-                };
-                writer.println(String.join(",", data));
-            }
+            // 3. 流式读取数据并写入每一行
+            projectService.streamForExport(proj -> writeExportRow(csv, proj));
         }
     }
 
     /**
-     * 处理 CSV 中的特殊字符.
+     * 导出所有架构项目数据为 XLSX 文件.
+     * 列与 CSV 导出完全相同；日期、评分写为 Excel 的日期、数值单元格，内存中只保留一个固定大小的行窗口。
      */
-    private String escapeCsv(Object value) {
-        if (value == null) {
-            return "";
-        }
-        String stringValue = value.toString();
-        if (value instanceof Boolean) {
-            return (Boolean) value ? "是" : "否";
+    @GetMapping("/export/xlsx")
+    public void exportToXlsx(HttpServletResponse response) throws IOException {
+        response.setContentType(XLSX_CONTENT_TYPE);
+        response.setHeader("Content-Disposition", "attachment; filename=\"architectural_projects_export.xlsx\"");
+
+        try (XlsxWriter xlsx = new XlsxWriter(response.getOutputStream(), "架构项目")) {
+            xlsx.writeRow(EXPORT_HEADERS);
+            projectService.streamForExport(proj -> writeExportRow(xlsx, proj));
+            xlsx.finish();
         }
-        if (stringValue.contains(",") || stringValue.contains("\"") || stringValue.contains("\n")) {
-            return "\"" + stringValue.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * 将一个项目写为一行 (列顺序与 EXPORT_HEADERS 一致)，CSV 与 XLSX 导出共用。
+     */
+    private void writeExportRow(ExportRowWriter writer, ArchitecturalProject proj) {
+        try {
+            writer.field(proj.getProjectNumber())
+                    .field(proj.getReqId())
+                    .field(proj.getReqName())
+                    .field(proj.getKeyProject())
+                    .field(proj.getFeasibilitySubmitter())
+                    .field(proj.getFeasibilitySubmitDate())
+                    .field(proj.getFeasibilityReviewPassDate())
+                    .field(proj.getGeneralDesignSubmitter())
+                    .field(proj.getGeneralDesignSubmitDate())
+                    .field(proj.getGeneralDesignReviewPassDate())
+                    .field(proj.getDetailedDesignSubmitter())
+                    .field(proj.getDetailedDesignSubmitDate())
+                    .field(proj.getFeasibilityScore())
+                    .field(proj.getFeasibilityDeductionReason())
+                    .field(proj.getGeneralDesignScore())
+                    .field(proj.getGeneralDesignDeductionReason())
+                    .field(proj.getDetailedDesignScore())
+                    .field(proj.getDetailedDesignDeductionReason())
+                    .field(proj.getRemarks())
+                    .endRow();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return stringValue;
     }
     // === END: 新增的导出方法 ===
 
     // === START: 新增批量导入的处理方法 ===
     /**
      * 处理 CSV 文件的上传和导入请求。
+     * 导入在后台线程池中执行，这里只负责提交任务并把任务 ID 带回列表页。
      */
     @PostMapping("/import")
     public String uploadFile(@RequestParam("file") MultipartFile file, RedirectAttributes redirectAttributes) {
@@ -186,8 +213,11 @@ public class ArchitecturalProjectController {
         }
 
         try {
-            String message = projectService.importFromCsv(file);
-            redirectAttributes.addFlashAttribute("success", message);
+            // 提交后台导入任务，立即返回；页面根据任务 ID 轮询进度
+            String jobId = importJobService.submit("arch-projects", file, projectService::importFromCsv);
+            redirectAttributes.addFlashAttribute("importJobId", jobId);
+        } catch (TaskRejectedException e) {
+            redirectAttributes.addFlashAttribute("error", "当前导入任务较多，请稍后再试！");
         } catch (Exception e) {
             e.printStackTrace();
             redirectAttributes.addFlashAttribute("error", "文件导入失败: " + e.getMessage());
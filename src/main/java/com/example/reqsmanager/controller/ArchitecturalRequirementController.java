@@ -1,6 +1,8 @@
 package com.example.reqsmanager.controller;
 
 import com.example.reqsmanager.dto.ArchitecturalRequirementDTO;
+import com.example.reqsmanager.dto.KeysetPage;
+import com.example.reqsmanager.dto.RequirementArchitectureRowDTO;
 import com.example.reqsmanager.dto.ReviewInfoDTO;
 import com.example.reqsmanager.entity.ArchitecturalRequirement;
 import com.example.reqsmanager.entity.Requirement;
@@ -9,9 +11,8 @@ import com.example.reqsmanager.service.ArchitecturalRequirementService;
 import com.example.reqsmanager.service.RequirementService;
 import com.example.reqsmanager.service.ReviewInfoService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -42,19 +43,20 @@ public class ArchitecturalRequirementController {
                        @RequestParam(required = false) Boolean isImportantRequirement,
                        @RequestParam(required = false) Boolean isSummaryDesignSubmitted,
                        // === END ===
-                       @RequestParam(defaultValue = "0") int page,
-                       @RequestParam(defaultValue = "10") int size) {
+                       @RequestParam(required = false) String cursor,
+                       @RequestParam(defaultValue = "10") int size,
+                       @RequestParam(defaultValue = "false") boolean count) {
 
-        // 1. 根据传入的 page 和 size 参数，手动创建 Pageable 对象
-        Pageable pageable = PageRequest.of(page, size);
-
-        // 2. 将 pageable 对象传递给 Service 层
+        // 1. 按游标进行键集分页查询 (cursor 为空表示第一页)
         // === START: 核心修正：为新增的筛选参数传递 null ===
-        Page<Requirement> requirementPage = requirementService.findRequirements(reqId, reqName, null, null, null, isImportantRequirement, isSummaryDesignSubmitted, null, pageable);
+        KeysetPage<RequirementArchitectureRowDTO> requirementPage = requirementService.findArchitectureRowsByKeyset(
+                reqId, reqName, null, null, null, isImportantRequirement, isSummaryDesignSubmitted, null, cursor, size);
         // === END ===
 
-        // 3. 将返回的 Page 对象和 size 一并传给前端
+        // 2. 将分页结果、游标和 size 一并传给前端
         model.addAttribute("page", requirementPage);
+        model.addAttribute("cursor", cursor);
+        model.addAttribute("showCount", count);
         model.addAttribute("reqId", reqId);
         model.addAttribute("size", size); // 确保 size 被传递，以便翻页链接能保持每页条数
         // === START: 将新参数回传给前端 ===
@@ -97,6 +99,7 @@ public class ArchitecturalRequirementController {
         dto.setName(req.getName());
 
         dto.setId(archReq.getId());
+        dto.setVersion(archReq.getVersion());
         dto.setImportantRequirement(archReq.getImportantRequirement());
         dto.setSummaryDesignSubmitted(archReq.getSummaryDesignSubmitted());
         dto.setSummaryDesignSubmitter(archReq.getSummaryDesignSubmitter());
@@ -110,25 +113,26 @@ public class ArchitecturalRequirementController {
 
         ReviewInfo reviewInfo = archReq.getReviewInfo();
         dto.setReviewInfoId(reviewInfo.getId());
-        dto.setReviewCheck1(reviewInfo.getReviewCheck1());
-        dto.setReviewCheck2(reviewInfo.getReviewCheck2());
-        dto.setReviewCheck3(reviewInfo.getReviewCheck3());
-        dto.setReviewCheck4(reviewInfo.getReviewCheck4());
-        dto.setReviewCheck5(reviewInfo.getReviewCheck5());
-        dto.setReviewCheck6(reviewInfo.getReviewCheck6());
-        dto.setReviewCheck7(reviewInfo.getReviewCheck7());
-        dto.setReviewCheck8(reviewInfo.getReviewCheck8());
-        dto.setReviewCheck9(reviewInfo.getReviewCheck9());
+        dto.setReviewInfoVersion(reviewInfo.getVersion());
+        dto.setReviewCheck1(ReviewInfo.isChecked(reviewInfo.getReviewChecks(), 1));
+        dto.setReviewCheck2(ReviewInfo.isChecked(reviewInfo.getReviewChecks(), 2));
+        dto.setReviewCheck3(ReviewInfo.isChecked(reviewInfo.getReviewChecks(), 3));
+        dto.setReviewCheck4(ReviewInfo.isChecked(reviewInfo.getReviewChecks(), 4));
+        dto.setReviewCheck5(ReviewInfo.isChecked(reviewInfo.getReviewChecks(), 5));
+        dto.setReviewCheck6(ReviewInfo.isChecked(reviewInfo.getReviewChecks(), 6));
+        dto.setReviewCheck7(ReviewInfo.isChecked(reviewInfo.getReviewChecks(), 7));
+        dto.setReviewCheck8(ReviewInfo.isChecked(reviewInfo.getReviewChecks(), 8));
+        dto.setReviewCheck9(ReviewInfo.isChecked(reviewInfo.getReviewChecks(), 9));
         dto.setReviewLevel(reviewInfo.getReviewLevel());
-        dto.setAuditCheck1(reviewInfo.getAuditCheck1());
-        dto.setAuditCheck2(reviewInfo.getAuditCheck2());
-        dto.setAuditCheck3(reviewInfo.getAuditCheck3());
-        dto.setAuditCheck4(reviewInfo.getAuditCheck4());
-        dto.setAuditCheck5(reviewInfo.getAuditCheck5());
-        dto.setAuditCheck6(reviewInfo.getAuditCheck6());
-        dto.setAuditCheck7(reviewInfo.getAuditCheck7());
-        dto.setAuditCheck8(reviewInfo.getAuditCheck8());
-        dto.setAuditCheck9(reviewInfo.getAuditCheck9());
+        dto.setAuditCheck1(ReviewInfo.isChecked(reviewInfo.getAuditChecks(), 1));
+        dto.setAuditCheck2(ReviewInfo.isChecked(reviewInfo.getAuditChecks(), 2));
+        dto.setAuditCheck3(ReviewInfo.isChecked(reviewInfo.getAuditChecks(), 3));
+        dto.setAuditCheck4(ReviewInfo.isChecked(reviewInfo.getAuditChecks(), 4));
+        dto.setAuditCheck5(ReviewInfo.isChecked(reviewInfo.getAuditChecks(), 5));
+        dto.setAuditCheck6(ReviewInfo.isChecked(reviewInfo.getAuditChecks(), 6));
+        dto.setAuditCheck7(ReviewInfo.isChecked(reviewInfo.getAuditChecks(), 7));
+        dto.setAuditCheck8(ReviewInfo.isChecked(reviewInfo.getAuditChecks(), 8));
+        dto.setAuditCheck9(ReviewInfo.isChecked(reviewInfo.getAuditChecks(), 9));
         dto.setAuditLevel(reviewInfo.getAuditLevel());
 
         model.addAttribute("dto", dto);
@@ -137,9 +141,16 @@ public class ArchitecturalRequirementController {
         return "architectural/form";
     }
 
+    /**
+     * 编辑期间架构需求或评审信息已被他人修改时不保存，回到列表页提示重新编辑。
+     */
     @PostMapping("/save")
-    public String save(@ModelAttribute("dto") ArchitecturalRequirementDTO dto) {
-        architecturalRequirementService.saveFromDto(dto);
+    public String save(@ModelAttribute("dto") ArchitecturalRequirementDTO dto, RedirectAttributes redirectAttributes) {
+        try {
+            architecturalRequirementService.saveFromDto(dto);
+        } catch (OptimisticLockingFailureException e) {
+            redirectAttributes.addFlashAttribute("error", "保存失败：该记录在打开编辑页面之后已被他人修改，请重新打开后再编辑。");
+        }
         return "redirect:/architectural/";
     }
 
@@ -1,16 +1,23 @@
 package com.example.reqsmanager.controller;
 
+import com.example.reqsmanager.csv.CsvWriter;
+import com.example.reqsmanager.dto.KeysetPage;
 import com.example.reqsmanager.dto.RequirementExportDTO;
+import com.example.reqsmanager.export.ExportRowWriter;
+import com.example.reqsmanager.export.XlsxWriter;
 import com.example.reqsmanager.dto.RequirementGeneralDTO;
+import com.example.reqsmanager.dto.RequirementGeneralRowDTO;
 import com.example.reqsmanager.entity.Requirement;
+import com.example.reqsmanager.service.ChangeTrackingService;
+import com.example.reqsmanager.service.ImportJobService;
 import com.example.reqsmanager.service.RequirementService;
 
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -20,6 +27,7 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -33,6 +41,31 @@ public class RequirementController {
     @Autowired
     private RequirementService requirementService;
 
+    @Autowired
+    private ImportJobService importJobService;
+
+    @Autowired
+    private ChangeTrackingService changeTrackingService;
+
+    /**
+     * 流式导出时，每写出多少行刷新一次响应缓冲。
+     */
+    private static final int EXPORT_FLUSH_ROWS = 500;
+
+    private static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    /**
+     * 导出文件的表头 (CSV 与 XLSX 相同)。
+     */
+    // === START: 1. 在表头数组中添加“需求类型” ===
+    private static final String[] EXPORT_HEADERS = {
+            "需求编号", "需求名称", "业务负责人", "科技负责人", "牵头部室", "所属小组", "需求类型", // 已添加
+            "业务条线", "开发负责人", "需求排期", "需求状态", "是否重要需求", "是否递交概要设计",
+            "概要设计递交人", "概要设计递交日期", "概要设计评审通过日期", "是否涉及架构决策", "是否涉及基础架构",
+            "是否涉及高阶汇报", "概要设计评分", "概要设计扣分原因"
+    };
+    // === END ===
+
     /**
      * 显示“需求管理”模块的主列表页.
      */
@@ -49,16 +82,22 @@ public class RequirementController {
                        // === START: 新增筛选参数 ===
                        @RequestParam(required = false) String status,
                        // === END ===
-                       @RequestParam(defaultValue = "0") int page,
-                       @RequestParam(defaultValue = "10") int size) {
-
-        Pageable pageable = PageRequest.of(page, size);
-
-        // === START: 将新参数传递给 Service ===
-        Page<Requirement> requirementPage = requirementService.findRequirements(reqId, reqName, techLeader, startDate, endDate, null, null, status, pageable);
+                       // 是否筛选 (页面上没有对应的输入框，从其它页面带过来时保留，导出和翻页沿用)
+                       @RequestParam(required = false) Boolean isImportantRequirement,
+                       @RequestParam(required = false) Boolean isSummaryDesignSubmitted,
+                       @RequestParam(required = false) String cursor,
+                       @RequestParam(defaultValue = "10") int size,
+                       @RequestParam(defaultValue = "false") boolean count) {
+
+        // === START: 将新参数传递给 Service (键集分页，按排期 + ID 稳定排序) ===
+        KeysetPage<RequirementGeneralRowDTO> requirementPage = requirementService.findGeneralRowsByKeyset(
+                reqId, reqName, techLeader, startDate, endDate, isImportantRequirement, isSummaryDesignSubmitted,
+                status, cursor, size);
         // === END ===
 
         model.addAttribute("page", requirementPage);
+        model.addAttribute("cursor", cursor);
+        model.addAttribute("showCount", count);
         model.addAttribute("reqId", reqId);
         model.addAttribute("size", size);
         // === START: 将新参数回传给前端，以便筛选表单和分页链接保持状态 ===
@@ -69,6 +108,8 @@ public class RequirementController {
         model.addAttribute("endDate", endDate);
         // === END ===
         model.addAttribute("status", status);
+        model.addAttribute("isImportantRequirement", isImportantRequirement);
+        model.addAttribute("isSummaryDesignSubmitted", isSummaryDesignSubmitted);
         model.addAttribute("view", "requirements/list");
         return "layout";
     }
@@ -96,6 +137,7 @@ public class RequirementController {
         // 将实体(Entity)转换为 DTO
         RequirementGeneralDTO dto = new RequirementGeneralDTO();
         dto.setId(req.getId());
+        dto.setVersion(req.getVersion());
         dto.setReqId(req.getReqId());
         dto.setName(req.getName());
         dto.setBusinessLeader(req.getBusinessLeader());
@@ -119,13 +161,18 @@ public class RequirementController {
 
     /**
      * 保存新增或编辑后的需求信息.
+     * 编辑期间需求已被他人修改时不保存，回到列表页提示重新编辑。
      */
     @PostMapping("/save")
-    public String save(@ModelAttribute("dto") RequirementGeneralDTO dto) {
+    public String save(@ModelAttribute("dto") RequirementGeneralDTO dto, RedirectAttributes redirectAttributes) {
         if (dto.getId() == null) {
             requirementService.createNewRequirement(dto);
         } else {
-            requirementService.saveGeneralInfo(dto);
+            try {
+                requirementService.saveGeneralInfo(dto);
+            } catch (OptimisticLockingFailureException e) {
+                redirectAttributes.addFlashAttribute("error", "保存失败：该记录在打开编辑页面之后已被他人修改，请重新打开后再编辑。");
+            }
         }
         return "redirect:/requirements/";
     }
@@ -140,89 +187,118 @@ public class RequirementController {
     }
 
     // === START: 彻底重构导出方法 ===
+    /**
+     * 流式导出需求数据为 CSV 文件。
+     * 支持与列表页相同的筛选条件；数据边查询边写出，并按块刷新到客户端，内存占用不随数据量增长。
+     */
     @GetMapping("/export")
-    public void exportToCsv(HttpServletResponse response) throws IOException {
+    public void exportToCsv(HttpServletResponse response,
+                            @RequestParam(required = false) String reqId,
+                            @RequestParam(required = false) String reqName,
+                            @RequestParam(required = false) String techLeader,
+                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                            @RequestParam(required = false) Boolean isImportantRequirement,
+                            @RequestParam(required = false) Boolean isSummaryDesignSubmitted,
+                            @RequestParam(required = false) String status) throws IOException {
         // 1. 设置 HTTP 响应头
         response.setContentType("text/csv; charset=UTF-8");
         response.setCharacterEncoding(StandardCharsets.UTF_8.name());
         response.setHeader("Content-Disposition", "attachment; filename=\"requirements_full_export.csv\"");
-
-        // 2. 获取用于导出的“扁平化”数据列表
-        List<RequirementExportDTO> exportData = requirementService.findAllForExport();
-
-        // 3. 动态生成表头 (通过反射)
-        // === START: 1. 在表头数组中添加“需求类型” ===
-        String[] headers = {
-                "需求编号", "需求名称", "业务负责人", "科技负责人", "牵头部室", "所属小组", "需求类型", // 已添加
-                "业务条线", "开发负责人", "需求排期", "需求状态", "是否重要需求", "是否递交概要设计",
-                "概要设计递交人", "概要设计递交日期", "概要设计评审通过日期", "是否涉及架构决策", "是否涉及基础架构",
-                "是否涉及高阶汇报", "概要设计评分", "概要设计扣分原因"
-        };
-        // === END ===
-
-        try (PrintWriter writer = response.getWriter()) {
-            // 写入 BOM 以兼容 Excel
-            writer.write('\ufeff');
-            // 写入表头行
-            writer.println(String.join(",", headers));
-
-            // 4. 遍历数据并写入每一行
-            for (RequirementExportDTO dto : exportData) {
-                String[] data = {
-                        escapeCsv(dto.getReqId()),
-                        escapeCsv(dto.getName()),
-                        escapeCsv(dto.getBusinessLeader()),
-                        escapeCsv(dto.getTechLeader()),
-                        escapeCsv(dto.getLeadDepartment()), // 新增
-                        escapeCsv(dto.getGroupName()),      // 新增
-                        escapeCsv(dto.getReqType()), // 已添加
-                        escapeCsv(dto.getBusinessLine()),
-                        escapeCsv(dto.getDevLeader()),
-                        escapeCsv(dto.getScheduleDate()),
-                        escapeCsv(dto.getStatus()), // 新增
-                        escapeCsv(dto.getIsImportantRequirement()),
-                        escapeCsv(dto.getIsSummaryDesignSubmitted()),
-                        escapeCsv(dto.getSummaryDesignSubmitter()),
-                        escapeCsv(dto.getSummaryDesignSubmitDate()),
-                        escapeCsv(dto.getSummaryDesignReviewPassDate()),
-//                        escapeCsv(dto.getIsDetailedDesignSubmitted()),
-//                        escapeCsv(dto.getDetailedDesignSubmitter()),
-//                        escapeCsv(dto.getDetailedDesignSubmitDate()),
-                        escapeCsv(dto.getInvolvesArchDecision()),
-                        escapeCsv(dto.getInvolvesInfra()),
-                        escapeCsv(dto.getInvolvesSeniorReport()),
-                        escapeCsv(dto.getSummaryDesignScore()),
-                        escapeCsv(dto.getSummaryDesignDeductionReason()),
-//                        escapeCsv(dto.getDetailedDesignScore()),
-//                        escapeCsv(dto.getDetailedDesignDeductionReason())
-                };
-                writer.println(String.join(",", data));
-            }
+        // 导出开始时的数据库时间，下游可将其作为第一次增量导出 (/api/delta/...) 的 since
+        response.setHeader("X-Export-Watermark", changeTrackingService.currentWatermark().toString());
+
+        try (CsvWriter csv = new CsvWriter(response.getOutputStream())) {
+            // 2. 写入 BOM 以兼容 Excel，并写入表头行
+            csv.writeBom().writeRow(EXPORT_HEADERS);
+
+            // 3. 流式读取数据并逐行写入，每 EXPORT_FLUSH_ROWS 行刷新一次输出缓冲
+            long[] rowCount = {0};
+            requirementService.streamForExport(reqId, reqName, techLeader, startDate, endDate,
+                    isImportantRequirement, isSummaryDesignSubmitted, status, dto -> {
+                try {
+                    writeExportRow(csv, dto);
+                    if (++rowCount[0] % EXPORT_FLUSH_ROWS == 0) {
+                        csv.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
         }
     }
 
-    // escapeCsv 方法保持不变
-    private String escapeCsv(Object value) {
-        if (value == null) {
-            return "";
-        }
-        String stringValue = value.toString();
-        if (value instanceof Boolean) {
-            return (Boolean) value ? "是" : "否";
-        }
-        if (stringValue.contains(",") || stringValue.contains("\"") || stringValue.contains("\n")) {
-            return "\"" + stringValue.replace("\"", "\"\"") + "\"";
+    /**
+     * 流式导出需求数据为 XLSX 文件。
+     * 筛选条件和列与 CSV 导出完全相同；日期、评分写为 Excel 的日期、数值单元格。
+     * 内存中只保留一个固定大小的行窗口，其余行暂存在压缩的临时文件中，全部写完后再输出到客户端。
+     */
+    @GetMapping("/export/xlsx")
+    public void exportToXlsx(HttpServletResponse response,
+                             @RequestParam(required = false) String reqId,
+                             @RequestParam(required = false) String reqName,
+                             @RequestParam(required = false) String techLeader,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                             @RequestParam(required = false) Boolean isImportantRequirement,
+                             @RequestParam(required = false) Boolean isSummaryDesignSubmitted,
+                             @RequestParam(required = false) String status) throws IOException {
+        response.setContentType(XLSX_CONTENT_TYPE);
+        response.setHeader("Content-Disposition", "attachment; filename=\"requirements_full_export.xlsx\"");
+
+        try (XlsxWriter xlsx = new XlsxWriter(response.getOutputStream(), "需求列表")) {
+            xlsx.writeRow(EXPORT_HEADERS);
+            requirementService.streamForExport(reqId, reqName, techLeader, startDate, endDate,
+                    isImportantRequirement, isSummaryDesignSubmitted, status, dto -> {
+                try {
+                    writeExportRow(xlsx, dto);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            xlsx.finish();
         }
-        return stringValue;
+    }
+
+    /**
+     * 将一条导出数据写为一行 (列顺序与 EXPORT_HEADERS 一致)，CSV 与 XLSX 导出共用。
+     */
+    private void writeExportRow(ExportRowWriter writer, RequirementExportDTO dto) throws IOException {
+        writer.field(dto.getReqId())
+                .field(dto.getName())
+                .field(dto.getBusinessLeader())
+                .field(dto.getTechLeader())
+                .field(dto.getLeadDepartment())
+                .field(dto.getGroupName())
+                .field(dto.getReqType())
+                .field(dto.getBusinessLine())
+                .field(dto.getDevLeader())
+                .field(dto.getScheduleDate())
+                .field(dto.getStatus())
+                .field(dto.getIsImportantRequirement())
+                .field(dto.getIsSummaryDesignSubmitted())
+                .field(dto.getSummaryDesignSubmitter())
+                .field(dto.getSummaryDesignSubmitDate())
+                .field(dto.getSummaryDesignReviewPassDate())
+                .field(dto.getInvolvesArchDecision())
+                .field(dto.getInvolvesInfra())
+                .field(dto.getInvolvesSeniorReport())
+                .field(dto.getSummaryDesignScore())
+                .field(dto.getSummaryDesignDeductionReason())
+                .endRow();
     }
     // === END: 彻底重构导出方法 ===
 
     // === START: 新增文件上传处理方法 ===
     /**
      * 处理 CSV 文件的上传和导入请求。
+     * 导入在后台线程池中执行，这里只负责提交任务并把任务 ID 带回列表页。
+     * @param dryRun 为 true 时只预演导入结果，不写入数据库
      */
     @PostMapping("/import")
-    public String uploadFile(@RequestParam("file") MultipartFile file, RedirectAttributes redirectAttributes) {
+    public String uploadFile(@RequestParam("file") MultipartFile file,
+                             @RequestParam(defaultValue = "false") boolean dryRun,
+                             RedirectAttributes redirectAttributes) {
         // 检查文件是否为空
         if (file.isEmpty()) {
             redirectAttributes.addFlashAttribute("error", "请选择一个 CSV 文件上传！");
@@ -230,9 +306,13 @@ public class RequirementController {
         }
 
         try {
-            // 调用 Service 层处理文件
-            String message = requirementService.importFromCsv(file);
-            redirectAttributes.addFlashAttribute("success", message);
+            // 提交后台导入任务，立即返回；页面根据任务 ID 轮询进度
+            // dryRun = true 时只预演，统计将会新增/更新的记录数，不写入数据库
+            String jobId = importJobService.submit("requirements", file,
+                    (inputStream, job) -> requirementService.importFromCsv(inputStream, job, dryRun));
+            redirectAttributes.addFlashAttribute("importJobId", jobId);
+        } catch (TaskRejectedException e) {
+            redirectAttributes.addFlashAttribute("error", "当前导入任务较多，请稍后再试！");
         } catch (Exception e) {
             e.printStackTrace();
             redirectAttributes.addFlashAttribute("error", "文件导入失败: " + e.getMessage());
@@ -307,8 +387,9 @@ public class RequirementController {
             return ResponseEntity.badRequest().body("{\"status\": \"error\", \"message\": \"未选择任何需求！\"}");
         }
         try {
-            requirementService.deleteByIds(ids);
-            return ResponseEntity.ok("{\"status\": \"success\", \"message\": \"批量删除成功！\"}");
+            int deleted = requirementService.deleteByIds(ids);
+            return ResponseEntity.ok("{\"status\": \"success\", \"message\": \"批量删除成功！共删除 " + deleted
+                    + " 条需求。\", \"deleted\": " + deleted + "}");
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("{\"status\": \"error\", \"message\": \"删除失败: " + e.getMessage() + "\"}");
         }
@@ -317,18 +398,24 @@ public class RequirementController {
 
     // === START: 新增“一键更新”的处理方法 ===
     /**
-     * 处理“一键更新”的请求。
-     * @return 返回一个表示操作结果的 JSON 响应
+     * 处理“一键更新”的请求：提交后台任务后立即返回任务 ID，
+     * 前端通过 /api/import-jobs/{jobId} 轮询进度和最终结果。
+     * @return 返回一个表示提交结果的 JSON 响应
      */
     @PostMapping("/batch-update")
     @ResponseBody
     public ResponseEntity<Map<String, String>> batchUpdate() {
         Map<String, String> response = new HashMap<>();
         try {
-            String message = requirementService.batchUpdateFromTechLeader();
+            String jobId = importJobService.submit("tech-leader-sync", requirementService::batchUpdateFromTechLeader);
             response.put("status", "success");
-            response.put("message", message);
+            response.put("message", "一键更新已开始。");
+            response.put("jobId", jobId);
             return ResponseEntity.ok(response);
+        } catch (TaskRejectedException e) {
+            response.put("status", "error");
+            response.put("message", "当前后台任务较多，请稍后再试！");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
         } catch (Exception e) {
             response.put("status", "error");
             response.put("message", "更新失败: " + e.getMessage());
@@ -0,0 +1,83 @@
+package com.example.reqsmanager.controller.api;
+
+import com.example.reqsmanager.analytics.RequirementDimension;
+import com.example.reqsmanager.service.AnalyticsSnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 需求交叉统计接口，数据来自内存列式快照，不访问数据库。
+ */
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsApiController {
+
+    @Autowired
+    private AnalyticsSnapshotService analyticsSnapshotService;
+
+    /**
+     * 按任意维度组合统计需求数、概要设计已递交数和概要设计平均分。
+     * 可用维度：groupName、status、reqType、leadDepartment、scheduleMonth (yyyy-MM)。
+     * 例：/api/analytics/cube?groupBy=groupName,scheduleMonth&amp;status=进行中&amp;reqType=A&amp;reqType=B
+     * @param groupBy 逗号分隔的分组维度，为空时只返回合计
+     * @param params  以维度名为参数名的筛选条件，同一维度可出现多次 (取值之间为“或”)，空字符串表示空值
+     */
+    @GetMapping("/cube")
+    public ResponseEntity<?> cube(@RequestParam(required = false) String groupBy,
+                                  @RequestParam MultiValueMap<String, String> params) {
+        List<RequirementDimension> dimensions = new ArrayList<>();
+        if (groupBy != null && !groupBy.isBlank()) {
+            for (String name : groupBy.split(",")) {
+                RequirementDimension dimension = RequirementDimension.fromParamName(name.trim());
+                if (dimension == null) {
+                    return ResponseEntity.badRequest().body(error("未知的分组维度: " + name.trim()));
+                }
+                if (dimensions.contains(dimension)) {
+                    return ResponseEntity.badRequest().body(error("分组维度重复: " + name.trim()));
+                }
+                dimensions.add(dimension);
+            }
+        }
+        Map<RequirementDimension, Collection<String>> filters = new EnumMap<>(RequirementDimension.class);
+        params.forEach((name, values) -> {
+            RequirementDimension dimension = RequirementDimension.fromParamName(name);
+            if (dimension != null) {
+                filters.put(dimension, values);
+            }
+        });
+        try {
+            return ResponseEntity.ok(analyticsSnapshotService.cube(dimensions, filters));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(error(e.getMessage()));
+        }
+    }
+
+    /**
+     * 从数据库全量重新加载快照 (同步执行，加载期间查询仍使用旧快照)。
+     * @return 表示操作结果的 JSON 响应
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, String>> rebuild() {
+        int rows = analyticsSnapshotService.rebuild();
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("message", "分析快照已重新加载，共 " + rows + " 条需求。");
+        return ResponseEntity.ok(response);
+    }
+
+    private static Map<String, String> error(String message) {
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", message);
+        return response;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.reqsmanager.controller.api;
+
+import com.example.reqsmanager.dto.DeltaExportDTO;
+import com.example.reqsmanager.dto.RequirementExportDTO;
+import com.example.reqsmanager.entity.ArchitecturalProject;
+import com.example.reqsmanager.service.ArchitecturalProjectService;
+import com.example.reqsmanager.service.RequirementService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 增量导出接口，供 BI 等下游系统定时同步。
+ * 首次同步使用全量导出 (/requirements/export、/arch-projects/export)，
+ * 并以其响应头 X-Export-Watermark 作为第一次增量请求的 since；
+ * 之后每次使用上一次增量结果中的 watermark。
+ */
+@RestController
+@RequestMapping("/api/delta")
+public class DeltaExportApiController {
+
+    @Autowired
+    private RequirementService requirementService;
+
+    @Autowired
+    private ArchitecturalProjectService projectService;
+
+    /**
+     * 自 since 以来变化的需求 (列与需求 CSV 导出相同) 及被删除需求的删除记录。
+     * @param since 水位线，ISO 格式，如 2025-06-01T08:00:00.000
+     */
+    @GetMapping("/requirements")
+    public DeltaExportDTO<RequirementExportDTO> requirementChanges(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return requirementService.findChangesSince(since);
+    }
+
+    /**
+     * 自 since 以来变化的架构项目及被删除项目的删除记录。
+     * @param since 水位线，ISO 格式，如 2025-06-01T08:00:00.000
+     */
+    @GetMapping("/arch-projects")
+    public DeltaExportDTO<ArchitecturalProject> projectChanges(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return projectService.findChangesSince(since);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.reqsmanager.controller.api;
+
+import com.example.reqsmanager.service.DesignTrendService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 每日设计趋势 (概要设计递交、评审通过、投产) 的时间序列接口，数据来自按日汇总表。
+ */
+@RestController
+@RequestMapping("/api/design-trend")
+public class DesignTrendApiController {
+
+    @Autowired
+    private DesignTrendService designTrendService;
+
+    /**
+     * 区间内每一天的三条时间序列 (DesignCountPerDay 列表)，无数据的日期计数为 0。
+     * @param from  开始日期 (含)，如 2025-01-01
+     * @param to    结束日期 (含)，区间最长 3660 天
+     * @param group 只统计该小组，为空时统计全部小组
+     */
+    @GetMapping
+    public ResponseEntity<?> trend(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                   @RequestParam(required = false) String group) {
+        try {
+            return ResponseEntity.ok(designTrendService.getTrend(from, to, group));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(error(e.getMessage()));
+        }
+    }
+
+    /**
+     * 从源表重算指定区间 (不指定时为全部数据) 的每日计数。同步执行，按月分段提交。
+     * @return 表示操作结果的 JSON 响应
+     */
+    @PostMapping("/backfill")
+    public ResponseEntity<Map<String, String>> backfill(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from == null && to == null) {
+            designTrendService.backfillAll();
+        } else if (from == null || to == null || to.isBefore(from)) {
+            return ResponseEntity.badRequest().body(error("请同时指定有效的开始日期和结束日期，或都不指定以回填全部数据。"));
+        } else {
+            designTrendService.backfill(from, to);
+        }
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("message", "每日设计统计回填完成。");
+        return ResponseEntity.ok(response);
+    }
+
+    private static Map<String, String> error(String message) {
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", message);
+        return response;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.reqsmanager.controller.api;
+
+import com.example.reqsmanager.service.ImportJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/import-jobs")
+public class ImportJobApiController {
+
+    @Autowired
+    private ImportJobService importJobService;
+
+    /**
+     * 查询后台导入任务的进度。
+     * 任务结束后，第一次查询会返回最终结果，之后该任务即被释放。
+     * @param jobId 任务 ID
+     * @return 进度信息 JSON，或 404
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getProgress(@PathVariable String jobId) {
+        return importJobService.getProgress(jobId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 请求取消后台导入任务，任务会在下一个分块边界处停止。
+     * @param jobId 任务 ID
+     * @return 表示操作结果的 JSON 响应
+     */
+    @PostMapping("/{jobId}/cancel")
+    public ResponseEntity<Map<String, String>> cancel(@PathVariable String jobId) {
+        Map<String, String> response = new HashMap<>();
+        if (importJobService.cancel(jobId)) {
+            response.put("status", "success");
+            response.put("message", "已请求取消，任务将在当前批次处理完成后停止。");
+            return ResponseEntity.ok(response);
+        }
+        response.put("status", "error");
+        response.put("message", "任务不存在或已结束。");
+        return ResponseEntity.badRequest().body(response);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.reqsmanager.controller.api;
+
+import com.example.reqsmanager.service.ReviewInfoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 评审信息与架构检核勾选项的一致性查询与批量重算。
+ */
+@RestController
+@RequestMapping("/api/review-checks")
+public class ReviewCheckApiController {
+
+    @Autowired
+    private ReviewInfoService reviewInfoService;
+
+    /**
+     * 架构检核与评审信息在任一指定勾选项上不一致的需求 ID。
+     * @param check 勾选项序号 (1-9)，可重复指定多个，如 ?check=4&check=6
+     */
+    @GetMapping("/mismatches")
+    public ResponseEntity<?> mismatches(@RequestParam(name = "check", required = false) List<Integer> check) {
+        try {
+            return ResponseEntity.ok(reviewInfoService.findRequirementIdsWithCheckMismatch(
+                    check == null ? List.of() : check));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(error(e.getMessage()));
+        }
+    }
+
+    /**
+     * 按评审信息重新计算全部架构需求的“评审检核是否一致”。
+     * @return 表示操作结果的 JSON 响应
+     */
+    @PostMapping("/recompute-consistency")
+    public ResponseEntity<Map<String, String>> recomputeConsistency() {
+        int changed = reviewInfoService.recomputeConsistency();
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("message", "评审检核一致性重算完成，" + changed + " 条架构需求的结果有变化。");
+        return ResponseEntity.ok(response);
+    }
+
+    private static Map<String, String> error(String message) {
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", message);
+        return response;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.reqsmanager.controller.api;
+
+import com.example.reqsmanager.dto.SearchHitDTO;
+import com.example.reqsmanager.service.SearchIndexService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 全局搜索接口：一次查询同时检索需求、架构项目和架构决策 (含决策的问题描述、决策理由、影响分析等长文本)。
+ */
+@RestController
+@RequestMapping("/api/search")
+public class SearchApiController {
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    /**
+     * 按相关度排序的分页搜索结果。
+     * @param q    搜索关键词，多个关键词之间为“且”关系
+     * @param type 只搜索某一类 (requirement / project / decision)，为空时搜索全部
+     * @param page 页码，从 0 开始
+     * @param size 每页条数 (最多 100)
+     */
+    @GetMapping
+    public Page<SearchHitDTO> search(@RequestParam String q,
+                                     @RequestParam(required = false) String type,
+                                     @RequestParam(defaultValue = "0") int page,
+                                     @RequestParam(defaultValue = "20") int size) throws IOException {
+        return searchIndexService.search(q, type, page, size);
+    }
+
+    /**
+     * 从数据库全量重建搜索索引 (后台执行，重建完成前仍使用旧索引)。
+     * @return 表示操作结果的 JSON 响应
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, String>> rebuild() {
+        Map<String, String> response = new HashMap<>();
+        if (searchIndexService.rebuild()) {
+            response.put("status", "success");
+            response.put("message", "索引重建已开始，完成前搜索结果仍基于旧索引。");
+            return ResponseEntity.accepted().body(response);
+        }
+        response.put("status", "error");
+        response.put("message", "已有索引重建任务正在执行。");
+        return ResponseEntity.badRequest().body(response);
+    }
+}
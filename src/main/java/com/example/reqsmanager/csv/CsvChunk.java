@@ -0,0 +1,23 @@
+package com.example.reqsmanager.csv;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 并行解析后的一块 CSV 数据。
+ * rows 保持文件中的原始顺序；被行映射器判定为应跳过 (返回 null) 的行只计数，不出现在 rows 中。
+ */
+@Getter
+public class CsvChunk<T> {
+
+    private final long firstLineNumber;
+    private final List<T> rows;
+    private final int skippedRows;
+
+    public CsvChunk(long firstLineNumber, List<T> rows, int skippedRows) {
+        this.firstLineNumber = firstLineNumber;
+        this.rows = rows;
+        this.skippedRows = skippedRows;
+    }
+}
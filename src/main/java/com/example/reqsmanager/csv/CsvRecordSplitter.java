@@ -0,0 +1,136 @@
+package com.example.reqsmanager.csv;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * 按记录边界切分 CSV 文本。
+ * 只做一次轻量的字符扫描 (不拆分字段)，识别引号内的换行，保证切分点一定落在两条记录之间，
+ * 同时统计物理行号，以便解析阶段报告错误所在的原始行。
+ * 引号规则与 CSVFormat.DEFAULT 一致：只有位于字段开头的 '"' 才开启引用，引用内 '""' 表示转义的引号。
+ */
+class CsvRecordSplitter {
+
+    /**
+     * 一段由完整记录组成的原始文本，以及其第一条记录所在的物理行号 (从 1 开始)。
+     */
+    record RawChunk(long firstLineNumber, String text) {
+    }
+
+    private enum State {
+        FIELD_START, UNQUOTED, QUOTED, QUOTE_IN_QUOTED
+    }
+
+    private final Reader reader;
+    private final int recordsPerChunk;
+    private final char[] buffer = new char[64 * 1024];
+    private int bufferLength;
+    private int bufferPosition;
+    private boolean endOfInput;
+
+    private State state = State.FIELD_START;
+    private long linesConsumed;
+
+    CsvRecordSplitter(Reader reader, int recordsPerChunk) {
+        this.reader = reader;
+        this.recordsPerChunk = recordsPerChunk;
+    }
+
+    /**
+     * 跳过第一条记录 (表头)。
+     */
+    void skipRecords(int count) throws IOException {
+        readRecords(count, null);
+    }
+
+    /**
+     * 读取下一块，最多 recordsPerChunk 条记录。
+     *
+     * @return 下一块原始文本；输入已读完时返回 null
+     */
+    RawChunk nextChunk() throws IOException {
+        long firstLineNumber = linesConsumed + 1;
+        StringBuilder text = new StringBuilder();
+        readRecords(recordsPerChunk, text);
+        if (text.length() == 0) {
+            return null;
+        }
+        return new RawChunk(firstLineNumber, text.toString());
+    }
+
+    private void readRecords(int maxRecords, StringBuilder out) throws IOException {
+        int records = 0;
+        while (records < maxRecords) {
+            if (bufferPosition == bufferLength && !fill()) {
+                return;
+            }
+            int start = bufferPosition;
+            while (bufferPosition < bufferLength && records < maxRecords) {
+                if (consume(buffer[bufferPosition++])) {
+                    records++;
+                }
+            }
+            if (out != null) {
+                out.append(buffer, start, bufferPosition - start);
+            }
+        }
+    }
+
+    /**
+     * 推进状态机。
+     *
+     * @return 当前字符是否结束了一条记录
+     */
+    private boolean consume(char c) {
+        if (c == '\n') {
+            linesConsumed++;
+        }
+        switch (state) {
+            case QUOTED:
+                if (c == '"') {
+                    state = State.QUOTE_IN_QUOTED;
+                }
+                return false;
+            case QUOTE_IN_QUOTED:
+                if (c == '"') {
+                    // '""' 是转义的引号，仍在引用内
+                    state = State.QUOTED;
+                    return false;
+                }
+                // 引用结束，按普通字符继续处理
+                state = State.UNQUOTED;
+                return consumeOutsideQuotes(c);
+            case FIELD_START:
+                if (c == '"') {
+                    state = State.QUOTED;
+                    return false;
+                }
+                return consumeOutsideQuotes(c);
+            default:
+                return consumeOutsideQuotes(c);
+        }
+    }
+
+    private boolean consumeOutsideQuotes(char c) {
+        if (c == '\n') {
+            state = State.FIELD_START;
+            return true;
+        }
+        state = c == ',' ? State.FIELD_START : State.UNQUOTED;
+        return false;
+    }
+
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            endOfInput = true;
+            return false;
+        }
+        bufferLength = read;
+        bufferPosition = 0;
+        return true;
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.reqsmanager.csv;
+
+import com.example.reqsmanager.export.ExportRowWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 供所有导出接口共用的流式 CSV 写入器。
+ * - 字段在一次扫描中完成 UTF-8 编码与转义，直接写入输出缓冲区，不产生中间字符串；
+ * - 日期 (yyyy-MM-dd)、整数、布尔值 (是/否) 直接按字节格式化；
+ * - 输出缓冲区取自一个小型缓冲池，关闭写入器时归还，避免每次导出都分配大数组。
+ * 转义规则 (与原 escapeCsv 相同)：字段包含逗号、双引号或换行符 (\n) 时用双引号包裹，内部双引号写成两个双引号。
+ * 非线程安全，每次导出创建一个实例，用完必须 close (close 不会关闭底层输出流)。
+ */
+public class CsvWriter implements ExportRowWriter, Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final BlockingQueue<byte[]> BUFFER_POOL = new ArrayBlockingQueue<>(8);
+
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final byte[] TRUE_TEXT = "是".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FALSE_TEXT = "否".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputStream out;
+    private byte[] buffer;
+    private int position;
+    private boolean rowStarted;
+
+    public CsvWriter(OutputStream out) {
+        this.out = out;
+        byte[] pooled = BUFFER_POOL.poll();
+        this.buffer = pooled != null ? pooled : new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * 写入 UTF-8 BOM，以便 Excel 正确识别编码。必须在写入任何数据之前调用。
+     */
+    public CsvWriter writeBom() throws IOException {
+        writeBytes(BOM);
+        return this;
+    }
+
+    /**
+     * 写入一整行文本字段 (常用于表头)。
+     */
+    @Override
+    public CsvWriter writeRow(String... values) throws IOException {
+        for (String value : values) {
+            field(value);
+        }
+        return endRow();
+    }
+
+    @Override
+    public CsvWriter field(String value) throws IOException {
+        startField();
+        if (value != null) {
+            writeEscaped(value);
+        }
+        return this;
+    }
+
+    @Override
+    public CsvWriter field(Boolean value) throws IOException {
+        startField();
+        if (value != null) {
+            writeBytes(value ? TRUE_TEXT : FALSE_TEXT);
+        }
+        return this;
+    }
+
+    @Override
+    public CsvWriter field(Integer value) throws IOException {
+        startField();
+        if (value != null) {
+            writeInt(value);
+        }
+        return this;
+    }
+
+    @Override
+    public CsvWriter field(LocalDate value) throws IOException {
+        startField();
+        if (value != null) {
+            writeDate(value);
+        }
+        return this;
+    }
+
+    /**
+     * 结束当前行。
+     */
+    @Override
+    public CsvWriter endRow() throws IOException {
+        writeBytes(LINE_SEPARATOR);
+        rowStarted = false;
+        return this;
+    }
+
+    /**
+     * 将缓冲区内容写出并刷新底层输出流。
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * 写出剩余数据并归还缓冲区。不会关闭底层输出流。
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            BUFFER_POOL.offer(buffer);
+            buffer = null;
+        }
+    }
+
+    private void startField() throws IOException {
+        if (rowStarted) {
+            ensureCapacity(1);
+            buffer[position++] = ',';
+        }
+        rowStarted = true;
+    }
+
+    /**
+     * 单次扫描完成编码和转义：先按不加引号的方式写入，
+     * 遇到第一个需要转义的字符时，在已写入的部分前补一个引号 (仅移动该字段已写入的字节)，此后切换为引用模式。
+     */
+    private void writeEscaped(String value) throws IOException {
+        int length = value.length();
+        // 最坏情况：每个字符 3 字节，外加首尾两个引号
+        int worstCase = length * 3 + 2;
+        if (worstCase > buffer.length) {
+            writeEscapedLarge(value);
+            return;
+        }
+        ensureCapacity(worstCase);
+
+        int fieldStart = position;
+        boolean quoted = false;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c == '"' || c == ',' || c == '\n') {
+                    if (!quoted) {
+                        System.arraycopy(buffer, fieldStart, buffer, fieldStart + 1, position - fieldStart);
+                        buffer[fieldStart] = '"';
+                        position++;
+                        quoted = true;
+                    }
+                    if (c == '"') {
+                        buffer[position++] = '"';
+                    }
+                }
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // 不成对的代理字符，按 String.getBytes 的习惯写成 '?'
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        if (quoted) {
+            buffer[position++] = '"';
+        }
+    }
+
+    /**
+     * 超长字段 (超出缓冲区) 的慢速路径，极少触发。
+     */
+    private void writeEscapedLarge(String value) throws IOException {
+        boolean needsQuote = false;
+        for (int i = 0; i < value.length() && !needsQuote; i++) {
+            char c = value.charAt(i);
+            needsQuote = c == '"' || c == ',' || c == '\n';
+        }
+        String text = needsQuote ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+        writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeInt(int value) throws IOException {
+        ensureCapacity(11);
+        if (value == Integer.MIN_VALUE) {
+            writeBytes("-2147483648".getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    private void writeDate(LocalDate date) throws IOException {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            // 超出四位年份时交给 LocalDate 自身的格式化，保持与 toString() 一致
+            writeBytes(date.toString().getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        ensureCapacity(10);
+        buffer[position++] = (byte) ('0' + year / 1000);
+        buffer[position++] = (byte) ('0' + year / 100 % 10);
+        buffer[position++] = (byte) ('0' + year / 10 % 10);
+        buffer[position++] = (byte) ('0' + year % 10);
+        buffer[position++] = '-';
+        writeTwoDigits(date.getMonthValue());
+        buffer[position++] = '-';
+        writeTwoDigits(date.getDayOfMonth());
+    }
+
+    private void writeTwoDigits(int value) {
+        buffer[position++] = (byte) ('0' + value / 10);
+        buffer[position++] = (byte) ('0' + value % 10);
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length) {
+            flushBuffer();
+            out.write(bytes);
+            return;
+        }
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.length - position < bytes) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
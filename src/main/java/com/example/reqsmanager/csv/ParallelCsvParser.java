@@ -0,0 +1,131 @@
+package com.example.reqsmanager.csv;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 并行分块的 CSV 解析器。
+ * 处理流程分为三个阶段：
+ * 1. 在调用线程中按记录边界 (识别引号内换行) 将输入切分成若干块；
+ * 2. 各块在 ForkJoin 线程池中并行解析，并通过 CsvRowMapper 完成字段校验和类型转换 (如日期解析)；
+ * 3. 解析结果按文件中的原始顺序逐块交给 CsvChunkConsumer (通常是写库阶段)，在调用线程中执行。
+ * 同时在途的块数有上限，内存占用与文件大小无关。
+ * 行映射器抛出的异常会带上该记录在原始文件中的行号。
+ */
+@Component
+public class ParallelCsvParser {
+
+    private static final CSVFormat CHUNK_FORMAT = CSVFormat.DEFAULT.builder()
+            .setTrim(true)
+            .build();
+
+    /**
+     * 将一条 CSV 记录转换为业务对象。
+     * 返回 null 表示该行应被跳过。
+     */
+    @FunctionalInterface
+    public interface CsvRowMapper<T> {
+        T map(CSVRecord record, long lineNumber) throws Exception;
+    }
+
+    /**
+     * 按原始顺序消费解析完成的块。
+     */
+    @FunctionalInterface
+    public interface CsvChunkConsumer<T> {
+        void accept(CsvChunk<T> chunk) throws Exception;
+    }
+
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /**
+     * 解析带表头的 CSV 输入 (表头行被跳过，列按下标读取)。
+     *
+     * @param reader          CSV 输入
+     * @param recordsPerChunk 每块包含的记录数
+     * @param mapper          行映射器，在 ForkJoin 线程中并行执行，必须是线程安全的
+     * @param consumer        块消费者，在调用线程中按原始顺序执行
+     */
+    public <T> void parse(Reader reader, int recordsPerChunk,
+                          CsvRowMapper<T> mapper, CsvChunkConsumer<T> consumer) throws Exception {
+        CsvRecordSplitter splitter = new CsvRecordSplitter(reader, recordsPerChunk);
+        splitter.skipRecords(1);
+
+        int maxInFlight = Math.max(2, pool.getParallelism() * 2);
+        Deque<CompletableFuture<CsvChunk<T>>> inFlight = new ArrayDeque<>();
+
+        CsvRecordSplitter.RawChunk rawChunk;
+        while ((rawChunk = splitter.nextChunk()) != null) {
+            CsvRecordSplitter.RawChunk chunk = rawChunk;
+            inFlight.add(CompletableFuture.supplyAsync(() -> parseChunk(chunk, mapper), pool));
+            if (inFlight.size() >= maxInFlight) {
+                consumer.accept(await(inFlight.poll()));
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            consumer.accept(await(inFlight.poll()));
+        }
+    }
+
+    private <T> CsvChunk<T> parseChunk(CsvRecordSplitter.RawChunk chunk, CsvRowMapper<T> mapper) {
+        List<T> rows = new ArrayList<>();
+        int skippedRows = 0;
+        String text = chunk.text();
+        try (CSVParser parser = CSVParser.parse(text, CHUNK_FORMAT)) {
+            int scanned = 0;
+            long lineNumber = chunk.firstLineNumber();
+            for (CSVRecord record : parser) {
+                // 行号按记录自身的起始位置计算：解析器跳过的空行 (记录位置之后的换行符) 仍计入物理行号
+                int start = (int) record.getCharacterPosition();
+                while (start < text.length() && (text.charAt(start) == '\r' || text.charAt(start) == '\n')) {
+                    start++;
+                }
+                for (; scanned < start; scanned++) {
+                    if (text.charAt(scanned) == '\n') {
+                        lineNumber++;
+                    }
+                }
+                T row;
+                try {
+                    row = mapper.map(record, lineNumber);
+                } catch (Exception e) {
+                    throw new IllegalArgumentException(
+                            String.format("第 %d 行数据有误: %s", lineNumber, e.getMessage()), e);
+                }
+                if (row == null) {
+                    skippedRows++;
+                } else {
+                    rows.add(row);
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalArgumentException(
+                    String.format("第 %d 行起的数据无法解析: %s", chunk.firstLineNumber(), e.getMessage()), e);
+        }
+        return new CsvChunk<>(chunk.firstLineNumber(), rows, skippedRows);
+    }
+
+    private <T> CsvChunk<T> await(CompletableFuture<CsvChunk<T>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
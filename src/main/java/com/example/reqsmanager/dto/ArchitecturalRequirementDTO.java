@@ -6,6 +6,10 @@ import java.time.LocalDate;
 @Data
 public class ArchitecturalRequirementDTO {
     private Integer id;
+    /**
+     * 打开表单时架构需求的版本号，保存时用于拒绝过期的提交。
+     */
+    private Long version;
     private Integer requirementId;
     private String reqId;
     private String name;
@@ -36,6 +40,8 @@ public class ArchitecturalRequirementDTO {
 
     // ReviewInfo 的 ID，非常重要
     private Integer reviewInfoId;
+    // 打开表单时评审信息的版本号
+    private Long reviewInfoVersion;
 
     // 评审信息
     private Boolean reviewCheck1, reviewCheck2, reviewCheck3, reviewCheck4, reviewCheck5, reviewCheck6, reviewCheck7, reviewCheck8, reviewCheck9;
@@ -0,0 +1,22 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * 交叉统计的一个单元。
+ */
+@Value
+public class CubeCellDTO {
+    /**
+     * 与 CubeResultDTO.groupBy 一一对应的维度取值，空值为 null
+     */
+    List<String> values;
+    long count;
+    long summaryDesignsSubmitted;
+    /**
+     * 概要设计平均分，单元内没有评分时为 null
+     */
+    Double averageSummaryScore;
+}
@@ -0,0 +1,22 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * 交叉统计结果，单元按维度取值排序。
+ */
+@Value
+public class CubeResultDTO {
+    List<String> groupBy;
+    /**
+     * 满足筛选条件的需求总数
+     */
+    long matched;
+    List<CubeCellDTO> cells;
+    /**
+     * 内存聚合耗时 (微秒)
+     */
+    long elapsedMicros;
+}
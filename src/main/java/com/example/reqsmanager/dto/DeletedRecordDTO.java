@@ -0,0 +1,19 @@
+package com.example.reqsmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 增量导出中的一条删除记录。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeletedRecordDTO {
+    private Integer id;
+    private String businessKey;
+    private LocalDateTime deletedAt;
+}
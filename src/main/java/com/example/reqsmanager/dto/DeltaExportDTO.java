@@ -0,0 +1,21 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 增量导出结果。
+ * 下游应先应用 deleted (按业务主键删除)，再应用 changed (按业务主键新增或覆盖)，
+ * 并保存 watermark，下次请求时作为 since 传入。
+ * 为避免遗漏提交较晚的事务，每次会回看 since 之前的一小段时间，因此同一条记录可能在相邻两次结果中重复出现，
+ * 下游必须按幂等的方式处理。
+ */
+@Data
+public class DeltaExportDTO<T> {
+    private LocalDateTime since;
+    private LocalDateTime watermark;
+    private List<T> changed;
+    private List<DeletedRecordDTO> deleted;
+}
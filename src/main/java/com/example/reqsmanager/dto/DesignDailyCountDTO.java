@@ -0,0 +1,25 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * 某一天、某个小组的概要设计递交数、评审通过数和投产数 (design_daily_counts 表的一行)。
+ * 既用于表示当前值，也用于表示一次写操作带来的增量 (各字段可为负)。
+ */
+@Value
+public class DesignDailyCountDTO {
+    LocalDate statDate;
+    /**
+     * 所属小组；空字符串表示未分组。按全部小组汇总的查询结果中为 null。
+     */
+    String groupName;
+    long submittedCount;
+    long reviewPassedCount;
+    long wentLiveCount;
+
+    public boolean isZero() {
+        return submittedCount == 0 && reviewPassedCount == 0 && wentLiveCount == 0;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 每日设计趋势：区间内每一天 (含无数据的日期，计数为 0) 的三条时间序列。
+ */
+@Value
+public class DesignTrendDTO {
+    LocalDate from;
+    LocalDate to;
+    /**
+     * 只统计该小组；null 表示全部小组。
+     */
+    String groupName;
+    /**
+     * 概要设计递交数 (按概要设计递交日期)
+     */
+    List<DesignCountPerDay> submitted;
+    /**
+     * 概要设计评审通过数 (按评审通过日期)
+     */
+    List<DesignCountPerDay> reviewPassed;
+    /**
+     * 投产数 (按计划投产日期)
+     */
+    List<DesignCountPerDay> wentLive;
+}
@@ -0,0 +1,24 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Value;
+
+/**
+ * 一个小组的统计计数 (group_metrics 表的一行)。
+ * 既用于表示当前值，也用于表示一次写操作带来的增量 (各字段可为负)。
+ * 平均分以 “总分 / 已评分数” 保存，使增量可以直接累加。
+ */
+@Value
+public class GroupMetricsCounterDTO {
+    /**
+     * 所属小组；空字符串表示未分组 (所属小组为空)。
+     */
+    String groupName;
+    long totalRequirements;
+    long summaryDesignsSubmitted;
+    long summaryScoreSum;
+    long summaryScoreCount;
+
+    public boolean isZero() {
+        return totalRequirements == 0 && summaryDesignsSubmitted == 0 && summaryScoreSum == 0 && summaryScoreCount == 0;
+    }
+}
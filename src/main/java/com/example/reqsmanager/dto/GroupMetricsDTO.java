@@ -11,8 +11,7 @@ public class GroupMetricsDTO {
     private Double averageSummaryScore; // 使用 Double 类型以接收 AVG 的结果
 
     /**
-     * 这个构造函数非常重要，它的参数顺序和类型
-     * 必须与 Repository 中 JPQL 查询的 SELECT NEW ... 部分完全匹配。
+     * 由 GroupMetricsService 根据 group_metrics 表中的计数构造，平均分 = 总分 / 已评分数。
      */
     public GroupMetricsDTO(String groupName,
                            long totalRequirements,
@@ -0,0 +1,12 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Value;
+
+/**
+ * (主键, 业务编号) 二元组，用于加载和维护内存中的编号子串索引。
+ */
+@Value
+public class IdKeyDTO {
+    Integer id;
+    String key;
+}
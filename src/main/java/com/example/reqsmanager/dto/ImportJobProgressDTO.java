@@ -0,0 +1,35 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 后台导入任务的进度信息，由进度查询接口以 JSON 形式返回给前端。
+ */
+@Data
+public class ImportJobProgressDTO {
+    private String jobId;
+    private String type;
+    /**
+     * 任务状态：QUEUED / RUNNING / COMPLETED / FAILED / CANCELLED
+     */
+    private String status;
+    private int processedRows;
+    private double rowsPerSecond;
+    private int addedCount;
+    private int updatedCount;
+    private int skippedCount;
+    /**
+     * 任务结束后的结果摘要或错误信息；任务进行中时为 null。
+     */
+    private String message;
+    /**
+     * 行级警告 (按行号排序，最多 100 条)，如无法解析而被忽略的日期。
+     */
+    private List<String> warnings;
+    /**
+     * 超出上限、未在 warnings 中列出的警告数。
+     */
+    private int omittedWarnings;
+}
@@ -0,0 +1,51 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Data;
+
+/**
+ * CSV 批量导入的统计结果 (新增 / 更新 / 跳过 的记录数)。
+ * 后台导入任务在执行过程中会持续更新这些计数，进度查询接口会在其它线程中读取，
+ * 因此字段声明为 volatile (只有执行导入的单个线程会写入)。
+ */
+@Data
+public class ImportSummaryDTO {
+    private volatile int addedCount;
+    private volatile int updatedCount;
+    private volatile int skippedCount;
+
+    public void incrementAdded() {
+        addedCount++;
+    }
+
+    public void incrementUpdated() {
+        updatedCount++;
+    }
+
+    public void incrementSkipped() {
+        skippedCount++;
+    }
+
+    public void addAdded(int count) {
+        addedCount += count;
+    }
+
+    public void addSkipped(int count) {
+        skippedCount += count;
+    }
+
+    /**
+     * 累加另一份统计 (如一个已提交的分块的统计)。
+     */
+    public void add(ImportSummaryDTO other) {
+        addedCount += other.addedCount;
+        updatedCount += other.updatedCount;
+        skippedCount += other.skippedCount;
+    }
+
+    /**
+     * 已处理的总行数 (新增 + 更新 + 跳过)。
+     */
+    public int getProcessedRows() {
+        return addedCount + updatedCount + skippedCount;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * 键集分页的一页结果。
+ * 与 Spring Data 的 Page 不同，它不知道自己是第几页，只提供上一页/下一页的游标；
+ * 总记录数只在第一次调用 getTotalElements() 时才执行 COUNT 查询，页面不显示总数时不产生任何开销。
+ */
+@Getter
+public class KeysetPage<T> {
+
+    private final List<T> content;
+    private final int size;
+    /** 下一页的游标，没有下一页时为 null */
+    private final String nextCursor;
+    /** 上一页的游标，没有上一页时为 null */
+    private final String previousCursor;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private final LongSupplier countQuery;
+    @Getter(lombok.AccessLevel.NONE)
+    private Long totalElements;
+
+    public KeysetPage(List<T> content, int size, String nextCursor, String previousCursor, LongSupplier countQuery) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.previousCursor = previousCursor;
+        this.countQuery = countQuery;
+    }
+
+    /**
+     * 复制一份 (共享同一份数据列表)，总记录数重新按需查询。用于缓存的页面被多个请求复用的场景。
+     */
+    public KeysetPage<T> copy() {
+        return new KeysetPage<>(content, size, nextCursor, previousCursor, countQuery);
+    }
+
+    public boolean isEmpty() {
+        return content.isEmpty();
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public boolean hasPrevious() {
+        return previousCursor != null;
+    }
+
+    /**
+     * 符合筛选条件的总记录数 (首次调用时才查询)。
+     */
+    public long getTotalElements() {
+        if (totalElements == null) {
+            totalElements = countQuery.getAsLong();
+        }
+        return totalElements;
+    }
+}
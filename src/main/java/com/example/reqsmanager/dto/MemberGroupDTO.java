@@ -0,0 +1,12 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Value;
+
+/**
+ * (成员姓名, 所属小组名称) 二元组，用于“一键更新”一次性加载成员与小组的对应关系。
+ */
+@Value
+public class MemberGroupDTO {
+    String memberName;
+    String groupName;
+}
@@ -6,6 +6,10 @@ import java.time.LocalDate;
 @Data
 public class RequirementAnalysisDTO {
     private Integer id;
+    /**
+     * 打开表单时需求的版本号，保存时用于拒绝过期的提交。
+     */
+    private Long version;
     private String reqId;
     private String name;
     private Boolean isAnalysisInvolved;
@@ -0,0 +1,25 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * 需求分析列表 (/analysis/) 的一行。
+ * 由 JPQL 构造器投影直接生成，只包含分析相关的列。
+ */
+@Value
+public class RequirementAnalysisRowDTO implements RequirementListRow {
+    Integer id;
+    String reqId;
+    String name;
+    LocalDate scheduleDate;
+    Boolean isAnalysisInvolved;
+    String analysisMembers;
+    LocalDate analysisFinishDate;
+    String analysisOutput;
+    Boolean hasSpec;
+    String specWriter;
+    Boolean isSpecReviewed;
+    LocalDate specReviewTime;
+}
@@ -0,0 +1,20 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * 加载到内存分析快照中的一行：需求的可分组字段及其架构需求的概要设计信息。
+ */
+@Value
+public class RequirementAnalyticsRowDTO {
+    Integer id;
+    String groupName;
+    String status;
+    String reqType;
+    String leadDepartment;
+    LocalDate scheduleDate;
+    Boolean summaryDesignSubmitted;
+    Integer summaryDesignScore;
+}
@@ -0,0 +1,29 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * 架构需求列表 (/architectural/) 的一行。
+ * 由 JPQL 构造器投影直接生成：架构信息通过 LEFT JOIN 取列，尚未建立架构信息的需求对应字段为 null；
+ * 评审信息 (ReviewInfo) 不在列表中显示，不会被查询。
+ */
+@Value
+public class RequirementArchitectureRowDTO implements RequirementListRow {
+    Integer id;
+    String reqId;
+    String name;
+    LocalDate scheduleDate;
+    Boolean importantRequirement;
+    Boolean summaryDesignSubmitted;
+    String summaryDesignSubmitter;
+    LocalDate summaryDesignSubmitDate;
+    LocalDate summaryDesignReviewPassDate;
+    Boolean involvesArchDecision;
+    Boolean involvesInfra;
+    Boolean involvesSeniorReport;
+    Integer summaryDesignScore;
+    String summaryDesignDeductionReason;
+    Boolean areReviewsConsistent;
+}
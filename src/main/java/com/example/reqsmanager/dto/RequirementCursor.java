@@ -0,0 +1,57 @@
+package com.example.reqsmanager.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * 需求列表键集分页 (keyset / seek) 的游标。
+ * 列表按 (scheduleDate, id) 升序排列，游标记录翻页边界行的这两个值以及翻页方向，
+ * 对外以 Base64 (URL 安全) 编码的不透明字符串传递。
+ *
+ * @param backward     true 表示取边界行之前的一页 (上一页)，false 表示之后的一页 (下一页)
+ * @param scheduleDate 边界行的需求排期，可能为 null
+ * @param id           边界行的主键
+ */
+public record RequirementCursor(boolean backward, LocalDate scheduleDate, int id) {
+
+    public String encode() {
+        String text = (backward ? "p" : "n") + "|" + (scheduleDate == null ? "" : scheduleDate) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标。
+     *
+     * @return 解析结果；cursor 为空时返回 null (第一页)
+     * @throws InvalidCursorException 游标格式不正确
+     */
+    public static RequirementCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 3 || !(parts[0].equals("n") || parts[0].equals("p"))) {
+                throw new IllegalArgumentException("unexpected cursor format");
+            }
+            LocalDate scheduleDate = parts[1].isEmpty() ? null : LocalDate.parse(parts[1]);
+            return new RequirementCursor(parts[0].equals("p"), scheduleDate, Integer.parseInt(parts[2]));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(cursor, e);
+        }
+    }
+
+    /**
+     * 游标无法解析 (被篡改、截断或来自旧版本的链接)。请求按参数错误返回 400，不再静默回到第一页。
+     */
+    @ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid cursor")
+    public static class InvalidCursorException extends IllegalArgumentException {
+        InvalidCursorException(String cursor, Throwable cause) {
+            super("Invalid cursor: " + cursor, cause);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * 需求在列表筛选条件、排序、主页分组统计和每日设计趋势上涉及的全部字段的快照。
+ * 写操作前后各取一次，用于判断哪些缓存的列表页受到影响，并计算各项统计的增量。
+ */
+@Value
+public class RequirementFilterStateDTO {
+    Integer id;
+    String reqId;
+    String name;
+    String techLeader;
+    LocalDate scheduleDate;
+    String status;
+    Boolean importantRequirement;
+    Boolean summaryDesignSubmitted;
+    String groupName;
+    Integer summaryDesignScore;
+    LocalDate summaryDesignSubmitDate;
+    LocalDate summaryDesignReviewPassDate;
+}
@@ -6,6 +6,10 @@ import lombok.Data;
 @Data
 public class RequirementGeneralDTO {
     private Integer id;
+    /**
+     * 打开表单时需求的版本号，保存时用于拒绝过期的提交。
+     */
+    private Long version;
     private String reqId;
     private String name;
     private String businessLeader;
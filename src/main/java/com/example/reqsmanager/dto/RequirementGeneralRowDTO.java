@@ -0,0 +1,25 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * 需求总览列表 (/requirements/) 的一行。
+ * 由 JPQL 构造器投影直接生成，不是托管实体，不会加载架构信息和评审信息。
+ */
+@Value
+public class RequirementGeneralRowDTO implements RequirementListRow {
+    Integer id;
+    String reqId;
+    String name;
+    String businessLeader;
+    String techLeader;
+    String leadDepartment;
+    String groupName;
+    String reqType;
+    String businessLine;
+    String devLeader;
+    LocalDate scheduleDate;
+    String status;
+}
@@ -0,0 +1,69 @@
+package com.example.reqsmanager.dto;
+
+import com.example.reqsmanager.entity.Requirement;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * CSV 批量导入时使用的轻量数据对象。
+ * 既用于承载从 CSV 解析出的一行数据，也用于承载数据库中已存在需求的“比对快照”，
+ * 只包含导入会涉及的字段，避免为了比对而加载完整的实体图。
+ * importFingerprint：对 CSV 行是解析时计算的指纹，对快照是数据库中保存的指纹。
+ */
+@Data
+@NoArgsConstructor
+public class RequirementImportDTO {
+    private Integer id;
+    private String reqId;
+    private String name;
+    private String techLeader;
+    private String reqType;
+    private String leadDepartment;
+    private String businessLine;
+    private LocalDate scheduleDate;
+    private String status;
+    private String importFingerprint;
+
+    /**
+     * 这个构造函数的参数顺序和类型
+     * 必须与 Repository 中 JPQL 查询的 SELECT NEW ... 部分完全匹配。
+     */
+    public RequirementImportDTO(Integer id,
+                                String reqId,
+                                String name,
+                                String techLeader,
+                                String reqType,
+                                String leadDepartment,
+                                String businessLine,
+                                LocalDate scheduleDate,
+                                String status,
+                                String importFingerprint) {
+        this.id = id;
+        this.reqId = reqId;
+        this.name = name;
+        this.techLeader = techLeader;
+        this.reqType = reqType;
+        this.leadDepartment = leadDepartment;
+        this.businessLine = businessLine;
+        this.scheduleDate = scheduleDate;
+        this.status = status;
+        this.importFingerprint = importFingerprint;
+    }
+
+    /**
+     * 仅包含需求编号与指纹，用于按块批量比对指纹。
+     */
+    public RequirementImportDTO(String reqId, String importFingerprint) {
+        this.reqId = reqId;
+        this.importFingerprint = importFingerprint;
+    }
+
+    /**
+     * 按当前字段值计算的导入指纹。
+     */
+    public String computeFingerprint() {
+        return Requirement.computeImportFingerprint(name, techLeader, reqType, leadDepartment, businessLine, scheduleDate);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Value;
+
+/**
+ * 加载到内存位图索引中的一行：需求的分类字段及其架构需求的各个是否标志。
+ */
+@Value
+public class RequirementIndexRowDTO {
+    Integer id;
+    String status;
+    String techLeader;
+    String groupName;
+    String reqType;
+    Boolean importantRequirement;
+    Boolean summaryDesignSubmitted;
+    Boolean involvesArchDecision;
+    Boolean involvesInfra;
+    Boolean involvesSeniorReport;
+}
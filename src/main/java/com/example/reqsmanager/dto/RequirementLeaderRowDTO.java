@@ -0,0 +1,14 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Value;
+
+/**
+ * “一键更新”读取和写回的需求列：科技负责人、所属小组和开发负责人。
+ */
+@Value
+public class RequirementLeaderRowDTO {
+    Integer id;
+    String techLeader;
+    String groupName;
+    String devLeader;
+}
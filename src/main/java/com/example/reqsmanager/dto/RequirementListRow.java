@@ -0,0 +1,14 @@
+package com.example.reqsmanager.dto;
+
+import java.time.LocalDate;
+
+/**
+ * 需求列表页的只读行投影。
+ * 各列表页只查询模板中实际显示的列，但都必须带上键集分页排序用的 (scheduleDate, id)，以便生成翻页游标。
+ */
+public interface RequirementListRow {
+
+    Integer getId();
+
+    LocalDate getScheduleDate();
+}
@@ -0,0 +1,25 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Value;
+
+/**
+ * 全文索引中一条需求文档的数据来源。
+ * 由 JPQL 构造器投影生成，只包含参与全文检索的文本列，不加载架构信息等关联对象。
+ */
+@Value
+public class RequirementSearchDTO {
+    Integer id;
+    String reqId;
+    String name;
+    String businessLeader;
+    String techLeader;
+    String devLeader;
+    String leadDepartment;
+    String groupName;
+    String businessLine;
+    String reqType;
+    String status;
+    String analysisMembers;
+    String analysisOutput;
+    String specWriter;
+}
@@ -0,0 +1,21 @@
+package com.example.reqsmanager.dto;
+
+import lombok.Value;
+
+/**
+ * 全局搜索的一条命中结果。
+ */
+@Value
+public class SearchHitDTO {
+    /** 文档类型：requirement / project / decision */
+    String type;
+    Integer id;
+    /** 业务编号：需求编号 / 项目编号 / 决策编号 */
+    String code;
+    /** 标题：需求名称 / 项目对应的需求名称 / 决策内容摘要 */
+    String title;
+    /** 相关度得分，结果按得分从高到低排列 */
+    float score;
+    /** 详情页地址 */
+    String url;
+}
@@ -2,15 +2,24 @@ package com.example.reqsmanager.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "architectural_projects")
+@DynamicUpdate
+@Table(name = "architectural_projects", indexes = @Index(name = "idx_arch_projects_updated_at", columnList = "updated_at"))
 public class ArchitecturalProject {
 
+    /**
+     * 主键ID。
+     * 使用 pooled 序列 (MySQL 下由 architectural_projects_seq 表模拟) 按块预分配主键，
+     * 这样 Hibernate 才能对批量导入的 INSERT 使用 JDBC batch；IDENTITY 会强制逐条插入。
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "architectural_projects_seq")
+    @SequenceGenerator(name = "architectural_projects_seq", sequenceName = "architectural_projects_seq", allocationSize = 50)
     private Integer id;
 
     @Column(length = 50, nullable = false, unique = true, columnDefinition = "VARCHAR(50) COMMENT '项目编号'")
@@ -87,4 +96,14 @@ public class ArchitecturalProject {
     // --- 备注 ---
     @Column(columnDefinition = "TEXT COMMENT '备注'")
     private String remarks;
+
+    // 最后修改时间，由数据库维护 (见 db/schema-upgrade.sql 增量导出部分)
+    @Column(name = "updated_at", insertable = false, updatable = false,
+            columnDefinition = "DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '最后修改时间'")
+    private LocalDateTime updatedAt;
+
+    // 乐观锁版本号 (见 Requirement.version)
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0 COMMENT '版本号'")
+    private Long version;
 }
@@ -2,15 +2,24 @@ package com.example.reqsmanager.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "architectural_requirements")
+@DynamicUpdate
+@Table(name = "architectural_requirements", indexes = {
+        @Index(name = "idx_arch_requirements_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_arch_requirements_submit_date", columnList = "summary_design_submit_date"),
+        @Index(name = "idx_arch_requirements_review_pass_date", columnList = "summary_design_review_pass_date")
+})
 public class ArchitecturalRequirement {
 
+    // pooled 序列按块预分配主键 (同 Requirement)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "architectural_requirements_seq")
+    @SequenceGenerator(name = "architectural_requirements_seq", sequenceName = "architectural_requirements_seq", allocationSize = 50)
     private Integer id;
 
     // 使用 OneToOne 关联到主需求实体
@@ -64,4 +73,14 @@ public class ArchitecturalRequirement {
      */
     @Column(columnDefinition = "BIT(1) DEFAULT b'1' COMMENT '评审检核是否一致'")
     private Boolean areReviewsConsistent = true;
+
+    // 最后修改时间，由数据库维护 (见 db/schema-upgrade.sql 增量导出部分)
+    @Column(name = "updated_at", insertable = false, updatable = false,
+            columnDefinition = "DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '最后修改时间'")
+    private LocalDateTime updatedAt;
+
+    // 乐观锁版本号 (见 Requirement.version)
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0 COMMENT '版本号'")
+    private Long version;
 }
@@ -9,8 +9,10 @@ import java.time.LocalDate;
 @Table(name = "architecture_decisions")
 public class ArchitectureDecision {
 
+    // pooled 序列按块预分配主键，批量导入时可以使用 JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "architecture_decisions_seq")
+    @SequenceGenerator(name = "architecture_decisions_seq", sequenceName = "architecture_decisions_seq", allocationSize = 50)
     private Integer id;
 
     @Column(nullable = false, unique = true, length = 50)
@@ -0,0 +1,40 @@
+package com.example.reqsmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 删除记录 (墓碑)。
+ * 需求、架构项目被删除时各写入一条，供增量导出告知下游哪些记录已不存在。
+ */
+@Data
+@Entity
+@Table(name = "deleted_records",
+        indexes = @Index(name = "idx_deleted_records_type_time", columnList = "entity_type, deleted_at"))
+public class DeletedRecord {
+
+    public static final String TYPE_REQUIREMENT = "REQUIREMENT";
+    public static final String TYPE_ARCH_PROJECT = "ARCH_PROJECT";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entity_type", nullable = false, length = 30, columnDefinition = "VARCHAR(30) COMMENT '被删除记录的类型'")
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false, columnDefinition = "INT COMMENT '被删除记录的主键'")
+    private Integer entityId;
+
+    /**
+     * 业务主键 (需求编号 / 项目编号)，下游通常以它作为同步键。
+     */
+    @Column(name = "business_key", length = 50, columnDefinition = "VARCHAR(50) COMMENT '业务主键'")
+    private String businessKey;
+
+    @Column(name = "deleted_at", insertable = false, updatable = false,
+            columnDefinition = "DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '删除时间'")
+    private LocalDateTime deletedAt;
+}
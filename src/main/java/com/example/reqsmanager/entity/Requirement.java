@@ -2,18 +2,40 @@ package com.example.reqsmanager.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
 
 @Data
 @Entity
-@Table(name = "requirements")
+@DynamicUpdate
+@Table(name = "requirements", indexes = {
+        @Index(name = "idx_requirements_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_requirements_schedule_date_id", columnList = "schedule_date, id")
+})
 public class Requirement {
 
     /**
-     * 主键ID, 自增
+     * 需求状态：计划投产日期未到 (或未排期)。
+     */
+    public static final String STATUS_IN_PROGRESS = "进行中";
+
+    /**
+     * 需求状态：计划投产日期已到。
+     */
+    public static final String STATUS_LIVE = "已投产";
+
+    /**
+     * 主键ID。pooled 序列 (requirements_seq 表模拟) 按块预分配，插入可以使用 JDBC batch；
+     * CSV 导入的 JDBC 批量插入通过 SequenceBlockRepository 从同一张表分配。
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requirements_seq")
+    @SequenceGenerator(name = "requirements_seq", sequenceName = "requirements_seq", allocationSize = 50)
     private Integer id;
 
     /**
@@ -75,7 +97,7 @@ public class Requirement {
 
     // === START: 新增字段 ===
     @Column(length = 20, columnDefinition = "VARCHAR(20) DEFAULT '进行中' COMMENT '需求状态'")
-    private String status = "进行中"; // 默认值为"进行中"
+    private String status = STATUS_IN_PROGRESS; // 默认值为"进行中"
     // === END: 新增字段 ===
 
     // ==================================================
@@ -149,4 +171,50 @@ public class Requirement {
     // private LocalDate archPlanDeliveryDate;
     // ... 删除所有旧的架构字段 ...
     // === END: 关键修改 ===
+
+    /**
+     * CSV 导入所涉及列 (名称、科技负责人、需求类型、牵头部室、业务条线、排期) 当前值的内容指纹。
+     * 任何途径保存实体时都会重新计算 (见 refreshImportFingerprint)，JDBC 批量导入时由导入逻辑一并写入。
+     * 重复导入时，指纹相同的行可以直接判定为“无变化”，无需加载和逐字段比对。
+     */
+    @Column(length = 32, columnDefinition = "CHAR(32) COMMENT '导入列内容指纹'")
+    private String importFingerprint;
+
+    // 最后修改时间，由数据库维护 (见 db/schema-upgrade.sql 增量导出部分)
+    @Column(name = "updated_at", insertable = false, updatable = false,
+            columnDefinition = "DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '最后修改时间'")
+    private LocalDateTime updatedAt;
+
+    /**
+     * 乐观锁版本号：编辑表单带回打开时的版本，保存时不一致即拒绝 (不再静默覆盖他人的修改)。
+     * 更新语句带 WHERE version = ? 条件，并发提交时只有一个会成功。
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0 COMMENT '版本号'")
+    private Long version;
+
+    @PrePersist
+    @PreUpdate
+    void refreshImportFingerprint() {
+        importFingerprint = computeImportFingerprint(name, techLeader, reqType, leadDepartment, businessLine, scheduleDate);
+    }
+
+    /**
+     * 计算导入列的内容指纹 (MD5，32 位十六进制)。null 与空字符串得到不同的结果，与导入时的逐字段比对一致。
+     */
+    public static String computeImportFingerprint(String name, String techLeader, String reqType,
+                                                  String leadDepartment, String businessLine, LocalDate scheduleDate) {
+        StringBuilder text = new StringBuilder(128);
+        for (String value : new String[]{name, techLeader, reqType, leadDepartment, businessLine}) {
+            // 用 NUL 字符表示 null，用单元分隔符 (0x1F) 分隔字段，二者都不会出现在正常的 CSV 文本中
+            text.append(value == null ? "\u0000" : value).append('\u001F');
+        }
+        text.append(scheduleDate == null ? "\u0000" : scheduleDate.toString());
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(text.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
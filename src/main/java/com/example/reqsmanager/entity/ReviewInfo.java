@@ -2,14 +2,30 @@ package com.example.reqsmanager.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "review_infos")
+@DynamicUpdate
+@Table(name = "review_infos", indexes = {
+        @Index(name = "idx_review_infos_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_review_infos_check_mismatches", columnList = "check_mismatches")
+})
 public class ReviewInfo {
 
+    /**
+     * 评审信息 / 架构检核各有 9 个勾选项。
+     */
+    public static final int CHECK_COUNT = 9;
+
+    // pooled 序列按块预分配主键 (同 Requirement)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "review_infos_seq")
+    @SequenceGenerator(name = "review_infos_seq", sequenceName = "review_infos_seq", allocationSize = 50)
     private Integer id;
 
     // 与 ArchitecturalRequirement 建立一对一的反向关联
@@ -17,26 +33,83 @@ public class ReviewInfo {
     private ArchitecturalRequirement architecturalRequirement;
 
     // --- 评审信息字段 ---
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean reviewCheck1 = false;
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean reviewCheck2 = false;
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean reviewCheck3 = false;
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean reviewCheck4 = false;
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean reviewCheck5 = false;
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean reviewCheck6 = false;
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean reviewCheck7 = false;
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean reviewCheck8 = false;
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean reviewCheck9 = false;
+    /**
+     * 评审信息的勾选项，第 i 项存放在第 i-1 位。
+     * 三个位掩码列都是 SMALLINT UNSIGNED，声明 JDBC 类型以通过 ddl-auto=validate 的列类型校验。
+     */
+    @JdbcTypeCode(SqlTypes.SMALLINT)
+    @Column(name = "review_checks", nullable = false,
+            columnDefinition = "SMALLINT UNSIGNED NOT NULL DEFAULT 0 COMMENT '评审信息勾选项 (位掩码，第 i 项为第 i-1 位)'")
+    private int reviewChecks;
     @Column(length = 50) private String reviewLevel;
 
     // --- 架构检核字段 ---
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean auditCheck1 = false;
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean auditCheck2 = false;
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean auditCheck3 = false;
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean auditCheck4 = false;
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean auditCheck5 = false;
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean auditCheck6 = false;
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean auditCheck7 = false;
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean auditCheck8 = false;
-    @Column(columnDefinition = "BIT(1) DEFAULT 0") private Boolean auditCheck9 = false;
+    /**
+     * 架构检核的勾选项，位的含义与 reviewChecks 相同。
+     */
+    @JdbcTypeCode(SqlTypes.SMALLINT)
+    @Column(name = "audit_checks", nullable = false,
+            columnDefinition = "SMALLINT UNSIGNED NOT NULL DEFAULT 0 COMMENT '架构检核勾选项 (位掩码，第 i 项为第 i-1 位)'")
+    private int auditChecks;
     @Column(length = 50) private String auditLevel;
+
+    /**
+     * 评审与检核不一致的勾选项 (review_checks XOR audit_checks)，为 0 表示完全一致。
+     * 由数据库计算 (存储生成列) 并建有索引，应用层不写入此列。
+     */
+    @JdbcTypeCode(SqlTypes.SMALLINT)
+    @Column(name = "check_mismatches", insertable = false, updatable = false,
+            columnDefinition = "SMALLINT UNSIGNED AS (review_checks ^ audit_checks) STORED COMMENT '评审与检核不一致的勾选项 (位掩码)'")
+    private Integer checkMismatches;
+
+    // 最后修改时间，由数据库维护 (见 db/schema-upgrade.sql 增量导出部分)
+    @Column(name = "updated_at", insertable = false, updatable = false,
+            columnDefinition = "DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '最后修改时间'")
+    private LocalDateTime updatedAt;
+
+    // 乐观锁版本号 (见 Requirement.version)
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0 COMMENT '版本号'")
+    private Long version;
+
+    /**
+     * 评审信息与架构检核的勾选项是否完全一致。
+     */
+    public boolean areChecksConsistent() {
+        return (reviewChecks ^ auditChecks) == 0;
+    }
+
+    /**
+     * 把按顺序排列的勾选项 (第 1 项至第 9 项，null 视为未勾选) 打包为位掩码。
+     */
+    public static int packChecks(Boolean... checks) {
+        if (checks.length != CHECK_COUNT) {
+            throw new IllegalArgumentException("Expected " + CHECK_COUNT + " checks, got " + checks.length);
+        }
+        int mask = 0;
+        for (int i = 0; i < CHECK_COUNT; i++) {
+            if (Boolean.TRUE.equals(checks[i])) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @param number 勾选项序号，1 至 9
+     * @return 位掩码中该勾选项对应的位
+     */
+    public static int checkBit(int number) {
+        if (number < 1 || number > CHECK_COUNT) {
+            throw new IllegalArgumentException("Check number must be between 1 and " + CHECK_COUNT + ": " + number);
+        }
+        return 1 << (number - 1);
+    }
+
+    /**
+     * @param number 勾选项序号，1 至 9
+     */
+    public static boolean isChecked(int checks, int number) {
+        return (checks & checkBit(number)) != 0;
+    }
 }
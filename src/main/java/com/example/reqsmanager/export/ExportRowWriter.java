@@ -0,0 +1,32 @@
+package com.example.reqsmanager.export;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * 导出文件的逐行写入接口，CSV 与 XLSX 两种导出格式共用同一套列定义。
+ * 每行依次调用 field(...) 写入各列，最后调用 endRow() 结束该行；null 值写为空单元格。
+ */
+public interface ExportRowWriter {
+
+    /**
+     * 写入一整行文本 (常用于表头)。
+     */
+    ExportRowWriter writeRow(String... values) throws IOException;
+
+    ExportRowWriter field(String value) throws IOException;
+
+    /**
+     * 布尔值统一写为 “是” / “否”。
+     */
+    ExportRowWriter field(Boolean value) throws IOException;
+
+    ExportRowWriter field(Integer value) throws IOException;
+
+    ExportRowWriter field(LocalDate value) throws IOException;
+
+    /**
+     * 结束当前行。
+     */
+    ExportRowWriter endRow() throws IOException;
+}
@@ -0,0 +1,173 @@
+package com.example.reqsmanager.export;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.xssf.streaming.SXSSFRow;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+/**
+ * 流式 XLSX 写入器 (基于 POI SXSSF)。
+ * - 内存中只保留最近 ROW_WINDOW_SIZE 行，更早的行被压缩写入临时文件，内存占用与导出行数无关；
+ * - 日期写为真正的日期单元格 (yyyy-mm-dd)，整数写为数值单元格，编号等文本一律写为文本单元格，
+ *   避免 Excel 把长编号转成科学计数法、把日期当作文本；
+ * - 布尔值与 CSV 导出一致写为 “是” / “否”。
+ * 全部行写完后调用 finish() 把工作簿写入输出流，最后 close 删除临时文件。
+ * 非线程安全，每次导出创建一个实例。
+ */
+public class XlsxWriter implements ExportRowWriter, Closeable {
+
+    /**
+     * 内存中保留的行数窗口。
+     */
+    private static final int ROW_WINDOW_SIZE = 200;
+
+    /**
+     * 默认列宽 (字符数)。流式模式下无法根据全部内容自动调整列宽。
+     */
+    private static final int DEFAULT_COLUMN_WIDTH = 18;
+
+    private static final int MAX_CELL_TEXT_LENGTH = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook;
+    private final SXSSFSheet sheet;
+    private final CellStyle headerStyle;
+    private final CellStyle dateStyle;
+
+    private SXSSFRow row;
+    private int rowIndex;
+    private int columnIndex;
+    private boolean closed;
+
+    public XlsxWriter(OutputStream out, String sheetName) {
+        this.out = out;
+        this.workbook = new SXSSFWorkbook(ROW_WINDOW_SIZE);
+        this.workbook.setCompressTempFiles(true);
+        this.sheet = workbook.createSheet(sheetName);
+        this.sheet.setDefaultColumnWidth(DEFAULT_COLUMN_WIDTH);
+
+        Font headerFont = workbook.createFont();
+        headerFont.setBold(true);
+        this.headerStyle = workbook.createCellStyle();
+        this.headerStyle.setFont(headerFont);
+
+        this.dateStyle = workbook.createCellStyle();
+        this.dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+    }
+
+    /**
+     * 写入加粗的表头行，并冻结首行。必须在写入任何数据之前调用。
+     */
+    @Override
+    public XlsxWriter writeRow(String... values) {
+        boolean header = rowIndex == 0;
+        for (String value : values) {
+            Cell cell = nextCell();
+            if (value != null) {
+                cell.setCellValue(truncate(value));
+            }
+            if (header) {
+                cell.setCellStyle(headerStyle);
+            }
+        }
+        if (header) {
+            sheet.createFreezePane(0, 1);
+        }
+        return endRow();
+    }
+
+    @Override
+    public XlsxWriter field(String value) {
+        Cell cell = nextCell();
+        if (value != null) {
+            cell.setCellValue(truncate(value));
+        }
+        return this;
+    }
+
+    @Override
+    public XlsxWriter field(Boolean value) {
+        Cell cell = nextCell();
+        if (value != null) {
+            cell.setCellValue(value ? "是" : "否");
+        }
+        return this;
+    }
+
+    @Override
+    public XlsxWriter field(Integer value) {
+        Cell cell = nextCell();
+        if (value != null) {
+            cell.setCellValue(value);
+        }
+        return this;
+    }
+
+    @Override
+    public XlsxWriter field(LocalDate value) {
+        Cell cell = nextCell();
+        if (value != null) {
+            cell.setCellValue(value);
+            cell.setCellStyle(dateStyle);
+        }
+        return this;
+    }
+
+    @Override
+    public XlsxWriter endRow() {
+        if (row == null) {
+            // 空行也要占位，保证行号连续
+            sheet.createRow(rowIndex);
+        }
+        row = null;
+        rowIndex++;
+        columnIndex = 0;
+        return this;
+    }
+
+    /**
+     * 所有行写完后调用，将工作簿写入输出流。不会关闭底层输出流。
+     */
+    public void finish() throws IOException {
+        workbook.write(out);
+        out.flush();
+    }
+
+    /**
+     * 删除临时文件并释放资源。未调用 finish() 就关闭时 (如导出中途出错)，不会向输出流写入不完整的工作簿。
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            workbook.dispose();
+        } finally {
+            workbook.close();
+        }
+    }
+
+    private Cell nextCell() {
+        if (row == null) {
+            row = sheet.createRow(rowIndex);
+        }
+        return row.createCell(columnIndex++);
+    }
+
+    /**
+     * Excel 单元格最多容纳 32767 个字符，超出部分截断，避免整个导出失败。
+     */
+    private static String truncate(String value) {
+        return value.length() > MAX_CELL_TEXT_LENGTH ? value.substring(0, MAX_CELL_TEXT_LENGTH) : value;
+    }
+}
@@ -3,6 +3,13 @@ package com.example.reqsmanager.repository;
 import com.example.reqsmanager.entity.ArchitecturalProject;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 public interface ArchitecturalProjectRepository extends JpaRepository<ArchitecturalProject, Integer>, JpaSpecificationExecutor<ArchitecturalProject> {
     // === START: 新增方法 ===
@@ -14,4 +21,16 @@ public interface ArchitecturalProjectRepository extends JpaRepository<Architectu
     boolean existsByProjectNumber(String projectNumber);
     // === END ===
 
+    /**
+     * 从给定的项目编号中，一次性找出数据库里已存在的那些。
+     * @param projectNumbers 待检查的项目编号集合
+     * @return 已存在的项目编号集合
+     */
+    @Query("SELECT p.projectNumber FROM ArchitecturalProject p WHERE p.projectNumber IN :projectNumbers")
+    Set<String> findExistingProjectNumbers(@Param("projectNumbers") Collection<String> projectNumbers);
+
+    /**
+     * 增量导出：自 since 之后修改过的项目 (走 updated_at 索引)，按 ID 排序。
+     */
+    List<ArchitecturalProject> findByUpdatedAtAfterOrderByIdAsc(LocalDateTime since);
 }
@@ -2,6 +2,33 @@ package com.example.reqsmanager.repository;
 
 import com.example.reqsmanager.entity.ArchitecturalRequirement;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface ArchitecturalRequirementRepository extends JpaRepository<ArchitecturalRequirement, Integer> {
+
+    /**
+     * 增量导出：架构信息自 since 之后修改过的需求 ID。
+     */
+    @Query("SELECT ar.requirement.id FROM ArchitecturalRequirement ar WHERE ar.updatedAt > :since")
+    List<Integer> findRequirementIdsUpdatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * 增量导出：评审信息自 since 之后修改过的需求 ID。
+     */
+    @Query("SELECT ar.requirement.id FROM ArchitecturalRequirement ar JOIN ar.reviewInfo ri WHERE ri.updatedAt > :since")
+    List<Integer> findRequirementIdsWithReviewUpdatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * 架构检核与评审信息在 mask 中任一勾选项上不一致的需求 ID。
+     * check_mismatches > 0 走索引范围扫描，只读取存在不一致的评审记录，再按位过滤。
+     */
+    @Query(value = "SELECT ar.requirement_id FROM review_infos ri " +
+            "JOIN architectural_requirements ar ON ar.review_info_id = ri.id " +
+            "WHERE ri.check_mismatches > 0 AND (ri.check_mismatches & :mask) <> 0 " +
+            "ORDER BY ar.requirement_id", nativeQuery = true)
+    List<Integer> findRequirementIdsWithCheckMismatch(@Param("mask") int mask);
 }
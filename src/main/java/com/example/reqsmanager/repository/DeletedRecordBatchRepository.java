@@ -0,0 +1,51 @@
+package com.example.reqsmanager.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * 删除记录 (墓碑) 的 JDBC 写入。
+ * 每批一条 INSERT ... SELECT；走 JDBC 而不是 JPA 原生 DML，不会让 Hibernate 清空整个二级缓存和查询缓存。
+ * 必须在调用方开启的事务中、删除之前使用。
+ */
+@Repository
+public class DeletedRecordBatchRepository {
+
+    private static final String RECORD_REQUIREMENTS_SQL = "INSERT INTO deleted_records (entity_type, entity_id, business_key) " +
+            "SELECT 'REQUIREMENT', id, req_id FROM requirements WHERE id IN (%s)";
+
+    private static final String RECORD_PROJECTS_SQL = "INSERT INTO deleted_records (entity_type, entity_id, business_key) " +
+            "SELECT 'ARCH_PROJECT', id, project_number FROM architectural_projects WHERE id IN (%s)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 为这些需求写入删除记录。
+     *
+     * @return 写入的记录数 (不存在的需求不写入)
+     */
+    public int recordRequirementDeletions(Collection<Integer> ids) {
+        return insert(RECORD_REQUIREMENTS_SQL, ids);
+    }
+
+    /**
+     * 为这些架构项目写入删除记录。
+     *
+     * @return 写入的记录数 (不存在的项目不写入)
+     */
+    public int recordProjectDeletions(Collection<Integer> ids) {
+        return insert(RECORD_PROJECTS_SQL, ids);
+    }
+
+    private int insert(String sql, Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(String.format(sql, String.join(", ", Collections.nCopies(ids.size(), "?"))), ids.toArray());
+    }
+}
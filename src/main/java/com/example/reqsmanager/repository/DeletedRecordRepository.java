@@ -0,0 +1,27 @@
+package com.example.reqsmanager.repository;
+
+import com.example.reqsmanager.dto.DeletedRecordDTO;
+import com.example.reqsmanager.entity.DeletedRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DeletedRecordRepository extends JpaRepository<DeletedRecord, Long> {
+
+    @Query("SELECT new com.example.reqsmanager.dto.DeletedRecordDTO(d.entityId, d.businessKey, d.deletedAt) " +
+            "FROM DeletedRecord d WHERE d.entityType = :entityType AND d.deletedAt > :since ORDER BY d.deletedAt")
+    List<DeletedRecordDTO> findDeletionsSince(@Param("entityType") String entityType,
+                                              @Param("since") LocalDateTime since);
+
+    /**
+     * 读取数据库当前时间。增量导出的水位线统一使用数据库时钟，避免应用服务器与数据库的时钟偏差。
+     */
+    @Query(value = "SELECT CURRENT_TIMESTAMP(3)", nativeQuery = true)
+    Timestamp findDatabaseTime();
+}
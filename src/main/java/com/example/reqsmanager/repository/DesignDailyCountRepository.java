@@ -0,0 +1,139 @@
+package com.example.reqsmanager.repository;
+
+import com.example.reqsmanager.dto.DesignDailyCountDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 每日设计统计表 design_daily_counts 的 JDBC 访问。
+ * 写方法必须在调用方开启的事务中使用。
+ */
+@Repository
+public class DesignDailyCountRepository {
+
+    private static final String APPLY_DELTA_SQL =
+            "INSERT INTO design_daily_counts (stat_date, group_name, submitted_count, review_passed_count, went_live_count) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE submitted_count = submitted_count + VALUES(submitted_count), " +
+            "review_passed_count = review_passed_count + VALUES(review_passed_count), " +
+            "went_live_count = went_live_count + VALUES(went_live_count)";
+
+    private static final String SUM_BY_DATE_SQL =
+            "SELECT stat_date, NULL AS group_name, SUM(submitted_count) AS submitted_count, " +
+            "SUM(review_passed_count) AS review_passed_count, SUM(went_live_count) AS went_live_count " +
+            "FROM design_daily_counts WHERE stat_date BETWEEN ? AND ? GROUP BY stat_date ORDER BY stat_date";
+
+    private static final String SELECT_GROUP_SQL =
+            "SELECT stat_date, group_name, submitted_count, review_passed_count, went_live_count " +
+            "FROM design_daily_counts WHERE stat_date BETWEEN ? AND ? AND group_name = ? ORDER BY stat_date";
+
+    /**
+     * 从源表按 (日期, 小组) 聚合三类事件。使用共享锁读，期间该日期区间内的需求写入会被短暂阻塞，
+     * 加锁顺序与写事务 (先需求表、后统计表) 一致。
+     * 每条语句只输出一类计数，其余两列为 0，由 APPLY_DELTA_SQL 在同一行上累加。
+     */
+    private static final String AGGREGATE_SUBMITTED_SQL =
+            "SELECT a.summary_design_submit_date AS stat_date, COALESCE(r.group_name, '') AS group_name, " +
+            "COUNT(*) AS submitted_count, 0 AS review_passed_count, 0 AS went_live_count " +
+            "FROM architectural_requirements a JOIN requirements r ON r.id = a.requirement_id " +
+            "WHERE a.summary_design_submit_date BETWEEN ? AND ? " +
+            "GROUP BY a.summary_design_submit_date, COALESCE(r.group_name, '') LOCK IN SHARE MODE";
+
+    private static final String AGGREGATE_REVIEW_PASSED_SQL =
+            "SELECT a.summary_design_review_pass_date AS stat_date, COALESCE(r.group_name, '') AS group_name, " +
+            "0 AS submitted_count, COUNT(*) AS review_passed_count, 0 AS went_live_count " +
+            "FROM architectural_requirements a JOIN requirements r ON r.id = a.requirement_id " +
+            "WHERE a.summary_design_review_pass_date BETWEEN ? AND ? " +
+            "GROUP BY a.summary_design_review_pass_date, COALESCE(r.group_name, '') LOCK IN SHARE MODE";
+
+    private static final String AGGREGATE_WENT_LIVE_SQL =
+            "SELECT r.schedule_date AS stat_date, COALESCE(r.group_name, '') AS group_name, " +
+            "0 AS submitted_count, 0 AS review_passed_count, COUNT(*) AS went_live_count " +
+            "FROM requirements r WHERE r.schedule_date BETWEEN ? AND ? " +
+            "GROUP BY r.schedule_date, COALESCE(r.group_name, '') LOCK IN SHARE MODE";
+
+    private static final String DATE_RANGE_SQL =
+            "SELECT MIN(d), MAX(d) FROM (" +
+            "SELECT MIN(summary_design_submit_date) AS d FROM architectural_requirements " +
+            "UNION ALL SELECT MAX(summary_design_submit_date) FROM architectural_requirements " +
+            "UNION ALL SELECT MIN(summary_design_review_pass_date) FROM architectural_requirements " +
+            "UNION ALL SELECT MAX(summary_design_review_pass_date) FROM architectural_requirements " +
+            "UNION ALL SELECT MIN(schedule_date) FROM requirements " +
+            "UNION ALL SELECT MAX(schedule_date) FROM requirements) t";
+
+    private static final RowMapper<DesignDailyCountDTO> ROW_MAPPER = (rs, rowNum) -> new DesignDailyCountDTO(
+            rs.getDate("stat_date").toLocalDate(),
+            rs.getString("group_name"),
+            rs.getLong("submitted_count"),
+            rs.getLong("review_passed_count"),
+            rs.getLong("went_live_count"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 把增量累加到对应 (日期, 小组) 的计数上 (不存在时插入)。
+     * 调用方应按 (日期, 小组) 排序，使并发的写事务以相同顺序锁定统计行。
+     */
+    public void applyDeltas(List<DesignDailyCountDTO> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setDate(1, Date.valueOf(delta.getStatDate()));
+            ps.setString(2, delta.getGroupName());
+            ps.setLong(3, delta.getSubmittedCount());
+            ps.setLong(4, delta.getReviewPassedCount());
+            ps.setLong(5, delta.getWentLiveCount());
+        });
+    }
+
+    /**
+     * 区间内有数据的日期的计数，按日期升序 (走主键 (stat_date, group_name) 的范围扫描)。
+     *
+     * @param groupName 只查询该小组；为 null 时返回全部小组的合计
+     */
+    public List<DesignDailyCountDTO> findRange(LocalDate from, LocalDate to, String groupName) {
+        if (groupName == null) {
+            return jdbcTemplate.query(SUM_BY_DATE_SQL, ROW_MAPPER, Date.valueOf(from), Date.valueOf(to));
+        }
+        return jdbcTemplate.query(SELECT_GROUP_SQL, ROW_MAPPER, Date.valueOf(from), Date.valueOf(to), groupName);
+    }
+
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("SELECT 1 FROM design_daily_counts LIMIT 1").isEmpty();
+    }
+
+    /**
+     * 源数据中出现过的最早与最晚日期；没有任何日期时返回 null。
+     */
+    public LocalDate[] findSourceDateRange() {
+        return jdbcTemplate.queryForObject(DATE_RANGE_SQL, (rs, rowNum) -> rs.getDate(1) == null ? null
+                : new LocalDate[]{rs.getDate(1).toLocalDate(), rs.getDate(2).toLocalDate()});
+    }
+
+    /**
+     * 从源表重新计算 [from, to] 区间内的全部计数，替换统计表中该区间的内容。
+     *
+     * @return 写入的 (日期, 小组, 事件类型) 聚合行数
+     */
+    public int rebuildRange(LocalDate from, LocalDate to) {
+        Date fromDate = Date.valueOf(from);
+        Date toDate = Date.valueOf(to);
+        List<DesignDailyCountDTO> rows = new ArrayList<>();
+        rows.addAll(jdbcTemplate.query(AGGREGATE_SUBMITTED_SQL, ROW_MAPPER, fromDate, toDate));
+        rows.addAll(jdbcTemplate.query(AGGREGATE_REVIEW_PASSED_SQL, ROW_MAPPER, fromDate, toDate));
+        rows.addAll(jdbcTemplate.query(AGGREGATE_WENT_LIVE_SQL, ROW_MAPPER, fromDate, toDate));
+        jdbcTemplate.update("DELETE FROM design_daily_counts WHERE stat_date BETWEEN ? AND ?", fromDate, toDate);
+        // 三类计数落在同一 (日期, 小组) 上时由 ON DUPLICATE KEY UPDATE 合并
+        applyDeltas(rows);
+        return rows.size();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.reqsmanager.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Set;
+
+/**
+ * 编辑表单提交时的版本认领。
+ * 保存的第一条语句就是带版本条件的 UPDATE：版本号与表单打开时一致才递增，0 行即说明表单已过期 (或记录已被删除)，
+ * 调用方直接拒绝，不读取实体、不做比较、不取任何快照。认领成功后该行由本事务锁定到结束，
+ * 同一记录的并发提交在此排队，后到者认领失败。
+ * 必须在调用方开启的事务中使用。
+ */
+@Repository
+public class EditVersionRepository {
+
+    public static final String REQUIREMENTS = "requirements";
+    public static final String ARCH_REQUIREMENTS = "architectural_requirements";
+    public static final String REVIEW_INFOS = "review_infos";
+    public static final String ARCH_PROJECTS = "architectural_projects";
+
+    private static final Set<String> TABLES = Set.of(REQUIREMENTS, ARCH_REQUIREMENTS, REVIEW_INFOS, ARCH_PROJECTS);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 表单带回的版本仍是当前版本时将其加一。
+     *
+     * @param table   表名，只接受本类中的常量
+     * @param version 表单打开时的版本号，为 null 时认领失败
+     * @return 是否认领成功
+     */
+    public boolean claim(String table, Integer id, Long version) {
+        if (!TABLES.contains(table)) {
+            throw new IllegalArgumentException("Unknown versioned table: " + table);
+        }
+        if (id == null || version == null) {
+            return false;
+        }
+        return jdbcTemplate.update("UPDATE " + table + " SET version = version + 1 WHERE id = ? AND version = ?",
+                id, version) == 1;
+    }
+}
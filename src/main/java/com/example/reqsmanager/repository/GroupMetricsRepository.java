@@ -0,0 +1,102 @@
+package com.example.reqsmanager.repository;
+
+import com.example.reqsmanager.dto.GroupMetricsCounterDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 分组统计表 group_metrics 的 JDBC 访问。
+ * 写方法必须在调用方开启的事务中使用。
+ */
+@Repository
+public class GroupMetricsRepository {
+
+    private static final String APPLY_DELTA_SQL =
+            "INSERT INTO group_metrics (group_name, total_requirements, summary_designs_submitted, " +
+            "summary_score_sum, summary_score_count) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total_requirements = total_requirements + VALUES(total_requirements), " +
+            "summary_designs_submitted = summary_designs_submitted + VALUES(summary_designs_submitted), " +
+            "summary_score_sum = summary_score_sum + VALUES(summary_score_sum), " +
+            "summary_score_count = summary_score_count + VALUES(summary_score_count)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO group_metrics (group_name, total_requirements, summary_designs_submitted, " +
+            "summary_score_sum, summary_score_count) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_ALL_SQL =
+            "SELECT group_name, total_requirements, summary_designs_submitted, summary_score_sum, summary_score_count " +
+            "FROM group_metrics ORDER BY group_name";
+
+    /**
+     * 从需求表完整重算。使用共享锁读：会等待正在进行的需求写事务提交，并在本事务结束前阻塞新的写入，
+     * 加锁顺序与写事务 (先需求表、后统计表) 一致，不会产生死锁。
+     */
+    private static final String AGGREGATE_SQL =
+            "SELECT COALESCE(r.group_name, '') AS group_name, COUNT(*) AS total_requirements, " +
+            "SUM(CASE WHEN a.summary_design_submitted = 1 THEN 1 ELSE 0 END) AS summary_designs_submitted, " +
+            "COALESCE(SUM(a.summary_design_score), 0) AS summary_score_sum, " +
+            "COUNT(a.summary_design_score) AS summary_score_count " +
+            "FROM requirements r LEFT JOIN architectural_requirements a ON a.requirement_id = r.id " +
+            "GROUP BY COALESCE(r.group_name, '') LOCK IN SHARE MODE";
+
+    private static final RowMapper<GroupMetricsCounterDTO> ROW_MAPPER = (rs, rowNum) -> new GroupMetricsCounterDTO(
+            rs.getString("group_name"),
+            rs.getLong("total_requirements"),
+            rs.getLong("summary_designs_submitted"),
+            rs.getLong("summary_score_sum"),
+            rs.getLong("summary_score_count"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 把增量累加到各小组的计数上 (小组不存在时插入)。
+     * 调用方应按小组名排序，使并发的写事务以相同顺序锁定统计行。
+     */
+    public void applyDeltas(List<GroupMetricsCounterDTO> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setString(1, delta.getGroupName());
+            ps.setLong(2, delta.getTotalRequirements());
+            ps.setLong(3, delta.getSummaryDesignsSubmitted());
+            ps.setLong(4, delta.getSummaryScoreSum());
+            ps.setLong(5, delta.getSummaryScoreCount());
+        });
+    }
+
+    public List<GroupMetricsCounterDTO> findAll() {
+        return jdbcTemplate.query(SELECT_ALL_SQL, ROW_MAPPER);
+    }
+
+    public long sumTotalRequirements() {
+        Long total = jdbcTemplate.queryForObject("SELECT SUM(total_requirements) FROM group_metrics", Long.class);
+        return total == null ? 0 : total;
+    }
+
+    /**
+     * 直接从需求表与架构需求表聚合出各小组的真实计数 (全表扫描，仅用于定期校准)。
+     */
+    public List<GroupMetricsCounterDTO> aggregateFromRequirements() {
+        return jdbcTemplate.query(AGGREGATE_SQL, ROW_MAPPER);
+    }
+
+    /**
+     * 用给定的计数整体替换统计表的内容。
+     */
+    public void replaceAll(List<GroupMetricsCounterDTO> rows) {
+        jdbcTemplate.update("DELETE FROM group_metrics");
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.getGroupName());
+            ps.setLong(2, row.getTotalRequirements());
+            ps.setLong(3, row.getSummaryDesignsSubmitted());
+            ps.setLong(4, row.getSummaryScoreSum());
+            ps.setLong(5, row.getSummaryScoreCount());
+        });
+    }
+}
@@ -1,11 +1,26 @@
 package com.example.reqsmanager.repository;
 
+import com.example.reqsmanager.dto.MemberGroupDTO;
 import com.example.reqsmanager.entity.Member;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface MemberRepository extends JpaRepository<Member, Integer> {
-    // 根据姓名查找成员
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Member> findAll();
+
+    // 根据姓名查找成员 (结果进入查询缓存，members 表有写入时自动失效)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Member> findByName(String name);
+
+    // 一次联表查询取出全部 (成员姓名, 所属小组名称)，供批量处理在内存中查找，避免逐个按姓名查询
+    @Query("SELECT new com.example.reqsmanager.dto.MemberGroupDTO(m.name, g.name) FROM Member m JOIN m.teamGroup g")
+    List<MemberGroupDTO> findAllMemberGroups();
 }
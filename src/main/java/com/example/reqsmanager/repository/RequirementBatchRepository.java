@@ -0,0 +1,268 @@
+package com.example.reqsmanager.repository;
+
+import com.example.reqsmanager.dto.RequirementFilterStateDTO;
+import com.example.reqsmanager.dto.RequirementImportDTO;
+import com.example.reqsmanager.dto.RequirementLeaderRowDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 需求表的 JDBC 批量写入。
+ * 用于 CSV 导入、批量删除等大批量场景：绕过 JPA 的逐条 save / delete，直接以 JDBC batch 或集合语句写库。
+ * 这些表的实体不在二级缓存中；走 JDBC 而不是 JPA 原生 DML，也不会让 Hibernate 清空整个二级缓存和查询缓存。
+ * 必须在调用方开启的事务中使用。
+ */
+@Repository
+public class RequirementBatchRepository {
+
+    private static final String INSERT_REQUIREMENT_SQL =
+            "INSERT INTO requirements (id, req_id, name, tech_leader, req_type, lead_department, business_line, " +
+            "schedule_date, status, import_fingerprint, is_analysis_involved, has_spec, is_spec_reviewed) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, b'0', b'0', b'0')";
+
+    private static final String INSERT_ARCH_REQUIREMENT_SQL =
+            "INSERT INTO architectural_requirements (id, requirement_id, important_requirement, summary_design_submitted, " +
+            "involves_arch_decision, involves_infra, involves_senior_report, are_reviews_consistent) " +
+            "VALUES (?, ?, b'0', b'0', b'0', b'0', b'0', b'1')";
+
+    /**
+     * 修改表单可编辑的列时同时递增乐观锁版本号，使在此之前打开的编辑表单提交时被拒绝。
+     */
+    private static final String UPDATE_REQUIREMENT_SQL =
+            "UPDATE requirements SET name = ?, tech_leader = ?, req_type = ?, lead_department = ?, " +
+            "business_line = ?, schedule_date = ?, status = ?, import_fingerprint = ?, version = version + 1 WHERE id = ?";
+
+    /**
+     * 只刷新指纹 (内容未变化)。显式写回 updated_at 自身，避免触发 ON UPDATE，使这些行不出现在增量导出中。
+     */
+    private static final String REFRESH_FINGERPRINT_SQL =
+            "UPDATE requirements SET import_fingerprint = ?, updated_at = updated_at WHERE id = ?";
+
+    /**
+     * 按主键顺序锁定并读取下一块需求的负责人列 (键集分页)，写回之前其它事务无法修改这些行。
+     */
+    private static final String LOCK_LEADER_ROWS_SQL =
+            "SELECT id, tech_leader, group_name, dev_leader FROM requirements WHERE id > ? ORDER BY id LIMIT ? FOR UPDATE";
+
+    private static final String UPDATE_LEADERS_SQL =
+            "UPDATE requirements SET group_name = ?, dev_leader = ?, version = version + 1 WHERE id = ?";
+
+    /**
+     * 需求 (及其架构需求) 的筛选与统计字段快照，按主键顺序加锁，与 RequirementRepository.findFilterStatesByIdIn 的字段一致。
+     */
+    private static final String LOCK_FILTER_STATES_SQL =
+            "SELECT r.id, r.req_id, r.name, r.tech_leader, r.schedule_date, r.status, a.important_requirement, " +
+            "a.summary_design_submitted, r.group_name, a.summary_design_score, a.summary_design_submit_date, " +
+            "a.summary_design_review_pass_date " +
+            "FROM requirements r LEFT JOIN architectural_requirements a ON a.requirement_id = r.id " +
+            "WHERE r.%s IN (%s) ORDER BY r.id FOR UPDATE";
+
+    private static final String SELECT_REVIEW_INFO_IDS_SQL =
+            "SELECT review_info_id FROM architectural_requirements WHERE review_info_id IS NOT NULL AND requirement_id IN (%s)";
+
+    private static final String DELETE_ARCH_REQUIREMENTS_SQL =
+            "DELETE FROM architectural_requirements WHERE requirement_id IN (%s)";
+
+    private static final String DELETE_REVIEW_INFOS_SQL = "DELETE FROM review_infos WHERE id IN (%s)";
+
+    private static final String DELETE_REQUIREMENTS_SQL = "DELETE FROM requirements WHERE id IN (%s)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SequenceBlockRepository sequenceBlockRepository;
+
+    /**
+     * 批量新增需求，并为每条需求创建一条空的架构需求记录 (与 createNewRequirement 的级联行为保持一致)。
+     * 主键从与 Hibernate 共用的 pooled 序列中按块分配 (不依赖自增主键的回传)，
+     * 配合连接参数 rewriteBatchedStatements=true，每个批次会被驱动改写为一条多行 INSERT。
+     * 新分配的主键会回填到传入对象的 id 字段。
+     *
+     * @param rows 待新增的需求
+     */
+    public void insertAll(List<RequirementImportDTO> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int firstId = sequenceBlockRepository.allocate(SequenceBlockRepository.REQUIREMENTS_SEQ, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            rows.get(i).setId(firstId + i);
+        }
+        jdbcTemplate.batchUpdate(INSERT_REQUIREMENT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getId());
+            ps.setString(2, row.getReqId());
+            ps.setString(3, row.getName());
+            ps.setString(4, row.getTechLeader());
+            ps.setString(5, row.getReqType());
+            ps.setString(6, row.getLeadDepartment());
+            ps.setString(7, row.getBusinessLine());
+            setDate(ps, 8, row);
+            ps.setString(9, row.getStatus());
+            ps.setString(10, row.computeFingerprint());
+        });
+
+        int firstArchId = sequenceBlockRepository.allocate(SequenceBlockRepository.ARCH_REQUIREMENTS_SEQ, rows.size());
+        List<Integer> requirementIds = new ArrayList<>(rows.size());
+        rows.forEach(row -> requirementIds.add(row.getId()));
+        jdbcTemplate.batchUpdate(INSERT_ARCH_REQUIREMENT_SQL, requirementIds, requirementIds.size(),
+                (ps, requirementId) -> {
+                    ps.setInt(1, firstArchId + (requirementId - firstId));
+                    ps.setInt(2, requirementId);
+                });
+    }
+
+    /**
+     * 批量更新需求中可由 CSV 导入修改的字段 (同时写入新的指纹)。
+     *
+     * @param rows 待更新的需求 (id 必须已知)
+     */
+    public void updateAll(List<RequirementImportDTO> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_REQUIREMENT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.getName());
+            ps.setString(2, row.getTechLeader());
+            ps.setString(3, row.getReqType());
+            ps.setString(4, row.getLeadDepartment());
+            ps.setString(5, row.getBusinessLine());
+            setDate(ps, 6, row);
+            ps.setString(7, row.getStatus());
+            ps.setString(8, row.computeFingerprint());
+            ps.setInt(9, row.getId());
+        });
+    }
+
+    /**
+     * 批量回填内容未变化、但指纹缺失或过期的需求的指纹 (如升级前已存在的数据)。
+     *
+     * @param rows 待回填的需求 (id 必须已知)
+     */
+    public void refreshFingerprints(List<RequirementImportDTO> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(REFRESH_FINGERPRINT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.computeFingerprint());
+            ps.setInt(2, row.getId());
+        });
+    }
+
+    /**
+     * 锁定并读取主键大于 afterId 的下一块需求的负责人列。
+     *
+     * @param afterId 上一块的最后一个主键 (第一块传 0)
+     * @param limit   块大小
+     * @return 按主键升序排列的行；少于 limit 行表示已到末尾
+     */
+    public List<RequirementLeaderRowDTO> lockLeaderRowsAfter(int afterId, int limit) {
+        return jdbcTemplate.query(LOCK_LEADER_ROWS_SQL, (rs, rowNum) -> new RequirementLeaderRowDTO(
+                rs.getInt("id"), rs.getString("tech_leader"), rs.getString("group_name"), rs.getString("dev_leader")),
+                afterId, limit);
+    }
+
+    /**
+     * 批量写回需求的所属小组和开发负责人。
+     *
+     * @param rows 写入后的取值 (id 必须已知)
+     */
+    public void updateLeaders(List<RequirementLeaderRowDTO> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_LEADERS_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.getGroupName());
+            ps.setString(2, row.getDevLeader());
+            ps.setInt(3, row.getId());
+        });
+    }
+
+    /**
+     * 锁定并读取这些需求的筛选与统计字段快照 (SELECT ... FOR UPDATE，需求及其架构需求的行锁持有到事务结束)。
+     * 锁定读取总是读到最新提交的版本；写前 / 写后快照都用它读取，并发的写操作在这里排队，统计增量不会重复累加。
+     *
+     * @param ids 需求主键 (调用方按块传入，避免过长的 IN 列表)
+     * @return 按主键升序排列的快照；不存在的需求不返回
+     */
+    public List<RequirementFilterStateDTO> lockFilterStatesByIdIn(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(String.format(LOCK_FILTER_STATES_SQL, "id", placeholders(ids.size())),
+                (rs, rowNum) -> filterState(rs), ids.toArray());
+    }
+
+    /**
+     * 同 lockFilterStatesByIdIn，按需求编号锁定 (CSV 导入)。
+     */
+    public List<RequirementFilterStateDTO> lockFilterStatesByReqIdIn(Collection<String> reqIds) {
+        if (reqIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(String.format(LOCK_FILTER_STATES_SQL, "req_id", placeholders(reqIds.size())),
+                (rs, rowNum) -> filterState(rs), reqIds.toArray());
+    }
+
+    private static RequirementFilterStateDTO filterState(ResultSet rs) throws SQLException {
+        return new RequirementFilterStateDTO(
+                rs.getInt("id"),
+                rs.getString("req_id"),
+                rs.getString("name"),
+                rs.getString("tech_leader"),
+                rs.getObject("schedule_date", LocalDate.class),
+                rs.getString("status"),
+                rs.getObject("important_requirement", Boolean.class),
+                rs.getObject("summary_design_submitted", Boolean.class),
+                rs.getString("group_name"),
+                rs.getObject("summary_design_score", Integer.class),
+                rs.getObject("summary_design_submit_date", LocalDate.class),
+                rs.getObject("summary_design_review_pass_date", LocalDate.class));
+    }
+
+    /**
+     * 批量删除需求及其架构需求、评审信息，每张表一条 IN 列表 DELETE，不加载实体。
+     * 架构需求引用评审信息和需求，因此先删架构需求，再删评审信息和需求。
+     *
+     * @param ids 需求主键 (调用方按块传入，避免过长的 IN 列表)
+     * @return 删除的需求数
+     */
+    public int deleteAll(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Object[] requirementIds = ids.toArray();
+        List<Integer> reviewInfoIds = jdbcTemplate.queryForList(
+                String.format(SELECT_REVIEW_INFO_IDS_SQL, placeholders(ids.size())), Integer.class, requirementIds);
+        jdbcTemplate.update(String.format(DELETE_ARCH_REQUIREMENTS_SQL, placeholders(ids.size())), requirementIds);
+        if (!reviewInfoIds.isEmpty()) {
+            jdbcTemplate.update(String.format(DELETE_REVIEW_INFOS_SQL, placeholders(reviewInfoIds.size())),
+                    reviewInfoIds.toArray());
+        }
+        return jdbcTemplate.update(String.format(DELETE_REQUIREMENTS_SQL, placeholders(ids.size())), requirementIds);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private void setDate(PreparedStatement ps, int index, RequirementImportDTO row) throws SQLException {
+        if (row.getScheduleDate() != null) {
+            ps.setDate(index, Date.valueOf(row.getScheduleDate()));
+        } else {
+            ps.setNull(index, Types.DATE);
+        }
+    }
+}
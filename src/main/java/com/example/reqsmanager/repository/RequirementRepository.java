@@ -1,6 +1,8 @@
 package com.example.reqsmanager.repository;
 
-import com.example.reqsmanager.dto.GroupMetricsDTO;
+import com.example.reqsmanager.dto.IdKeyDTO;
+import com.example.reqsmanager.dto.RequirementFilterStateDTO;
+import com.example.reqsmanager.dto.RequirementImportDTO;
 import com.example.reqsmanager.entity.Requirement;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,7 +11,10 @@ import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,17 +25,6 @@ public interface RequirementRepository extends JpaRepository<Requirement, Intege
     @EntityGraph(attributePaths = {"architecturalRequirement", "architecturalRequirement.reviewInfo"})
     Page<Requirement> findAll(Specification<Requirement> spec, Pageable pageable);
 
-    @Query("SELECT new com.example.reqsmanager.dto.GroupMetricsDTO(" +
-            "r.groupName, " +
-            "COUNT(r.id), " +
-            "SUM(CASE WHEN ar.summaryDesignSubmitted = true THEN 1 ELSE 0 END), " +
-            "AVG(CASE WHEN ar.summaryDesignScore IS NOT NULL THEN ar.summaryDesignScore ELSE NULL END)" +
-            ") " +
-            "FROM Requirement r LEFT JOIN r.architecturalRequirement ar " +
-            "WHERE r.groupName IS NOT NULL AND r.groupName != '' " +
-            "GROUP BY r.groupName")
-    List<GroupMetricsDTO> findGroupMetrics();
-
     // === START: 新增这个缺失的方法 ===
     /**
      * 根据需求编号检查需求是否存在。
@@ -49,4 +43,61 @@ public interface RequirementRepository extends JpaRepository<Requirement, Intege
      */
     Optional<Requirement> findByReqId(String reqId);
     // === END ===
+
+    /**
+     * 根据一组需求编号，一次性查询出已存在需求的导入比对快照。
+     * 只选取导入涉及的列，不加载实体及其关联。
+     * @param reqIds 需求编号集合
+     * @return 已存在需求的快照列表
+     */
+    @Query("SELECT new com.example.reqsmanager.dto.RequirementImportDTO(" +
+            "r.id, r.reqId, r.name, r.techLeader, r.reqType, r.leadDepartment, r.businessLine, r.scheduleDate, r.status, " +
+            "r.importFingerprint) " +
+            "FROM Requirement r WHERE r.reqId IN :reqIds")
+    List<RequirementImportDTO> findImportSnapshotsByReqIdIn(@Param("reqIds") Collection<String> reqIds);
+
+    /**
+     * 根据一组需求编号，一次性查询已存在需求的导入指纹 (只读两列)。
+     * @param reqIds 需求编号集合
+     * @return 已存在需求的 (需求编号, 指纹) 列表
+     */
+    @Query("SELECT new com.example.reqsmanager.dto.RequirementImportDTO(r.reqId, r.importFingerprint) " +
+            "FROM Requirement r WHERE r.reqId IN :reqIds")
+    List<RequirementImportDTO> findImportFingerprintsByReqIdIn(@Param("reqIds") Collection<String> reqIds);
+
+    /**
+     * 查询需求在列表筛选和排序上涉及的字段快照，用于列表缓存的失效判断。
+     */
+    @Query("SELECT new com.example.reqsmanager.dto.RequirementFilterStateDTO(" +
+            "r.id, r.reqId, r.name, r.techLeader, r.scheduleDate, r.status, a.importantRequirement, a.summaryDesignSubmitted, " +
+            "r.groupName, a.summaryDesignScore, a.summaryDesignSubmitDate, a.summaryDesignReviewPassDate) " +
+            "FROM Requirement r LEFT JOIN r.architecturalRequirement a WHERE r.id IN :ids")
+    List<RequirementFilterStateDTO> findFilterStatesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * 同 findFilterStatesByIdIn，按需求编号查询 (CSV 导入)。
+     */
+    @Query("SELECT new com.example.reqsmanager.dto.RequirementFilterStateDTO(" +
+            "r.id, r.reqId, r.name, r.techLeader, r.scheduleDate, r.status, a.importantRequirement, a.summaryDesignSubmitted, " +
+            "r.groupName, a.summaryDesignScore, a.summaryDesignSubmitDate, a.summaryDesignReviewPassDate) " +
+            "FROM Requirement r LEFT JOIN r.architecturalRequirement a WHERE r.reqId IN :reqIds")
+    List<RequirementFilterStateDTO> findFilterStatesByReqIdIn(@Param("reqIds") Collection<String> reqIds);
+
+    /**
+     * 根据一组需求编号查询 (主键, 需求编号)，用于维护内存中的编号子串索引。
+     */
+    @Query("SELECT new com.example.reqsmanager.dto.IdKeyDTO(r.id, r.reqId) FROM Requirement r WHERE r.reqId IN :reqIds")
+    List<IdKeyDTO> findIdKeysByReqIdIn(@Param("reqIds") Collection<String> reqIds);
+
+    /**
+     * 增量导出：自 since 之后修改过的需求 ID (走 updated_at 索引)。
+     */
+    @Query("SELECT r.id FROM Requirement r WHERE r.updatedAt > :since")
+    List<Integer> findIdsUpdatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * 增量导出：按 ID 加载需求及其架构信息，按 ID 排序。
+     */
+    @EntityGraph(attributePaths = {"architecturalRequirement"})
+    List<Requirement> findByIdInOrderByIdAsc(Collection<Integer> ids);
 }
@@ -0,0 +1,82 @@
+package com.example.reqsmanager.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 需求状态的日期驱动批量更新，以及定时任务水位线表 job_watermarks 的 JDBC 访问。
+ * 必须在调用方开启的事务中使用。
+ */
+@Repository
+public class RequirementStatusRepository {
+
+    private static final String ENSURE_WATERMARK_SQL =
+            "INSERT IGNORE INTO job_watermarks (job_name, watermark_date) VALUES (?, NULL)";
+
+    private static final String LOCK_WATERMARK_SQL =
+            "SELECT watermark_date FROM job_watermarks WHERE job_name = ? FOR UPDATE";
+
+    private static final String SAVE_WATERMARK_SQL =
+            "UPDATE job_watermarks SET watermark_date = ? WHERE job_name = ?";
+
+    /**
+     * 计划投产日期落在 (after, through] 内的需求，条件是 schedule_date 上的范围，走 (schedule_date, id) 索引的范围扫描。
+     * 首次执行 (没有下界) 时使用 UNBOUNDED 版本。
+     */
+    private static final String LOCK_IDS_SQL =
+            "SELECT id FROM requirements WHERE schedule_date > ? AND schedule_date <= ? AND status = ? FOR UPDATE";
+
+    private static final String LOCK_IDS_UNBOUNDED_SQL =
+            "SELECT id FROM requirements WHERE schedule_date <= ? AND status = ? FOR UPDATE";
+
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE requirements SET status = ? WHERE schedule_date > ? AND schedule_date <= ? AND status = ?";
+
+    private static final String UPDATE_STATUS_UNBOUNDED_SQL =
+            "UPDATE requirements SET status = ? WHERE schedule_date <= ? AND status = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 读取并锁定任务的水位线 (不存在时先创建)，锁持有到事务结束，多个实例同时执行时只有一个会真正处理。
+     *
+     * @return 已处理到的日期 (含)；从未执行过时为 null
+     */
+    public LocalDate lockWatermark(String jobName) {
+        jdbcTemplate.update(ENSURE_WATERMARK_SQL, jobName);
+        Date watermark = jdbcTemplate.queryForObject(LOCK_WATERMARK_SQL, Date.class, jobName);
+        return watermark == null ? null : watermark.toLocalDate();
+    }
+
+    public void saveWatermark(String jobName, LocalDate watermark) {
+        jdbcTemplate.update(SAVE_WATERMARK_SQL, Date.valueOf(watermark), jobName);
+    }
+
+    /**
+     * 锁定计划投产日期在 (after, through] (after 为 null 时不限下界) 内、状态为 fromStatus 的需求，返回其主键。
+     */
+    public List<Integer> lockIdsScheduledBetween(LocalDate after, LocalDate through, String fromStatus) {
+        if (after == null) {
+            return jdbcTemplate.queryForList(LOCK_IDS_UNBOUNDED_SQL, Integer.class, Date.valueOf(through), fromStatus);
+        }
+        return jdbcTemplate.queryForList(LOCK_IDS_SQL, Integer.class, Date.valueOf(after), Date.valueOf(through), fromStatus);
+    }
+
+    /**
+     * 用一条 UPDATE 把计划投产日期在 (after, through] (after 为 null 时不限下界) 内、状态为 fromStatus 的需求改为 toStatus。
+     *
+     * @return 更新的行数
+     */
+    public int updateStatusScheduledBetween(LocalDate after, LocalDate through, String fromStatus, String toStatus) {
+        if (after == null) {
+            return jdbcTemplate.update(UPDATE_STATUS_UNBOUNDED_SQL, toStatus, Date.valueOf(through), fromStatus);
+        }
+        return jdbcTemplate.update(UPDATE_STATUS_SQL, toStatus, Date.valueOf(after), Date.valueOf(through), fromStatus);
+    }
+}
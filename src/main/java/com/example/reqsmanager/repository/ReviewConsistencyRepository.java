@@ -0,0 +1,34 @@
+package com.example.reqsmanager.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 架构需求“评审检核是否一致”标志的 JDBC 批量重算。
+ * 走 JDBC 而不是 JPA 原生 DML，不会让 Hibernate 清空整个二级缓存和查询缓存。
+ * 必须在调用方开启的事务中使用。
+ */
+@Repository
+public class ReviewConsistencyRepository {
+
+    /**
+     * 没有评审信息的架构需求视为一致；只改写结果有变化的行。
+     */
+    private static final String RECOMPUTE_SQL =
+            "UPDATE architectural_requirements ar LEFT JOIN review_infos ri ON ri.id = ar.review_info_id " +
+            "SET ar.are_reviews_consistent = (COALESCE(ri.check_mismatches, 0) = 0) " +
+            "WHERE NOT (ar.are_reviews_consistent <=> (COALESCE(ri.check_mismatches, 0) = 0))";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 用一条语句按评审信息重新计算全部架构需求的“评审检核是否一致”。
+     *
+     * @return 结果有变化的行数
+     */
+    public int recomputeAll() {
+        return jdbcTemplate.update(RECOMPUTE_SQL);
+    }
+}
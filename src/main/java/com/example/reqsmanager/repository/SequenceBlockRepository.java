@@ -0,0 +1,56 @@
+package com.example.reqsmanager.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 供 JDBC 批量插入使用的主键块分配，与 Hibernate 的 pooled 序列共用同一张模拟序列表 (xxx_seq)。
+ * 分配方式与 Hibernate 的 pooled 优化器一致：读到的 next_val 为一块的最大值，
+ * 该块为 [next_val - ALLOCATION_SIZE + 1, next_val]，同时将 next_val 增加 ALLOCATION_SIZE 的整数倍，
+ * 因此两边分配到的主键不会重叠。
+ * 与 Hibernate 一样在独立的事务中执行并立即提交，不在调用方的事务中长时间持有序列表的行锁。
+ */
+@Repository
+public class SequenceBlockRepository {
+
+    /**
+     * 必须与实体上 @SequenceGenerator 的 allocationSize 相同。
+     */
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String REQUIREMENTS_SEQ = "requirements_seq";
+    public static final String ARCH_REQUIREMENTS_SEQ = "architectural_requirements_seq";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate requiresNewTransaction;
+
+    public SequenceBlockRepository(PlatformTransactionManager transactionManager) {
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 分配 count 个连续的主键。
+     *
+     * @param sequenceTable 模拟序列表名，只接受本类中的常量
+     * @return 第一个主键，分配到的主键为 [返回值, 返回值 + count - 1]
+     */
+    public int allocate(String sequenceTable, int count) {
+        if (!REQUIREMENTS_SEQ.equals(sequenceTable) && !ARCH_REQUIREMENTS_SEQ.equals(sequenceTable)) {
+            throw new IllegalArgumentException("Unknown sequence table: " + sequenceTable);
+        }
+        int blocks = (count + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+        Long hiValue = requiresNewTransaction.execute(status -> {
+            Long value = jdbcTemplate.queryForObject("SELECT next_val FROM " + sequenceTable + " FOR UPDATE", Long.class);
+            jdbcTemplate.update("UPDATE " + sequenceTable + " SET next_val = ?", value + (long) blocks * ALLOCATION_SIZE);
+            return value;
+        });
+        return Math.toIntExact(hiValue - ALLOCATION_SIZE + 1);
+    }
+}
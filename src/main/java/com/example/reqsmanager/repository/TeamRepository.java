@@ -1,5 +1,16 @@
 package com.example.reqsmanager.repository;
 
 import com.example.reqsmanager.entity.Team;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
-public interface TeamRepository extends JpaRepository<Team, Integer> {}
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+
+public interface TeamRepository extends JpaRepository<Team, Integer> {
+    // 团队列表 (结果进入查询缓存，teams 表有写入时自动失效)
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Team> findAll();
+}
@@ -1,9 +1,15 @@
 package com.example.reqsmanager.repository;
 
 import com.example.reqsmanager.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
+    // 每次登录认证都会调用，结果进入查询缓存，users 表有写入时自动失效
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
 }
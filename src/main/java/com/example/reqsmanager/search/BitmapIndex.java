@@ -0,0 +1,184 @@
+package com.example.reqsmanager.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 内存中的位图索引，用于对取值个数有限的列 (状态、负责人、是否类标志等) 做任意组合的精确匹配筛选。
+ * - 每个字段的每个不同取值对应一个压缩位图 (CompressedBitmap)，存放取该值的全部主键；
+ * - 查询时同一字段的多个取值求并 (OR)，不同字段之间求交 (AND)，从元素最少的字段开始，结果为升序主键集合；
+ * - 取值大小写不敏感，与 MySQL 默认排序规则下等值比较的行为一致；null 表示无值，不参与任何取值的匹配
+ *   (与 SQL 中 col = ? 对 NULL 不成立一致)。
+ * 每行各字段的取值以字典编码存放在按主键寻址的 int 列中，修改时据此从旧取值的位图中移除。
+ * 线程安全：查询之间可并发，修改时独占。
+ *
+ * @param <F> 字段枚举
+ */
+public class BitmapIndex<F extends Enum<F>> {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Dictionary[] dictionaries;
+    private final CompressedBitmap rows = new CompressedBitmap();
+
+    /**
+     * codes[字段][主键] 为该行在该字段上的取值编码，0 表示无值。
+     */
+    private int[][] codes;
+
+    public BitmapIndex(Class<F> fieldType) {
+        int fieldCount = fieldType.getEnumConstants().length;
+        this.dictionaries = new Dictionary[fieldCount];
+        this.codes = new int[fieldCount][];
+        for (int field = 0; field < fieldCount; field++) {
+            dictionaries[field] = new Dictionary();
+            codes[field] = new int[1024];
+        }
+    }
+
+    /**
+     * 新增或修改一行。
+     *
+     * @param values 按字段枚举的 ordinal 排列的取值，null 表示无值
+     */
+    public void put(int id, String[] values) {
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(id);
+            rows.add(id);
+            for (int field = 0; field < dictionaries.length; field++) {
+                Dictionary dictionary = dictionaries[field];
+                int previous = codes[field][id];
+                int code = dictionary.encode(normalize(values[field]));
+                if (previous == code) {
+                    continue;
+                }
+                if (previous != 0) {
+                    dictionary.bitmaps.get(previous).remove(id);
+                }
+                if (code != 0) {
+                    dictionary.bitmaps.get(code).add(id);
+                }
+                codes[field][id] = code;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            if (!rows.contains(id)) {
+                return;
+            }
+            rows.remove(id);
+            for (int field = 0; field < dictionaries.length; field++) {
+                int previous = codes[field][id];
+                if (previous != 0) {
+                    dictionaries[field].bitmaps.get(previous).remove(id);
+                    codes[field][id] = 0;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return 索引中的行数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查找满足全部条件的行。
+     *
+     * @param criteria 字段 -> 允许的取值 (任一取值匹配即可)；为空时匹配全部行
+     * @param within   只在这些主键中查找，null 表示不限
+     * @return 满足条件的主键集合 (新实例，调用方可任意修改)
+     */
+    public CompressedBitmap find(Map<F, ? extends Collection<String>> criteria, CompressedBitmap within) {
+        lock.readLock().lock();
+        try {
+            List<CompressedBitmap> fieldMatches = new ArrayList<>(criteria.size() + 1);
+            if (within != null) {
+                fieldMatches.add(within);
+            }
+            for (Map.Entry<F, ? extends Collection<String>> entry : criteria.entrySet()) {
+                Dictionary dictionary = dictionaries[entry.getKey().ordinal()];
+                CompressedBitmap union = null;
+                for (String value : entry.getValue()) {
+                    Integer code = dictionary.codes.get(normalize(value));
+                    if (code == null) {
+                        continue;
+                    }
+                    CompressedBitmap bitmap = dictionary.bitmaps.get(code);
+                    union = union == null ? bitmap : CompressedBitmap.or(union, bitmap);
+                }
+                if (union == null) {
+                    return new CompressedBitmap();
+                }
+                fieldMatches.add(union);
+            }
+            if (fieldMatches.isEmpty()) {
+                return rows.copy();
+            }
+            // 从最小的集合开始求交，中间结果始终不大于它
+            fieldMatches.sort(Comparator.comparingInt(CompressedBitmap::cardinality));
+            CompressedBitmap result = fieldMatches.get(0);
+            boolean owned = false;
+            for (int i = 1; i < fieldMatches.size() && !result.isEmpty(); i++) {
+                result = CompressedBitmap.and(result, fieldMatches.get(i));
+                owned = true;
+            }
+            return owned ? result : result.copy();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureCapacity(int id) {
+        if (id >= codes[0].length) {
+            int length = Math.max(id + 1, codes[0].length * 2);
+            for (int field = 0; field < codes.length; field++) {
+                codes[field] = Arrays.copyOf(codes[field], length);
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 一个字段的取值字典：取值 <-> 编码 (从 1 开始)，以及每个编码对应的位图。取值只增不减。
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<CompressedBitmap> bitmaps = new ArrayList<>(List.of(new CompressedBitmap()));
+
+        int encode(String value) {
+            if (value == null) {
+                return 0;
+            }
+            return codes.computeIfAbsent(value, v -> {
+                bitmaps.add(new CompressedBitmap());
+                return bitmaps.size() - 1;
+            });
+        }
+    }
+}
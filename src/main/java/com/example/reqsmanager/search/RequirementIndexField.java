@@ -0,0 +1,17 @@
+package com.example.reqsmanager.search;
+
+/**
+ * 需求位图索引 (见 FilterIndexService) 中建立索引的字段。
+ * 布尔字段以 "true" / "false" 作为取值；没有架构需求记录的需求在架构字段上无值。
+ */
+public enum RequirementIndexField {
+    STATUS,
+    TECH_LEADER,
+    GROUP_NAME,
+    REQ_TYPE,
+    IMPORTANT_REQUIREMENT,
+    SUMMARY_DESIGN_SUBMITTED,
+    INVOLVES_ARCH_DECISION,
+    INVOLVES_INFRA,
+    INVOLVES_SENIOR_REPORT
+}
@@ -0,0 +1,209 @@
+package com.example.reqsmanager.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 内存中的三元组 (trigram) 索引，用于对编号类短字符串做子串查找，替代无法使用索引的 LIKE '%x%'。
+ * - 每个值被拆成所有连续的 3 个字符，每个三元组对应一个有序的主键列表 (倒排表)；
+ * - 查询时取片段的全部三元组，只遍历其中最短的倒排表，用原值逐个确认确实包含该片段
+ *   (原值比对本身就是精确的，比在其它倒排表中逐个二分查找更快)；
+ * - 大小写不敏感，与 MySQL 默认排序规则下 LIKE 的行为一致。
+ * 主键假定为从 1 开始、基本连续的自增整数，原值按主键存放在数组中。
+ * 线程安全：查询之间可并发，修改时独占。
+ */
+public class TrigramIndex {
+
+    private static final int GRAM = 3;
+    private static final int[] EMPTY = new int[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private String[] values = new String[1024];
+    private int size;
+
+    /**
+     * 新增或修改一条记录的值 (value 为 null 等同于删除)。
+     */
+    public void put(int id, String value) {
+        String normalized = normalize(value);
+        lock.writeLock().lock();
+        try {
+            String previous = id < values.length ? values[id] : null;
+            if (previous != null) {
+                if (previous.equals(normalized)) {
+                    return;
+                }
+                forEachGram(previous, gram -> {
+                    Postings list = postings.get(gram);
+                    list.remove(id);
+                    if (list.size == 0) {
+                        postings.remove(gram);
+                    }
+                });
+                size--;
+            }
+            if (normalized == null) {
+                if (previous != null) {
+                    values[id] = null;
+                }
+                return;
+            }
+            if (id >= values.length) {
+                values = Arrays.copyOf(values, Math.max(id + 1, values.length * 2));
+            }
+            values[id] = normalized;
+            size++;
+            forEachGram(normalized, gram -> postings.computeIfAbsent(gram, g -> new Postings()).add(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        put(id, null);
+    }
+
+    /**
+     * 清空索引。
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            values = new String[1024];
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return 索引中的记录数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查找值中包含 fragment 的记录。
+     *
+     * @param fragment 子串，长度至少为 3
+     * @param limit    最多返回的条数
+     * @return 升序排列的主键；命中数超过 limit 时返回 null (片段区分度太低，由调用方改用其它方式查询)
+     * @throws IllegalArgumentException fragment 短于 3 个字符
+     */
+    public int[] findContaining(String fragment, int limit) {
+        String normalized = normalize(fragment);
+        if (normalized == null || normalized.length() < GRAM) {
+            throw new IllegalArgumentException("Fragment must be at least " + GRAM + " characters: " + fragment);
+        }
+        lock.readLock().lock();
+        try {
+            Postings shortest = null;
+            for (int i = 0; i + GRAM <= normalized.length(); i++) {
+                Postings list = postings.get(gram(normalized, i));
+                if (list == null) {
+                    return EMPTY;
+                }
+                if (shortest == null || list.size < shortest.size) {
+                    shortest = list;
+                }
+            }
+            int[] result = new int[Math.min(shortest.size, limit + 1)];
+            int count = 0;
+            for (int i = 0; i < shortest.size; i++) {
+                int id = shortest.ids[i];
+                if (values[id].contains(normalized)) {
+                    if (count == limit) {
+                        return null;
+                    }
+                    result[count++] = id;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private interface GramConsumer {
+        void accept(long gram);
+    }
+
+    /**
+     * 依次处理值中的每个不重复的三元组。
+     */
+    private static void forEachGram(String value, GramConsumer consumer) {
+        int count = Math.max(0, value.length() - GRAM + 1);
+        long[] grams = new long[count];
+        for (int i = 0; i < count; i++) {
+            grams[i] = gram(value, i);
+        }
+        Arrays.sort(grams);
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                consumer.accept(grams[i]);
+            }
+        }
+    }
+
+    /**
+     * 三个 UTF-16 字符打包成一个 long。
+     */
+    private static long gram(String value, int start) {
+        return ((long) value.charAt(start) << 32) | ((long) value.charAt(start + 1) << 16) | value.charAt(start + 2);
+    }
+
+    /**
+     * 有序的主键列表。主键通常递增写入，追加是 O(1) 的；删除和乱序插入需要移动数组。
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+                size--;
+            }
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+    }
+}
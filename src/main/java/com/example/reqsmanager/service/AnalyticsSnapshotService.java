@@ -0,0 +1,237 @@
+package com.example.reqsmanager.service;
+
+import com.example.reqsmanager.analytics.ColumnarRequirementSnapshot;
+import com.example.reqsmanager.analytics.RequirementDimension;
+import com.example.reqsmanager.dto.CubeCellDTO;
+import com.example.reqsmanager.dto.CubeResultDTO;
+import com.example.reqsmanager.dto.RequirementAnalyticsRowDTO;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 需求交叉统计的内存列式快照 (见 ColumnarRequirementSnapshot)。
+ * - 应用启动 (开始接收请求) 之前从数据库一次性加载；
+ * - 需求 / 架构需求的写操作调用 requirementsChanged，事务提交后在刷新线程上按主键从数据库重新读取这些行并覆盖 (读不到即删除)；
+ * - 统计查询完全在内存中完成，不访问数据库。
+ */
+@Slf4j
+@Service
+public class AnalyticsSnapshotService implements SmartInitializingSingleton {
+
+    private static final int LOAD_CHUNK_SIZE = 10_000;
+    private static final int REFRESH_CHUNK_SIZE = 1000;
+
+    /**
+     * 一次交叉统计最多返回的分组单元数。
+     */
+    static final int MAX_CELLS = 100_000;
+
+    private static final String SELECT_ROWS = "SELECT new com.example.reqsmanager.dto.RequirementAnalyticsRowDTO(" +
+            "r.id, r.groupName, r.status, r.reqType, r.leadDepartment, r.scheduleDate, " +
+            "a.summaryDesignSubmitted, a.summaryDesignScore) " +
+            "FROM Requirement r LEFT JOIN r.architecturalRequirement a ";
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 全量重新加载时在新实例中构建，完成后整体替换，加载期间查询仍使用旧快照。
+     */
+    private volatile ColumnarRequirementSnapshot snapshot = new ColumnarRequirementSnapshot();
+
+    /**
+     * 串行化“从数据库读取 + 写入快照”，保证后开始的刷新 (读到更新的数据) 不会被先开始的刷新覆盖。
+     */
+    private final Object refreshLock = new Object();
+
+    /**
+     * 刷新线程。单线程 + 无界队列：刷新按提交顺序执行，全量重新加载期间提交的刷新在队列中等待，不阻塞请求线程。
+     */
+    private final ThreadPoolExecutor refreshExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "analytics-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        refreshExecutor.shutdown();
+        if (!refreshExecutor.awaitTermination(60, TimeUnit.SECONDS)) {
+            log.warn("Analytics snapshot executor did not finish in time, {} pending refreshes dropped", refreshExecutor.getQueue().size());
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 从数据库全量重新加载快照。
+     *
+     * @return 加载的行数
+     */
+    public int rebuild() {
+        synchronized (refreshLock) {
+            long start = System.nanoTime();
+            TransactionTemplate readOnlyTransaction = readOnlyTransaction();
+            ColumnarRequirementSnapshot fresh = new ColumnarRequirementSnapshot();
+            int afterId = 0;
+            while (true) {
+                int after = afterId;
+                List<RequirementAnalyticsRowDTO> rows = readOnlyTransaction.execute(status -> entityManager
+                        .createQuery(SELECT_ROWS + "WHERE r.id > :afterId ORDER BY r.id", RequirementAnalyticsRowDTO.class)
+                        .setParameter("afterId", after)
+                        .setMaxResults(LOAD_CHUNK_SIZE)
+                        .getResultList());
+                rows.forEach(row -> put(fresh, row));
+                if (rows.size() < LOAD_CHUNK_SIZE) {
+                    break;
+                }
+                afterId = rows.get(rows.size() - 1).getId();
+            }
+            snapshot = fresh;
+            log.info("Analytics snapshot loaded: {} requirements in {} ms",
+                    fresh.size(), (System.nanoTime() - start) / 1_000_000);
+            return fresh.size();
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // 查询
+    // ---------------------------------------------------------------
+
+    /**
+     * 按任意维度组合分组统计需求数、概要设计已递交数和概要设计平均分。
+     *
+     * @param groupBy 分组维度，按顺序排列
+     * @param filters 各维度允许的取值 (空字符串表示空值)
+     * @throws IllegalArgumentException 分组组合过多 (结果超过 MAX_CELLS 个单元)
+     */
+    public CubeResultDTO cube(List<RequirementDimension> groupBy, Map<RequirementDimension, Collection<String>> filters) {
+        long start = System.nanoTime();
+        List<ColumnarRequirementSnapshot.Cell> cells;
+        try {
+            cells = snapshot.aggregate(groupBy, filters, MAX_CELLS);
+        } catch (ArithmeticException e) {
+            cells = null;
+        }
+        if (cells == null) {
+            throw new IllegalArgumentException("分组组合过多 (超过 " + MAX_CELLS + " 个)，请减少分组维度或增加筛选条件。");
+        }
+        long elapsedMicros = (System.nanoTime() - start) / 1_000;
+
+        Comparator<String> nullsFirst = Comparator.nullsFirst(Comparator.naturalOrder());
+        cells.sort((a, b) -> Arrays.compare(a.values(), b.values(), nullsFirst));
+        List<CubeCellDTO> result = new ArrayList<>(cells.size());
+        long matched = 0;
+        for (ColumnarRequirementSnapshot.Cell cell : cells) {
+            Double average = cell.scoreCount() > 0 ? (double) cell.scoreSum() / cell.scoreCount() : null;
+            result.add(new CubeCellDTO(Arrays.asList(cell.values()), cell.count(), cell.summaryDesignsSubmitted(), average));
+            matched += cell.count();
+        }
+        List<String> dimensionNames = groupBy.stream().map(RequirementDimension::getParamName).toList();
+        return new CubeResultDTO(dimensionNames, matched, result, elapsedMicros);
+    }
+
+    // ---------------------------------------------------------------
+    // 维护 (由业务服务在写操作后调用)
+    // ---------------------------------------------------------------
+
+    /**
+     * 在当前事务提交后，从数据库重新读取这些需求并更新快照 (已删除的需求从快照中移除)；没有事务时立即提交刷新。
+     */
+    public void requirementsChanged(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Integer> copy = List.copyOf(new HashSet<>(ids));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(copy);
+                }
+            });
+        } else {
+            submit(copy);
+        }
+    }
+
+    private void submit(List<Integer> ids) {
+        refreshExecutor.execute(() -> {
+            try {
+                refresh(ids);
+            } catch (Exception e) {
+                // 快照与数据库不一致时统计结果可能不准确，可通过重建修复
+                log.error("Analytics snapshot refresh failed, rebuild the snapshot to resynchronize", e);
+            }
+        });
+    }
+
+    private void refresh(List<Integer> ids) {
+        synchronized (refreshLock) {
+            // 独立的只读事务，不加入调用方可能存在的事务
+            TransactionTemplate readOnlyTransaction = readOnlyTransaction();
+            readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            for (int from = 0; from < ids.size(); from += REFRESH_CHUNK_SIZE) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + REFRESH_CHUNK_SIZE, ids.size()));
+                List<RequirementAnalyticsRowDTO> rows = readOnlyTransaction.execute(status -> entityManager
+                        .createQuery(SELECT_ROWS + "WHERE r.id IN :ids", RequirementAnalyticsRowDTO.class)
+                        .setParameter("ids", chunk)
+                        .getResultList());
+                Set<Integer> missing = new HashSet<>(chunk);
+                for (RequirementAnalyticsRowDTO row : rows) {
+                    put(snapshot, row);
+                    missing.remove(row.getId());
+                }
+                missing.forEach(snapshot::remove);
+            }
+        }
+    }
+
+    private static void put(ColumnarRequirementSnapshot snapshot, RequirementAnalyticsRowDTO row) {
+        String[] values = new String[RequirementDimension.values().length];
+        values[RequirementDimension.GROUP_NAME.ordinal()] = row.getGroupName();
+        values[RequirementDimension.STATUS.ordinal()] = row.getStatus();
+        values[RequirementDimension.REQ_TYPE.ordinal()] = row.getReqType();
+        values[RequirementDimension.LEAD_DEPARTMENT.ordinal()] = row.getLeadDepartment();
+        values[RequirementDimension.SCHEDULE_MONTH.ordinal()] =
+                row.getScheduleDate() == null ? null : YearMonth.from(row.getScheduleDate()).toString();
+        snapshot.put(row.getId(), values, Boolean.TRUE.equals(row.getSummaryDesignSubmitted()), row.getSummaryDesignScore());
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        return readOnlyTransaction;
+    }
+}
@@ -1,24 +1,43 @@
 package com.example.reqsmanager.service;
 
+import com.example.reqsmanager.csv.ParallelCsvParser;
+import com.example.reqsmanager.dto.DeltaExportDTO;
+import com.example.reqsmanager.dto.ImportSummaryDTO;
 import com.example.reqsmanager.entity.ArchitecturalProject;
+import com.example.reqsmanager.entity.DeletedRecord;
 import com.example.reqsmanager.repository.ArchitecturalProjectRepository;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
+import com.example.reqsmanager.repository.EditVersionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
 import org.apache.commons.csv.CSVRecord;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
 import jakarta.persistence.criteria.Predicate;
 
-import java.io.BufferedReader;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ArchitecturalProjectService {
@@ -26,6 +45,37 @@ public class ArchitecturalProjectService {
     @Autowired
     private ArchitecturalProjectRepository projectRepository;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ParallelCsvParser parallelCsvParser;
+
+    @Autowired
+    private ChangeTrackingService changeTrackingService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private SubstringIndexService substringIndexService;
+
+    @Autowired
+    private EditVersionRepository editVersionRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * CSV 导入时，每块处理的行数 (每块一个独立事务)。
+     */
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+
+    /**
+     * 流式导出时，每处理多少行清空一次持久化上下文。
+     */
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     /**
      * 通用的分页查询方法。
      * 支持根据项目编号、需求编号、需求名称、项目负责人、是否重点项目进行筛选。
@@ -38,10 +88,16 @@ public class ArchitecturalProjectService {
      * @return 包含查询结果和分页信息的一个 Page<ArchitecturalProject> 对象
      */
     public Page<ArchitecturalProject> findProjects(String projectNumber, String reqId, String reqName, String projectManager, Boolean isKeyProject, Pageable pageable) {
+        // 项目编号的子串匹配先在内存索引中求得候选，缩小 LIKE 的扫描范围
+        List<Integer> projectIdCandidates = projectNumber != null && !projectNumber.isEmpty()
+                ? substringIndexService.findProjectIds(projectNumber) : null;
         Specification<ArchitecturalProject> spec = (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
-            // 1. 项目编号 (模糊匹配)
+            // 1. 项目编号 (模糊匹配)。子串索引的候选只缩小范围，LIKE 条件始终保留
+            if (projectIdCandidates != null) {
+                predicates.add(projectIdCandidates.isEmpty() ? cb.disjunction() : root.get("id").in(projectIdCandidates));
+            }
             if (projectNumber != null && !projectNumber.isEmpty()) {
                 predicates.add(cb.like(root.get("projectNumber"), "%" + projectNumber + "%"));
             }
@@ -71,75 +127,212 @@ public class ArchitecturalProjectService {
         return projectRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Invalid project Id:" + id));
     }
 
-    public void save(ArchitecturalProject project) {
-        projectRepository.save(project);
+    /**
+     * 保存表单提交的项目。
+     * 新增 (id 为空) 时直接插入；维护时不再合并表单构造的游离对象 (会写回全部列)，
+     * 而是先认领表单带回的版本号 (过期的提交不读取实体即被拒绝)，再加载当前项目，只写入与当前值不同的列；
+     * 没有任何变化时撤销认领，不留下任何写入。
+     *
+     * @param form 由表单绑定的项目 (维护时 version 为打开表单时的版本号)
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException 项目在表单打开后已被他人修改或删除
+     */
+    @Transactional
+    public void save(ArchitecturalProject form) {
+        if (form.getId() == null) {
+            ArchitecturalProject saved = projectRepository.save(form);
+            searchIndexService.projectsChanged(List.of(saved.getId()));
+            substringIndexService.projectSaved(saved.getId(), saved.getProjectNumber());
+            return;
+        }
+
+        FieldChanges.requireClaimed(editVersionRepository.claim(EditVersionRepository.ARCH_PROJECTS, form.getId(), form.getVersion()),
+                ArchitecturalProject.class, form.getId());
+        ArchitecturalProject project = findById(form.getId());
+        FieldChanges changes = new FieldChanges()
+                .set(project.getProjectNumber(), form.getProjectNumber(), project::setProjectNumber)
+                .set(project.getReqId(), form.getReqId(), project::setReqId)
+                .set(project.getReqName(), form.getReqName(), project::setReqName)
+                .set(project.getDevDepartment(), form.getDevDepartment(), project::setDevDepartment)
+                .set(project.getProjectManager(), form.getProjectManager(), project::setProjectManager)
+                .set(project.getKeyProject(), form.getKeyProject(), project::setKeyProject)
+                .set(project.getFeasibilitySubmitter(), form.getFeasibilitySubmitter(), project::setFeasibilitySubmitter)
+                .set(project.getFeasibilitySubmitDate(), form.getFeasibilitySubmitDate(), project::setFeasibilitySubmitDate)
+                .set(project.getFeasibilityReviewPassDate(), form.getFeasibilityReviewPassDate(), project::setFeasibilityReviewPassDate)
+                .set(project.getFeasibilityScore(), form.getFeasibilityScore(), project::setFeasibilityScore)
+                .set(project.getFeasibilityDeductionReason(), form.getFeasibilityDeductionReason(), project::setFeasibilityDeductionReason)
+                .set(project.getGeneralDesignSubmitter(), form.getGeneralDesignSubmitter(), project::setGeneralDesignSubmitter)
+                .set(project.getGeneralDesignSubmitDate(), form.getGeneralDesignSubmitDate(), project::setGeneralDesignSubmitDate)
+                .set(project.getGeneralDesignReviewPassDate(), form.getGeneralDesignReviewPassDate(), project::setGeneralDesignReviewPassDate)
+                .set(project.getGeneralDesignScore(), form.getGeneralDesignScore(), project::setGeneralDesignScore)
+                .set(project.getGeneralDesignDeductionReason(), form.getGeneralDesignDeductionReason(), project::setGeneralDesignDeductionReason)
+                .set(project.getDetailedDesignSubmitter(), form.getDetailedDesignSubmitter(), project::setDetailedDesignSubmitter)
+                .set(project.getDetailedDesignSubmitDate(), form.getDetailedDesignSubmitDate(), project::setDetailedDesignSubmitDate)
+                .set(project.getDetailedDesignScore(), form.getDetailedDesignScore(), project::setDetailedDesignScore)
+                .set(project.getDetailedDesignDeductionReason(), form.getDetailedDesignDeductionReason(), project::setDetailedDesignDeductionReason)
+                .set(project.getRemarks(), form.getRemarks(), project::setRemarks);
+        if (changes.isEmpty()) {
+            FieldChanges.discardClaim();
+            return;
+        }
+        changes.apply();
+        searchIndexService.projectsChanged(List.of(project.getId()));
+        substringIndexService.projectSaved(project.getId(), project.getProjectNumber());
     }
 
+    @Transactional
     public void deleteById(Integer id) {
+        changeTrackingService.recordProjectDeletions(List.of(id));
         projectRepository.deleteById(id);
+        searchIndexService.projectsDeleted(List.of(id));
+        substringIndexService.projectDeleted(id);
+    }
+
+    /**
+     * 增量导出：返回自 since 以来新增或修改过的项目，以及被删除项目的删除记录。
+     * @param since 上一次导出返回的水位线
+     * @return 增量导出结果，其中 watermark 供下次调用使用
+     */
+    @Transactional(readOnly = true)
+    public DeltaExportDTO<ArchitecturalProject> findChangesSince(LocalDateTime since) {
+        DeltaExportDTO<ArchitecturalProject> delta = changeTrackingService.beginDelta(DeletedRecord.TYPE_ARCH_PROJECT, since);
+        delta.setChanged(projectRepository.findByUpdatedAtAfterOrderByIdAsc(changeTrackingService.queryStart(since)));
+        return delta;
     }
 
     // === START: 新增获取全量数据的方法 ===
     /**
-     * 获取所有架构项目记录，用于数据导出。
-     * @return 包含所有 ArchitecturalProject 实体的列表
+     * 以流式游标逐条读取所有架构项目 (按 id 排序)，用于数据导出。
+     * 每处理 EXPORT_CHUNK_SIZE 条清空一次持久化上下文，内存占用不随数据量增长。
+     * @param rowConsumer 每条记录的处理回调
+     * @return 导出的记录数
      */
-    public List<ArchitecturalProject> findAll() {
-        return projectRepository.findAll();
+    @Transactional(readOnly = true)
+    public long streamForExport(Consumer<ArchitecturalProject> rowConsumer) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ArchitecturalProject> query = cb.createQuery(ArchitecturalProject.class);
+        Root<ArchitecturalProject> root = query.from(ArchitecturalProject.class);
+        query.select(root).orderBy(cb.asc(root.get("id")));
+
+        long rowCount = 0;
+        // MySQL 驱动只有在 fetchSize = Integer.MIN_VALUE 时才会真正逐行流式返回结果
+        try (Stream<ArchitecturalProject> rows = entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, Integer.MIN_VALUE)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            Iterator<ArchitecturalProject> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                rowConsumer.accept(iterator.next());
+                if (++rowCount % EXPORT_CHUNK_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return rowCount;
     }
     // === END: 新增 ===
 
     // === START: 新增导入功能的核心方法 ===
     /**
      * 从上传的 CSV 文件中批量导入架构项目。
-     * @param file 用户上传的 MultipartFile
+     * 文件按 IMPORT_CHUNK_SIZE 行分块处理，每块：
+     * - 用一条 IN 查询找出本块中已存在的项目编号；
+     * - 以 JDBC batch 方式插入新项目；
+     * - 在独立事务中提交。
+     * 同一文件中重复出现的项目编号 (与数据库唯一约束一致，不区分大小写)，只导入第一次出现的记录，其余按重复记录跳过。
+     * @param inputStream 上传文件的内容
+     * @param job         所属的后台导入任务，用于实时汇报进度并在分块边界处响应取消
      * @return 一个包含处理结果的摘要字符串
      */
-    @Transactional
-    public String importFromCsv(MultipartFile file) {
-        List<ArchitecturalProject> newProjects = new ArrayList<>();
-        int skippedCount = 0;
-
-        try (BufferedReader fileReader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
-            CSVFormat csvFormat = CSVFormat.DEFAULT.builder()
-                    .setHeader()
-                    .setSkipHeaderRecord(true)
-                    .setIgnoreHeaderCase(true)
-                    .setTrim(true)
-                    .build();
-
-            try (CSVParser csvParser = new CSVParser(fileReader, csvFormat)) {
-                for (CSVRecord record : csvParser) {
-                    // 0列: 项目编号
-                    String projectNumber = record.get(0);
-
-                    // 如果项目编号为空或已存在，则跳过
-                    if (projectNumber == null || projectNumber.isEmpty() || projectRepository.existsByProjectNumber(projectNumber)) {
-                        skippedCount++;
-                        continue;
-                    }
+    public String importFromCsv(InputStream inputStream, ImportJob job) {
+        ImportSummaryDTO summary = job.getSummary();
+        Set<String> seenProjectNumbers = new HashSet<>();
 
-                    ArchitecturalProject project = new ArchitecturalProject();
-                    project.setProjectNumber(projectNumber);
-                    project.setReqId(record.get(1)); // 1列: 需求编号
-                    project.setReqName(record.get(2)); // 2列: 需求名称
-                    project.setDevDepartment(record.get(3)); // 3列: 开发部室
-                    project.setProjectManager(record.get(4)); // 4列: 项目负责人
+        try (Reader fileReader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            // 解析在 ForkJoin 线程池中并行执行；重复检查与写库按文件原始顺序逐块进行
+            parallelCsvParser.parse(fileReader, IMPORT_CHUNK_SIZE, this::parseImportRecord, chunk -> {
+                job.checkCancelled();
+                summary.addSkipped(chunk.getSkippedRows());
 
-                    newProjects.add(project);
+                List<ArchitecturalProject> projects = new ArrayList<>(chunk.getRows().size());
+                for (ArchitecturalProject project : chunk.getRows()) {
+                    // 在本文件中已经出现过的项目编号，按重复记录跳过
+                    if (seenProjectNumbers.add(projectNumberKey(project.getProjectNumber()))) {
+                        projects.add(project);
+                    } else {
+                        summary.incrementSkipped();
+                    }
                 }
-            }
-
-            // 批量保存所有新项目
-            if (!newProjects.isEmpty()) {
-                projectRepository.saveAll(newProjects);
-            }
+                if (!projects.isEmpty()) {
+                    // 块事务提交后才计数，失败的块不会被统计为新增
+                    int added = importChunk(projects);
+                    summary.addAdded(added);
+                    summary.addSkipped(projects.size() - added);
+                }
+            });
 
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("CSV 文件处理失败: " + e.getMessage());
         }
 
-        return String.format("导入完成！新增记录: %d 条，跳过重复记录: %d 条。", newProjects.size(), skippedCount);
+        return String.format("导入完成！新增记录: %d 条，跳过重复记录: %d 条。", summary.getAddedCount(), summary.getSkippedCount());
+    }
+
+    /**
+     * [私有辅助方法] 将 CSV 中的一行解析为项目对象。
+     * 在解析线程池中并行调用，不得访问数据库或共享的可变状态。
+     * @return 解析结果；项目编号为空时返回 null (该行应被跳过)
+     */
+    private ArchitecturalProject parseImportRecord(CSVRecord record, long lineNumber) {
+        // 0列: 项目编号
+        String projectNumber = record.get(0);
+        if (projectNumber == null || projectNumber.isEmpty()) {
+            return null;
+        }
+
+        ArchitecturalProject project = new ArchitecturalProject();
+        project.setProjectNumber(projectNumber);
+        project.setReqId(record.get(1)); // 1列: 需求编号
+        project.setReqName(record.get(2)); // 2列: 需求名称
+        project.setDevDepartment(record.get(3)); // 3列: 开发部室
+        project.setProjectManager(record.get(4)); // 4列: 项目负责人
+        return project;
+    }
+
+    /**
+     * [私有辅助方法] 项目编号的比较键。
+     * project_number 列的排序规则不区分大小写、忽略尾部空格，内存中的去重与之保持一致。
+     */
+    private static String projectNumberKey(String projectNumber) {
+        return projectNumber.stripTrailing().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * [私有辅助方法] 在独立事务中导入一块项目：过滤掉数据库中已存在的项目编号后批量插入。
+     * @return 本块实际插入的项目数
+     */
+    private int importChunk(List<ArchitecturalProject> projects) {
+        return transactionTemplate.execute(status -> {
+            Set<String> existingKeys = projectRepository.findExistingProjectNumbers(
+                    projects.stream().map(ArchitecturalProject::getProjectNumber).collect(Collectors.toList()))
+                    .stream().map(ArchitecturalProjectService::projectNumberKey).collect(Collectors.toSet());
+
+            List<ArchitecturalProject> newProjects = new ArrayList<>(projects.size());
+            for (ArchitecturalProject project : projects) {
+                if (!existingKeys.contains(projectNumberKey(project.getProjectNumber()))) {
+                    newProjects.add(project);
+                }
+            }
+
+            // 主键按块预分配，配合 hibernate.jdbc.batch_size 以 JDBC batch 方式插入
+            projectRepository.saveAll(newProjects);
+            searchIndexService.projectsChanged(
+                    newProjects.stream().map(ArchitecturalProject::getId).collect(Collectors.toList()));
+            substringIndexService.projectsSaved(newProjects.stream()
+                    .collect(Collectors.toMap(ArchitecturalProject::getId, ArchitecturalProject::getProjectNumber)));
+            return newProjects.size();
+        });
     }
     // === END ===
 }
@@ -1,14 +1,19 @@
 package com.example.reqsmanager.service;
 
 import com.example.reqsmanager.dto.ArchitecturalRequirementDTO;
+import com.example.reqsmanager.dto.RequirementFilterStateDTO;
 import com.example.reqsmanager.entity.ArchitecturalRequirement;
 import com.example.reqsmanager.entity.ReviewInfo; // 导入 ReviewInfo
 import com.example.reqsmanager.repository.ArchitecturalRequirementRepository;
+import com.example.reqsmanager.repository.EditVersionRepository;
+import com.example.reqsmanager.repository.RequirementBatchRepository;
 import com.example.reqsmanager.repository.ReviewInfoRepository; // 导入 ReviewInfoRepository
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 public class ArchitecturalRequirementService {
 
@@ -20,99 +25,76 @@ public class ArchitecturalRequirementService {
     private ReviewInfoRepository reviewInfoRepository;
     // === END ===
 
+    @Autowired
+    private RequirementBatchRepository requirementBatchRepository;
+
+    @Autowired
+    private EditVersionRepository editVersionRepository;
+
+    // 概要设计是否递交、评分、递交 / 评审通过日期影响分组统计和每日设计趋势，重要需求等是列表页的筛选条件
+    @Autowired
+    private RequirementChangePublisher requirementChangePublisher;
+
     @Transactional
     public ArchitecturalRequirement save(ArchitecturalRequirement archReq) {
-        return architecturalRequirementRepository.save(archReq);
+        List<Integer> requirementIds = List.of(archReq.getRequirement().getId());
+        List<RequirementFilterStateDTO> before = requirementBatchRepository.lockFilterStatesByIdIn(requirementIds);
+        ArchitecturalRequirement saved = architecturalRequirementRepository.saveAndFlush(archReq);
+        requirementChangePublisher.rowsChanged(before, requirementBatchRepository.lockFilterStatesByIdIn(requirementIds));
+        return saved;
     }
 
     // === START: 彻底重构此方法 ===
     /**
      * 根据 DTO 更新 ArchitecturalRequirement 及其关联的 ReviewInfo。
      * 这是一个事务性操作，确保两张表的数据要么都成功更新，要么都不更新。
+     * 两个实体都先认领表单带回的版本号，再只写入与当前值不同的列；没有任何变化时撤销认领，不留下任何写入。
+     *
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException 表单打开后任一实体已被他人修改或删除
      */
     @Transactional
     public void saveFromDto(ArchitecturalRequirementDTO dto) {
-        // 1. 更新 ArchitecturalRequirement
+        // 1. 先认领两个实体的版本号 (过期的提交在这里即被拒绝，不读取实体)，再加载
+        FieldChanges.requireClaimed(editVersionRepository.claim(EditVersionRepository.ARCH_REQUIREMENTS, dto.getId(), dto.getVersion()),
+                ArchitecturalRequirement.class, dto.getId());
+        FieldChanges.requireClaimed(editVersionRepository.claim(EditVersionRepository.REVIEW_INFOS, dto.getReviewInfoId(), dto.getReviewInfoVersion()),
+                ReviewInfo.class, dto.getReviewInfoId());
         ArchitecturalRequirement archReq = architecturalRequirementRepository.findById(dto.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Invalid architectural requirement Id: " + dto.getId()));
-
-        archReq.setImportantRequirement(dto.getImportantRequirement());
-        archReq.setSummaryDesignSubmitted(dto.getSummaryDesignSubmitted());
-        archReq.setSummaryDesignSubmitter(dto.getSummaryDesignSubmitter());
-        archReq.setSummaryDesignSubmitDate(dto.getSummaryDesignSubmitDate());
-        archReq.setSummaryDesignReviewPassDate(dto.getSummaryDesignReviewPassDate());
-//        archReq.setDetailedDesignSubmitted(dto.getDetailedDesignSubmitted());
-        archReq.setInvolvesArchDecision(dto.getInvolvesArchDecision());
-        archReq.setInvolvesInfra(dto.getInvolvesInfra());
-        archReq.setInvolvesSeniorReport(dto.getInvolvesSeniorReport());
-//        archReq.setDetailedDesignSubmitter(dto.getDetailedDesignSubmitter());
-//        archReq.setDetailedDesignSubmitDate(dto.getDetailedDesignSubmitDate());
-
-        // === START: 补全这四个字段的保存逻辑 ===
-        archReq.setSummaryDesignScore(dto.getSummaryDesignScore());
-        archReq.setSummaryDesignDeductionReason(dto.getSummaryDesignDeductionReason());
-//        archReq.setDetailedDesignScore(dto.getDetailedDesignScore());
-//        archReq.setDetailedDesignDeductionReason(dto.getDetailedDesignDeductionReason());
-        // === END ===
-
-        // 2. 更新关联的 ReviewInfo
         ReviewInfo reviewInfo = reviewInfoRepository.findById(dto.getReviewInfoId())
                 .orElseThrow(() -> new IllegalArgumentException("Invalid review info Id: " + dto.getReviewInfoId()));
 
-        // 从 DTO 复制所有评审信息字段
-        reviewInfo.setReviewCheck1(dto.getReviewCheck1());
-        reviewInfo.setReviewCheck2(dto.getReviewCheck2());
-        reviewInfo.setReviewCheck3(dto.getReviewCheck3());
-        reviewInfo.setReviewCheck4(dto.getReviewCheck4());
-        reviewInfo.setReviewCheck5(dto.getReviewCheck5());
-        reviewInfo.setReviewCheck6(dto.getReviewCheck6());
-        reviewInfo.setReviewCheck7(dto.getReviewCheck7());
-        reviewInfo.setReviewCheck8(dto.getReviewCheck8());
-        reviewInfo.setReviewCheck9(dto.getReviewCheck9());
-        reviewInfo.setReviewLevel(dto.getReviewLevel());
-
-        // 从 DTO 复制所有检核信息字段
-        reviewInfo.setAuditCheck1(dto.getAuditCheck1());
-        reviewInfo.setAuditCheck2(dto.getAuditCheck2());
-        reviewInfo.setAuditCheck3(dto.getAuditCheck3());
-        reviewInfo.setAuditCheck4(dto.getAuditCheck4());
-        reviewInfo.setAuditCheck5(dto.getAuditCheck5());
-        reviewInfo.setAuditCheck6(dto.getAuditCheck6());
-        reviewInfo.setAuditCheck7(dto.getAuditCheck7());
-        reviewInfo.setAuditCheck8(dto.getAuditCheck8());
-        reviewInfo.setAuditCheck9(dto.getAuditCheck9());
-        reviewInfo.setAuditLevel(dto.getAuditLevel());
-
-        // === START: 新增的比对与设置逻辑 ===
-        boolean isConsistent = true;
-        // 使用循环进行比对，代码更简洁
-        for (int i = 1; i <= 9; i++) {
-            // 使用反射动态调用 getter 方法，避免大量的 if-else
-            try {
-                Boolean reviewCheck = (Boolean) dto.getClass().getMethod("getReviewCheck" + i).invoke(dto);
-                Boolean auditCheck = (Boolean) dto.getClass().getMethod("getAuditCheck" + i).invoke(dto);
-
-                // 处理 null 的情况，都为 null 或都为 false 视为一致
-                reviewCheck = reviewCheck != null && reviewCheck;
-                auditCheck = auditCheck != null && auditCheck;
-
-                if (!reviewCheck.equals(auditCheck)) {
-                    isConsistent = false;
-                    break; // 一旦发现不一致，立即跳出循环
-                }
-            } catch (Exception e) {
-                // 反射可能抛出异常，实际项目中应进行更完善的错误处理
-                e.printStackTrace();
-            }
+        // 2. ArchitecturalRequirement 中与当前值不同的字段
+        FieldChanges changes = RequirementService.architecturalChanges(archReq, dto);
+
+        // 3. 关联的 ReviewInfo：评审信息和检核信息 (勾选项打包为位掩码)
+        int reviewChecks = ReviewInfo.packChecks(dto.getReviewCheck1(), dto.getReviewCheck2(),
+                dto.getReviewCheck3(), dto.getReviewCheck4(), dto.getReviewCheck5(), dto.getReviewCheck6(),
+                dto.getReviewCheck7(), dto.getReviewCheck8(), dto.getReviewCheck9());
+        int auditChecks = ReviewInfo.packChecks(dto.getAuditCheck1(), dto.getAuditCheck2(),
+                dto.getAuditCheck3(), dto.getAuditCheck4(), dto.getAuditCheck5(), dto.getAuditCheck6(),
+                dto.getAuditCheck7(), dto.getAuditCheck8(), dto.getAuditCheck9());
+        changes.set(reviewInfo.getReviewChecks(), reviewChecks, reviewInfo::setReviewChecks)
+                .set(reviewInfo.getReviewLevel(), dto.getReviewLevel(), reviewInfo::setReviewLevel)
+                .set(reviewInfo.getAuditChecks(), auditChecks, reviewInfo::setAuditChecks)
+                .set(reviewInfo.getAuditLevel(), dto.getAuditLevel(), reviewInfo::setAuditLevel)
+                // 评审与检核逐项比对：两个位掩码异或为 0 即完全一致
+                .set(archReq.getAreReviewsConsistent(), (reviewChecks ^ auditChecks) == 0, archReq::setAreReviewsConsistent);
+        if (changes.isEmpty()) {
+            FieldChanges.discardClaim();
+            return;
         }
 
-        // 将比对结果设置到实体中
-        archReq.setAreReviewsConsistent(isConsistent);
-        // === END: 新增逻辑 ===
+        // 4. 重要需求、概要设计已提交、评分、递交日期影响列表页筛选、分组统计与每日设计趋势，
+        //    写入前先锁定并记下旧值 (并发修改同一需求的事务在此排队，增量不会重复累加)
+        List<Integer> requirementIds = List.of(archReq.getRequirement().getId());
+        List<RequirementFilterStateDTO> before = requirementBatchRepository.lockFilterStatesByIdIn(requirementIds);
+        changes.apply();
 
-        // 保存两个实体
+        // 保存两个实体 (只有变化了的实体会产生 UPDATE)，写后快照走 JDBC，先刷新到数据库
         architecturalRequirementRepository.save(archReq);
-        reviewInfoRepository.save(reviewInfo);
+        reviewInfoRepository.saveAndFlush(reviewInfo);
+        requirementChangePublisher.rowsChanged(before, requirementBatchRepository.lockFilterStatesByIdIn(requirementIds));
     }
     // === END: 彻底重构 ===
 }
@@ -1,22 +1,33 @@
 package com.example.reqsmanager.service;
 import com.example.reqsmanager.entity.ArchitectureDecision;
 import com.example.reqsmanager.repository.ArchitectureDecisionRepository;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class ArchitectureDecisionService {
     @Autowired private ArchitectureDecisionRepository decisionRepository;
+    @Autowired private SearchIndexService searchIndexService;
+    @Autowired private SubstringIndexService substringIndexService;
 
     public Page<ArchitectureDecision> findDecisions(String reqId, Pageable pageable) {
+        // 需求编号的子串匹配先在内存索引中求得候选，缩小 LIKE 的扫描范围 (候选只缩小范围，LIKE 条件始终保留)
+        List<Integer> candidates = reqId != null && !reqId.isEmpty() ? substringIndexService.findDecisionIds(reqId) : null;
         Specification<ArchitectureDecision> spec = (root, query, cb) -> {
-            if (reqId != null && !reqId.isEmpty()) {
-                return cb.like(root.get("reqId"), "%" + reqId + "%");
+            if (reqId == null || reqId.isEmpty()) {
+                return cb.conjunction();
+            }
+            Predicate like = cb.like(root.get("reqId"), "%" + reqId + "%");
+            if (candidates != null) {
+                return candidates.isEmpty() ? cb.disjunction() : cb.and(root.get("id").in(candidates), like);
             }
-            return cb.conjunction();
+            return like;
         };
         return decisionRepository.findAll(spec, pageable);
     }
@@ -24,9 +35,13 @@ public class ArchitectureDecisionService {
         return decisionRepository.findById(id).orElseThrow(() -> new RuntimeException("Decision not found"));
     }
     public void save(ArchitectureDecision decision) {
-        decisionRepository.save(decision);
+        ArchitectureDecision saved = decisionRepository.save(decision);
+        searchIndexService.decisionsChanged(List.of(saved.getId()));
+        substringIndexService.decisionSaved(saved.getId(), saved.getReqId());
     }
     public void deleteById(Integer id) {
         decisionRepository.deleteById(id);
+        searchIndexService.decisionsDeleted(List.of(id));
+        substringIndexService.decisionDeleted(id);
     }
 }
@@ -0,0 +1,72 @@
+package com.example.reqsmanager.service;
+
+import com.example.reqsmanager.dto.DeltaExportDTO;
+import com.example.reqsmanager.repository.DeletedRecordBatchRepository;
+import com.example.reqsmanager.repository.DeletedRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * 增量导出的公共部分：删除记录 (墓碑) 的写入与查询，以及水位线的计算。
+ * 各表的 updated_at 由数据库维护，这里不涉及。
+ */
+@Service
+public class ChangeTrackingService {
+
+    /**
+     * 每次增量查询回看 since 之前的这段时间。
+     * updated_at 取的是语句执行时间，而数据在事务提交后才可见；
+     * 执行时间早于上次水位线、但提交晚于上次查询的记录，会在回看窗口内被补上。
+     */
+    static final Duration DELTA_OVERLAP = Duration.ofMinutes(5);
+
+    @Autowired
+    private DeletedRecordRepository deletedRecordRepository;
+
+    @Autowired
+    private DeletedRecordBatchRepository deletedRecordBatchRepository;
+
+    /**
+     * 为即将删除的需求写入删除记录。调用方必须在同一事务中、删除之前调用。
+     */
+    public void recordRequirementDeletions(Collection<Integer> ids) {
+        deletedRecordBatchRepository.recordRequirementDeletions(ids);
+    }
+
+    /**
+     * 为即将删除的架构项目写入删除记录。调用方必须在同一事务中、删除之前调用。
+     */
+    public void recordProjectDeletions(Collection<Integer> ids) {
+        deletedRecordBatchRepository.recordProjectDeletions(ids);
+    }
+
+    /**
+     * 当前水位线 (数据库时间)。全量导出开始前取一次，可作为之后第一次增量导出的 since。
+     */
+    public LocalDateTime currentWatermark() {
+        return deletedRecordRepository.findDatabaseTime().toLocalDateTime();
+    }
+
+    /**
+     * 开始一次增量导出：先取得新的水位线，再计算本次实际的查询起点 (since 减去回看窗口)。
+     * 返回的结果对象中 changed / deleted 由调用方填充，deleted 已按实体类型查询好。
+     */
+    public <T> DeltaExportDTO<T> beginDelta(String entityType, LocalDateTime since) {
+        DeltaExportDTO<T> delta = new DeltaExportDTO<>();
+        delta.setSince(since);
+        delta.setWatermark(currentWatermark());
+        delta.setDeleted(deletedRecordRepository.findDeletionsSince(entityType, queryStart(since)));
+        return delta;
+    }
+
+    /**
+     * 实际查询起点：since 减去回看窗口。
+     */
+    public LocalDateTime queryStart(LocalDateTime since) {
+        return since.minus(DELTA_OVERLAP);
+    }
+}
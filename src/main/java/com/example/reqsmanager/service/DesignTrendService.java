@@ -0,0 +1,165 @@
+package com.example.reqsmanager.service;
+
+import com.example.reqsmanager.dto.DesignCountPerDay;
+import com.example.reqsmanager.dto.DesignDailyCountDTO;
+import com.example.reqsmanager.dto.DesignTrendDTO;
+import com.example.reqsmanager.dto.RequirementFilterStateDTO;
+import com.example.reqsmanager.repository.DesignDailyCountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * 每日设计趋势 (概要设计递交数、评审通过数、投产数) 的按日汇总。
+ * - 计数按 (日期, 小组) 保存在 design_daily_counts 表中，查询任意区间只读取区间内的汇总行，与需求总量无关；
+ * - 需求与架构需求的写操作在同一事务内调用 rowsChanged，按写前 / 写后快照的差值累加；
+ * - 回填任务按月分段从源表重算，首次部署 (表为空) 时在启动阶段执行，之后每晚执行一次校准。
+ */
+@Slf4j
+@Service
+public class DesignTrendService implements SmartInitializingSingleton {
+
+    /**
+     * 单次查询允许的最大天数。
+     */
+    static final int MAX_WINDOW_DAYS = 3660;
+
+    private static final Comparator<DailyKey> KEY_ORDER =
+            Comparator.comparing(DailyKey::date).thenComparing(DailyKey::groupName);
+
+    @Autowired
+    private DesignDailyCountRepository designDailyCountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (designDailyCountRepository.isEmpty()) {
+            backfillAll();
+        }
+    }
+
+    /**
+     * 查询区间内每一天的三条时间序列，没有数据的日期计数为 0。
+     *
+     * @param groupName 只统计该小组；为空时统计全部小组
+     * @throws IllegalArgumentException 区间无效或超过 MAX_WINDOW_DAYS 天
+     */
+    @Transactional(readOnly = true)
+    public DesignTrendDTO getTrend(LocalDate from, LocalDate to, String groupName) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("结束日期不能早于开始日期");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > MAX_WINDOW_DAYS) {
+            throw new IllegalArgumentException("查询区间不能超过 " + MAX_WINDOW_DAYS + " 天");
+        }
+        String group = groupName == null || groupName.isBlank() ? null : groupName.trim();
+
+        List<DesignCountPerDay> submitted = new ArrayList<>((int) days);
+        List<DesignCountPerDay> reviewPassed = new ArrayList<>((int) days);
+        List<DesignCountPerDay> wentLive = new ArrayList<>((int) days);
+        List<DesignDailyCountDTO> rows = designDailyCountRepository.findRange(from, to, group);
+        int next = 0;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            DesignDailyCountDTO row = next < rows.size() && rows.get(next).getStatDate().equals(date) ? rows.get(next++) : null;
+            submitted.add(new DesignCountPerDay(date, row == null ? 0 : row.getSubmittedCount()));
+            reviewPassed.add(new DesignCountPerDay(date, row == null ? 0 : row.getReviewPassedCount()));
+            wentLive.add(new DesignCountPerDay(date, row == null ? 0 : row.getWentLiveCount()));
+        }
+        return new DesignTrendDTO(from, to, group, submitted, reviewPassed, wentLive);
+    }
+
+    /**
+     * 按一组需求写操作前后的快照更新每日计数。必须在执行写操作的事务中调用。
+     *
+     * @param before 写操作前的快照 (新增时为空)
+     * @param after  写操作后的快照 (删除时为空)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rowsChanged(Collection<RequirementFilterStateDTO> before, Collection<RequirementFilterStateDTO> after) {
+        // 按 (日期, 小组) 顺序写入，并发事务以相同顺序锁定统计行
+        Map<DailyKey, long[]> deltas = new TreeMap<>(KEY_ORDER);
+        for (RequirementFilterStateDTO row : before) {
+            accumulate(deltas, row, -1);
+        }
+        for (RequirementFilterStateDTO row : after) {
+            accumulate(deltas, row, 1);
+        }
+        List<DesignDailyCountDTO> changes = new ArrayList<>(deltas.size());
+        deltas.forEach((key, d) -> {
+            DesignDailyCountDTO delta = new DesignDailyCountDTO(key.date(), key.groupName(), d[0], d[1], d[2]);
+            if (!delta.isZero()) {
+                changes.add(delta);
+            }
+        });
+        designDailyCountRepository.applyDeltas(changes);
+    }
+
+    private static void accumulate(Map<DailyKey, long[]> deltas, RequirementFilterStateDTO row, int sign) {
+        String groupName = Objects.requireNonNullElse(row.getGroupName(), "");
+        if (row.getSummaryDesignSubmitDate() != null) {
+            deltas.computeIfAbsent(new DailyKey(row.getSummaryDesignSubmitDate(), groupName), k -> new long[3])[0] += sign;
+        }
+        if (row.getSummaryDesignReviewPassDate() != null) {
+            deltas.computeIfAbsent(new DailyKey(row.getSummaryDesignReviewPassDate(), groupName), k -> new long[3])[1] += sign;
+        }
+        if (row.getScheduleDate() != null) {
+            deltas.computeIfAbsent(new DailyKey(row.getScheduleDate(), groupName), k -> new long[3])[2] += sign;
+        }
+    }
+
+    /**
+     * 定期从源表完整回填，校准增量维护可能产生的偏差 (如直接修改数据库)。
+     */
+    @Scheduled(cron = "${reqsmanager.metrics.design-trend.backfill-cron:0 45 2 * * *}")
+    public void backfillAll() {
+        LocalDate[] range = designDailyCountRepository.findSourceDateRange();
+        if (range == null) {
+            return;
+        }
+        backfill(range[0], range[1]);
+    }
+
+    /**
+     * 从源表重算 [from, to] 区间的每日计数。按自然月分段，每段在独立的短事务中执行，
+     * 避免长时间持有源表的共享锁。
+     *
+     * @return 写入的聚合行数
+     */
+    public int backfill(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int rows = 0;
+        for (LocalDate chunkStart = from; !chunkStart.isAfter(to); ) {
+            LocalDate monthEnd = chunkStart.withDayOfMonth(chunkStart.lengthOfMonth());
+            LocalDate chunkEnd = monthEnd.isAfter(to) ? to : monthEnd;
+            LocalDate s = chunkStart;
+            rows += transaction.execute(status -> designDailyCountRepository.rebuildRange(s, chunkEnd));
+            chunkStart = chunkEnd.plusDays(1);
+        }
+        log.info("Design daily counts backfilled for {} ~ {}: {} rows in {} ms",
+                from, to, rows, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private record DailyKey(LocalDate date, String groupName) {
+    }
+}
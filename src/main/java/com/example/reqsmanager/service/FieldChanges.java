@@ -0,0 +1,59 @@
+package com.example.reqsmanager.service;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * 表单保存时的部分更新：逐个字段与实体当前值比较，只暂存确实不同的字段，apply 时才写入实体。
+ * 先判断、后写入，调用方可以在写入之前读取写前快照 (此时实体还没有变脏，查询不会触发自动 flush)。
+ * 配合实体上的 @DynamicUpdate，UPDATE 语句也只包含变化的列。
+ * 在此之前调用方先认领表单带回的版本号 (EditVersionRepository.claim)，过期的提交不读取实体即被拒绝；
+ * 没有任何变化时调用 discardClaim 撤销认领。
+ */
+final class FieldChanges {
+
+    private final List<Runnable> setters = new ArrayList<>();
+
+    /**
+     * 版本认领失败 (表单打开后记录已被他人修改或删除，或表单没有带回版本号) 时拒绝本次提交。
+     *
+     * @param claimed EditVersionRepository.claim 的结果
+     * @throws ObjectOptimisticLockingFailureException 认领失败
+     */
+    static void requireClaimed(boolean claimed, Class<?> entityType, Object id) {
+        if (!claimed) {
+            throw new ObjectOptimisticLockingFailureException(entityType, id);
+        }
+    }
+
+    /**
+     * 没有任何字段变化时调用：将当前事务标记为只回滚，撤销认领时递增的版本号，
+     * 一次什么都没改的提交不会使他人在此之前打开的表单被拒绝。
+     */
+    static void discardClaim() {
+        TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+    }
+
+    /**
+     * 若 value 与 current 不同，暂存一次 setter.accept(value)。
+     */
+    <T> FieldChanges set(T current, T value, Consumer<T> setter) {
+        if (!Objects.equals(current, value)) {
+            setters.add(() -> setter.accept(value));
+        }
+        return this;
+    }
+
+    boolean isEmpty() {
+        return setters.isEmpty();
+    }
+
+    void apply() {
+        setters.forEach(Runnable::run);
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.reqsmanager.service;
+
+import com.example.reqsmanager.dto.RequirementIndexRowDTO;
+import com.example.reqsmanager.search.BitmapIndex;
+import com.example.reqsmanager.search.CompressedBitmap;
+import com.example.reqsmanager.search.RequirementIndexField;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 需求列表筛选条件的位图索引 (见 BitmapIndex)，覆盖状态、科技负责人、小组、需求类型和架构需求的各个是否标志。
+ * 列表页的等值 / 是否筛选先在这里求交得到有序的候选主键，再以 id IN (...) 交给数据库按主键取行，
+ * 不再对每种条件组合执行扫描 + LEFT JOIN。候选只用来缩小范围，原有的 SQL 条件仍然全部生效；
+ * 索引异步刷新，可能暂时落后于数据库，导出与计数不使用它。
+ * - 应用启动 (开始接收请求) 之前从数据库一次性加载；
+ * - 需求 / 架构需求的写操作调用 requirementsChanged，事务提交后在刷新线程上按主键从数据库重新读取这些行并更新索引 (读不到即删除)，
+ *   不占用提交请求的线程，也不会因全量重新加载持有锁而阻塞请求；
+ * - 查询方法返回 null 表示命中过多，调用方应只按 SQL 条件查询。命中过多时按 (排期, 主键) 索引扫描很快就能取满一页，
+ *   反而比超长的 IN 列表更合适。
+ */
+@Slf4j
+@Service
+public class FilterIndexService implements SmartInitializingSingleton {
+
+    /**
+     * 候选主键数的上限，超过时不使用候选，只按 SQL 条件查询。
+     */
+    static final int MAX_CANDIDATES = 2000;
+
+    private static final int LOAD_CHUNK_SIZE = 10_000;
+    private static final int REFRESH_CHUNK_SIZE = 1000;
+
+    private static final String SELECT_ROWS = "SELECT new com.example.reqsmanager.dto.RequirementIndexRowDTO(" +
+            "r.id, r.status, r.techLeader, r.groupName, r.reqType, a.importantRequirement, a.summaryDesignSubmitted, " +
+            "a.involvesArchDecision, a.involvesInfra, a.involvesSeniorReport) " +
+            "FROM Requirement r LEFT JOIN r.architecturalRequirement a ";
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 全量重新加载时在新实例中构建，完成后整体替换，加载期间查询仍使用旧索引。
+     */
+    private volatile BitmapIndex<RequirementIndexField> index = new BitmapIndex<>(RequirementIndexField.class);
+
+    /**
+     * 串行化“从数据库读取 + 写入索引”，保证后开始的刷新 (读到更新的数据) 不会被先开始的刷新覆盖。
+     */
+    private final Object refreshLock = new Object();
+
+    /**
+     * 刷新线程。单线程 + 无界队列：刷新按提交顺序执行，且不会因队列满而丢失。
+     */
+    private final ThreadPoolExecutor refreshExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "filter-index");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        refreshExecutor.shutdown();
+        if (!refreshExecutor.awaitTermination(60, TimeUnit.SECONDS)) {
+            log.warn("Filter index executor did not finish in time, {} pending refreshes dropped", refreshExecutor.getQueue().size());
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 从数据库全量重新加载索引。
+     *
+     * @return 加载的行数
+     */
+    public int rebuild() {
+        synchronized (refreshLock) {
+            long start = System.nanoTime();
+            TransactionTemplate readOnlyTransaction = readOnlyTransaction();
+            BitmapIndex<RequirementIndexField> fresh = new BitmapIndex<>(RequirementIndexField.class);
+            int afterId = 0;
+            while (true) {
+                int after = afterId;
+                List<RequirementIndexRowDTO> rows = readOnlyTransaction.execute(status -> entityManager
+                        .createQuery(SELECT_ROWS + "WHERE r.id > :afterId ORDER BY r.id", RequirementIndexRowDTO.class)
+                        .setParameter("afterId", after)
+                        .setMaxResults(LOAD_CHUNK_SIZE)
+                        .getResultList());
+                rows.forEach(row -> put(fresh, row));
+                if (rows.size() < LOAD_CHUNK_SIZE) {
+                    break;
+                }
+                afterId = rows.get(rows.size() - 1).getId();
+            }
+            index = fresh;
+            log.info("Filter bitmap index loaded: {} requirements in {} ms",
+                    fresh.size(), (System.nanoTime() - start) / 1_000_000);
+            return fresh.size();
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // 查询
+    // ---------------------------------------------------------------
+
+    /**
+     * 查找满足全部条件的需求。
+     *
+     * @param criteria 字段 -> 允许的取值 (任一取值匹配即可)
+     * @param within   只在这些需求中查找 (如编号子串索引的候选)，null 表示不限
+     * @return 升序排列的需求主键；null 表示命中过多，应只按 SQL 条件查询
+     */
+    public List<Integer> findRequirementIds(Map<RequirementIndexField, ? extends Collection<String>> criteria,
+                                            Collection<Integer> within) {
+        CompressedBitmap matches = index.find(criteria, within == null ? null : CompressedBitmap.of(within));
+        if (matches.cardinality() > MAX_CANDIDATES) {
+            return null;
+        }
+        return Arrays.stream(matches.toArray()).boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * @return 布尔筛选条件在索引中的取值
+     */
+    public static String booleanValue(boolean value) {
+        return Boolean.toString(value);
+    }
+
+    // ---------------------------------------------------------------
+    // 维护 (由业务服务在写操作后调用)
+    // ---------------------------------------------------------------
+
+    /**
+     * 在当前事务提交后，从数据库重新读取这些需求并更新索引 (已删除的需求从索引中移除)；没有事务时立即提交刷新。
+     */
+    public void requirementsChanged(Collection<Integer> ids) {
+        requirementsChanged(ids, null);
+    }
+
+    /**
+     * 同 requirementsChanged(ids)，索引更新后在刷新线程上执行 afterRefresh。
+     * 依赖索引结果的缓存 (如需求列表缓存) 应在这里再失效一次：提交之后、刷新完成之前的查询仍按旧索引取候选主键，
+     * 其结果可能已被缓存。
+     *
+     * @param afterRefresh 索引更新后执行的操作，可以为 null
+     */
+    public void requirementsChanged(Collection<Integer> ids, Runnable afterRefresh) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Integer> copy = List.copyOf(new HashSet<>(ids));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(copy, afterRefresh);
+                }
+            });
+        } else {
+            submit(copy, afterRefresh);
+        }
+    }
+
+    private void submit(List<Integer> ids, Runnable afterRefresh) {
+        refreshExecutor.execute(() -> {
+            try {
+                refresh(ids);
+                if (afterRefresh != null) {
+                    afterRefresh.run();
+                }
+            } catch (Exception e) {
+                // 索引与数据库不一致时查询结果可能不准确，可通过重建修复
+                log.error("Filter index refresh failed, rebuild the index to resynchronize", e);
+            }
+        });
+    }
+
+    private void refresh(List<Integer> ids) {
+        synchronized (refreshLock) {
+            // 独立的只读事务，不加入调用方可能存在的事务
+            TransactionTemplate readOnlyTransaction = readOnlyTransaction();
+            readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            for (int from = 0; from < ids.size(); from += REFRESH_CHUNK_SIZE) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + REFRESH_CHUNK_SIZE, ids.size()));
+                List<RequirementIndexRowDTO> rows = readOnlyTransaction.execute(status -> entityManager
+                        .createQuery(SELECT_ROWS + "WHERE r.id IN :ids", RequirementIndexRowDTO.class)
+                        .setParameter("ids", chunk)
+                        .getResultList());
+                Set<Integer> missing = new HashSet<>(chunk);
+                for (RequirementIndexRowDTO row : rows) {
+                    put(index, row);
+                    missing.remove(row.getId());
+                }
+                missing.forEach(index::remove);
+            }
+        }
+    }
+
+    private static void put(BitmapIndex<RequirementIndexField> index, RequirementIndexRowDTO row) {
+        String[] values = new String[RequirementIndexField.values().length];
+        values[RequirementIndexField.STATUS.ordinal()] = row.getStatus();
+        values[RequirementIndexField.TECH_LEADER.ordinal()] = row.getTechLeader();
+        values[RequirementIndexField.GROUP_NAME.ordinal()] = row.getGroupName();
+        values[RequirementIndexField.REQ_TYPE.ordinal()] = row.getReqType();
+        values[RequirementIndexField.IMPORTANT_REQUIREMENT.ordinal()] = toValue(row.getImportantRequirement());
+        values[RequirementIndexField.SUMMARY_DESIGN_SUBMITTED.ordinal()] = toValue(row.getSummaryDesignSubmitted());
+        values[RequirementIndexField.INVOLVES_ARCH_DECISION.ordinal()] = toValue(row.getInvolvesArchDecision());
+        values[RequirementIndexField.INVOLVES_INFRA.ordinal()] = toValue(row.getInvolvesInfra());
+        values[RequirementIndexField.INVOLVES_SENIOR_REPORT.ordinal()] = toValue(row.getInvolvesSeniorReport());
+        index.put(row.getId(), values);
+    }
+
+    private static String toValue(Boolean flag) {
+        return flag == null ? null : booleanValue(flag);
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        return readOnlyTransaction;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.reqsmanager.service;
+
+import com.example.reqsmanager.dto.GroupMetricsCounterDTO;
+import com.example.reqsmanager.dto.GroupMetricsDTO;
+import com.example.reqsmanager.dto.RequirementFilterStateDTO;
+import com.example.reqsmanager.repository.GroupMetricsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * 主页分组统计 (需求数、概要设计已递交数、概要设计平均分) 的增量维护。
+ * - 统计值保存在 group_metrics 表中，每个小组一行，主页只读这张表，不再扫描需求表；
+ * - 需求的新增、修改、删除、导入在同一事务内调用 rowsChanged，按写前 / 写后两份行快照的差值累加，
+ *   与业务数据同时提交或回滚；
+ * - 定期 (及表为空时在启动阶段) 从需求表完整重算一次进行校准，发现偏差时记录日志。
+ */
+@Slf4j
+@Service
+public class GroupMetricsService implements SmartInitializingSingleton {
+
+    @Autowired
+    private GroupMetricsRepository groupMetricsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * 表为空 (首次部署) 时，在开始接收请求之前完成第一次计算。
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (groupMetricsRepository.findAll().isEmpty()) {
+            reconcile();
+        }
+    }
+
+    /**
+     * 已分组的各组统计，按小组名排序。
+     */
+    @Transactional(readOnly = true)
+    public List<GroupMetricsDTO> getGroupMetrics() {
+        List<GroupMetricsDTO> metrics = new ArrayList<>();
+        for (GroupMetricsCounterDTO counter : groupMetricsRepository.findAll()) {
+            if (counter.getGroupName().isEmpty() || counter.getTotalRequirements() <= 0) {
+                continue;
+            }
+            Double averageScore = counter.getSummaryScoreCount() > 0
+                    ? (double) counter.getSummaryScoreSum() / counter.getSummaryScoreCount() : null;
+            metrics.add(new GroupMetricsDTO(counter.getGroupName(), counter.getTotalRequirements(),
+                    counter.getSummaryDesignsSubmitted(), averageScore));
+        }
+        return metrics;
+    }
+
+    /**
+     * 需求总数 (含未分组的需求)。
+     */
+    @Transactional(readOnly = true)
+    public long getTotalRequirements() {
+        return groupMetricsRepository.sumTotalRequirements();
+    }
+
+    /**
+     * 按一组需求写操作前后的快照更新统计。必须在执行写操作的事务中调用。
+     *
+     * @param before 写操作前的快照 (新增时为空)
+     * @param after  写操作后的快照 (删除时为空)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rowsChanged(Collection<RequirementFilterStateDTO> before, Collection<RequirementFilterStateDTO> after) {
+        // TreeMap：按小组名顺序写入，并发事务以相同顺序锁定统计行
+        Map<String, long[]> deltas = new TreeMap<>();
+        for (RequirementFilterStateDTO row : before) {
+            accumulate(deltas, row, -1);
+        }
+        for (RequirementFilterStateDTO row : after) {
+            accumulate(deltas, row, 1);
+        }
+        List<GroupMetricsCounterDTO> changes = new ArrayList<>(deltas.size());
+        deltas.forEach((groupName, d) -> {
+            GroupMetricsCounterDTO delta = new GroupMetricsCounterDTO(groupName, d[0], d[1], d[2], d[3]);
+            if (!delta.isZero()) {
+                changes.add(delta);
+            }
+        });
+        groupMetricsRepository.applyDeltas(changes);
+    }
+
+    private static void accumulate(Map<String, long[]> deltas, RequirementFilterStateDTO row, int sign) {
+        long[] d = deltas.computeIfAbsent(Objects.requireNonNullElse(row.getGroupName(), ""), g -> new long[4]);
+        d[0] += sign;
+        if (Boolean.TRUE.equals(row.getSummaryDesignSubmitted())) {
+            d[1] += sign;
+        }
+        if (row.getSummaryDesignScore() != null) {
+            d[2] += (long) sign * row.getSummaryDesignScore();
+            d[3] += sign;
+        }
+    }
+
+    /**
+     * 从需求表完整重算并替换统计表。重算期间需求表的写入会被短暂阻塞。
+     *
+     * @return 与重算结果不一致的小组数
+     */
+    @Scheduled(cron = "${reqsmanager.metrics.group.reconcile-cron:0 30 2 * * *}")
+    public int reconcile() {
+        long start = System.nanoTime();
+        Integer drifted = new TransactionTemplate(transactionManager).execute(status -> {
+            List<GroupMetricsCounterDTO> actual = groupMetricsRepository.aggregateFromRequirements();
+            int count = countDrift(groupMetricsRepository.findAll(), actual);
+            if (count > 0) {
+                groupMetricsRepository.replaceAll(actual);
+            }
+            return count;
+        });
+        log.info("Group metrics reconciled in {} ms, {} groups corrected", (System.nanoTime() - start) / 1_000_000, drifted);
+        return drifted;
+    }
+
+    /**
+     * 比对统计表与重算结果，记录并返回不一致的小组数。
+     * 小组名按数据库排序规则 (不区分大小写、忽略尾部空格) 的近似方式归一后再比对。
+     */
+    private int countDrift(List<GroupMetricsCounterDTO> stored, List<GroupMetricsCounterDTO> actual) {
+        Map<String, GroupMetricsCounterDTO> storedByKey = new HashMap<>();
+        for (GroupMetricsCounterDTO row : stored) {
+            if (!row.isZero()) {
+                storedByKey.put(collationKey(row.getGroupName()), row);
+            }
+        }
+        int drifted = 0;
+        for (GroupMetricsCounterDTO row : actual) {
+            GroupMetricsCounterDTO previous = storedByKey.remove(collationKey(row.getGroupName()));
+            if (previous == null || !sameCounts(previous, row)) {
+                log.warn("Group metrics drift for group '{}': stored {}, actual {}", row.getGroupName(), previous, row);
+                drifted++;
+            }
+        }
+        for (GroupMetricsCounterDTO row : storedByKey.values()) {
+            log.warn("Group metrics drift for group '{}': stored {}, actual none", row.getGroupName(), row);
+            drifted++;
+        }
+        return drifted;
+    }
+
+    private static boolean sameCounts(GroupMetricsCounterDTO a, GroupMetricsCounterDTO b) {
+        return a.getTotalRequirements() == b.getTotalRequirements()
+                && a.getSummaryDesignsSubmitted() == b.getSummaryDesignsSubmitted()
+                && a.getSummaryScoreSum() == b.getSummaryScoreSum()
+                && a.getSummaryScoreCount() == b.getSummaryScoreCount();
+    }
+
+    private static String collationKey(String groupName) {
+        return groupName.stripTrailing().toLowerCase(Locale.ROOT);
+    }
+}
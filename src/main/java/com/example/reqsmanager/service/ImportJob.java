@@ -0,0 +1,110 @@
+package com.example.reqsmanager.service;
+
+import com.example.reqsmanager.dto.ImportJobProgressDTO;
+import com.example.reqsmanager.dto.ImportSummaryDTO;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一个后台 CSV 导入任务 (或其它批量任务) 的运行状态。
+ * 由执行导入的线程更新，由进度查询接口读取。
+ */
+@Getter
+public class ImportJob {
+
+    /**
+     * 进度面板中最多显示的行级警告数，只保留行号最小的这些条。
+     */
+    static final int MAX_WARNINGS = 100;
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final String id;
+    private final String type;
+    private final ImportSummaryDTO summary = new ImportSummaryDTO();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile long startedAtNanos;
+    private volatile long finishedAtNanos;
+    private volatile long finishedAtMillis;
+    private volatile String message;
+
+    // 行号 -> 警告内容；解析在多个线程中并行进行，按行号排序保存
+    private final ConcurrentSkipListMap<Long, String> warnings = new ConcurrentSkipListMap<>();
+    private final AtomicInteger omittedWarnings = new AtomicInteger();
+
+    public ImportJob(String id, String type) {
+        this.id = id;
+        this.type = type;
+    }
+
+    /**
+     * 请求取消任务。导入逻辑会在下一个分块边界处停止，已提交的分块不会回滚。
+     */
+    public void requestCancel() {
+        cancelRequested = true;
+    }
+
+    /**
+     * 供导入逻辑在每个分块边界处调用：若已请求取消，则抛出 CancellationException 结束任务。
+     */
+    public void checkCancelled() {
+        if (cancelRequested) {
+            throw new CancellationException("导入任务已取消");
+        }
+    }
+
+    /**
+     * 记录一条行级警告 (该行仍被导入，但部分字段被忽略)，显示在进度面板中。可在解析线程池中并发调用。
+     */
+    public void addWarning(long lineNumber, String warning) {
+        warnings.put(lineNumber, "第 " + lineNumber + " 行：" + warning);
+        if (warnings.size() > MAX_WARNINGS && warnings.pollLastEntry() != null) {
+            omittedWarnings.incrementAndGet();
+        }
+    }
+
+    void markRunning() {
+        startedAtNanos = System.nanoTime();
+        status = Status.RUNNING;
+    }
+
+    void markFinished(Status finalStatus, String finalMessage) {
+        finishedAtNanos = System.nanoTime();
+        finishedAtMillis = System.currentTimeMillis();
+        message = finalMessage;
+        status = finalStatus;
+    }
+
+    public ImportJobProgressDTO toProgressDTO() {
+        ImportJobProgressDTO dto = new ImportJobProgressDTO();
+        dto.setJobId(id);
+        dto.setType(type);
+        dto.setStatus(status.name());
+        dto.setProcessedRows(summary.getProcessedRows());
+        dto.setAddedCount(summary.getAddedCount());
+        dto.setUpdatedCount(summary.getUpdatedCount());
+        dto.setSkippedCount(summary.getSkippedCount());
+        dto.setMessage(message);
+        dto.setWarnings(new ArrayList<>(warnings.values()));
+        dto.setOmittedWarnings(omittedWarnings.get());
+
+        if (startedAtNanos > 0) {
+            long endNanos = status.isFinished() ? finishedAtNanos : System.nanoTime();
+            double seconds = (endNanos - startedAtNanos) / 1_000_000_000.0;
+            dto.setRowsPerSecond(seconds > 0 ? summary.getProcessedRows() / seconds : 0);
+        }
+        return dto;
+    }
+}
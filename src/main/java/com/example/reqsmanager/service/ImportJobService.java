@@ -0,0 +1,176 @@
+package com.example.reqsmanager.service;
+
+import com.example.reqsmanager.dto.ImportJobProgressDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 后台 CSV 导入任务 (以及“一键更新”等其它批量任务) 的调度与状态管理。
+ * 上传的文件先落到临时文件，再交给有界线程池异步执行，请求线程立即返回任务 ID。
+ * 任务结束后，其最终结果会一直保留，直到用户第一次查询到最终结果为止
+ * (长期无人查询的已结束任务会在 FINISHED_JOB_RETENTION_MILLIS 后被清理)。
+ */
+@Slf4j
+@Service
+public class ImportJobService {
+
+    /**
+     * 已结束但无人查询的任务最长保留时间 (24 小时)。
+     */
+    private static final long FINISHED_JOB_RETENTION_MILLIS = 24 * 60 * 60 * 1000L;
+
+    /**
+     * 实际执行导入的业务逻辑。
+     */
+    @FunctionalInterface
+    public interface ImportTask {
+        String run(InputStream inputStream, ImportJob job) throws Exception;
+    }
+
+    /**
+     * 不需要上传文件的后台批量任务。
+     */
+    @FunctionalInterface
+    public interface JobTask {
+        String run(ImportJob job) throws Exception;
+    }
+
+    @Autowired
+    @Qualifier("importExecutor")
+    private TaskExecutor importExecutor;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * 提交一个后台导入任务。
+     *
+     * @param type 任务类型 (如 "requirements", "arch-projects")，用于前端展示
+     * @param file 用户上传的文件
+     * @param task 导入逻辑
+     * @return 任务 ID
+     * @throws IOException 保存临时文件失败时抛出
+     * @throws TaskRejectedException 线程池已满时抛出
+     */
+    public String submit(String type, MultipartFile file, ImportTask task) throws IOException {
+        purgeExpiredJobs();
+
+        Path tempFile = Files.createTempFile("reqsmanager-import-", ".csv");
+        file.transferTo(tempFile);
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), type);
+        jobs.put(job.getId(), job);
+        try {
+            importExecutor.execute(() -> run(job, tempFile, task));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return job.getId();
+    }
+
+    /**
+     * 提交一个不需要上传文件的后台批量任务，与导入任务共用线程池和进度查询接口。
+     *
+     * @param type 任务类型 (如 "tech-leader-sync")，用于前端展示
+     * @param task 任务逻辑
+     * @return 任务 ID
+     * @throws TaskRejectedException 线程池已满时抛出
+     */
+    public String submit(String type, JobTask task) {
+        purgeExpiredJobs();
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), type);
+        jobs.put(job.getId(), job);
+        try {
+            importExecutor.execute(() -> execute(job, task, "任务"));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return job.getId();
+    }
+
+    /**
+     * 查询任务进度。若任务已结束，本次查询返回最终结果后即释放该任务。
+     */
+    public Optional<ImportJobProgressDTO> getProgress(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        ImportJobProgressDTO progress = job.toProgressDTO();
+        if (job.getStatus().isFinished()) {
+            jobs.remove(jobId);
+        }
+        return Optional.of(progress);
+    }
+
+    /**
+     * 请求取消任务。
+     *
+     * @return 任务存在且尚未结束时返回 true
+     */
+    public boolean cancel(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null || job.getStatus().isFinished()) {
+            return false;
+        }
+        job.requestCancel();
+        return true;
+    }
+
+    private void run(ImportJob job, Path tempFile, ImportTask task) {
+        try {
+            execute(job, j -> {
+                try (InputStream inputStream = Files.newInputStream(tempFile)) {
+                    return task.run(inputStream, j);
+                }
+            }, "文件导入");
+        } finally {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                log.warn("Failed to delete temp file {} of import job {}", tempFile, job.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * @param name 任务名称，用于取消 / 失败时的提示信息
+     */
+    private void execute(ImportJob job, JobTask task, String name) {
+        job.markRunning();
+        try {
+            job.checkCancelled();
+            String message = task.run(job);
+            job.markFinished(ImportJob.Status.COMPLETED, message);
+        } catch (CancellationException e) {
+            job.markFinished(ImportJob.Status.CANCELLED, name + "已取消，取消前已提交的数据会保留。");
+        } catch (Exception e) {
+            log.error("Import job {} failed", job.getId(), e);
+            job.markFinished(ImportJob.Status.FAILED, name + "失败: " + e.getMessage());
+        }
+    }
+
+    private void purgeExpiredJobs() {
+        long now = System.currentTimeMillis();
+        jobs.values().removeIf(job -> job.getStatus().isFinished()
+                && now - job.getFinishedAtMillis() > FINISHED_JOB_RETENTION_MILLIS);
+    }
+}
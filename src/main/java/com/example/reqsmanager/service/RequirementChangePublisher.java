@@ -0,0 +1,76 @@
+package com.example.reqsmanager.service;
+
+import com.example.reqsmanager.dto.RequirementFilterStateDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 需求写操作的统一通知入口。所有修改需求 (及其架构需求、评审信息) 的写路径都经由这里通知派生的数据结构：
+ * - 分组统计、每日设计趋势：在当前事务内按写前 / 写后快照累加增量；
+ * - 分析快照、筛选位图索引：提交后刷新这些需求；
+ * - 列表缓存：提交后失效受影响的页面。列表页的候选主键来自筛选位图索引，列表缓存最后登记，
+ *   并在索引刷新完成后再失效一次，避免缓存刷新完成前按旧索引查出的页面。
+ * 全文索引与编号子串索引按需求编号或主键分别维护，仍由各写路径直接通知。
+ */
+@Component
+public class RequirementChangePublisher {
+
+    @Autowired
+    private GroupMetricsService groupMetricsService;
+
+    @Autowired
+    private DesignTrendService designTrendService;
+
+    @Autowired
+    private AnalyticsSnapshotService analyticsSnapshotService;
+
+    @Autowired
+    private FilterIndexService filterIndexService;
+
+    @Autowired
+    private RequirementListCache requirementListCache;
+
+    /**
+     * 一组需求的筛选或统计字段可能发生了变化。新增的行只有写后快照，删除的行只有写前快照。
+     * 必须在写入所在的事务中调用。
+     */
+    public void rowsChanged(List<RequirementFilterStateDTO> before, List<RequirementFilterStateDTO> after) {
+        groupMetricsService.rowsChanged(before, after);
+        designTrendService.rowsChanged(before, after);
+        Set<Integer> ids = Stream.concat(before.stream(), after.stream())
+                .map(RequirementFilterStateDTO::getId).collect(Collectors.toSet());
+        analyticsSnapshotService.requirementsChanged(ids);
+        filterIndexService.requirementsChanged(ids, () -> requirementListCache.rowsChanged(before, after));
+        requirementListCache.rowsChanged(before, after);
+    }
+
+    /**
+     * 一组需求只改了列表中显示的其它列，筛选字段、排序键和统计字段都没有变化，只需失效包含这些行的页面。
+     */
+    public void rowsUpdated(Collection<RequirementFilterStateDTO> rows) {
+        requirementListCache.rowsUpdated(rows);
+    }
+
+    /**
+     * 批量操作改了一组需求的状态，但没有逐行快照 (状态不参与分组统计和每日设计趋势)。
+     * 在事务提交后调用；列表缓存无法逐行判断影响范围，整体清空。
+     */
+    public void statusesChanged(Collection<Integer> ids) {
+        analyticsSnapshotService.requirementsChanged(ids);
+        filterIndexService.requirementsChanged(ids, requirementListCache::invalidateAll);
+        requirementListCache.invalidateAll();
+    }
+
+    /**
+     * 批量操作改了不确定哪些需求的显示列 (不涉及筛选和统计字段)，整体清空列表缓存。
+     */
+    public void displayedColumnsChanged() {
+        requirementListCache.invalidateAll();
+    }
+}
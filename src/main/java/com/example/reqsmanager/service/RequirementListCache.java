@@ -0,0 +1,313 @@
+package com.example.reqsmanager.service;
+
+import com.example.reqsmanager.dto.KeysetPage;
+import com.example.reqsmanager.dto.RequirementCursor;
+import com.example.reqsmanager.dto.RequirementFilterStateDTO;
+import com.example.reqsmanager.dto.RequirementListRow;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 需求列表页 (/requirements/、/analysis/、/architectural/) 查询结果的缓存。
+ * - 以 (列表类型, 规范化后的筛选条件, 游标, 每页条数) 为键缓存一页结果，总数以筛选条件为键单独缓存；
+ * - 按条数和存活时间 (TTL) 淘汰；
+ * - 写操作提交后按“写前 / 写后”两份行快照精确失效：只有满足某页筛选条件、且排序键落在该页覆盖范围内的修改才会使该页失效；
+ *   只有行的“是否满足筛选条件”发生变化 (新增、删除、字段变化) 时才会使对应的总数失效；
+ * - 查询开始后发生的失效会阻止该次结果写入缓存，避免把写操作提交前读到的旧数据放进缓存。
+ * 命中率、淘汰数等指标通过 Micrometer 暴露 (cache.gets / cache.evictions 等，cache 标签为 requirement-list-pages / requirement-list-counts)。
+ */
+@Component
+public class RequirementListCache {
+
+    @Value("${reqsmanager.cache.requirement-list.max-pages:1000}")
+    private long maxPages;
+
+    @Value("${reqsmanager.cache.requirement-list.ttl:5m}")
+    private Duration ttl;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<PageKey, CachedPage> pages;
+    private Cache<Filter, Long> counts;
+    private Counter invalidations;
+
+    /**
+     * 每次失效加一。查询开始时记下当前值，写入缓存前后各比对一次。
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        pages = Caffeine.newBuilder().maximumSize(maxPages).expireAfterWrite(ttl).recordStats().build();
+        counts = Caffeine.newBuilder().maximumSize(maxPages).expireAfterWrite(ttl).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "requirement-list-pages");
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "requirement-list-counts");
+        invalidations = Counter.builder("requirement.list.cache.invalidations")
+                .description("Cached requirement list pages and counts invalidated by writes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 列表筛选条件。空字符串与 null 等价 (两者生成的查询相同)。
+     */
+    public record Filter(String reqId,
+                         String reqName,
+                         String techLeader,
+                         LocalDate startDate,
+                         LocalDate endDate,
+                         Boolean isImportantRequirement,
+                         Boolean isSummaryDesignSubmitted,
+                         String status) {
+
+        public static Filter of(String reqId, String reqName, String techLeader, LocalDate startDate, LocalDate endDate,
+                                Boolean isImportantRequirement, Boolean isSummaryDesignSubmitted, String status) {
+            return new Filter(emptyToNull(reqId), emptyToNull(reqName), emptyToNull(techLeader), startDate, endDate,
+                    isImportantRequirement, isSummaryDesignSubmitted, emptyToNull(status));
+        }
+
+        /**
+         * 在内存中判断一行是否满足筛选条件，与 RequirementService 中的 Specification 对应。
+         * 字符串比较不区分大小写 (与 MySQL 默认排序规则一致)；宁可多判为满足 (多失效一次)，不可漏判。
+         */
+        boolean matches(RequirementFilterStateDTO row) {
+            return containsIgnoreCase(row.getReqId(), reqId)
+                    && containsIgnoreCase(row.getName(), reqName)
+                    && (techLeader == null || techLeader.equalsIgnoreCase(row.getTechLeader()))
+                    && (startDate == null || row.getScheduleDate() != null && !row.getScheduleDate().isBefore(startDate))
+                    && (endDate == null || row.getScheduleDate() != null && !row.getScheduleDate().isAfter(endDate))
+                    && (isImportantRequirement == null || isImportantRequirement.equals(row.getImportantRequirement()))
+                    && (isSummaryDesignSubmitted == null || isSummaryDesignSubmitted.equals(row.getSummaryDesignSubmitted()))
+                    && (status == null || status.equalsIgnoreCase(row.getStatus()));
+        }
+
+        /**
+         * 对应 SQL 中的 LIKE '%fragment%'。fragment 含 LIKE 通配符 ('%'、'_'，以及转义符 '\') 时无法按字面判断，
+         * 一律视为满足。
+         */
+        private static boolean containsIgnoreCase(String value, String fragment) {
+            if (fragment == null || hasLikeWildcard(fragment)) {
+                return true;
+            }
+            return value != null && value.toLowerCase(Locale.ROOT).contains(fragment.toLowerCase(Locale.ROOT));
+        }
+
+        private static boolean hasLikeWildcard(String fragment) {
+            return fragment.indexOf('%') >= 0 || fragment.indexOf('_') >= 0 || fragment.indexOf('\\') >= 0;
+        }
+
+        private static String emptyToNull(String value) {
+            return value == null || value.isEmpty() ? null : value;
+        }
+    }
+
+    private record PageKey(Class<?> rowType, Filter filter, String cursor, int size) {
+    }
+
+    /**
+     * 列表排序键 (scheduleDate, id)，排期为空的排在最前。
+     */
+    private record SortKey(LocalDate scheduleDate, int id) {
+        static final Comparator<SortKey> ORDER = Comparator
+                .comparing(SortKey::scheduleDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingInt(SortKey::id);
+    }
+
+    /**
+     * 缓存的一页及其在排序上覆盖的范围 [lower, upper] (null 表示无界)。
+     * 键集分页下，范围以外的增删改不会改变这一页的内容。
+     */
+    private record CachedPage(KeysetPage<?> page, SortKey lower, SortKey upper) {
+        boolean covers(SortKey key) {
+            return (lower == null || SortKey.ORDER.compare(key, lower) >= 0)
+                    && (upper == null || SortKey.ORDER.compare(key, upper) <= 0);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // 读取
+    // ---------------------------------------------------------------
+
+    /**
+     * 取一页列表数据，未命中时调用 loader 查询并缓存。
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends RequirementListRow> KeysetPage<T> getPage(Class<T> rowType, Filter filter, String cursor, int size,
+                                                               Supplier<KeysetPage<T>> loader) {
+        PageKey key = new PageKey(rowType, filter, cursor == null || cursor.isEmpty() ? null : cursor, size);
+        CachedPage cached = pages.getIfPresent(key);
+        if (cached != null) {
+            // 每个请求拿到各自的副本，总数只在副本上按需计算 (经由 getCount 缓存)
+            return ((KeysetPage<T>) cached.page()).copy();
+        }
+        long startGeneration = generation.get();
+        KeysetPage<T> page = loader.get();
+        CachedPage entry = new CachedPage(page.copy(), lowerBound(key.cursor(), page), upperBound(key.cursor(), page));
+        putIfCurrent(pages, key, entry, startGeneration);
+        return page;
+    }
+
+    /**
+     * 取满足筛选条件的总数，未命中时调用 loader 查询并缓存。
+     */
+    public long getCount(Filter filter, LongSupplier loader) {
+        Long cached = counts.getIfPresent(filter);
+        if (cached != null) {
+            return cached;
+        }
+        long startGeneration = generation.get();
+        long count = loader.getAsLong();
+        putIfCurrent(counts, filter, count, startGeneration);
+        return count;
+    }
+
+    private <K, V> void putIfCurrent(Cache<K, V> cache, K key, V value, long startGeneration) {
+        if (generation.get() != startGeneration) {
+            return;
+        }
+        cache.put(key, value);
+        // 写入的同时发生了失效，失效扫描可能没有看到这条记录
+        if (generation.get() != startGeneration) {
+            cache.asMap().remove(key, value);
+        }
+    }
+
+    private static SortKey lowerBound(String cursor, KeysetPage<?> page) {
+        RequirementCursor position = RequirementCursor.decode(cursor);
+        if (position == null) {
+            return null;
+        }
+        if (!position.backward()) {
+            return new SortKey(position.scheduleDate(), position.id());
+        }
+        // 向前翻的一页：前面还有数据时，覆盖范围从本页第一行开始
+        return page.hasPrevious() && !page.isEmpty() ? sortKey((RequirementListRow) page.getContent().get(0)) : null;
+    }
+
+    private static SortKey upperBound(String cursor, KeysetPage<?> page) {
+        RequirementCursor position = RequirementCursor.decode(cursor);
+        if (position != null && position.backward()) {
+            return new SortKey(position.scheduleDate(), position.id());
+        }
+        // 向后翻的一页：后面还有数据时，覆盖范围到本页最后一行为止
+        List<?> content = page.getContent();
+        return page.hasNext() && !content.isEmpty() ? sortKey((RequirementListRow) content.get(content.size() - 1)) : null;
+    }
+
+    private static SortKey sortKey(RequirementListRow row) {
+        return new SortKey(row.getScheduleDate(), row.getId());
+    }
+
+    // ---------------------------------------------------------------
+    // 失效
+    // ---------------------------------------------------------------
+
+    /**
+     * 登记一次写操作：事务提交后，根据写前 / 写后的行快照失效受影响的缓存。
+     * 新增的行只有写后快照，删除的行只有写前快照。
+     */
+    public void rowsChanged(Collection<RequirementFilterStateDTO> before, Collection<RequirementFilterStateDTO> after) {
+        Map<Integer, RequirementFilterStateDTO> beforeById = new HashMap<>();
+        Map<Integer, RequirementFilterStateDTO> afterById = new HashMap<>();
+        before.forEach(row -> beforeById.put(row.getId(), row));
+        after.forEach(row -> afterById.put(row.getId(), row));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(beforeById, afterById);
+                }
+            });
+        } else {
+            invalidate(beforeById, afterById);
+        }
+    }
+
+    /**
+     * 登记一次不改变筛选字段和排序键的写操作 (只改了列表中显示的其它列)。
+     */
+    public void rowsUpdated(Collection<RequirementFilterStateDTO> rows) {
+        rowsChanged(rows, rows);
+    }
+
+    private void invalidate(Map<Integer, RequirementFilterStateDTO> before, Map<Integer, RequirementFilterStateDTO> after) {
+        if (before.isEmpty() && after.isEmpty()) {
+            return;
+        }
+        generation.incrementAndGet();
+        long removed = 0;
+        for (Map.Entry<PageKey, CachedPage> entry : pages.asMap().entrySet()) {
+            if (affectsPage(entry.getKey().filter(), entry.getValue(), before.values())
+                    || affectsPage(entry.getKey().filter(), entry.getValue(), after.values())) {
+                if (pages.asMap().remove(entry.getKey(), entry.getValue())) {
+                    removed++;
+                }
+            }
+        }
+        for (Map.Entry<Filter, Long> entry : counts.asMap().entrySet()) {
+            if (affectsCount(entry.getKey(), before, after)
+                    && counts.asMap().remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        invalidations.increment(removed);
+    }
+
+    private static boolean affectsPage(Filter filter, CachedPage page, Collection<RequirementFilterStateDTO> rows) {
+        for (RequirementFilterStateDTO row : rows) {
+            if (filter.matches(row) && page.covers(new SortKey(row.getScheduleDate(), row.getId()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean affectsCount(Filter filter,
+                                        Map<Integer, RequirementFilterStateDTO> before,
+                                        Map<Integer, RequirementFilterStateDTO> after) {
+        for (Map.Entry<Integer, RequirementFilterStateDTO> entry : before.entrySet()) {
+            RequirementFilterStateDTO newState = after.get(entry.getKey());
+            if (filter.matches(entry.getValue()) != (newState != null && filter.matches(newState))) {
+                return true;
+            }
+        }
+        for (Map.Entry<Integer, RequirementFilterStateDTO> entry : after.entrySet()) {
+            if (!before.containsKey(entry.getKey()) && filter.matches(entry.getValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 清空全部缓存 (用于无法逐行判断影响范围的批量操作)。
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        long removed = pages.estimatedSize() + counts.estimatedSize();
+        pages.invalidateAll();
+        counts.invalidateAll();
+        invalidations.increment(removed);
+    }
+}
@@ -1,36 +1,65 @@
 package com.example.reqsmanager.service;
 
+import com.example.reqsmanager.csv.ParallelCsvParser;
 import com.example.reqsmanager.dto.*;
 import com.example.reqsmanager.entity.ArchitecturalRequirement;
-import com.example.reqsmanager.entity.Member;
+import com.example.reqsmanager.entity.DeletedRecord;
 import com.example.reqsmanager.entity.Requirement;
 import com.example.reqsmanager.entity.ReviewInfo;
 import com.example.reqsmanager.repository.ArchitecturalRequirementRepository;
+import com.example.reqsmanager.repository.EditVersionRepository;
 import com.example.reqsmanager.repository.MemberRepository;
+import com.example.reqsmanager.repository.RequirementBatchRepository;
 import com.example.reqsmanager.repository.RequirementRepository;
+import com.example.reqsmanager.search.RequirementIndexField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
 import org.apache.commons.csv.CSVRecord;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
 import jakarta.persistence.criteria.Predicate;
 
-import java.io.BufferedReader;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 核心业务服务类。
@@ -49,6 +78,64 @@ public class RequirementService {
     @Autowired
     private MemberRepository memberRepository;
 
+    @Autowired
+    private RequirementBatchRepository requirementBatchRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ParallelCsvParser parallelCsvParser;
+
+    @Autowired
+    private ChangeTrackingService changeTrackingService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private SubstringIndexService substringIndexService;
+
+    @Autowired
+    private RequirementListCache requirementListCache;
+
+    @Autowired
+    private GroupMetricsService groupMetricsService;
+
+    @Autowired
+    private FilterIndexService filterIndexService;
+
+    @Autowired
+    private RequirementChangePublisher requirementChangePublisher;
+
+    @Autowired
+    private EditVersionRepository editVersionRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 流式导出时，每处理多少行清空一次持久化上下文。
+     */
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
+    /**
+     * CSV 导入时，每块处理的行数 (每块一个独立事务)。
+     */
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+
+    /**
+     * “一键更新”时，每块处理的需求数 (每块一个独立事务，只锁定本块的行)。
+     */
+    private static final int LEADER_SYNC_CHUNK_SIZE = 1000;
+
+    /**
+     * 批量删除时，每块删除的需求数 (每块一个独立事务)。
+     */
+    private static final int DELETE_CHUNK_SIZE = 500;
+
+    private static final DateTimeFormatter IMPORT_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy/M/d");
+
     /**
      * 通用的分页查询方法。
      * 支持根据需求编号、需求名称、需求科技负责人，以及投产日期区间进行过滤。
@@ -72,10 +159,256 @@ public class RequirementService {
                                               Boolean isSummaryDesignSubmitted,
                                               String status,
                                               Pageable pageable) {
-        Specification<Requirement> spec = (root, query, cb) -> {
+        Specification<Requirement> spec = buildRequirementSpec(reqId, reqName, techLeader, startDate, endDate,
+                isImportantRequirement, isSummaryDesignSubmitted, status, true);
+        return requirementRepository.findAll(spec, pageable);
+    }
+
+    /**
+     * 需求总览列表 (/requirements/) 的键集 (seek) 分页查询，筛选条件与 findRequirements 完全一致。
+     * 只查询列表显示的列 (构造器投影)，不加载架构信息和评审信息。
+     *
+     * @param cursor 上一页/下一页的游标，为空或无法识别时返回第一页
+     * @param size   每页条数
+     * @return 当前页的数据及翻页游标
+     */
+    public KeysetPage<RequirementGeneralRowDTO> findGeneralRowsByKeyset(String reqId,
+                                                                       String reqName,
+                                                                       String techLeader,
+                                                                       LocalDate startDate,
+                                                                       LocalDate endDate,
+                                                                       Boolean isImportantRequirement,
+                                                                       Boolean isSummaryDesignSubmitted,
+                                                                       String status,
+                                                                       String cursor,
+                                                                       int size) {
+        RequirementListCache.Filter filter = RequirementListCache.Filter.of(reqId, reqName, techLeader, startDate, endDate,
+                isImportantRequirement, isSummaryDesignSubmitted, status);
+        return findRowsByKeyset(RequirementGeneralRowDTO.class, root -> List.of(
+                root.get("id"), root.get("reqId"), root.get("name"), root.get("businessLeader"),
+                root.get("techLeader"), root.get("leadDepartment"), root.get("groupName"), root.get("reqType"),
+                root.get("businessLine"), root.get("devLeader"), root.get("scheduleDate"), root.get("status")
+        ), filter, cursor, size);
+    }
+
+    /**
+     * 需求分析列表 (/analysis/) 的键集分页查询，只查询分析相关的列。
+     */
+    public KeysetPage<RequirementAnalysisRowDTO> findAnalysisRowsByKeyset(String reqId,
+                                                                         String reqName,
+                                                                         String techLeader,
+                                                                         LocalDate startDate,
+                                                                         LocalDate endDate,
+                                                                         Boolean isImportantRequirement,
+                                                                         Boolean isSummaryDesignSubmitted,
+                                                                         String status,
+                                                                         String cursor,
+                                                                         int size) {
+        RequirementListCache.Filter filter = RequirementListCache.Filter.of(reqId, reqName, techLeader, startDate, endDate,
+                isImportantRequirement, isSummaryDesignSubmitted, status);
+        return findRowsByKeyset(RequirementAnalysisRowDTO.class, root -> List.of(
+                root.get("id"), root.get("reqId"), root.get("name"), root.get("scheduleDate"),
+                root.get("isAnalysisInvolved"), root.get("analysisMembers"), root.get("analysisFinishDate"),
+                root.get("analysisOutput"), root.get("hasSpec"), root.get("specWriter"),
+                root.get("isSpecReviewed"), root.get("specReviewTime")
+        ), filter, cursor, size);
+    }
+
+    /**
+     * 架构需求列表 (/architectural/) 的键集分页查询。
+     * 架构信息通过 LEFT JOIN 只取列表显示的列，评审信息不参与查询。
+     */
+    public KeysetPage<RequirementArchitectureRowDTO> findArchitectureRowsByKeyset(String reqId,
+                                                                                 String reqName,
+                                                                                 String techLeader,
+                                                                                 LocalDate startDate,
+                                                                                 LocalDate endDate,
+                                                                                 Boolean isImportantRequirement,
+                                                                                 Boolean isSummaryDesignSubmitted,
+                                                                                 String status,
+                                                                                 String cursor,
+                                                                                 int size) {
+        RequirementListCache.Filter filter = RequirementListCache.Filter.of(reqId, reqName, techLeader, startDate, endDate,
+                isImportantRequirement, isSummaryDesignSubmitted, status);
+        return findRowsByKeyset(RequirementArchitectureRowDTO.class, root -> {
+            Join<Requirement, ArchitecturalRequirement> arch = root.join("architecturalRequirement", JoinType.LEFT);
+            return List.of(
+                    root.get("id"), root.get("reqId"), root.get("name"), root.get("scheduleDate"),
+                    arch.get("importantRequirement"), arch.get("summaryDesignSubmitted"),
+                    arch.get("summaryDesignSubmitter"), arch.get("summaryDesignSubmitDate"),
+                    arch.get("summaryDesignReviewPassDate"), arch.get("involvesArchDecision"),
+                    arch.get("involvesInfra"), arch.get("involvesSeniorReport"), arch.get("summaryDesignScore"),
+                    arch.get("summaryDesignDeductionReason"), arch.get("areReviewsConsistent"));
+        }, filter, cursor, size);
+    }
+
+    /**
+     * [辅助方法] 键集 (seek) 分页的通用实现，结果为 rowType 的构造器投影 (只读 DTO，非托管实体)。
+     * 结果按 (scheduleDate, id) 排序 (排期为空的排在最前)，顺序稳定；
+     * 翻页时以上一页边界行的 (scheduleDate, id) 作为起点，配合 (schedule_date, id) 索引，
+     * 任意深度的页面开销都与第一页相同，且不执行 COUNT 查询 (总数按需延迟计算)。
+     * 页面与总数都经过 RequirementListCache 缓存。
+     *
+     * @param columns 按 rowType 构造器参数顺序给出的查询列
+     */
+    private <T extends RequirementListRow> KeysetPage<T> findRowsByKeyset(Class<T> rowType,
+                                                                          Function<Root<Requirement>, List<Selection<?>>> columns,
+                                                                          RequirementListCache.Filter filter,
+                                                                          String cursor,
+                                                                          int size) {
+        LongSupplier countQuery = () -> requirementListCache.getCount(filter, () -> countRequirements(filter));
+        return requirementListCache.getPage(rowType, filter, cursor, size,
+                () -> queryRowsByKeyset(rowType, columns, buildRequirementSpec(filter, true), cursor, size, countQuery));
+    }
+
+    private <T extends RequirementListRow> KeysetPage<T> queryRowsByKeyset(Class<T> rowType,
+                                                                           Function<Root<Requirement>, List<Selection<?>>> columns,
+                                                                           Specification<Requirement> spec,
+                                                                           String cursor,
+                                                                           int size,
+                                                                           LongSupplier countQuery) {
+        // 无法解析的游标抛出 InvalidCursorException (400)
+        RequirementCursor position = RequirementCursor.decode(cursor);
+        boolean backward = position != null && position.backward();
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(rowType);
+        Root<Requirement> root = query.from(Requirement.class);
+        Predicate where = spec.toPredicate(root, query, cb);
+        if (position != null) {
+            where = cb.and(where, seekPredicate(cb, root, position));
+        }
+        // 向前翻页时倒序取数，取回后再反转为正常顺序
+        query.select(cb.construct(rowType, columns.apply(root).toArray(new Selection<?>[0])))
+                .where(where)
+                .orderBy(backward
+                        ? List.of(cb.desc(root.get("scheduleDate")), cb.desc(root.get("id")))
+                        : List.of(cb.asc(root.get("scheduleDate")), cb.asc(root.get("id"))));
+
+        // 多取一条，用于判断该方向上是否还有更多数据
+        List<T> rows = new ArrayList<>(entityManager.createQuery(query)
+                .setMaxResults(size + 1)
+                .getResultList());
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows.remove(size);
+        }
+        if (backward) {
+            Collections.reverse(rows);
+        }
+
+        boolean hasNext = backward || hasMore;
+        boolean hasPrevious = backward ? hasMore : position != null;
+        String nextCursor = hasNext && !rows.isEmpty() ? cursorOf(rows.get(rows.size() - 1), false) : null;
+        String previousCursor = hasPrevious && !rows.isEmpty() ? cursorOf(rows.get(0), true) : null;
+        return new KeysetPage<>(Collections.unmodifiableList(rows), size, nextCursor, previousCursor, countQuery);
+    }
+
+    /**
+     * [辅助方法] 键集分页的起点条件。排序规则与 MySQL 一致：升序时 NULL 排在最前。
+     */
+    private Predicate seekPredicate(CriteriaBuilder cb, Root<Requirement> root, RequirementCursor position) {
+        Path<LocalDate> scheduleDate = root.get("scheduleDate");
+        Path<Integer> id = root.get("id");
+        LocalDate date = position.scheduleDate();
+        if (!position.backward()) {
+            // 排在 (date, id) 之后
+            if (date == null) {
+                return cb.or(cb.and(cb.isNull(scheduleDate), cb.greaterThan(id, position.id())), cb.isNotNull(scheduleDate));
+            }
+            return cb.or(cb.greaterThan(scheduleDate, date),
+                    cb.and(cb.equal(scheduleDate, date), cb.greaterThan(id, position.id())));
+        }
+        // 排在 (date, id) 之前
+        if (date == null) {
+            return cb.and(cb.isNull(scheduleDate), cb.lessThan(id, position.id()));
+        }
+        return cb.or(cb.isNull(scheduleDate), cb.lessThan(scheduleDate, date),
+                cb.and(cb.equal(scheduleDate, date), cb.lessThan(id, position.id())));
+    }
+
+    private String cursorOf(RequirementListRow boundary, boolean backward) {
+        return new RequirementCursor(backward, boundary.getScheduleDate(), boundary.getId()).encode();
+    }
+
+    /**
+     * [辅助方法] 筛选结果总数。直接对数据库计数，不使用可能暂时落后的内存索引。
+     */
+    private long countRequirements(RequirementListCache.Filter filter) {
+        return requirementRepository.count(buildRequirementSpec(filter, false));
+    }
+
+    /**
+     * [辅助方法] 读取一组需求的筛选与统计字段快照，供列表缓存判断失效范围、分组统计计算增量。按块查询，避免过长的 IN 列表。
+     */
+    private List<RequirementFilterStateDTO> filterStates(Collection<Integer> ids) {
+        List<Integer> idList = new ArrayList<>(ids);
+        List<RequirementFilterStateDTO> states = new ArrayList<>(idList.size());
+        for (int from = 0; from < idList.size(); from += EXPORT_CHUNK_SIZE) {
+            states.addAll(requirementRepository.findFilterStatesByIdIn(
+                    idList.subList(from, Math.min(from + EXPORT_CHUNK_SIZE, idList.size()))));
+        }
+        return states;
+    }
+
+    /**
+     * [辅助方法] 同 filterStates，但以 SELECT ... FOR UPDATE 锁定这些需求 (及其架构需求) 到事务结束。
+     * 传给分组统计、每日设计趋势的写前 / 写后快照必须用它读取：并发修改同一需求的事务在这里排队，
+     * 写前快照总是包含对方已提交的修改，增量不会重复累加。主键排序后分块，加锁顺序一致。
+     */
+    private List<RequirementFilterStateDTO> lockFilterStates(Collection<Integer> ids) {
+        List<Integer> idList = new ArrayList<>(new TreeSet<>(ids));
+        List<RequirementFilterStateDTO> states = new ArrayList<>(idList.size());
+        for (int from = 0; from < idList.size(); from += EXPORT_CHUNK_SIZE) {
+            states.addAll(requirementBatchRepository.lockFilterStatesByIdIn(
+                    idList.subList(from, Math.min(from + EXPORT_CHUNK_SIZE, idList.size()))));
+        }
+        return states;
+    }
+
+    private Specification<Requirement> buildRequirementSpec(RequirementListCache.Filter filter, boolean useIndexes) {
+        return buildRequirementSpec(filter.reqId(), filter.reqName(), filter.techLeader(), filter.startDate(),
+                filter.endDate(), filter.isImportantRequirement(), filter.isSummaryDesignSubmitted(), filter.status(),
+                useIndexes);
+    }
+
+    /**
+     * [辅助方法] 根据筛选条件构建动态查询条件。
+     * 列表分页查询与流式导出共用同一套筛选逻辑，保证两者结果一致。
+     * 内存索引 (编号子串索引、筛选位图索引) 求得的候选主键只用来缩小查询范围，SQL 条件始终全部保留：
+     * 位图索引在事务提交后异步刷新，可能暂时落后于数据库，不能由它决定结果中有哪些行。
+     *
+     * @param useIndexes 是否使用内存索引的候选主键。导出与计数必须与数据库一致，传 false
+     */
+    private Specification<Requirement> buildRequirementSpec(String reqId,
+                                                            String reqName,
+                                                            String techLeader,
+                                                            LocalDate startDate,
+                                                            LocalDate endDate,
+                                                            Boolean isImportantRequirement,
+                                                            Boolean isSummaryDesignSubmitted,
+                                                            String status,
+                                                            boolean useIndexes) {
+        // 需求编号的子串匹配先在内存索引中求得候选，缩小 LIKE 的扫描范围
+        List<Integer> reqIdCandidates = useIndexes && reqId != null && !reqId.isEmpty()
+                ? substringIndexService.findRequirementIds(reqId) : null;
+        // 负责人 / 状态 / 是否类筛选先在位图索引中求得候选 (与编号候选求交)，命中过多时不使用候选
+        Map<RequirementIndexField, List<String>> criteria = indexCriteria(techLeader, isImportantRequirement,
+                isSummaryDesignSubmitted, status);
+        List<Integer> indexCandidates = !useIndexes || criteria.isEmpty() || reqIdCandidates != null && reqIdCandidates.isEmpty()
+                ? null : filterIndexService.findRequirementIds(criteria, reqIdCandidates);
+        boolean indexed = indexCandidates != null;
+        return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
-            // 1. 需求编号 (模糊匹配)
+            // 0. 位图索引求得的候选 (已与编号候选求交)，只缩小范围，下面的条件照常生效
+            if (indexed) {
+                predicates.add(indexCandidates.isEmpty() ? cb.disjunction() : root.get("id").in(indexCandidates));
+            }
+            // 1. 需求编号 (模糊匹配)。子串索引的候选同样只缩小范围，LIKE 条件始终保留
+            if (reqIdCandidates != null && !indexed) {
+                predicates.add(reqIdCandidates.isEmpty() ? cb.disjunction() : root.get("id").in(reqIdCandidates));
+            }
             if (reqId != null && !reqId.isEmpty()) {
                 predicates.add(cb.like(root.get("reqId"), "%" + reqId + "%"));
             }
@@ -117,7 +450,31 @@ public class RequirementService {
             // 将所有条件组合
             return cb.and(predicates.toArray(new Predicate[0]));
         };
-        return requirementRepository.findAll(spec, pageable);
+    }
+
+    /**
+     * [辅助方法] 列表筛选条件中可由位图索引回答的部分。
+     */
+    private static Map<RequirementIndexField, List<String>> indexCriteria(String techLeader,
+                                                                        Boolean isImportantRequirement,
+                                                                        Boolean isSummaryDesignSubmitted,
+                                                                        String status) {
+        Map<RequirementIndexField, List<String>> criteria = new HashMap<>();
+        if (techLeader != null && !techLeader.isEmpty()) {
+            criteria.put(RequirementIndexField.TECH_LEADER, List.of(techLeader));
+        }
+        if (status != null && !status.isEmpty()) {
+            criteria.put(RequirementIndexField.STATUS, List.of(status));
+        }
+        if (isImportantRequirement != null) {
+            criteria.put(RequirementIndexField.IMPORTANT_REQUIREMENT,
+                    List.of(FilterIndexService.booleanValue(isImportantRequirement)));
+        }
+        if (isSummaryDesignSubmitted != null) {
+            criteria.put(RequirementIndexField.SUMMARY_DESIGN_SUBMITTED,
+                    List.of(FilterIndexService.booleanValue(isSummaryDesignSubmitted)));
+        }
+        return criteria;
     }
 
     /**
@@ -145,8 +502,14 @@ public class RequirementService {
      *
      * @param id 要删除的需求的数据库主键 ID
      */
+    @Transactional
     public void deleteById(Integer id) {
+        List<RequirementFilterStateDTO> before = lockFilterStates(List.of(id));
+        changeTrackingService.recordRequirementDeletions(List.of(id));
         requirementRepository.deleteById(id);
+        searchIndexService.requirementsDeleted(List.of(id));
+        substringIndexService.requirementsDeleted(List.of(id));
+        requirementChangePublisher.rowsChanged(before, List.of());
     }
 
     /**
@@ -155,7 +518,7 @@ public class RequirementService {
      * @return 数据库中需求的记录总数
      */
     public long getTotalRequirements() {
-        return requirementRepository.count();
+        return groupMetricsService.getTotalRequirements();
     }
 
     /**
@@ -166,18 +529,18 @@ public class RequirementService {
     private String determineStatus(LocalDate scheduleDate) {
         // 如果投产日期为空，则默认为“进行中”
         if (scheduleDate == null) {
-            return "进行中";
+            return Requirement.STATUS_IN_PROGRESS;
         }
         // === START: 修正判断逻辑 ===
         // 获取当前日期，确保 JVM 时区已统一
         LocalDate today = LocalDate.now();
         // 如果投产日期早于或等于当前日期，则为“已投产”
         if (scheduleDate.isBefore(today) || scheduleDate.isEqual(today)) {
-            return "已投产";
+            return Requirement.STATUS_LIVE;
         }
         // === END ===
-        // 否则为“进行中”
-        return "进行中";
+        // 否则为“进行中” (日期到达后由 RequirementStatusService 的每日任务改为“已投产”)
+        return Requirement.STATUS_IN_PROGRESS;
     }
 
 
@@ -223,106 +586,222 @@ public class RequirementService {
 
         // 由于在 Requirement 实体中设置了 CascadeType.ALL,
         // 所以只需要保存主对象 req，JPA 会自动一并保存 archReq。
-        return requirementRepository.save(req);
+        Requirement saved = requirementRepository.save(req);
+        searchIndexService.requirementsChanged(List.of(saved.getId()));
+        substringIndexService.requirementSaved(saved.getId(), saved.getReqId());
+        requirementChangePublisher.rowsChanged(List.of(), filterStates(List.of(saved.getId())));
+        return saved;
     }
 
     /**
      * 保存“需求管理”页面的基本信息。
-     * 此方法只更新 Requirement 表中的通用字段。
+     * 此方法只更新 Requirement 表中的通用字段，且只写入与当前值不同的列；没有任何变化时撤销版本认领，不留下任何写入。
      *
-     * @param dto 包含了“需求管理”页面所有字段的数据传输对象
+     * @param dto 包含了“需求管理”页面所有字段的数据传输对象 (version 为打开表单时的版本号)
      * @return 更新后的 Requirement 实体
-     * @throws IllegalArgumentException 如果根据ID找不到对应的需求
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException 需求在表单打开后已被他人修改或删除
      */
+    @Transactional
     public Requirement saveGeneralInfo(RequirementGeneralDTO dto) {
+        // 第一条语句认领版本号：过期的提交在这里即被拒绝，不读取实体
+        FieldChanges.requireClaimed(editVersionRepository.claim(EditVersionRepository.REQUIREMENTS, dto.getId(), dto.getVersion()),
+                Requirement.class, dto.getId());
         Requirement requirement = requirementRepository.findById(dto.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Invalid requirement Id:" + dto.getId()));
 
         // 注意：reqId 和 name 在编辑时通常是只读的，这里不进行更新
-        requirement.setBusinessLeader(dto.getBusinessLeader());
-        requirement.setTechLeader(dto.getTechLeader());
-        // === START: 新增字段的设置 ===
-        requirement.setLeadDepartment(dto.getLeadDepartment());
-        // === START: 新增 ===
-        requirement.setGroupName(dto.getGroupName());
-        // === END ===
-        requirement.setReqType(dto.getReqType());
-        // === END: 新增 ===
-        requirement.setBusinessLine(dto.getBusinessLine());
-        requirement.setDevLeader(dto.getDevLeader());
-        // === START: 核心修正：确保 scheduleDate 被设置后，立刻计算并设置 status ===
-        requirement.setScheduleDate(dto.getScheduleDate()); // 先设置投产日期
-        requirement.setStatus(determineStatus(dto.getScheduleDate())); // 再根据新日期计算状态
-        // === END ===
-        return requirementRepository.save(requirement);
+        FieldChanges changes = new FieldChanges()
+                .set(requirement.getBusinessLeader(), dto.getBusinessLeader(), requirement::setBusinessLeader)
+                .set(requirement.getTechLeader(), dto.getTechLeader(), requirement::setTechLeader)
+                .set(requirement.getLeadDepartment(), dto.getLeadDepartment(), requirement::setLeadDepartment)
+                .set(requirement.getGroupName(), dto.getGroupName(), requirement::setGroupName)
+                .set(requirement.getReqType(), dto.getReqType(), requirement::setReqType)
+                .set(requirement.getBusinessLine(), dto.getBusinessLine(), requirement::setBusinessLine)
+                .set(requirement.getDevLeader(), dto.getDevLeader(), requirement::setDevLeader)
+                // 状态由投产日期决定，随日期一起比较
+                .set(requirement.getScheduleDate(), dto.getScheduleDate(), requirement::setScheduleDate)
+                .set(requirement.getStatus(), determineStatus(dto.getScheduleDate()), requirement::setStatus);
+        if (changes.isEmpty()) {
+            FieldChanges.discardClaim();
+            return requirement;
+        }
+
+        // 需求行已由认领锁定；写前快照还包含架构需求的列，同样在锁内读取 (见 lockFilterStates)
+        List<RequirementFilterStateDTO> before = lockFilterStates(List.of(dto.getId()));
+        changes.apply();
+        Requirement saved = requirementRepository.saveAndFlush(requirement);
+        searchIndexService.requirementsChanged(List.of(saved.getId()));
+        requirementChangePublisher.rowsChanged(before, lockFilterStates(List.of(saved.getId())));
+        return saved;
     }
 
     /**
      * 保存“需求分析管理”页面的信息。
-     * 此方法只更新 Requirement 表中的需求分析相关字段。
+     * 此方法只更新 Requirement 表中的需求分析相关字段，且只写入与当前值不同的列；没有任何变化时撤销版本认领，不留下任何写入。
      *
-     * @param dto 包含了“需求分析管理”页面所有字段的数据传输对象
+     * @param dto 包含了“需求分析管理”页面所有字段的数据传输对象 (version 为打开表单时的版本号)
      * @return 更新后的 Requirement 实体
-     * @throws IllegalArgumentException 如果根据ID找不到对应的需求
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException 需求在表单打开后已被他人修改或删除
      */
+    @Transactional
     public Requirement saveAnalysisInfo(RequirementAnalysisDTO dto) {
+        // 第一条语句认领版本号：过期的提交在这里即被拒绝，不读取实体
+        FieldChanges.requireClaimed(editVersionRepository.claim(EditVersionRepository.REQUIREMENTS, dto.getId(), dto.getVersion()),
+                Requirement.class, dto.getId());
         // 分析信息字段是主 Requirement 实体的一部分
         Requirement requirement = requirementRepository.findById(dto.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Invalid requirement Id:" + dto.getId()));
 
-        requirement.setIsAnalysisInvolved(dto.getIsAnalysisInvolved());
-        requirement.setAnalysisMembers(dto.getAnalysisMembers());
-        requirement.setAnalysisFinishDate(dto.getAnalysisFinishDate());
-        requirement.setAnalysisOutput(dto.getAnalysisOutput());
-        requirement.setHasSpec(dto.getHasSpec());
-        requirement.setSpecWriter(dto.getSpecWriter());
-        requirement.setIsSpecReviewed(dto.getIsSpecReviewed());
-        requirement.setSpecReviewTime(dto.getSpecReviewTime());
+        FieldChanges changes = new FieldChanges()
+                .set(requirement.getIsAnalysisInvolved(), dto.getIsAnalysisInvolved(), requirement::setIsAnalysisInvolved)
+                .set(requirement.getAnalysisMembers(), dto.getAnalysisMembers(), requirement::setAnalysisMembers)
+                .set(requirement.getAnalysisFinishDate(), dto.getAnalysisFinishDate(), requirement::setAnalysisFinishDate)
+                .set(requirement.getAnalysisOutput(), dto.getAnalysisOutput(), requirement::setAnalysisOutput)
+                .set(requirement.getHasSpec(), dto.getHasSpec(), requirement::setHasSpec)
+                .set(requirement.getSpecWriter(), dto.getSpecWriter(), requirement::setSpecWriter)
+                .set(requirement.getIsSpecReviewed(), dto.getIsSpecReviewed(), requirement::setIsSpecReviewed)
+                .set(requirement.getSpecReviewTime(), dto.getSpecReviewTime(), requirement::setSpecReviewTime);
+        if (changes.isEmpty()) {
+            FieldChanges.discardClaim();
+            return requirement;
+        }
 
-        return requirementRepository.save(requirement);
+        changes.apply();
+        // 与另外两个表单相同：快照在锁内读取，且走 JDBC，先刷新到数据库
+        Requirement saved = requirementRepository.saveAndFlush(requirement);
+        searchIndexService.requirementsChanged(List.of(saved.getId()));
+        // 分析字段不参与筛选、排序和统计，不需要写前快照，只需失效包含该行的页面
+        requirementChangePublisher.rowsUpdated(lockFilterStates(List.of(saved.getId())));
+        return saved;
     }
 
     /**
      * 保存“架构需求管理”页面的信息。
      * 这是一个事务性操作。
-     * 此方法只更新关联的 ArchitecturalRequirement 表。
+     * 此方法只更新关联的 ArchitecturalRequirement 表，且只写入与当前值不同的列；没有任何变化时撤销版本认领，不留下任何写入。
      *
-     * @param dto 包含了“架构需求管理”页面所有字段的数据传输对象
+     * @param dto 包含了“架构需求管理”页面所有字段的数据传输对象 (version 为打开表单时的版本号)
      * @return 更新后的 ArchitecturalRequirement 实体
-     * @throws IllegalArgumentException 如果根据ID找不到对应的架构需求记录
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException 架构需求在表单打开后已被他人修改或删除
      */
     @Transactional
     public ArchitecturalRequirement saveArchitecturalInfo(ArchitecturalRequirementDTO dto) {
-        // 1. 根据 DTO 中的 ID 找到要更新的 ArchitecturalRequirement 记录
+        // 1. 第一条语句认领版本号：过期的提交在这里即被拒绝，不读取实体
+        FieldChanges.requireClaimed(editVersionRepository.claim(EditVersionRepository.ARCH_REQUIREMENTS, dto.getId(), dto.getVersion()),
+                ArchitecturalRequirement.class, dto.getId());
         ArchitecturalRequirement archReq = architecturalRequirementRepository.findById(dto.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Invalid architectural requirement Id: " + dto.getId()));
 
-        // 2. 从 DTO 完整地复制所有可编辑字段到实体
-        archReq.setImportantRequirement(dto.getImportantRequirement());
-        archReq.setSummaryDesignSubmitted(dto.getSummaryDesignSubmitted());
-        archReq.setSummaryDesignSubmitter(dto.getSummaryDesignSubmitter());
-        archReq.setSummaryDesignSubmitDate(dto.getSummaryDesignSubmitDate());
-        archReq.setSummaryDesignReviewPassDate(dto.getSummaryDesignReviewPassDate());
-        archReq.setInvolvesArchDecision(dto.getInvolvesArchDecision());
-        archReq.setInvolvesInfra(dto.getInvolvesInfra());
-        archReq.setInvolvesSeniorReport(dto.getInvolvesSeniorReport());
-        archReq.setSummaryDesignScore(dto.getSummaryDesignScore());
-        archReq.setSummaryDesignDeductionReason(dto.getSummaryDesignDeductionReason());
+        // 2. 只暂存与当前值不同的可编辑字段
+        FieldChanges changes = architecturalChanges(archReq, dto);
+        if (changes.isEmpty()) {
+            FieldChanges.discardClaim();
+            return archReq;
+        }
+
+        // 3. 写入并保存
+        List<Integer> requirementIds = List.of(archReq.getRequirement().getId());
+        List<RequirementFilterStateDTO> before = lockFilterStates(requirementIds);
+        changes.apply();
+        ArchitecturalRequirement saved = architecturalRequirementRepository.saveAndFlush(archReq);
+        requirementChangePublisher.rowsChanged(before, lockFilterStates(requirementIds));
+        return saved;
+    }
+
+    /**
+     * 架构需求页面可编辑字段中与当前值不同的部分 (尚未写入实体)。
+     */
+    static FieldChanges architecturalChanges(ArchitecturalRequirement archReq, ArchitecturalRequirementDTO dto) {
+        return new FieldChanges()
+                .set(archReq.getImportantRequirement(), dto.getImportantRequirement(), archReq::setImportantRequirement)
+                .set(archReq.getSummaryDesignSubmitted(), dto.getSummaryDesignSubmitted(), archReq::setSummaryDesignSubmitted)
+                .set(archReq.getSummaryDesignSubmitter(), dto.getSummaryDesignSubmitter(), archReq::setSummaryDesignSubmitter)
+                .set(archReq.getSummaryDesignSubmitDate(), dto.getSummaryDesignSubmitDate(), archReq::setSummaryDesignSubmitDate)
+                .set(archReq.getSummaryDesignReviewPassDate(), dto.getSummaryDesignReviewPassDate(), archReq::setSummaryDesignReviewPassDate)
+                .set(archReq.getInvolvesArchDecision(), dto.getInvolvesArchDecision(), archReq::setInvolvesArchDecision)
+                .set(archReq.getInvolvesInfra(), dto.getInvolvesInfra(), archReq::setInvolvesInfra)
+                .set(archReq.getInvolvesSeniorReport(), dto.getInvolvesSeniorReport(), archReq::setInvolvesSeniorReport)
+                .set(archReq.getSummaryDesignScore(), dto.getSummaryDesignScore(), archReq::setSummaryDesignScore)
+                .set(archReq.getSummaryDesignDeductionReason(), dto.getSummaryDesignDeductionReason(), archReq::setSummaryDesignDeductionReason);
+    }
+
+    /**
+     * 以流式方式导出需求数据，内存占用与数据量无关。
+     * - 使用只读、仅向前的游标逐行读取，不再一次性加载全部需求；
+     * - 通过 fetch join 一并取出架构需求信息，避免逐行懒加载 (N+1)；
+     * - 每处理 EXPORT_CHUNK_SIZE 行清空一次持久化上下文，防止已读实体堆积。
+     * 筛选条件与 findRequirements 完全一致。
+     *
+     * @param rowConsumer 每转换出一行导出数据时的回调 (通常直接写入响应流)
+     * @return 导出的总行数
+     */
+    @Transactional(readOnly = true)
+    public long streamForExport(String reqId,
+                                String reqName,
+                                String techLeader,
+                                LocalDate startDate,
+                                LocalDate endDate,
+                                Boolean isImportantRequirement,
+                                Boolean isSummaryDesignSubmitted,
+                                String status,
+                                Consumer<RequirementExportDTO> rowConsumer) {
+        // 导出必须与数据库完全一致，不使用内存索引的候选主键
+        Specification<Requirement> spec = buildRequirementSpec(reqId, reqName, techLeader, startDate, endDate,
+                isImportantRequirement, isSummaryDesignSubmitted, status, false);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Requirement> query = cb.createQuery(Requirement.class);
+        Root<Requirement> root = query.from(Requirement.class);
+        root.fetch("architecturalRequirement", JoinType.LEFT);
+        query.select(root)
+                .where(spec.toPredicate(root, query, cb))
+                .orderBy(cb.asc(root.get("id")));
 
-        // 3. 保存并返回
-        return architecturalRequirementRepository.save(archReq);
+        long rowCount = 0;
+        // MySQL 驱动只有在 fetchSize = Integer.MIN_VALUE 时才会真正逐行流式返回结果
+        try (Stream<Requirement> rows = entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, Integer.MIN_VALUE)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            Iterator<Requirement> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                rowConsumer.accept(convertToExportDto(iterator.next()));
+                if (++rowCount % EXPORT_CHUNK_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return rowCount;
     }
 
     /**
-     * 获取所有需求数据，并将其转换为用于导出的“扁平化”DTO列表。
+     * 增量导出：返回自 since 以来新增或修改过的需求 (列与全量导出相同)，以及被删除需求的删除记录。
+     * 需求本身、其架构信息、评审信息任一发生变化，该需求都会出现在结果中。
+     * 三张表各自按 updated_at 索引取出变更的需求 ID，合并去重后再按块加载，不扫描全表。
      *
-     * @return 包含所有整合后信息的 DTO 列表
+     * @param since 上一次导出返回的水位线
+     * @return 增量导出结果，其中 watermark 供下次调用使用
      */
-    public List<RequirementExportDTO> findAllForExport() {
-        List<Requirement> requirements = requirementRepository.findAll();
-        return requirements.stream()
-                .map(this::convertToExportDto) // 为每个 Requirement 调用转换方法
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public DeltaExportDTO<RequirementExportDTO> findChangesSince(LocalDateTime since) {
+        DeltaExportDTO<RequirementExportDTO> delta = changeTrackingService.beginDelta(DeletedRecord.TYPE_REQUIREMENT, since);
+        LocalDateTime queryStart = changeTrackingService.queryStart(since);
+
+        Set<Integer> changedIds = new TreeSet<>(requirementRepository.findIdsUpdatedSince(queryStart));
+        changedIds.addAll(architecturalRequirementRepository.findRequirementIdsUpdatedSince(queryStart));
+        changedIds.addAll(architecturalRequirementRepository.findRequirementIdsWithReviewUpdatedSince(queryStart));
+
+        List<RequirementExportDTO> changed = new ArrayList<>(changedIds.size());
+        List<Integer> ids = new ArrayList<>(changedIds);
+        for (int from = 0; from < ids.size(); from += EXPORT_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + EXPORT_CHUNK_SIZE, ids.size()));
+            for (Requirement req : requirementRepository.findByIdInOrderByIdAsc(chunk)) {
+                changed.add(convertToExportDto(req));
+            }
+            entityManager.clear();
+        }
+        delta.setChanged(changed);
+        return delta;
     }
 
     /**
@@ -369,7 +848,7 @@ public class RequirementService {
 
     // === START: 新增获取指标的方法 ===
     public List<GroupMetricsDTO> getGroupMetrics() {
-        return requirementRepository.findGroupMetrics();
+        return groupMetricsService.getGroupMetrics();
     }
 
     /**
@@ -377,149 +856,286 @@ public class RequirementService {
      * 支持“新增或更新”逻辑：
      * - 若需求编号存在，则比对关联信息，有变化则更新，无变化则跳过。
      * - 若需求编号不存在，则新增。
+     * 文件按 IMPORT_CHUNK_SIZE 行分块处理，每块：
+     * - 用一条只读两列的 IN 查询取出本块已存在需求的导入指纹，指纹与 CSV 行一致的直接判定为无变化；
+     * - 只为指纹不一致的需求取出比对快照，在内存中完成逐字段比对；
+     * - 以 JDBC batch 方式写入新增和更新；
+     * - 在独立事务中提交，内存占用与锁持有时间都与文件大小无关。
+     * 注意：某一块处理失败或任务被取消时，之前已提交的块不会回滚。
      *
-     * @param file 用户上传的 MultipartFile
+     * @param inputStream 上传文件的内容
+     * @param job         所属的后台导入任务，用于实时汇报进度并在分块边界处响应取消
+     * @param dryRun      为 true 时只统计将会新增/更新的记录数，不写入数据库
      * @return 一个包含处理结果的摘要字符串
      */
-    @Transactional
-    public String importFromCsv(MultipartFile file) {
-        int addedCount = 0;
-        int updatedCount = 0;
-        int skippedCount = 0;
-
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy/M/d");
-
-        try (BufferedReader fileReader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
-
-            CSVFormat csvFormat = CSVFormat.DEFAULT.builder()
-                    .setHeader()
-                    .setSkipHeaderRecord(true)
-                    .setIgnoreHeaderCase(true)
-                    .setTrim(true)
-                    .build();
-
-            try (CSVParser csvParser = new CSVParser(fileReader, csvFormat)) {
-                for (CSVRecord record : csvParser) {
-                    String reqIdFromCsv = record.get(0).trim(); // A列: 需求编号
-                    if (reqIdFromCsv.isEmpty()) {
-                        skippedCount++;
-                        continue;
-                    }
+    public String importFromCsv(InputStream inputStream, ImportJob job, boolean dryRun) {
+        ImportSummaryDTO summary = job.getSummary();
+        // 预演模式不写库，跨块的“将会写入的状态”(需求编号 -> 导入指纹) 保存在这里，保证文件中重复出现的需求编号统计正确
+        Map<String, String> dryRunState = dryRun ? new HashMap<>() : null;
 
-                    // === START: 核心修正：将 scheduleDateFromCsv 变量定义在循环外部 ===
-                    LocalDate scheduleDateFromCsv = null; // 默认为 null
-                    try {
-                        String dateStr = record.get(13); // N列: 计划投产日期
-                        if (dateStr != null && !dateStr.isEmpty()) {
-                            scheduleDateFromCsv = LocalDate.parse(dateStr, dateFormatter);
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Skipping invalid date format for reqId: " + reqIdFromCsv + ", value: " + record.get(13));
-                        // 此时 scheduleDateFromCsv 保持为 null
-                    }
-                    // === END ===
-
-                    Optional<Requirement> existingReqOpt = requirementRepository.findByReqId(reqIdFromCsv); // 需要在 Repository 中新增 findByReqId 方法
-
-                    if (existingReqOpt.isPresent()) {
-                        // === 存在：执行更新或跳过 ===
-                        Requirement existingReq = existingReqOpt.get();
-                        boolean hasChanges = false; // 标记是否有更新
-
-                        // 字段比对和更新
-                        // 需求名称
-                        String nameFromCsv = record.get(1).trim();
-                        if (!nameFromCsv.equals(existingReq.getName())) {
-                            existingReq.setName(nameFromCsv);
-                            hasChanges = true;
-                        }
-                        // 科技负责人
-                        String techLeaderFromCsv = record.get(3).trim();
-                        if (!techLeaderFromCsv.equals(existingReq.getTechLeader())) {
-                            existingReq.setTechLeader(techLeaderFromCsv);
-                            hasChanges = true;
-                        }
-                        // 需求类型
-                        String reqTypeFromCsv = record.get(4).trim();
-                        if (!reqTypeFromCsv.equals(existingReq.getReqType())) {
-                            existingReq.setReqType(reqTypeFromCsv);
-                            hasChanges = true;
-                        }
-                        // 牵头部室
-                        String leadDepartmentFromCsv = record.get(5).trim();
-                        if (!leadDepartmentFromCsv.equals(existingReq.getLeadDepartment())) {
-                            existingReq.setLeadDepartment(leadDepartmentFromCsv);
-                            hasChanges = true;
-                        }
-                        // 业务条线
-                        String businessLineFromCsv = record.get(7).trim();
-                        if (!businessLineFromCsv.equals(existingReq.getBusinessLine())) {
-                            existingReq.setBusinessLine(businessLineFromCsv);
-                            hasChanges = true;
-                        }
-                        // 计划投产日期
-                        if (!Optional.ofNullable(scheduleDateFromCsv).equals(Optional.ofNullable(existingReq.getScheduleDate()))) {
-                            existingReq.setScheduleDate(scheduleDateFromCsv);
-                            existingReq.setStatus(determineStatus(scheduleDateFromCsv)); // === 核心修正：更新 scheduleDate 后，更新 status ===
-                            hasChanges = true;
-                        }
-
-                        if (hasChanges) {
-                            requirementRepository.save(existingReq);
-                            updatedCount++;
-                        } else {
-                            skippedCount++;
-                        }
-
-                    } else {
-                        // === 不存在：执行新增 ===
-                        Requirement newReq = new Requirement();
-                        newReq.setReqId(reqIdFromCsv);
-                        newReq.setName(record.get(1).trim());
-                        newReq.setTechLeader(record.get(3).trim());
-                        newReq.setReqType(record.get(4).trim());
-                        newReq.setLeadDepartment(record.get(5).trim());
-                        newReq.setBusinessLine(record.get(7).trim());
-                        try {
-                            String dateStr = record.get(13);
-                            if (dateStr != null && !dateStr.isEmpty()) {
-                                newReq.setScheduleDate(LocalDate.parse(dateStr, dateFormatter));
-                            }
-                        } catch (Exception e) {
-                            System.err.println("Skipping invalid date format for reqId: " + reqIdFromCsv);
-                        }
-                        newReq.setStatus(determineStatus(scheduleDateFromCsv)); // === 自动设置状态 ===
-
-                        // 级联创建空的 ArchitecturalRequirement
-                        ArchitecturalRequirement archReq = new ArchitecturalRequirement();
-                        archReq.setRequirement(newReq);
-                        newReq.setArchitecturalRequirement(archReq);
-
-                        requirementRepository.save(newReq); // 保存新增
-                        addedCount++;
-                    }
+        try (Reader fileReader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            // 解析与校验 (含日期解析、指纹计算) 在 ForkJoin 线程池中并行执行，写库按文件原始顺序逐块进行
+            ParallelCsvParser.CsvRowMapper<RequirementImportDTO> mapper =
+                    (record, lineNumber) -> parseImportRecord(record, lineNumber, job);
+            parallelCsvParser.parse(fileReader, IMPORT_CHUNK_SIZE, mapper, chunk -> {
+                job.checkCancelled();
+                summary.addSkipped(chunk.getSkippedRows());
+                if (!chunk.getRows().isEmpty()) {
+                    // 块事务提交后才计入任务进度，失败的块不会被统计为新增 / 更新
+                    summary.add(importChunk(chunk.getRows(), dryRunState));
                 }
-            }
+            });
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("CSV 文件处理失败: " + e.getMessage(), e);
         }
 
-        return String.format("导入完成！新增记录: %d 条，更新记录: %d 条，跳过记录: %d 条。", addedCount, updatedCount, skippedCount);
+        if (dryRun) {
+            return String.format("预演完成 (未写入数据库)！将新增记录: %d 条，将更新记录: %d 条，无变化或跳过记录: %d 条。",
+                    summary.getAddedCount(), summary.getUpdatedCount(), summary.getSkippedCount());
+        }
+        return String.format("导入完成！新增记录: %d 条，更新记录: %d 条，跳过记录: %d 条。",
+                summary.getAddedCount(), summary.getUpdatedCount(), summary.getSkippedCount());
+    }
+
+    /**
+     * [私有辅助方法] 将 CSV 中的一行解析为导入数据对象。
+     * 在解析线程池中并行调用，不得访问数据库或共享的可变状态 (导入任务的警告列表是线程安全的)。
+     *
+     * @param record     CSV 行
+     * @param lineNumber 该行在原始文件中的行号
+     * @param job        所属的导入任务，无法解析的字段作为行级警告记录在任务上
+     * @return 解析结果；需求编号为空时返回 null (该行应被跳过)
+     */
+    private RequirementImportDTO parseImportRecord(CSVRecord record, long lineNumber, ImportJob job) {
+        String reqIdFromCsv = record.get(0).trim(); // A列: 需求编号
+        if (reqIdFromCsv.isEmpty()) {
+            return null;
+        }
+
+        RequirementImportDTO row = new RequirementImportDTO();
+        row.setReqId(reqIdFromCsv);
+        row.setName(record.get(1).trim());           // B列: 需求名称
+        row.setTechLeader(record.get(3).trim());     // D列: 科技负责人
+        row.setReqType(record.get(4).trim());        // E列: 需求类型
+        row.setLeadDepartment(record.get(5).trim()); // F列: 牵头部室
+        row.setBusinessLine(record.get(7).trim());   // H列: 业务条线
+
+        String dateStr = record.get(13); // N列: 计划投产日期
+        try {
+            if (dateStr != null && !dateStr.isEmpty()) {
+                row.setScheduleDate(LocalDate.parse(dateStr, IMPORT_DATE_FORMATTER));
+            }
+        } catch (Exception e) {
+            // 此时 scheduleDate 保持为 null
+            job.addWarning(lineNumber, "需求 " + reqIdFromCsv + " 的计划投产日期 \"" + dateStr + "\" 格式无效，已按空值导入");
+        }
+        row.setImportFingerprint(row.computeFingerprint());
+        return row;
+    }
+
+    /**
+     * [私有辅助方法] 在独立事务中导入一块数据。
+     * 同一块内出现重复的需求编号时，后出现的行与前面已暂存的结果比对，
+     * 与逐行导入时的新增/更新/跳过统计保持一致。
+     * 预演模式在只读事务中执行；前面的块中将会写入的需求只保留了指纹 (导入列的取值全部来自 CSV 行，
+     * 指纹相同即内容相同)，与之比对时不需要完整的行。
+     *
+     * @param dryRunState 预演模式下跨块保存的“将会写入的状态” (需求编号 -> 导入指纹)；正常导入时为 null
+     * @return 本块的新增 / 更新 / 跳过统计
+     */
+    private ImportSummaryDTO importChunk(List<RequirementImportDTO> rows, Map<String, String> dryRunState) {
+        ImportSummaryDTO summary = new ImportSummaryDTO();
+        TransactionTemplate chunkTransaction = transactionTemplate;
+        if (dryRunState != null) {
+            chunkTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            chunkTransaction.setReadOnly(true);
+        }
+        chunkTransaction.executeWithoutResult(status -> {
+            Set<String> reqIds = rows.stream().map(RequirementImportDTO::getReqId).collect(Collectors.toSet());
+            Map<String, RequirementImportDTO> current = new HashMap<>();
+
+            // 1. 一条窄查询取出已存在需求的指纹；本块中有任意一行与库中指纹不一致的需求，才需要加载比对快照
+            //    (预演时前面的块中将会写入的指纹优先于库中的指纹，这些需求不加载快照)
+            Map<String, String> storedFingerprints = new HashMap<>();
+            for (RequirementImportDTO existing : requirementRepository.findImportFingerprintsByReqIdIn(reqIds)) {
+                storedFingerprints.put(existing.getReqId(), existing.getImportFingerprint());
+            }
+            Set<String> pendingReqIds = new HashSet<>();
+            if (dryRunState != null) {
+                for (String reqId : reqIds) {
+                    String pending = dryRunState.get(reqId);
+                    if (pending != null) {
+                        storedFingerprints.put(reqId, pending);
+                        pendingReqIds.add(reqId);
+                    }
+                }
+            }
+            Set<String> snapshotReqIds = new HashSet<>();
+            for (RequirementImportDTO row : rows) {
+                if (storedFingerprints.containsKey(row.getReqId()) && !pendingReqIds.contains(row.getReqId())
+                        && !row.getImportFingerprint().equals(storedFingerprints.get(row.getReqId()))) {
+                    snapshotReqIds.add(row.getReqId());
+                }
+            }
+            if (!snapshotReqIds.isEmpty()) {
+                for (RequirementImportDTO existing : requirementRepository.findImportSnapshotsByReqIdIn(snapshotReqIds)) {
+                    current.put(existing.getReqId(), existing);
+                }
+            }
+
+            // 2. 逐行判定新增 / 更新 / 无变化
+            Map<String, RequirementImportDTO> toInsert = new LinkedHashMap<>();
+            Map<String, RequirementImportDTO> toUpdate = new LinkedHashMap<>();
+            for (RequirementImportDTO row : rows) {
+                RequirementImportDTO target = current.get(row.getReqId());
+                if (target == null && pendingReqIds.contains(row.getReqId())
+                        && !row.getImportFingerprint().equals(storedFingerprints.get(row.getReqId()))) {
+                    // === 预演：与前面的块中将会写入的内容不同，执行更新 (本行即更新后的内容) ===
+                    current.put(row.getReqId(), row);
+                    toUpdate.put(row.getReqId(), row);
+                    summary.incrementUpdated();
+                } else if (target == null && storedFingerprints.containsKey(row.getReqId())) {
+                    // === 存在且指纹一致：内容无变化，跳过 ===
+                    summary.incrementSkipped();
+                } else if (target == null) {
+                    // === 不存在：执行新增 ===
+                    row.setStatus(determineStatus(row.getScheduleDate())); // === 自动设置状态 ===
+                    current.put(row.getReqId(), row);
+                    toInsert.put(row.getReqId(), row);
+                    summary.incrementAdded();
+                } else if (applyImportChanges(target, row)) {
+                    // === 存在且有变化：执行更新 (本块内新增的记录直接合并到插入语句中) ===
+                    if (!toInsert.containsKey(target.getReqId())) {
+                        toUpdate.put(target.getReqId(), target);
+                    }
+                    summary.incrementUpdated();
+                } else {
+                    summary.incrementSkipped();
+                }
+            }
+
+            if (dryRunState != null) {
+                toInsert.values().forEach(row -> dryRunState.put(row.getReqId(), row.computeFingerprint()));
+                toUpdate.values().forEach(row -> dryRunState.put(row.getReqId(), row.computeFingerprint()));
+                return;
+            }
+
+            // 3. 内容无变化、但指纹缺失或过期 (如升级前的数据) 的需求，顺带回填指纹，下次导入即可直接跳过
+            List<RequirementImportDTO> toRefresh = new ArrayList<>();
+            for (String reqId : snapshotReqIds) {
+                RequirementImportDTO snapshot = current.get(reqId);
+                if (!toUpdate.containsKey(reqId)
+                        && !snapshot.computeFingerprint().equals(snapshot.getImportFingerprint())) {
+                    toRefresh.add(snapshot);
+                }
+            }
+
+            List<RequirementFilterStateDTO> before = toUpdate.isEmpty()
+                    ? List.of() : requirementBatchRepository.lockFilterStatesByReqIdIn(toUpdate.keySet());
+            requirementBatchRepository.insertAll(new ArrayList<>(toInsert.values()));
+            requirementBatchRepository.updateAll(new ArrayList<>(toUpdate.values()));
+            requirementBatchRepository.refreshFingerprints(toRefresh);
+
+            Set<String> changedReqIds = new HashSet<>(toInsert.keySet());
+            changedReqIds.addAll(toUpdate.keySet());
+            // 编号子串索引也是列表页候选主键的来源，先于列表缓存登记
+            if (!toInsert.isEmpty()) {
+                substringIndexService.requirementsSaved(requirementRepository.findIdKeysByReqIdIn(toInsert.keySet())
+                        .stream().collect(Collectors.toMap(IdKeyDTO::getId, IdKeyDTO::getKey)));
+            }
+            if (!changedReqIds.isEmpty()) {
+                searchIndexService.requirementsChangedByReqId(changedReqIds);
+                requirementChangePublisher.rowsChanged(before,
+                        requirementBatchRepository.lockFilterStatesByReqIdIn(changedReqIds));
+            }
+        });
+        return summary;
+    }
+
+    /**
+     * [私有辅助方法] 将 CSV 行中的字段比对并合并到已存在需求的快照上。
+     *
+     * @return 如果有任何字段发生变化，则返回 true
+     */
+    private boolean applyImportChanges(RequirementImportDTO target, RequirementImportDTO row) {
+        boolean hasChanges = false; // 标记是否有更新
+
+        // 需求名称
+        if (!row.getName().equals(target.getName())) {
+            target.setName(row.getName());
+            hasChanges = true;
+        }
+        // 科技负责人
+        if (!row.getTechLeader().equals(target.getTechLeader())) {
+            target.setTechLeader(row.getTechLeader());
+            hasChanges = true;
+        }
+        // 需求类型
+        if (!row.getReqType().equals(target.getReqType())) {
+            target.setReqType(row.getReqType());
+            hasChanges = true;
+        }
+        // 牵头部室
+        if (!row.getLeadDepartment().equals(target.getLeadDepartment())) {
+            target.setLeadDepartment(row.getLeadDepartment());
+            hasChanges = true;
+        }
+        // 业务条线
+        if (!row.getBusinessLine().equals(target.getBusinessLine())) {
+            target.setBusinessLine(row.getBusinessLine());
+            hasChanges = true;
+        }
+        // 计划投产日期
+        if (!Objects.equals(row.getScheduleDate(), target.getScheduleDate())) {
+            target.setScheduleDate(row.getScheduleDate());
+            target.setStatus(determineStatus(row.getScheduleDate())); // 更新 scheduleDate 后，同步更新 status
+            hasChanges = true;
+        }
+        return hasChanges;
     }
     // === END ===
 
     // === START: 新增批量删除方法 ===
 
     /**
-     * 根据提供的 ID 列表，批量删除需求。
-     * 这是一个事务性操作。
+     * 根据提供的 ID 列表，批量删除需求 (连同其架构需求和评审信息)。
+     * 按块处理，每块一个独立事务，用几条集合操作语句删除三张表中的行，不逐个加载实体；
+     * 每块提交后维护各缓存和索引。某一块失败时，之前已提交的块不会回滚。
      *
      * @param ids 要删除的需求 ID 列表
+     * @return 实际删除的需求数 (不存在的 ID 不计入)
      */
-    @Transactional
-    public void deleteByIds(List<Integer> ids) {
-        // JpaRepository 提供了高效的批量删除方法
-        requirementRepository.deleteAllById(ids);
+    public int deleteByIds(List<Integer> ids) {
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        int deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += DELETE_CHUNK_SIZE) {
+            List<Integer> chunk = distinctIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, distinctIds.size()));
+            Integer chunkDeleted = transactionTemplate.execute(status -> deleteChunk(chunk));
+            deleted += chunkDeleted == null ? 0 : chunkDeleted;
+        }
+        return deleted;
+    }
+
+    /**
+     * [私有辅助方法] 在调用方开启的事务中删除一块需求 (连同架构需求和评审信息，见 RequirementBatchRepository.deleteAll)。
+     *
+     * @return 删除的需求数
+     */
+    private int deleteChunk(List<Integer> ids) {
+        // 先锁定本块的需求：并发修改这些需求的事务要么已提交 (快照中是新值)，要么等到删除提交后才能继续
+        List<RequirementFilterStateDTO> before = lockFilterStates(ids);
+        if (before.isEmpty()) {
+            return 0;
+        }
+        List<Integer> existingIds = before.stream().map(RequirementFilterStateDTO::getId).collect(Collectors.toList());
+        changeTrackingService.recordRequirementDeletions(existingIds);
+        int deleted = requirementBatchRepository.deleteAll(existingIds);
+        searchIndexService.requirementsDeleted(existingIds);
+        substringIndexService.requirementsDeleted(existingIds);
+        requirementChangePublisher.rowsChanged(before, List.of());
+        return deleted;
     }
     // === END ===
 
@@ -528,71 +1144,99 @@ public class RequirementService {
     /**
      * 批量更新需求的“所属小组”和“开发负责人”。
      * 规则：
-     * 1. 遍历所有需求。
-     * 2. 根据需求的“科技负责人”姓名查找对应的成员信息。
-     * 3. 如果找到了成员，并且该成员有所属小组：
+     * 1. 一次联表查询加载全部 成员姓名 -> 所属小组 的对应关系。
+     * 2. 按主键顺序分块遍历需求 (每块一个独立事务，先锁定本块的行)，根据“科技负责人”姓名在内存中查找成员。
+     * 3. 如果找到了成员：
      * a. 如果需求的“所属小组”为空，则用成员的小组信息更新它。
      * b. 开发负责人直接更新为科技负责人的姓名。
-     * 4. 批量保存所有被修改的需求。
+     * 4. 只有确实需要修改的行才写回，每块一条 JDBC 批量 UPDATE。
+     * 由后台任务调用：每块结束后更新任务进度，并在块边界处响应取消请求 (已提交的块不会回滚)。
      *
+     * @param job 任务状态
      * @return 返回一个包含处理结果的摘要字符串。
      */
-    @Transactional
-    public String batchUpdateFromTechLeader() {
-        // 1. 获取所有需求
-        List<Requirement> allRequirements = requirementRepository.findAll();
-        List<Requirement> updatedRequirements = new ArrayList<>();
-        int updatedCount = 0;
-        int skippedCount = 0;
-
-        for (Requirement req : allRequirements) {
-            String techLeaderName = req.getTechLeader();
-            boolean needsUpdate = false;
-
-            // 2. 检查是否有科技负责人
-            if (techLeaderName == null || techLeaderName.trim().isEmpty()) {
-                skippedCount++;
-                continue;
-            }
+    public String batchUpdateFromTechLeader(ImportJob job) {
+        // 1. 成员姓名 -> 所属小组 (与 MySQL 默认排序规则下按姓名等值查找一致，大小写不敏感)
+        Map<String, String> groupByMember = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (MemberGroupDTO memberGroup : memberRepository.findAllMemberGroups()) {
+            groupByMember.put(memberGroup.getMemberName(), memberGroup.getGroupName());
+        }
 
-            // 3. 根据科技负责人姓名查找成员信息
-            Optional<Member> memberOpt = memberRepository.findByName(techLeaderName.trim());
+        ImportSummaryDTO summary = job.getSummary();
+        int afterId = 0;
+        while (true) {
+            job.checkCancelled();
+            int chunkAfterId = afterId;
+            ImportSummaryDTO chunkSummary = new ImportSummaryDTO();
+            Integer lastId = transactionTemplate.execute(
+                    status -> syncLeaderChunk(chunkAfterId, groupByMember, chunkSummary));
+            // 块事务提交后才计入任务进度
+            summary.add(chunkSummary);
+            if (lastId == null) {
+                break;
+            }
+            afterId = lastId;
+        }
 
-            if (memberOpt.isPresent()) {
-                Member member = memberOpt.get();
+        return String.format("一键更新完成！成功更新记录: %d 条，跳过或无需更新记录: %d 条。",
+                summary.getUpdatedCount(), summary.getSkippedCount());
+    }
 
-                // 4. 更新“所属小组”（仅当需求的小组为空时）
-                if (member.getTeamGroup() != null && (req.getGroupName() == null || req.getGroupName().trim().isEmpty())) {
-                    req.setGroupName(member.getTeamGroup().getName());
-                    needsUpdate = true;
-                }
+    /**
+     * [私有辅助方法] 在调用方开启的事务中处理“一键更新”的一块需求，本块的统计记入 summary (由调用方在提交后汇总)。
+     *
+     * @return 本块最后一个需求的主键；已没有更多需求时返回 null
+     */
+    private Integer syncLeaderChunk(int afterId, Map<String, String> groupByMember, ImportSummaryDTO summary) {
+        List<RequirementLeaderRowDTO> rows = requirementBatchRepository.lockLeaderRowsAfter(afterId, LEADER_SYNC_CHUNK_SIZE);
+        if (rows.isEmpty()) {
+            return null;
+        }
 
-                // 5. 更新“开发负责人”（总是更新为科技负责人）
-                if (!techLeaderName.trim().equals(req.getDevLeader())) {
-                    req.setDevLeader(techLeaderName.trim());
-                    needsUpdate = true;
-                }
+        List<RequirementLeaderRowDTO> updatedRows = new ArrayList<>();
+        // 补填了“所属小组”的需求：所属小组影响主页分组统计、每日设计趋势和筛选索引
+        Set<Integer> groupChangedIds = new HashSet<>();
+        for (RequirementLeaderRowDTO row : rows) {
+            String techLeaderName = row.getTechLeader();
 
-            } else {
-                // 如果在成员表中找不到该负责人，则跳过
-                skippedCount++;
+            // 2. 检查是否有科技负责人；如果在成员表中找不到该负责人，则跳过
+            if (techLeaderName == null || techLeaderName.trim().isEmpty()
+                    || !groupByMember.containsKey(techLeaderName.trim())) {
+                summary.incrementSkipped();
                 continue;
             }
+            String memberGroupName = groupByMember.get(techLeaderName.trim());
+
+            // 3a. 更新“所属小组”（仅当需求的小组为空时）
+            String groupName = row.getGroupName();
+            if (memberGroupName != null && (groupName == null || groupName.trim().isEmpty())) {
+                groupName = memberGroupName;
+                groupChangedIds.add(row.getId());
+            }
+
+            // 3b. 更新“开发负责人”（总是更新为科技负责人）
+            String devLeader = techLeaderName.trim();
 
-            if (needsUpdate) {
-                updatedRequirements.add(req);
-                updatedCount++;
+            if (groupChangedIds.contains(row.getId()) || !devLeader.equals(row.getDevLeader())) {
+                updatedRows.add(new RequirementLeaderRowDTO(row.getId(), row.getTechLeader(), groupName, devLeader));
+                summary.incrementUpdated();
             } else {
-                skippedCount++;
+                summary.incrementSkipped();
             }
         }
 
-        // 6. 批量保存所有已更新的需求
-        if (!updatedRequirements.isEmpty()) {
-            requirementRepository.saveAll(updatedRequirements);
+        // 4. 批量写回已更新的需求
+        if (!updatedRows.isEmpty()) {
+            List<RequirementFilterStateDTO> before = lockFilterStates(groupChangedIds);
+            requirementBatchRepository.updateLeaders(updatedRows);
+            List<RequirementFilterStateDTO> after = lockFilterStates(groupChangedIds);
+            requirementChangePublisher.rowsChanged(before, after);
+            List<Integer> updatedIds = updatedRows.stream().map(RequirementLeaderRowDTO::getId).collect(Collectors.toList());
+            searchIndexService.requirementsChanged(updatedIds);
+            // 所属小组、开发负责人不参与列表筛选和排序，只需失效包含这些行的页面
+            requirementChangePublisher.rowsUpdated(filterStates(updatedIds));
         }
-
-        return String.format("一键更新完成！成功更新记录: %d 条，跳过或无需更新记录: %d 条。", updatedCount, skippedCount);
+        return rows.get(rows.size() - 1).getId();
     }
     // === END ===
 }
@@ -0,0 +1,81 @@
+package com.example.reqsmanager.service;
+
+import com.example.reqsmanager.entity.Requirement;
+import com.example.reqsmanager.repository.RequirementStatusRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 需求状态的每日重算。
+ * 保存需求时按当天日期计算状态 (计划投产日期已到为“已投产”，否则为“进行中”)，之后日期到达但没有再编辑的需求
+ * 由这里的每日任务批量改为“已投产”：
+ * - 水位线 (job_watermarks) 记录已处理到的日期，每次只处理 (水位线, 今天] 这段新跨过的日期，
+ *   停机错过的日子在下次执行时一并补上；从未执行过时处理今天及以前的全部日期；
+ * - 每次执行是一个事务：锁定水位线 -> 锁定并取出要改的需求主键 -> 一条 UPDATE -> 推进水位线；
+ * - 提交后刷新全文索引、分析快照、筛选位图索引中这些需求的状态，并清空需求列表缓存。
+ *   分组统计和每日设计趋势不涉及状态，不受影响。
+ * 应用启动时也执行一次，水位线已是今天时不做任何事。
+ */
+@Slf4j
+@Service
+public class RequirementStatusService implements SmartInitializingSingleton {
+
+    static final String JOB_NAME = "requirement-status";
+
+    @Autowired
+    private RequirementStatusRepository requirementStatusRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private RequirementChangePublisher requirementChangePublisher;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        recomputeOverdue();
+    }
+
+    /**
+     * 把计划投产日期已到、状态仍为“进行中”的需求改为“已投产”。
+     *
+     * @return 改为“已投产”的需求数
+     */
+    @Scheduled(cron = "${reqsmanager.status.recompute-cron:0 1 0 * * *}")
+    public int recomputeOverdue() {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        List<Integer> ids = new TransactionTemplate(transactionManager).execute(status -> {
+            LocalDate watermark = requirementStatusRepository.lockWatermark(JOB_NAME);
+            if (watermark != null && !watermark.isBefore(today)) {
+                return List.of();
+            }
+            List<Integer> overdue = requirementStatusRepository.lockIdsScheduledBetween(watermark, today,
+                    Requirement.STATUS_IN_PROGRESS);
+            if (!overdue.isEmpty()) {
+                requirementStatusRepository.updateStatusScheduledBetween(watermark, today,
+                        Requirement.STATUS_IN_PROGRESS, Requirement.STATUS_LIVE);
+            }
+            requirementStatusRepository.saveWatermark(JOB_NAME, today);
+            return overdue;
+        });
+        if (!ids.isEmpty()) {
+            searchIndexService.requirementsChanged(ids);
+            requirementChangePublisher.statusesChanged(ids);
+        }
+        log.info("Requirement status recomputed through {} in {} ms, {} requirements marked {}",
+                today, (System.nanoTime() - start) / 1_000_000, ids.size(), Requirement.STATUS_LIVE);
+        return ids.size();
+    }
+}
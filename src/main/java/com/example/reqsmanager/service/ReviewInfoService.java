@@ -1,11 +1,19 @@
 package com.example.reqsmanager.service;
 
 import com.example.reqsmanager.dto.ReviewInfoDTO;
+import com.example.reqsmanager.entity.ArchitecturalRequirement;
 import com.example.reqsmanager.entity.ReviewInfo;
+import com.example.reqsmanager.repository.ArchitecturalRequirementRepository;
+import com.example.reqsmanager.repository.RequirementRepository;
+import com.example.reqsmanager.repository.ReviewConsistencyRepository;
 import com.example.reqsmanager.repository.ReviewInfoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
 
 @Service
 public class ReviewInfoService {
@@ -13,34 +21,75 @@ public class ReviewInfoService {
     @Autowired
     private ReviewInfoRepository reviewInfoRepository;
 
+    @Autowired
+    private ArchitecturalRequirementRepository architecturalRequirementRepository;
+
+    @Autowired
+    private RequirementRepository requirementRepository;
+
+    @Autowired
+    private ReviewConsistencyRepository reviewConsistencyRepository;
+
+    @Autowired
+    private RequirementChangePublisher requirementChangePublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Transactional
     public ReviewInfo saveReviewInfo(ReviewInfoDTO dto) {
         ReviewInfo reviewInfo = reviewInfoRepository.findById(dto.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Invalid review info Id: " + dto.getId()));
 
-        // 从 DTO 完整地复制所有字段到实体
-        reviewInfo.setReviewCheck1(dto.getReviewCheck1());
-        reviewInfo.setReviewCheck2(dto.getReviewCheck2());
-        reviewInfo.setReviewCheck3(dto.getReviewCheck3());
-        reviewInfo.setReviewCheck4(dto.getReviewCheck4());
-        reviewInfo.setReviewCheck5(dto.getReviewCheck5());
-        reviewInfo.setReviewCheck6(dto.getReviewCheck6());
-        reviewInfo.setReviewCheck7(dto.getReviewCheck7());
-        reviewInfo.setReviewCheck8(dto.getReviewCheck8());
-        reviewInfo.setReviewCheck9(dto.getReviewCheck9());
+        // 从 DTO 完整地复制所有字段到实体 (勾选项打包为位掩码)
+        reviewInfo.setReviewChecks(ReviewInfo.packChecks(dto.getReviewCheck1(), dto.getReviewCheck2(),
+                dto.getReviewCheck3(), dto.getReviewCheck4(), dto.getReviewCheck5(), dto.getReviewCheck6(),
+                dto.getReviewCheck7(), dto.getReviewCheck8(), dto.getReviewCheck9()));
         reviewInfo.setReviewLevel(dto.getReviewLevel());
-
-        reviewInfo.setAuditCheck1(dto.getAuditCheck1());
-        reviewInfo.setAuditCheck2(dto.getAuditCheck2());
-        reviewInfo.setAuditCheck3(dto.getAuditCheck3());
-        reviewInfo.setAuditCheck4(dto.getAuditCheck4());
-        reviewInfo.setAuditCheck5(dto.getAuditCheck5());
-        reviewInfo.setAuditCheck6(dto.getAuditCheck6());
-        reviewInfo.setAuditCheck7(dto.getAuditCheck7());
-        reviewInfo.setAuditCheck8(dto.getAuditCheck8());
-        reviewInfo.setAuditCheck9(dto.getAuditCheck9());
+        reviewInfo.setAuditChecks(ReviewInfo.packChecks(dto.getAuditCheck1(), dto.getAuditCheck2(),
+                dto.getAuditCheck3(), dto.getAuditCheck4(), dto.getAuditCheck5(), dto.getAuditCheck6(),
+                dto.getAuditCheck7(), dto.getAuditCheck8(), dto.getAuditCheck9()));
         reviewInfo.setAuditLevel(dto.getAuditLevel());
 
+        // 同步架构需求上的“评审检核是否一致” (架构需求列表中显示，提交后失效缓存的列表页)
+        ArchitecturalRequirement archReq = reviewInfo.getArchitecturalRequirement();
+        if (archReq != null && !Boolean.valueOf(reviewInfo.areChecksConsistent()).equals(archReq.getAreReviewsConsistent())) {
+            archReq.setAreReviewsConsistent(reviewInfo.areChecksConsistent());
+            requirementChangePublisher.rowsUpdated(requirementRepository.findFilterStatesByIdIn(
+                    List.of(archReq.getRequirement().getId())));
+        }
         return reviewInfoRepository.save(reviewInfo);
     }
+
+    /**
+     * 查找架构检核与评审信息在任一指定勾选项上不一致的需求。
+     *
+     * @param checkNumbers 勾选项序号 (1 至 9)
+     * @return 升序排列的需求主键
+     * @throws IllegalArgumentException 没有指定勾选项或序号超出范围
+     */
+    public List<Integer> findRequirementIdsWithCheckMismatch(Collection<Integer> checkNumbers) {
+        if (checkNumbers.isEmpty()) {
+            throw new IllegalArgumentException("请至少指定一个勾选项 (1-" + ReviewInfo.CHECK_COUNT + ")。");
+        }
+        int mask = 0;
+        for (int number : checkNumbers) {
+            mask |= ReviewInfo.checkBit(number);
+        }
+        return architecturalRequirementRepository.findRequirementIdsWithCheckMismatch(mask);
+    }
+
+    /**
+     * 按评审信息重新计算全部架构需求的“评审检核是否一致” (一条 UPDATE 语句)。
+     * 结果有变化时清空需求列表缓存 (无法得知具体是哪些行)。
+     *
+     * @return 结果有变化的架构需求数
+     */
+    public int recomputeConsistency() {
+        Integer changed = transactionTemplate.execute(status -> reviewConsistencyRepository.recomputeAll());
+        if (changed != null && changed > 0) {
+            requirementChangePublisher.displayedColumnsChanged();
+        }
+        return changed == null ? 0 : changed;
+    }
 }
@@ -0,0 +1,534 @@
+package com.example.reqsmanager.service;
+
+import com.example.reqsmanager.dto.RequirementSearchDTO;
+import com.example.reqsmanager.dto.SearchHitDTO;
+import com.example.reqsmanager.entity.ArchitecturalProject;
+import com.example.reqsmanager.entity.ArchitectureDecision;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.cn.smart.SmartChineseAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 需求、架构项目、架构决策的全局全文检索 (基于 Lucene 的本地磁盘索引)。
+ * - 中文按 SmartChineseAnalyzer 分词，编号同时按原文精确匹配并给予最高权重；
+ * - 三个业务服务在保存 / 删除后调用 xxxChanged / xxxDeleted，索引在数据库事务提交之后才更新，
+ *   回滚的修改不会进入索引；
+ * - 所有索引写操作 (包括全量重建) 都在同一个后台线程中按提交顺序执行，不占用请求线程，
+ *   重建期间产生的修改排在重建之后执行，不会被重建覆盖；
+ * - 搜索使用近实时 (NRT) 读取器，修改在后台线程处理完后即可被搜到 (通常为毫秒级)。
+ * 索引目录不存在或为空时，应用启动后自动从数据库全量重建；也可以随时调用 rebuild() 手动重建。
+ */
+@Slf4j
+@Service
+public class SearchIndexService {
+
+    public static final String TYPE_REQUIREMENT = "requirement";
+    public static final String TYPE_PROJECT = "project";
+    public static final String TYPE_DECISION = "decision";
+
+    /** 文档唯一键 "类型:主键"，用于更新和删除 */
+    private static final String FIELD_KEY = "key";
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_ID = "id";
+    /** 业务编号 (分词后参与检索) */
+    private static final String FIELD_CODE = "code";
+    /** 业务编号 (转小写后整体作为一个词，用于精确匹配) */
+    private static final String FIELD_CODE_EXACT = "code_exact";
+    private static final String FIELD_TITLE = "title";
+    /** 所有可检索文本 (含编号与标题)，多个词分散在不同字段时也能命中 */
+    private static final String FIELD_ALL = "all";
+
+    private static final Map<String, Float> FIELD_WEIGHTS = Map.of(FIELD_CODE, 4f, FIELD_TITLE, 3f, FIELD_ALL, 1f);
+    private static final float EXACT_CODE_BOOST = 10f;
+
+    /** 每次从数据库读取的行数 (重建与批量更新) */
+    private static final int LOAD_CHUNK_SIZE = 1000;
+    /** 分页时最多向后翻到的命中数，避免深翻页占用大量内存 */
+    private static final int MAX_RESULT_WINDOW = 10_000;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int TITLE_MAX_LENGTH = 120;
+
+    private static final String REQUIREMENT_SELECT = "SELECT new com.example.reqsmanager.dto.RequirementSearchDTO(" +
+            "r.id, r.reqId, r.name, r.businessLeader, r.techLeader, r.devLeader, r.leadDepartment, r.groupName, " +
+            "r.businessLine, r.reqType, r.status, r.analysisMembers, r.analysisOutput, r.specWriter) FROM Requirement r ";
+
+    @Value("${reqsmanager.search.index-dir:data/search-index}")
+    private String indexDir;
+
+    @Value("${reqsmanager.search.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Analyzer analyzer = new SmartChineseAnalyzer();
+
+    /**
+     * 索引写线程。单线程 + 无界队列：写操作按提交顺序执行，且不会因队列满而丢失。
+     */
+    private final ThreadPoolExecutor indexExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "search-index");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private TransactionTemplate readOnlyTransaction;
+    private FSDirectory directory;
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+    private boolean indexWasEmpty;
+    private volatile boolean rebuilding;
+
+    @PostConstruct
+    public void open() throws IOException {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        directory = FSDirectory.open(Path.of(indexDir));
+        indexWasEmpty = !DirectoryReader.indexExists(directory);
+        openWriter();
+    }
+
+    /**
+     * 应用启动完成后，如果索引尚不存在 (首次部署、索引目录被删除) 或配置了启动时重建，则从数据库全量重建。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (indexWasEmpty || rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        // 先处理完已排队的修改，再提交并关闭索引
+        indexExecutor.shutdown();
+        if (!indexExecutor.awaitTermination(60, TimeUnit.SECONDS)) {
+            log.warn("Search index executor did not finish in time, {} pending tasks dropped", indexExecutor.getQueue().size());
+            indexExecutor.shutdownNow();
+        }
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    // ---------------------------------------------------------------
+    // 索引维护 (由业务服务在保存 / 删除后调用)
+    // ---------------------------------------------------------------
+
+    public void requirementsChanged(Collection<Integer> ids) {
+        List<Integer> copy = List.copyOf(ids);
+        afterCommit(() -> indexByIds(TYPE_REQUIREMENT, copy,
+                chunk -> entityManager.createQuery(REQUIREMENT_SELECT + "WHERE r.id IN :ids", RequirementSearchDTO.class)
+                        .setParameter("ids", chunk)
+                        .getResultList(),
+                RequirementSearchDTO::getId, this::requirementDocument));
+    }
+
+    /**
+     * 按需求编号更新索引 (CSV 导入走 JDBC 批量写入，拿不到主键)。
+     */
+    public void requirementsChangedByReqId(Collection<String> reqIds) {
+        List<String> copy = List.copyOf(reqIds);
+        afterCommit(() -> {
+            for (int from = 0; from < copy.size(); from += LOAD_CHUNK_SIZE) {
+                List<String> chunk = copy.subList(from, Math.min(from + LOAD_CHUNK_SIZE, copy.size()));
+                List<RequirementSearchDTO> rows = readOnlyTransaction.execute(status -> entityManager
+                        .createQuery(REQUIREMENT_SELECT + "WHERE r.reqId IN :reqIds", RequirementSearchDTO.class)
+                        .setParameter("reqIds", chunk)
+                        .getResultList());
+                for (RequirementSearchDTO row : rows) {
+                    writer.updateDocument(keyTerm(TYPE_REQUIREMENT, row.getId()), requirementDocument(row));
+                }
+            }
+        });
+    }
+
+    public void requirementsDeleted(Collection<Integer> ids) {
+        List<Integer> copy = List.copyOf(ids);
+        afterCommit(() -> deleteByIds(TYPE_REQUIREMENT, copy));
+    }
+
+    public void projectsChanged(Collection<Integer> ids) {
+        List<Integer> copy = List.copyOf(ids);
+        afterCommit(() -> indexByIds(TYPE_PROJECT, copy,
+                chunk -> entityManager.createQuery(
+                                "SELECT p FROM ArchitecturalProject p WHERE p.id IN :ids", ArchitecturalProject.class)
+                        .setParameter("ids", chunk)
+                        .getResultList(),
+                ArchitecturalProject::getId, this::projectDocument));
+    }
+
+    public void projectsDeleted(Collection<Integer> ids) {
+        List<Integer> copy = List.copyOf(ids);
+        afterCommit(() -> deleteByIds(TYPE_PROJECT, copy));
+    }
+
+    public void decisionsChanged(Collection<Integer> ids) {
+        List<Integer> copy = List.copyOf(ids);
+        afterCommit(() -> indexByIds(TYPE_DECISION, copy,
+                chunk -> entityManager.createQuery(
+                                "SELECT d FROM ArchitectureDecision d WHERE d.id IN :ids", ArchitectureDecision.class)
+                        .setParameter("ids", chunk)
+                        .getResultList(),
+                ArchitectureDecision::getId, this::decisionDocument));
+    }
+
+    public void decisionsDeleted(Collection<Integer> ids) {
+        List<Integer> copy = List.copyOf(ids);
+        afterCommit(() -> deleteByIds(TYPE_DECISION, copy));
+    }
+
+    /**
+     * 从数据库全量重建索引，在索引写线程中异步执行。
+     * 重建完成之前，搜索仍使用重建前的索引。
+     *
+     * @return false 表示已有重建任务在执行，本次请求被忽略
+     */
+    public synchronized boolean rebuild() {
+        if (rebuilding) {
+            return false;
+        }
+        rebuilding = true;
+        submit(() -> {
+            try {
+                doRebuild();
+            } finally {
+                rebuilding = false;
+            }
+        });
+        return true;
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding;
+    }
+
+    // ---------------------------------------------------------------
+    // 搜索
+    // ---------------------------------------------------------------
+
+    /**
+     * 全局搜索。多个关键词之间为“且”关系，支持 "短语"、-排除 等简单语法。
+     *
+     * @param keyword 搜索关键词
+     * @param type    只搜索某一类文档 (requirement / project / decision)，为空时搜索全部
+     * @param page    页码 (从 0 开始)
+     * @param size    每页条数
+     * @return 按相关度排序的一页命中结果
+     */
+    public Page<SearchHitDTO> search(String keyword, String type, int page, int size) throws IOException {
+        size = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        page = Math.max(0, page);
+        PageRequest pageRequest = PageRequest.of(page, size);
+        Query query = buildQuery(keyword, type);
+        int window = (page + 1) * size;
+        if (query == null || window > MAX_RESULT_WINDOW) {
+            return new PageImpl<>(List.of(), pageRequest, 0);
+        }
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs topDocs = searcher.search(query, window);
+            long total = topDocs.totalHits.relation == TotalHits.Relation.EQUAL_TO
+                    ? topDocs.totalHits.value
+                    : searcher.count(query);
+
+            StoredFields storedFields = searcher.storedFields();
+            List<SearchHitDTO> hits = new ArrayList<>(size);
+            for (int i = page * size; i < topDocs.scoreDocs.length; i++) {
+                ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                Document doc = storedFields.document(scoreDoc.doc);
+                String docType = doc.get(FIELD_TYPE);
+                int id = doc.getField(FIELD_ID).numericValue().intValue();
+                hits.add(new SearchHitDTO(docType, id, doc.get(FIELD_CODE),
+                        abbreviate(doc.get(FIELD_TITLE)), scoreDoc.score, detailUrl(docType, id)));
+            }
+            return new PageImpl<>(hits, pageRequest, total);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private Query buildQuery(String keyword, String type) {
+        if (keyword == null || keyword.isBlank()) {
+            return null;
+        }
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, FIELD_WEIGHTS);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query textQuery = parser.parse(keyword.trim());
+        Query exactCodeQuery = new BoostQuery(
+                new TermQuery(new Term(FIELD_CODE_EXACT, keyword.trim().toLowerCase(Locale.ROOT))), EXACT_CODE_BOOST);
+
+        BooleanQuery.Builder matches = new BooleanQuery.Builder().add(exactCodeQuery, BooleanClause.Occur.SHOULD);
+        if (textQuery != null) {
+            // 关键词全部是停用词时解析结果为 null，此时只做编号精确匹配
+            matches.add(textQuery, BooleanClause.Occur.SHOULD);
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder().add(matches.build(), BooleanClause.Occur.MUST);
+        if (type != null && !type.isEmpty()) {
+            query.add(new TermQuery(new Term(FIELD_TYPE, type)), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    // ---------------------------------------------------------------
+    // 索引写线程中执行的操作
+    // ---------------------------------------------------------------
+
+    @FunctionalInterface
+    private interface IndexTask {
+        void run() throws IOException;
+    }
+
+    /**
+     * 在当前事务提交后再提交索引任务；没有事务时立即提交。
+     */
+    private void afterCommit(IndexTask task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(task);
+                }
+            });
+        } else {
+            submit(task);
+        }
+    }
+
+    private void submit(IndexTask task) {
+        indexExecutor.execute(() -> {
+            try {
+                task.run();
+                searcherManager.maybeRefresh();
+                // 队列中没有后续任务时才落盘，连续的修改合并为一次提交
+                if (indexExecutor.getQueue().isEmpty()) {
+                    writer.commit();
+                }
+            } catch (Exception e) {
+                // 索引与数据库不一致时不影响业务数据，可通过重建修复
+                log.error("Search index update failed, rebuild the index to resynchronize", e);
+            }
+        });
+    }
+
+    private <T> void indexByIds(String type, List<Integer> ids, Function<List<Integer>, List<T>> loader,
+                                Function<T, Integer> idOf, Function<T, Document> toDocument) throws IOException {
+        for (int from = 0; from < ids.size(); from += LOAD_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + LOAD_CHUNK_SIZE, ids.size()));
+            List<T> rows = readOnlyTransaction.execute(status -> loader.apply(chunk));
+            Set<Integer> missing = new HashSet<>(chunk);
+            for (T row : rows) {
+                missing.remove(idOf.apply(row));
+                writer.updateDocument(keyTerm(type, idOf.apply(row)), toDocument.apply(row));
+            }
+            // 提交后又被其它事务删除的记录
+            deleteByIds(type, missing);
+        }
+    }
+
+    private void deleteByIds(String type, Collection<Integer> ids) throws IOException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        writer.deleteDocuments(ids.stream().map(id -> keyTerm(type, id)).toArray(Term[]::new));
+    }
+
+    private void doRebuild() throws IOException {
+        long start = System.nanoTime();
+        try {
+            writer.deleteAll();
+            long requirements = rebuildType(TYPE_REQUIREMENT, RequirementSearchDTO::getId, this::requirementDocument,
+                    afterId -> entityManager.createQuery(REQUIREMENT_SELECT + "WHERE r.id > :afterId ORDER BY r.id",
+                            RequirementSearchDTO.class));
+            long projects = rebuildType(TYPE_PROJECT, ArchitecturalProject::getId, this::projectDocument,
+                    afterId -> entityManager.createQuery(
+                            "SELECT p FROM ArchitecturalProject p WHERE p.id > :afterId ORDER BY p.id",
+                            ArchitecturalProject.class));
+            long decisions = rebuildType(TYPE_DECISION, ArchitectureDecision::getId, this::decisionDocument,
+                    afterId -> entityManager.createQuery(
+                            "SELECT d FROM ArchitectureDecision d WHERE d.id > :afterId ORDER BY d.id",
+                            ArchitectureDecision.class));
+            writer.commit();
+            log.info("Search index rebuilt: {} requirements, {} projects, {} decisions in {} ms",
+                    requirements, projects, decisions, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            // 放弃未提交的重建结果，恢复到重建前的索引
+            writer.rollback();
+            searcherManager.close();
+            openWriter();
+            throw e;
+        }
+    }
+
+    /**
+     * 按主键顺序分块读取一类数据并写入索引 (键集分页，每块一个只读事务，读完即清空持久化上下文)。
+     */
+    private <T> long rebuildType(String type, Function<T, Integer> idOf, Function<T, Document> toDocument,
+                                 Function<Integer, TypedQuery<T>> chunkQuery) throws IOException {
+        long count = 0;
+        int afterId = 0;
+        while (true) {
+            int after = afterId;
+            List<T> rows = readOnlyTransaction.execute(status -> {
+                List<T> result = chunkQuery.apply(after)
+                        .setParameter("afterId", after)
+                        .setMaxResults(LOAD_CHUNK_SIZE)
+                        .getResultList();
+                entityManager.clear();
+                return result;
+            });
+            for (T row : rows) {
+                writer.addDocument(toDocument.apply(row));
+            }
+            count += rows.size();
+            if (rows.size() < LOAD_CHUNK_SIZE) {
+                return count;
+            }
+            afterId = idOf.apply(rows.get(rows.size() - 1));
+        }
+    }
+
+    private void openWriter() throws IOException {
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        writer = new IndexWriter(directory, config);
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    // ---------------------------------------------------------------
+    // 文档构建
+    // ---------------------------------------------------------------
+
+    private Document requirementDocument(RequirementSearchDTO r) {
+        return document(TYPE_REQUIREMENT, r.getId(), r.getReqId(), r.getName(),
+                r.getBusinessLeader(), r.getTechLeader(), r.getDevLeader(), r.getLeadDepartment(), r.getGroupName(),
+                r.getBusinessLine(), r.getReqType(), r.getStatus(), r.getAnalysisMembers(), r.getAnalysisOutput(),
+                r.getSpecWriter());
+    }
+
+    private Document projectDocument(ArchitecturalProject p) {
+        return document(TYPE_PROJECT, p.getId(), p.getProjectNumber(), p.getReqName(),
+                p.getReqId(), p.getDevDepartment(), p.getProjectManager(),
+                p.getFeasibilitySubmitter(), p.getFeasibilityDeductionReason(),
+                p.getGeneralDesignSubmitter(), p.getGeneralDesignDeductionReason(),
+                p.getDetailedDesignSubmitter(), p.getDetailedDesignDeductionReason(), p.getRemarks());
+    }
+
+    private Document decisionDocument(ArchitectureDecision d) {
+        return document(TYPE_DECISION, d.getId(), d.getDecisionNumber(), d.getDecisionContent(),
+                d.getReqId(), d.getProposer(), d.getTeamName(), d.getDecisionMaker(), d.getAffectedApplications(),
+                d.getArchitectureDomain(), d.getProblemDescription(), d.getAssumptionsAndConstraints(),
+                d.getAlternativeSolutions(), d.getDecisionRationale(), d.getNatureOfControversy(),
+                d.getImpactAnalysis(), d.getDerivedRequirements(), d.getRelatedArchDecisions());
+    }
+
+    private Document document(String type, Integer id, String code, String title, String... texts) {
+        Document doc = new Document();
+        doc.add(new StringField(FIELD_KEY, key(type, id), Field.Store.NO));
+        doc.add(new StringField(FIELD_TYPE, type, Field.Store.YES));
+        doc.add(new StoredField(FIELD_ID, id));
+        if (code != null) {
+            doc.add(new TextField(FIELD_CODE, code, Field.Store.YES));
+            doc.add(new StringField(FIELD_CODE_EXACT, code.trim().toLowerCase(Locale.ROOT), Field.Store.NO));
+        }
+        if (title != null) {
+            doc.add(new TextField(FIELD_TITLE, title, Field.Store.YES));
+        }
+        StringBuilder all = new StringBuilder();
+        append(all, code);
+        append(all, title);
+        for (String text : texts) {
+            append(all, text);
+        }
+        doc.add(new TextField(FIELD_ALL, all.toString(), Field.Store.NO));
+        return doc;
+    }
+
+    private static void append(StringBuilder all, String text) {
+        if (text != null && !text.isEmpty()) {
+            all.append(text).append('\n');
+        }
+    }
+
+    private static Term keyTerm(String type, Integer id) {
+        return new Term(FIELD_KEY, key(type, id));
+    }
+
+    private static String key(String type, Integer id) {
+        return type + ":" + id;
+    }
+
+    private static String abbreviate(String title) {
+        if (title == null || title.length() <= TITLE_MAX_LENGTH) {
+            return title;
+        }
+        return title.substring(0, TITLE_MAX_LENGTH) + "…";
+    }
+
+    private static String detailUrl(String type, int id) {
+        return switch (type) {
+            case TYPE_REQUIREMENT -> "/requirements/edit/" + id;
+            case TYPE_PROJECT -> "/arch-projects/edit/" + id;
+            case TYPE_DECISION -> "/arch-decisions/edit/" + id;
+            default -> throw new IllegalStateException("Unknown document type: " + type);
+        };
+    }
+}
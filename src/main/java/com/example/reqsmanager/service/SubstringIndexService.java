@@ -0,0 +1,182 @@
+package com.example.reqsmanager.service;
+
+import com.example.reqsmanager.dto.IdKeyDTO;
+import com.example.reqsmanager.search.TrigramIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 需求编号、项目编号、架构决策关联需求编号的子串索引 (内存中的三元组索引)。
+ * 列表页的编号筛选先在这里查出候选主键，再以 id IN (...) 交给数据库按主键取行，不再执行全表扫描的 LIKE '%x%'。
+ * 候选只用来缩小范围，LIKE 条件仍然保留，结果由数据库决定 (索引在提交后才更新，可能暂时落后)。
+ * - 应用启动 (开始接收请求) 之前从数据库一次性加载；
+ * - 各服务在保存 / 删除后调用 xxxSaved / xxxDeleted，事务提交后才修改索引；
+ * - 查询方法返回 null 表示索引无法回答 (片段短于 3 个字符、包含 LIKE 通配符、或命中过多)，
+ *   调用方应退回 LIKE 查询。命中过多时 LIKE 配合分页很快就能取满一页，反而比超长的 IN 列表更合适。
+ */
+@Slf4j
+@Service
+public class SubstringIndexService implements SmartInitializingSingleton {
+
+    /**
+     * 候选主键数的上限，超过时退回 LIKE 查询。
+     */
+    static final int MAX_CANDIDATES = 2000;
+
+    private static final int MIN_FRAGMENT_LENGTH = 3;
+    private static final int LOAD_CHUNK_SIZE = 10_000;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TrigramIndex requirementReqIds = new TrigramIndex();
+    private final TrigramIndex projectNumbers = new TrigramIndex();
+    private final TrigramIndex decisionReqIds = new TrigramIndex();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        load(readOnlyTransaction, requirementReqIds, "SELECT new com.example.reqsmanager.dto.IdKeyDTO(r.id, r.reqId) "
+                + "FROM Requirement r WHERE r.id > :afterId ORDER BY r.id");
+        load(readOnlyTransaction, projectNumbers, "SELECT new com.example.reqsmanager.dto.IdKeyDTO(p.id, p.projectNumber) "
+                + "FROM ArchitecturalProject p WHERE p.id > :afterId ORDER BY p.id");
+        load(readOnlyTransaction, decisionReqIds, "SELECT new com.example.reqsmanager.dto.IdKeyDTO(d.id, d.reqId) "
+                + "FROM ArchitectureDecision d WHERE d.id > :afterId ORDER BY d.id");
+        log.info("Substring indexes loaded: {} requirements, {} projects, {} decisions in {} ms",
+                requirementReqIds.size(), projectNumbers.size(), decisionReqIds.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void load(TransactionTemplate readOnlyTransaction, TrigramIndex index, String jpql) {
+        int afterId = 0;
+        while (true) {
+            int after = afterId;
+            List<IdKeyDTO> rows = readOnlyTransaction.execute(status -> entityManager
+                    .createQuery(jpql, IdKeyDTO.class)
+                    .setParameter("afterId", after)
+                    .setMaxResults(LOAD_CHUNK_SIZE)
+                    .getResultList());
+            for (IdKeyDTO row : rows) {
+                index.put(row.getId(), row.getKey());
+            }
+            if (rows.size() < LOAD_CHUNK_SIZE) {
+                return;
+            }
+            afterId = rows.get(rows.size() - 1).getId();
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // 查询
+    // ---------------------------------------------------------------
+
+    /**
+     * @return 需求编号包含 fragment 的需求主键；null 表示应退回 LIKE 查询
+     */
+    public List<Integer> findRequirementIds(String fragment) {
+        return find(requirementReqIds, fragment);
+    }
+
+    /**
+     * @return 项目编号包含 fragment 的项目主键；null 表示应退回 LIKE 查询
+     */
+    public List<Integer> findProjectIds(String fragment) {
+        return find(projectNumbers, fragment);
+    }
+
+    /**
+     * @return 关联需求编号包含 fragment 的架构决策主键；null 表示应退回 LIKE 查询
+     */
+    public List<Integer> findDecisionIds(String fragment) {
+        return find(decisionReqIds, fragment);
+    }
+
+    private List<Integer> find(TrigramIndex index, String fragment) {
+        if (fragment == null || fragment.length() < MIN_FRAGMENT_LENGTH
+                || fragment.indexOf('%') >= 0 || fragment.indexOf('_') >= 0) {
+            return null;
+        }
+        int[] ids = index.findContaining(fragment, MAX_CANDIDATES);
+        return ids == null ? null : Arrays.stream(ids).boxed().collect(Collectors.toList());
+    }
+
+    // ---------------------------------------------------------------
+    // 维护 (由业务服务在保存 / 删除后调用)
+    // ---------------------------------------------------------------
+
+    public void requirementSaved(Integer id, String reqId) {
+        afterCommit(() -> requirementReqIds.put(id, reqId));
+    }
+
+    /**
+     * @param reqIdsById 主键 -> 需求编号 (CSV 批量导入新增的需求)
+     */
+    public void requirementsSaved(Map<Integer, String> reqIdsById) {
+        Map<Integer, String> copy = Map.copyOf(reqIdsById);
+        afterCommit(() -> copy.forEach(requirementReqIds::put));
+    }
+
+    public void requirementsDeleted(Collection<Integer> ids) {
+        List<Integer> copy = List.copyOf(ids);
+        afterCommit(() -> copy.forEach(requirementReqIds::remove));
+    }
+
+    public void projectSaved(Integer id, String projectNumber) {
+        afterCommit(() -> projectNumbers.put(id, projectNumber));
+    }
+
+    /**
+     * @param projectNumbersById 主键 -> 项目编号 (CSV 批量导入新增的项目)
+     */
+    public void projectsSaved(Map<Integer, String> projectNumbersById) {
+        Map<Integer, String> copy = Map.copyOf(projectNumbersById);
+        afterCommit(() -> copy.forEach(projectNumbers::put));
+    }
+
+    public void projectDeleted(Integer id) {
+        afterCommit(() -> projectNumbers.remove(id));
+    }
+
+    public void decisionSaved(Integer id, String reqId) {
+        afterCommit(() -> decisionReqIds.put(id, reqId));
+    }
+
+    public void decisionDeleted(Integer id) {
+        afterCommit(() -> decisionReqIds.remove(id));
+    }
+
+    /**
+     * 在当前事务提交后再修改索引；没有事务时立即修改。
+     */
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
@@ -40,8 +40,18 @@ public class TeamService {
         teamRepository.save(team); // 因为 CascadeType.ALL, 会自动保存 newGroup
     }
 
+    /**
+     * 通过团队的 groups 集合删除小组 (orphanRemoval)，而不是直接按主键删除：
+     * 团队的小组集合在二级缓存中，直接删除子表记录不会使该集合缓存失效。
+     */
+    @Transactional
     public void deleteGroupById(Integer groupId) {
-        teamGroupRepository.deleteById(groupId);
+        teamGroupRepository.findById(groupId).ifPresent(group -> {
+            Team team = group.getTeam();
+            // 按主键比较：@Data 生成的 equals 会沿 team <-> groups 双向关联递归
+            team.getGroups().removeIf(g -> g.getId().equals(groupId));
+            teamRepository.save(team);
+        });
     }
 
     public List<TeamForFormDTO> findAllTeamsForForm() {
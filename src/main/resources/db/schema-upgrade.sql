@@ -0,0 +1,180 @@
+-- =====================================================================
+-- 数据库结构升级脚本
+-- spring.jpa.hibernate.ddl-auto=validate，表结构不会自动变更，
+-- 部署新版本前请按顺序执行尚未执行过的部分。
+-- =====================================================================
+
+-- ---------------------------------------------------------------------
+-- architectural_projects 主键改为 pooled 序列 (按块预分配，支持批量插入)
+-- 初始值需大于现有最大 ID + allocationSize，避免与已有主键冲突。
+-- ---------------------------------------------------------------------
+CREATE TABLE architectural_projects_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO architectural_projects_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM architectural_projects;
+
+-- ---------------------------------------------------------------------
+-- 增量导出：各表增加由数据库维护的最后修改时间，并建立索引；新增删除记录表
+-- updated_at 由 DEFAULT / ON UPDATE CURRENT_TIMESTAMP 维护，实体中映射为只读 (insertable / updatable = false)；
+-- 应用层不写入此列，JDBC 批量写入等绕过 JPA 的路径也会被自动更新。
+-- ---------------------------------------------------------------------
+ALTER TABLE requirements
+    ADD COLUMN updated_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '最后修改时间',
+    ADD INDEX idx_requirements_updated_at (updated_at);
+
+ALTER TABLE architectural_requirements
+    ADD COLUMN updated_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '最后修改时间',
+    ADD INDEX idx_arch_requirements_updated_at (updated_at);
+
+ALTER TABLE review_infos
+    ADD COLUMN updated_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '最后修改时间',
+    ADD INDEX idx_review_infos_updated_at (updated_at);
+
+ALTER TABLE architectural_projects
+    ADD COLUMN updated_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '最后修改时间',
+    ADD INDEX idx_arch_projects_updated_at (updated_at);
+
+CREATE TABLE deleted_records (
+    id           BIGINT      NOT NULL AUTO_INCREMENT,
+    entity_type  VARCHAR(30) NOT NULL COMMENT '被删除记录的类型',
+    entity_id    INT         NOT NULL COMMENT '被删除记录的主键',
+    business_key VARCHAR(50)          COMMENT '业务主键',
+    deleted_at   DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '删除时间',
+    PRIMARY KEY (id),
+    INDEX idx_deleted_records_type_time (entity_type, deleted_at)
+) ENGINE = InnoDB;
+
+-- ---------------------------------------------------------------------
+-- requirements 增加导入列内容指纹。已有数据留空即可，
+-- 下一次 CSV 导入会在比对后自动回填 (不会触发 updated_at 变化)。
+-- ---------------------------------------------------------------------
+ALTER TABLE requirements
+    ADD COLUMN import_fingerprint CHAR(32) COMMENT '导入列内容指纹';
+
+-- ---------------------------------------------------------------------
+-- 需求列表键集分页：按 (schedule_date, id) 排序与定位
+-- ---------------------------------------------------------------------
+ALTER TABLE requirements
+    ADD INDEX idx_requirements_schedule_date_id (schedule_date, id);
+
+-- ---------------------------------------------------------------------
+-- 主页分组统计：按小组保存的计数，随需求写操作增量更新。
+-- 表为空时应用启动会自动从需求表完整计算一次，无需手工初始化。
+-- ---------------------------------------------------------------------
+CREATE TABLE group_metrics (
+    group_name                VARCHAR(100) NOT NULL COMMENT '所属小组 (空字符串表示未分组)',
+    total_requirements        BIGINT       NOT NULL DEFAULT 0 COMMENT '需求数',
+    summary_designs_submitted BIGINT       NOT NULL DEFAULT 0 COMMENT '概要设计已递交数',
+    summary_score_sum         BIGINT       NOT NULL DEFAULT 0 COMMENT '概要设计评分合计',
+    summary_score_count       BIGINT       NOT NULL DEFAULT 0 COMMENT '已评分的概要设计数',
+    PRIMARY KEY (group_name)
+) ENGINE = InnoDB;
+
+-- ---------------------------------------------------------------------
+-- 每日设计趋势：按 (日期, 小组) 汇总的概要设计递交数、评审通过数、投产数，随需求写操作增量更新。
+-- 表为空时应用启动会自动从源表回填；另为回填时按日期区间读取源表增加索引。
+-- ---------------------------------------------------------------------
+CREATE TABLE design_daily_counts (
+    stat_date           DATE         NOT NULL COMMENT '日期',
+    group_name          VARCHAR(100) NOT NULL COMMENT '所属小组 (空字符串表示未分组)',
+    submitted_count     BIGINT       NOT NULL DEFAULT 0 COMMENT '概要设计递交数',
+    review_passed_count BIGINT       NOT NULL DEFAULT 0 COMMENT '概要设计评审通过数',
+    went_live_count     BIGINT       NOT NULL DEFAULT 0 COMMENT '投产数 (按计划投产日期)',
+    PRIMARY KEY (stat_date, group_name)
+) ENGINE = InnoDB;
+
+ALTER TABLE architectural_requirements
+    ADD INDEX idx_arch_requirements_submit_date (summary_design_submit_date),
+    ADD INDEX idx_arch_requirements_review_pass_date (summary_design_review_pass_date);
+
+-- ---------------------------------------------------------------------
+-- 评审信息：18 个 BIT(1) 勾选项改为两个位掩码列 (第 i 项为第 i-1 位)。
+-- check_mismatches = review_checks ^ audit_checks 为存储生成列并建索引，
+-- 一致性判断与“某一勾选项不一致”的查询都变为一次位运算。
+-- 回填时保持 updated_at 不变，避免下一次增量导出包含全部评审信息。
+-- ---------------------------------------------------------------------
+ALTER TABLE review_infos
+    ADD COLUMN review_checks SMALLINT UNSIGNED NOT NULL DEFAULT 0 COMMENT '评审信息勾选项 (位掩码，第 i 项为第 i-1 位)',
+    ADD COLUMN audit_checks  SMALLINT UNSIGNED NOT NULL DEFAULT 0 COMMENT '架构检核勾选项 (位掩码，第 i 项为第 i-1 位)';
+
+UPDATE review_infos SET
+    review_checks = (review_check1 IS TRUE) | (review_check2 IS TRUE) << 1 | (review_check3 IS TRUE) << 2
+                  | (review_check4 IS TRUE) << 3 | (review_check5 IS TRUE) << 4 | (review_check6 IS TRUE) << 5
+                  | (review_check7 IS TRUE) << 6 | (review_check8 IS TRUE) << 7 | (review_check9 IS TRUE) << 8,
+    audit_checks  = (audit_check1 IS TRUE) | (audit_check2 IS TRUE) << 1 | (audit_check3 IS TRUE) << 2
+                  | (audit_check4 IS TRUE) << 3 | (audit_check5 IS TRUE) << 4 | (audit_check6 IS TRUE) << 5
+                  | (audit_check7 IS TRUE) << 6 | (audit_check8 IS TRUE) << 7 | (audit_check9 IS TRUE) << 8,
+    updated_at    = updated_at;
+
+ALTER TABLE review_infos
+    DROP COLUMN review_check1, DROP COLUMN review_check2, DROP COLUMN review_check3,
+    DROP COLUMN review_check4, DROP COLUMN review_check5, DROP COLUMN review_check6,
+    DROP COLUMN review_check7, DROP COLUMN review_check8, DROP COLUMN review_check9,
+    DROP COLUMN audit_check1, DROP COLUMN audit_check2, DROP COLUMN audit_check3,
+    DROP COLUMN audit_check4, DROP COLUMN audit_check5, DROP COLUMN audit_check6,
+    DROP COLUMN audit_check7, DROP COLUMN audit_check8, DROP COLUMN audit_check9,
+    ADD COLUMN check_mismatches SMALLINT UNSIGNED AS (review_checks ^ audit_checks) STORED COMMENT '评审与检核不一致的勾选项 (位掩码)',
+    ADD INDEX idx_review_infos_check_mismatches (check_mismatches);
+
+-- ---------------------------------------------------------------------
+-- 定时任务水位线：如需求状态每日重算记录已处理到的日期。
+-- 首次执行时自动插入，无需手工初始化。
+-- ---------------------------------------------------------------------
+CREATE TABLE job_watermarks (
+    job_name       VARCHAR(50) NOT NULL COMMENT '任务名',
+    watermark_date DATE                 COMMENT '已处理到的日期 (含)',
+    PRIMARY KEY (job_name)
+) ENGINE = InnoDB;
+
+-- ---------------------------------------------------------------------
+-- requirements / architectural_requirements / review_infos / architecture_decisions
+-- 主键改为 pooled 序列 (同 architectural_projects_seq)，插入不再因 IDENTITY 而无法批量执行。
+-- CSV 导入的 JDBC 批量插入也从这些表分配主键 (SequenceBlockRepository)，id 列保留 AUTO_INCREMENT 不影响。
+-- 初始值需大于现有最大 ID + allocationSize，避免与已有主键冲突。
+-- ---------------------------------------------------------------------
+CREATE TABLE requirements_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO requirements_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM requirements;
+
+CREATE TABLE architectural_requirements_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO architectural_requirements_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM architectural_requirements;
+
+CREATE TABLE review_infos_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO review_infos_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM review_infos;
+
+CREATE TABLE architecture_decisions_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO architecture_decisions_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM architecture_decisions;
+
+-- ---------------------------------------------------------------------
+-- 编辑表单的乐观锁：各表增加版本号 (@Version)，保存时 UPDATE ... WHERE version = ? 拒绝过期的提交。
+-- CSV 导入、一键更新等批量改写可编辑列的语句同时递增版本号。
+-- 已有数据从 0 开始即可。
+-- ---------------------------------------------------------------------
+ALTER TABLE requirements
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0 COMMENT '版本号';
+
+ALTER TABLE architectural_requirements
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0 COMMENT '版本号';
+
+ALTER TABLE review_infos
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0 COMMENT '版本号';
+
+ALTER TABLE architectural_projects
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0 COMMENT '版本号';
@@ -0,0 +1,73 @@
+package com.example.reqsmanager.analytics;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * ColumnarRequirementSnapshot 在百万级需求上的交叉统计耗时。
+ * 不是单元测试，不会在 mvn test 中执行。运行方式：
+ * <pre>
+ * mvn -q test-compile
+ * java -cp target/classes:target/test-classes com.example.reqsmanager.analytics.ColumnarRequirementSnapshotBenchmark
+ * </pre>
+ * 输出构建耗时，以及不同分组 / 筛选组合的平均查询耗时与分组单元数。
+ */
+public class ColumnarRequirementSnapshotBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int QUERIES = 20;
+
+    public static void main(String[] args) {
+        ColumnarRequirementSnapshot snapshot = new ColumnarRequirementSnapshot();
+        Random random = new Random(42);
+        String[] statuses = {"进行中", "已投产"};
+        long start = System.nanoTime();
+        for (int id = 1; id <= ROWS; id++) {
+            String[] values = {
+                    "小组" + random.nextInt(40),
+                    statuses[random.nextInt(2)],
+                    "类型" + random.nextInt(8),
+                    "部室" + random.nextInt(60),
+                    String.format("%d-%02d", 2020 + random.nextInt(6), 1 + random.nextInt(12))
+            };
+            Integer score = random.nextInt(3) == 0 ? null : 60 + random.nextInt(41);
+            snapshot.put(id, values, random.nextBoolean(), score);
+        }
+        System.out.printf("build  %,d rows  %d ms%n", ROWS, (System.nanoTime() - start) / 1_000_000);
+
+        Map<RequirementDimension, Collection<String>> none = Map.of();
+        Map<RequirementDimension, Collection<String>> inProgress = new EnumMap<>(RequirementDimension.class);
+        inProgress.put(RequirementDimension.STATUS, List.of("进行中"));
+        inProgress.put(RequirementDimension.REQ_TYPE, List.of("类型1", "类型2"));
+
+        Object[][] cases = {
+                {"total", List.of(), none},
+                {"group", List.of(RequirementDimension.GROUP_NAME), none},
+                {"group x status x month", List.of(RequirementDimension.GROUP_NAME, RequirementDimension.STATUS,
+                        RequirementDimension.SCHEDULE_MONTH), none},
+                {"all 5 dims (sparse)", List.of(RequirementDimension.values()), none},
+                {"dept x month, filtered", List.of(RequirementDimension.LEAD_DEPARTMENT,
+                        RequirementDimension.SCHEDULE_MONTH), inProgress},
+        };
+        for (int round = 1; round <= 3; round++) {
+            for (Object[] c : cases) {
+                @SuppressWarnings("unchecked")
+                List<RequirementDimension> groupBy = (List<RequirementDimension>) c[1];
+                @SuppressWarnings("unchecked")
+                Map<RequirementDimension, Collection<String>> filters = (Map<RequirementDimension, Collection<String>>) c[2];
+                int cells = 0;
+                long queryStart = System.nanoTime();
+                for (int i = 0; i < QUERIES; i++) {
+                    cells = snapshot.aggregate(groupBy, filters, Integer.MAX_VALUE).size();
+                }
+                double millis = (System.nanoTime() - queryStart) / 1_000_000.0 / QUERIES;
+                if (round == 3) {
+                    System.out.printf("%-24s %8.2f ms/query  cells=%d%n", c[0], millis, cells);
+                }
+            }
+        }
+    }
+}
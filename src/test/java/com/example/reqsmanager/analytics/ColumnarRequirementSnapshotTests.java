@@ -0,0 +1,204 @@
+package com.example.reqsmanager.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ColumnarRequirementSnapshot 的聚合结果与逐行计算的参考结果一致：
+ * 覆盖空值编码、筛选、修改与删除、跨多个扫描块的主键，以及直接寻址 / 哈希两种累加方式。
+ */
+class ColumnarRequirementSnapshotTests {
+
+    private static final int DIMENSIONS = RequirementDimension.values().length;
+
+    /**
+     * 参考实现中的一行。
+     */
+    private record Row(String[] values, boolean submitted, Integer score) {
+    }
+
+    @Test
+    void totalsWithoutGrouping() {
+        ColumnarRequirementSnapshot snapshot = new ColumnarRequirementSnapshot();
+        assertThat(snapshot.aggregate(List.of(), Map.of(), 10)).isEmpty();
+
+        snapshot.put(1, values("g1", "进行中", null, null, "2024-01"), true, 80);
+        snapshot.put(2, values("g1", "已完成", null, null, "2024-02"), false, null);
+        snapshot.put(3, values("g2", "进行中", null, null, null), true, 60);
+
+        List<ColumnarRequirementSnapshot.Cell> cells = snapshot.aggregate(List.of(), Map.of(), 10);
+        assertThat(cells).hasSize(1);
+        ColumnarRequirementSnapshot.Cell total = cells.get(0);
+        assertThat(total.values()).isEmpty();
+        assertThat(total.count()).isEqualTo(3);
+        assertThat(total.summaryDesignsSubmitted()).isEqualTo(2);
+        assertThat(total.scoreSum()).isEqualTo(140);
+        assertThat(total.scoreCount()).isEqualTo(2);
+        assertThat(snapshot.size()).isEqualTo(3);
+    }
+
+    @Test
+    void blankValuesGroupAsNullAndFilterAsEmptyString() {
+        ColumnarRequirementSnapshot snapshot = new ColumnarRequirementSnapshot();
+        snapshot.put(1, values("g1", "进行中", null, null, null), false, null);
+        snapshot.put(2, values("g1", "  ", null, null, null), false, null);
+        snapshot.put(3, values("g1", null, null, null, null), false, null);
+
+        Map<List<String>, long[]> byStatus = toMap(snapshot.aggregate(List.of(RequirementDimension.STATUS), Map.of(), 10));
+        assertThat(byStatus).containsOnlyKeys(Arrays.asList("进行中"), Arrays.asList((String) null));
+        assertThat(byStatus.get(Arrays.asList((String) null))[0]).isEqualTo(2);
+
+        Map<RequirementDimension, Collection<String>> onlyEmpty = Map.of(RequirementDimension.STATUS, List.of(""));
+        List<ColumnarRequirementSnapshot.Cell> cells = snapshot.aggregate(List.of(), onlyEmpty, 10);
+        assertThat(cells).hasSize(1);
+        assertThat(cells.get(0).count()).isEqualTo(2);
+    }
+
+    @Test
+    void unknownOrEmptyFilterValuesMatchNothing() {
+        ColumnarRequirementSnapshot snapshot = new ColumnarRequirementSnapshot();
+        snapshot.put(1, values("g1", "进行中", null, null, null), false, null);
+
+        assertThat(snapshot.aggregate(List.of(), Map.of(RequirementDimension.STATUS, List.of("不存在")), 10)).isEmpty();
+        assertThat(snapshot.aggregate(List.of(), Map.of(RequirementDimension.STATUS, List.of()), 10)).isEmpty();
+    }
+
+    @Test
+    void overwriteAndRemoveUpdateTheAggregates() {
+        ColumnarRequirementSnapshot snapshot = new ColumnarRequirementSnapshot();
+        snapshot.put(1, values("g1", "进行中", null, null, null), true, 90);
+        snapshot.put(2, values("g1", "进行中", null, null, null), true, 70);
+
+        snapshot.put(1, values("g2", "已完成", null, null, null), false, null);
+        snapshot.remove(2);
+        snapshot.remove(2);
+        snapshot.remove(5000);
+        assertThat(snapshot.size()).isEqualTo(1);
+
+        Map<List<String>, long[]> cells = toMap(snapshot.aggregate(
+                List.of(RequirementDimension.GROUP_NAME, RequirementDimension.STATUS), Map.of(), 10));
+        assertThat(cells).containsOnlyKeys(List.of("g2", "已完成"));
+        assertThat(cells.get(List.of("g2", "已完成"))).containsExactly(1, 0, 0, 0);
+
+        // 删除后重新加入同一主键
+        snapshot.put(2, values("g1", "进行中", null, null, null), true, 50);
+        assertThat(snapshot.size()).isEqualTo(2);
+    }
+
+    @Test
+    void returnsNullWhenCellsExceedMaxCells() {
+        ColumnarRequirementSnapshot snapshot = new ColumnarRequirementSnapshot();
+        for (int id = 1; id <= 5; id++) {
+            snapshot.put(id, values("g" + id, null, null, null, null), false, null);
+        }
+        List<RequirementDimension> byGroup = List.of(RequirementDimension.GROUP_NAME);
+        assertThat(snapshot.aggregate(byGroup, Map.of(), 5)).hasSize(5);
+        assertThat(snapshot.aggregate(byGroup, Map.of(), 4)).isNull();
+    }
+
+    @Test
+    void denseGroupingAcrossScanChunksMatchesReference() {
+        // 主键跨越多个 65536 行的扫描块，组合数较少，走数组累加
+        checkAgainstReference(new Random(7), 200_000, 20_000, 4);
+    }
+
+    @Test
+    void sparseGroupingFallsBackToHashAccumulation() {
+        // 每个维度上百个取值，五个维度的组合数远超直接寻址的上限，走哈希表累加 (含扩容)
+        checkAgainstReference(new Random(11), 150_000, 30_000, 200);
+    }
+
+    private static void checkAgainstReference(Random random, int maxId, int operations, int cardinality) {
+        ColumnarRequirementSnapshot snapshot = new ColumnarRequirementSnapshot();
+        Map<Integer, Row> rows = new HashMap<>();
+        for (int i = 0; i < operations; i++) {
+            int id = 1 + random.nextInt(maxId);
+            if (random.nextInt(10) == 0) {
+                snapshot.remove(id);
+                rows.remove(id);
+                continue;
+            }
+            String[] values = new String[DIMENSIONS];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                int v = random.nextInt(cardinality + 1);
+                values[d] = v == 0 ? null : "v" + d + "-" + v;
+            }
+            boolean submitted = random.nextBoolean();
+            Integer score = random.nextInt(3) == 0 ? null : random.nextInt(101);
+            snapshot.put(id, values, submitted, score);
+            rows.put(id, new Row(values, submitted, score));
+        }
+        assertThat(snapshot.size()).isEqualTo(rows.size());
+
+        List<List<RequirementDimension>> groupings = List.of(
+                List.of(),
+                List.of(RequirementDimension.STATUS),
+                List.of(RequirementDimension.GROUP_NAME, RequirementDimension.SCHEDULE_MONTH),
+                List.of(RequirementDimension.values()));
+        Map<RequirementDimension, Collection<String>> filters = new EnumMap<>(RequirementDimension.class);
+        filters.put(RequirementDimension.REQ_TYPE, Arrays.asList("v2-1", "v2-2", "", "v2-" + (cardinality + 5)));
+        filters.put(RequirementDimension.LEAD_DEPARTMENT, List.of("v3-1", "v3-3", "v3-4"));
+
+        for (List<RequirementDimension> groupBy : groupings) {
+            for (Map<RequirementDimension, Collection<String>> filter : List.of(Map.<RequirementDimension, Collection<String>>of(), filters)) {
+                Map<List<String>, long[]> actual = toMap(snapshot.aggregate(groupBy, filter, Integer.MAX_VALUE));
+                Map<List<String>, long[]> expected = reference(rows, groupBy, filter);
+                assertThat(actual.keySet()).as("%s %s", groupBy, filter).isEqualTo(expected.keySet());
+                for (Map.Entry<List<String>, long[]> cell : expected.entrySet()) {
+                    assertThat(actual.get(cell.getKey())).as("%s", cell.getKey()).containsExactly(cell.getValue());
+                }
+            }
+        }
+    }
+
+    private static Map<List<String>, long[]> reference(Map<Integer, Row> rows, List<RequirementDimension> groupBy,
+                                                       Map<RequirementDimension, Collection<String>> filters) {
+        Map<List<String>, long[]> cells = new HashMap<>();
+        rows:
+        for (Row row : rows.values()) {
+            for (Map.Entry<RequirementDimension, Collection<String>> filter : filters.entrySet()) {
+                String value = row.values()[filter.getKey().ordinal()];
+                if (!filter.getValue().contains(value == null ? "" : value)) {
+                    continue rows;
+                }
+            }
+            String[] key = new String[groupBy.size()];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = row.values()[groupBy.get(i).ordinal()];
+            }
+            long[] totals = cells.computeIfAbsent(Arrays.asList(key), k -> new long[4]);
+            totals[0]++;
+            totals[1] += row.submitted() ? 1 : 0;
+            totals[2] += row.score() == null ? 0 : row.score();
+            totals[3] += row.score() == null ? 0 : 1;
+        }
+        return cells;
+    }
+
+    /**
+     * 把分组单元转成 分组取值 → [count, submitted, scoreSum, scoreCount]，并检查没有重复的单元。
+     */
+    private static Map<List<String>, long[]> toMap(List<ColumnarRequirementSnapshot.Cell> cells) {
+        Map<List<String>, long[]> map = new HashMap<>();
+        for (ColumnarRequirementSnapshot.Cell cell : cells) {
+            long[] previous = map.put(Arrays.asList(cell.values()),
+                    new long[]{cell.count(), cell.summaryDesignsSubmitted(), cell.scoreSum(), cell.scoreCount()});
+            assertThat(previous).as("duplicate cell %s", Arrays.toString(cell.values())).isNull();
+        }
+        return map;
+    }
+
+    private static String[] values(String groupName, String status, String reqType, String leadDepartment,
+                                   String scheduleMonth) {
+        return new String[]{groupName, status, reqType, leadDepartment, scheduleMonth};
+    }
+}
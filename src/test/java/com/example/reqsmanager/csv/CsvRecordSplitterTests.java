@@ -0,0 +1,113 @@
+package com.example.reqsmanager.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CsvRecordSplitter 的切分点与行号：引号内换行、转义引号、字段中间的引号、空行，以及跨读缓冲区的记录。
+ */
+class CsvRecordSplitterTests {
+
+    @Test
+    void splitsOnRecordBoundariesAndCountsLines() throws IOException {
+        String input = "h1,h2\na,1\nb,2\nc,3\n";
+        List<CsvRecordSplitter.RawChunk> chunks = split(input, 2, 1);
+
+        assertThat(chunks).containsExactly(
+                new CsvRecordSplitter.RawChunk(2, "a,1\nb,2\n"),
+                new CsvRecordSplitter.RawChunk(4, "c,3\n"));
+    }
+
+    @Test
+    void quotedNewlinesStayInsideOneRecord() throws IOException {
+        String input = "h\n\"multi\nline\",1\nnext,2\n\"x\n\ny\",3\n";
+        List<CsvRecordSplitter.RawChunk> chunks = split(input, 1, 1);
+
+        assertThat(chunks).containsExactly(
+                new CsvRecordSplitter.RawChunk(2, "\"multi\nline\",1\n"),
+                new CsvRecordSplitter.RawChunk(4, "next,2\n"),
+                new CsvRecordSplitter.RawChunk(5, "\"x\n\ny\",3\n"));
+    }
+
+    @Test
+    void escapedQuotesDoNotCloseTheField() throws IOException {
+        // "say ""hi""\n" 中 "" 是转义的引号，换行仍在引用内
+        String input = "h\n\"say \"\"hi\"\"\nthere\",1\n\"\"\"\",2\nlast,3\n";
+        List<CsvRecordSplitter.RawChunk> chunks = split(input, 1, 1);
+
+        assertThat(chunks).containsExactly(
+                new CsvRecordSplitter.RawChunk(2, "\"say \"\"hi\"\"\nthere\",1\n"),
+                new CsvRecordSplitter.RawChunk(4, "\"\"\"\",2\n"),
+                new CsvRecordSplitter.RawChunk(5, "last,3\n"));
+    }
+
+    @Test
+    void quoteInsideUnquotedFieldDoesNotOpenQuoting() throws IOException {
+        String input = "h\n5\" screen,1\nnext,2\n";
+        List<CsvRecordSplitter.RawChunk> chunks = split(input, 1, 1);
+
+        assertThat(chunks).containsExactly(
+                new CsvRecordSplitter.RawChunk(2, "5\" screen,1\n"),
+                new CsvRecordSplitter.RawChunk(3, "next,2\n"));
+    }
+
+    @Test
+    void blankLinesAndCrLfAdvanceLineNumbers() throws IOException {
+        String input = "h\r\n\r\na,1\r\n\n\nb,2";
+        List<CsvRecordSplitter.RawChunk> chunks = split(input, 2, 1);
+
+        // 空行也算一条记录，最后一条记录没有换行符
+        assertThat(chunks).containsExactly(
+                new CsvRecordSplitter.RawChunk(2, "\r\na,1\r\n"),
+                new CsvRecordSplitter.RawChunk(4, "\n\n"),
+                new CsvRecordSplitter.RawChunk(6, "b,2"));
+    }
+
+    @Test
+    void emptyInputAndHeaderOnly() throws IOException {
+        assertThat(split("", 10, 1)).isEmpty();
+        assertThat(split("h1,h2\n", 10, 1)).isEmpty();
+        assertThat(split("h1,h2", 10, 1)).isEmpty();
+    }
+
+    @Test
+    void recordsSpanningReadBufferAreNotSplit() throws IOException {
+        // 每条记录约 1KB，引号内带换行，总长远超 64K 的读缓冲区
+        String longText = "x".repeat(500) + "\n" + "y".repeat(500);
+        StringBuilder input = new StringBuilder("h1,h2\n");
+        int records = 300;
+        for (int i = 0; i < records; i++) {
+            input.append('"').append(longText).append("\",").append(i).append('\n');
+        }
+        List<CsvRecordSplitter.RawChunk> chunks = split(input.toString(), 7, 1);
+
+        StringBuilder joined = new StringBuilder();
+        long expectedLine = 2;
+        for (CsvRecordSplitter.RawChunk chunk : chunks) {
+            assertThat(chunk.firstLineNumber()).isEqualTo(expectedLine);
+            assertThat(chunk.text()).startsWith("\"" + longText);
+            assertThat(chunk.text()).endsWith("\n");
+            expectedLine += chunk.text().chars().filter(c -> c == '\n').count();
+            joined.append(chunk.text());
+        }
+        assertThat(chunks).hasSize((records + 6) / 7);
+        assertThat("h1,h2\n" + joined).isEqualTo(input.toString());
+    }
+
+    private static List<CsvRecordSplitter.RawChunk> split(String input, int recordsPerChunk, int skip) throws IOException {
+        CsvRecordSplitter splitter = new CsvRecordSplitter(new StringReader(input), recordsPerChunk);
+        splitter.skipRecords(skip);
+        List<CsvRecordSplitter.RawChunk> chunks = new ArrayList<>();
+        CsvRecordSplitter.RawChunk chunk;
+        while ((chunk = splitter.nextChunk()) != null) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.reqsmanager.csv;
+
+import com.example.reqsmanager.dto.RequirementExportDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * CsvWriter 与原有导出写法 (escapeCsv + String.join + PrintWriter) 的对比基准。
+ * 不是单元测试，不会在 mvn test 中执行。运行方式：
+ * <pre>
+ * mvn -q test-compile
+ * java -cp target/classes:target/test-classes com.example.reqsmanager.csv.CsvWriterBenchmark
+ * </pre>
+ * 输出每种写法的吞吐量 (MB/s) 与每行平均分配的堆内存 (bytes/row)。
+ */
+public class CsvWriterBenchmark {
+
+    private static final int ROWS = 400_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        RequirementExportDTO[] rows = sampleRows(1_000);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            boolean warmup = round < ROUNDS;
+            run("legacy   ", warmup, rows, CsvWriterBenchmark::writeLegacy);
+            run("CsvWriter", warmup, rows, CsvWriterBenchmark::writeWithCsvWriter);
+        }
+    }
+
+    private interface Exporter {
+        void export(RequirementExportDTO[] rows, OutputStream out) throws IOException;
+    }
+
+    private static void run(String name, boolean warmup, RequirementExportDTO[] rows, Exporter exporter) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        exporter.export(rows, out);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        if (!warmup) {
+            double seconds = elapsed / 1_000_000_000.0;
+            System.out.printf("%s  %,d rows  %,d bytes  %.1f MB/s  %.0f bytes allocated/row%n",
+                    name, ROWS, out.count, out.count / seconds / (1024 * 1024), (double) allocated / ROWS);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // 原有写法 (与改造前的 RequirementController.exportToCsv 相同)
+    // ---------------------------------------------------------------
+    private static void writeLegacy(RequirementExportDTO[] rows, OutputStream out) {
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write('﻿');
+        for (int i = 0; i < ROWS; i++) {
+            RequirementExportDTO dto = rows[i % rows.length];
+            String[] data = {
+                    escapeCsv(dto.getReqId()), escapeCsv(dto.getName()), escapeCsv(dto.getBusinessLeader()),
+                    escapeCsv(dto.getTechLeader()), escapeCsv(dto.getLeadDepartment()), escapeCsv(dto.getGroupName()),
+                    escapeCsv(dto.getReqType()), escapeCsv(dto.getBusinessLine()), escapeCsv(dto.getDevLeader()),
+                    escapeCsv(dto.getScheduleDate()), escapeCsv(dto.getStatus()),
+                    escapeCsv(dto.getIsImportantRequirement()), escapeCsv(dto.getIsSummaryDesignSubmitted()),
+                    escapeCsv(dto.getSummaryDesignSubmitter()), escapeCsv(dto.getSummaryDesignSubmitDate()),
+                    escapeCsv(dto.getSummaryDesignReviewPassDate()), escapeCsv(dto.getInvolvesArchDecision()),
+                    escapeCsv(dto.getInvolvesInfra()), escapeCsv(dto.getInvolvesSeniorReport()),
+                    escapeCsv(dto.getSummaryDesignScore()), escapeCsv(dto.getSummaryDesignDeductionReason())
+            };
+            writer.println(String.join(",", data));
+        }
+        writer.flush();
+    }
+
+    private static String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String stringValue = value.toString();
+        if (value instanceof Boolean) {
+            return (Boolean) value ? "是" : "否";
+        }
+        if (stringValue.contains(",") || stringValue.contains("\"") || stringValue.contains("\n")) {
+            return "\"" + stringValue.replace("\"", "\"\"") + "\"";
+        }
+        return stringValue;
+    }
+
+    // ---------------------------------------------------------------
+    // CsvWriter
+    // ---------------------------------------------------------------
+    private static void writeWithCsvWriter(RequirementExportDTO[] rows, OutputStream out) throws IOException {
+        try (CsvWriter csv = new CsvWriter(out)) {
+            csv.writeBom();
+            for (int i = 0; i < ROWS; i++) {
+                RequirementExportDTO dto = rows[i % rows.length];
+                csv.field(dto.getReqId()).field(dto.getName()).field(dto.getBusinessLeader())
+                        .field(dto.getTechLeader()).field(dto.getLeadDepartment()).field(dto.getGroupName())
+                        .field(dto.getReqType()).field(dto.getBusinessLine()).field(dto.getDevLeader())
+                        .field(dto.getScheduleDate()).field(dto.getStatus())
+                        .field(dto.getIsImportantRequirement()).field(dto.getIsSummaryDesignSubmitted())
+                        .field(dto.getSummaryDesignSubmitter()).field(dto.getSummaryDesignSubmitDate())
+                        .field(dto.getSummaryDesignReviewPassDate()).field(dto.getInvolvesArchDecision())
+                        .field(dto.getInvolvesInfra()).field(dto.getInvolvesSeniorReport())
+                        .field(dto.getSummaryDesignScore()).field(dto.getSummaryDesignDeductionReason())
+                        .endRow();
+            }
+        }
+    }
+
+    private static RequirementExportDTO[] sampleRows(int count) {
+        RequirementExportDTO[] rows = new RequirementExportDTO[count];
+        for (int i = 0; i < count; i++) {
+            RequirementExportDTO dto = new RequirementExportDTO();
+            dto.setReqId("REQ-2025-" + String.format("%06d", i));
+            dto.setName("核心系统升级改造需求 第" + i + "期");
+            dto.setBusinessLeader("张三");
+            dto.setTechLeader("李四");
+            dto.setLeadDepartment("零售银行部");
+            dto.setGroupName("架构一组");
+            dto.setReqType("常规项目");
+            dto.setBusinessLine("零售业务");
+            dto.setDevLeader("李四");
+            dto.setScheduleDate(LocalDate.of(2025, 1 + i % 12, 1 + i % 28));
+            dto.setStatus("进行中");
+            dto.setIsImportantRequirement(i % 3 == 0);
+            dto.setIsSummaryDesignSubmitted(i % 2 == 0);
+            dto.setSummaryDesignSubmitter("王五");
+            dto.setSummaryDesignSubmitDate(LocalDate.of(2025, 1 + i % 12, 1 + i % 28));
+            dto.setSummaryDesignReviewPassDate(i % 2 == 0 ? LocalDate.of(2025, 1 + i % 12, 1 + i % 28) : null);
+            dto.setInvolvesArchDecision(false);
+            dto.setInvolvesInfra(true);
+            dto.setInvolvesSeniorReport(false);
+            dto.setSummaryDesignScore(80 + i % 20);
+            dto.setSummaryDesignDeductionReason(i % 5 == 0 ? "接口设计不完整, 缺少\"异常处理\"说明" : null);
+            rows[i] = dto;
+        }
+        return rows;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.reqsmanager.csv;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CsvWriter 的转义与编码：只有逗号、双引号、\n 触发加引号，\r 原样写出；
+ * 多字节字符与代理对按 UTF-8 编码；超长字段走慢速路径；结果能被 commons-csv 原样读回。
+ */
+class CsvWriterTests {
+
+    private static final String NL = System.lineSeparator();
+
+    @Test
+    void quotesOnlyFieldsContainingCommaQuoteOrNewline() throws IOException {
+        String csv = write(writer -> writer
+                .writeRow("plain", "a,b", "say \"hi\"", "two\nlines", "cr\ronly", "", "\"")
+                .writeRow("tail,", ",head"));
+
+        assertThat(csv).isEqualTo(
+                "plain,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",cr\ronly,,\"\"\"\"" + NL
+                        + "\"tail,\",\",head\"" + NL);
+    }
+
+    @Test
+    void quotingAfterMultiByteCharactersShiftsTheWholeField() throws IOException {
+        // 需要转义的字符出现在多字节字符之后，补在前面的引号必须移动已写入的全部字节
+        String csv = write(writer -> writer.writeRow("需求,名称", "é\"", "😀\n"));
+
+        assertThat(csv).isEqualTo("\"需求,名称\",\"é\"\"\",\"😀\n\"" + NL);
+    }
+
+    @Test
+    void encodesUtf8IncludingSurrogatePairs() throws IOException {
+        String value = "aé需😀";
+        byte[] bytes = writeBytes(writer -> writer.writeRow(value, "x\uD800y", "\uDC00"));
+
+        byte[] expected = (value + ",x?y,?" + NL).getBytes(StandardCharsets.UTF_8);
+        assertThat(bytes).isEqualTo(expected);
+    }
+
+    @Test
+    void writesBomAndTypedFields() throws IOException {
+        byte[] bytes = writeBytes(writer -> writer.writeBom()
+                .field("name").field(Boolean.TRUE).field(Boolean.FALSE).field((Boolean) null)
+                .field(0).field(-42).field(Integer.MAX_VALUE).field(Integer.MIN_VALUE).field((Integer) null)
+                .field(LocalDate.of(2024, 3, 5)).field(LocalDate.of(12, 1, 1)).field(LocalDate.of(10_000, 12, 31))
+                .field((LocalDate) null).field((String) null)
+                .endRow());
+
+        assertThat(bytes).startsWith(0xEF, 0xBB, 0xBF);
+        String csv = new String(bytes, 3, bytes.length - 3, StandardCharsets.UTF_8);
+        assertThat(csv).isEqualTo("name,是,否,,0,-42,2147483647,-2147483648,,2024-03-05,0012-01-01,+10000-12-31,," + NL);
+    }
+
+    @Test
+    void longFieldsUseTheSlowPath() throws IOException {
+        String longPlain = "需".repeat(40_000);
+        String longQuoted = "a\"b,".repeat(20_000);
+        String csv = write(writer -> writer.writeRow("first", longPlain).writeRow(longQuoted, "last"));
+
+        String quoted = "\"" + longQuoted.replace("\"", "\"\"") + "\"";
+        assertThat(csv).isEqualTo("first," + longPlain + NL + quoted + ",last" + NL);
+    }
+
+    @Test
+    void outputRoundTripsThroughCommonsCsv() throws IOException {
+        List<String> values = List.of("plain", "a,b", "say \"hi\"", "line\nbreak", "需求,😀", " padded ", "\"\"");
+        String csv = write(writer -> {
+            // 行数足够多，使缓冲区多次写满刷新
+            for (int row = 0; row < 5000; row++) {
+                for (String value : values) {
+                    writer.field(value + row);
+                }
+                writer.endRow();
+            }
+        });
+
+        try (CSVParser parser = CSVParser.parse(csv, CSVFormat.DEFAULT)) {
+            int row = 0;
+            for (CSVRecord record : parser) {
+                for (int i = 0; i < values.size(); i++) {
+                    assertThat(record.get(i)).isEqualTo(values.get(i) + row);
+                }
+                row++;
+            }
+            assertThat(row).isEqualTo(5000);
+        }
+    }
+
+    @Test
+    void closeFlushesButDoesNotCloseTheStream() throws IOException {
+        boolean[] closed = new boolean[1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        CsvWriter writer = new CsvWriter(out);
+        writer.writeRow("a", "b");
+        assertThat(out.size()).isZero();
+
+        writer.close();
+        writer.close();
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("a,b" + NL);
+        assertThat(closed[0]).isFalse();
+    }
+
+    @FunctionalInterface
+    private interface WriterAction {
+        void write(CsvWriter writer) throws IOException;
+    }
+
+    private static String write(WriterAction action) throws IOException {
+        return new String(writeBytes(action), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] writeBytes(WriterAction action) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvWriter writer = new CsvWriter(out)) {
+            action.write(writer);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.reqsmanager.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ParallelCsvParser 的端到端行为：块的原始顺序、行映射器看到的物理行号 (含空行与引号内换行)、
+ * 跳过的行计数，以及出错时报告的行号。
+ */
+class ParallelCsvParserTests {
+
+    private final ParallelCsvParser parser = new ParallelCsvParser();
+
+    @Test
+    void reportsPhysicalLineNumbersAcrossBlankLinesAndQuotedNewlines() throws Exception {
+        String input = "h1,h2\n\na,1\n\n\nb,2\r\n\"multi\nline\",3\n\nc,4\n";
+        List<String> lines = new ArrayList<>();
+        parser.parse(new StringReader(input), 2,
+                (record, lineNumber) -> record.get(0) + "@" + lineNumber,
+                chunk -> lines.addAll(chunk.getRows()));
+
+        assertThat(lines).containsExactly("a@3", "b@6", "multi\nline@7", "c@10");
+    }
+
+    @Test
+    void keepsFileOrderAcrossManyChunks() throws Exception {
+        StringBuilder input = new StringBuilder("id,value\n");
+        int rows = 10_000;
+        for (int i = 0; i < rows; i++) {
+            input.append(i).append(",\"v,").append(i).append("\"\n");
+        }
+        List<Integer> ids = new ArrayList<>();
+        List<Long> firstLineNumbers = new ArrayList<>();
+        parser.parse(new StringReader(input.toString()), 37,
+                (record, lineNumber) -> {
+                    int id = Integer.parseInt(record.get(0));
+                    assertThat(record.get(1)).isEqualTo("v," + id);
+                    assertThat(lineNumber).isEqualTo(id + 2L);
+                    return id;
+                },
+                chunk -> {
+                    ids.addAll(chunk.getRows());
+                    firstLineNumbers.add(chunk.getFirstLineNumber());
+                });
+
+        assertThat(ids).hasSize(rows).isSorted();
+        assertThat(firstLineNumbers).hasSize((rows + 36) / 37).isSorted();
+        assertThat(firstLineNumbers.get(1)).isEqualTo(2 + 37);
+    }
+
+    @Test
+    void countsRowsSkippedByTheMapper() throws Exception {
+        String input = "name,value\nkeep,1\nskip,2\nkeep,3\nskip,4\nskip,5\n";
+        List<String> kept = new ArrayList<>();
+        int[] skipped = new int[1];
+        parser.parse(new StringReader(input), 2,
+                (record, lineNumber) -> "skip".equals(record.get(0)) ? null : record.get(1),
+                chunk -> {
+                    kept.addAll(chunk.getRows());
+                    skipped[0] += chunk.getSkippedRows();
+                });
+
+        assertThat(kept).containsExactly("1", "3");
+        assertThat(skipped[0]).isEqualTo(3);
+    }
+
+    @Test
+    void trimsFieldsAndUnescapesQuotes() throws Exception {
+        String input = "a,b\n  x  ,\"say \"\"hi\"\"\"\n";
+        List<String> values = new ArrayList<>();
+        parser.parse(new StringReader(input), 10,
+                (record, lineNumber) -> record.get(0) + "|" + record.get(1),
+                chunk -> values.addAll(chunk.getRows()));
+
+        assertThat(values).containsExactly("x|say \"hi\"");
+    }
+
+    @Test
+    void mapperErrorsCarryTheOriginalLineNumber() {
+        String input = "name,value\na,1\n\n\"b\nb\",2\nc,oops\nd,4\n";
+        assertThatThrownBy(() -> parser.parse(new StringReader(input), 2,
+                (record, lineNumber) -> Integer.parseInt(record.get(1)),
+                chunk -> {
+                }))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("第 6 行数据有误")
+                .hasCauseInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void consumerErrorsStopParsing() {
+        StringBuilder input = new StringBuilder("h\n");
+        for (int i = 0; i < 1000; i++) {
+            input.append(i).append('\n');
+        }
+        int[] consumed = new int[1];
+        assertThatThrownBy(() -> parser.parse(new StringReader(input.toString()), 10,
+                (record, lineNumber) -> record.get(0),
+                chunk -> {
+                    if (++consumed[0] == 3) {
+                        throw new IllegalStateException("stop");
+                    }
+                }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("stop");
+        assertThat(consumed[0]).isEqualTo(3);
+    }
+
+    @Test
+    void headerOnlyInputProducesNoChunks() throws Exception {
+        List<CsvChunk<String>> chunks = new ArrayList<>();
+        parser.parse(new StringReader("h1,h2\n"), 10, (record, lineNumber) -> record.get(0), chunks::add);
+        assertThat(chunks).isEmpty();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.reqsmanager.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * RequirementCursor 的编码往返与非法游标的处理。
+ */
+class RequirementCursorTests {
+
+    @Test
+    void roundTripsBothDirectionsWithAndWithoutDate() {
+        RequirementCursor[] cursors = {
+                new RequirementCursor(false, LocalDate.of(2024, 2, 29), 42),
+                new RequirementCursor(true, LocalDate.of(2024, 2, 29), 42),
+                new RequirementCursor(false, null, 7),
+                new RequirementCursor(true, null, Integer.MAX_VALUE),
+        };
+        for (RequirementCursor cursor : cursors) {
+            String encoded = cursor.encode();
+            assertThat(encoded).matches("[A-Za-z0-9_-]+");
+            assertThat(RequirementCursor.decode(encoded)).isEqualTo(cursor);
+        }
+    }
+
+    @Test
+    void emptyCursorMeansFirstPage() {
+        assertThat(RequirementCursor.decode(null)).isNull();
+        assertThat(RequirementCursor.decode("")).isNull();
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        String[] malformed = {
+                "not base64!",
+                encode("n|2024-01-01"),
+                encode("x|2024-01-01|1"),
+                encode("n|2024-13-01|1"),
+                encode("p||abc"),
+                encode("n|2024-01-01|1|extra"),
+        };
+        for (String cursor : malformed) {
+            assertThatThrownBy(() -> RequirementCursor.decode(cursor))
+                    .as(cursor)
+                    .isInstanceOf(RequirementCursor.InvalidCursorException.class)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining(cursor)
+                    .hasCauseInstanceOf(RuntimeException.class);
+        }
+    }
+
+    @Test
+    void truncatedCursorIsRejected() {
+        // 截断到前 8 个字符，解码后只剩 "n|2024"
+        String encoded = new RequirementCursor(false, LocalDate.of(2024, 5, 1), 123_456).encode();
+        assertThatThrownBy(() -> RequirementCursor.decode(encoded.substring(0, 8)))
+                .isInstanceOf(RequirementCursor.InvalidCursorException.class);
+    }
+
+    private static String encode(String text) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.reqsmanager.repository;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * CSV 导入插入路径在 MySQL 上的吞吐量：改造前后的主键分配方式与批量写法对比。
+ * - identity / 逐条：IDENTITY 主键下 Hibernate 的行为，每行两条 INSERT 各一次往返；
+ * - identity / batch：原 RequirementBatchRepository.insertAll，JDBC batch + RETURN_GENERATED_KEYS，未开启改写；
+ * - pooled / rewrite：现在的写法，主键从模拟序列表按块分配，rewriteBatchedStatements=true 改写为多行 INSERT。
+ * 不是单元测试，不会在 mvn test 中执行；需要一个可写的 MySQL 库 (只使用 bench_ 开头的临时表，结束后删除)。运行方式：
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *     -Dbench.url=jdbc:mysql://localhost:3306/bench -Dbench.user=... -Dbench.password=... \
+ *     [-Dbench.rows=20000] [-Dbench.rounds=3] \
+ *     com.example.reqsmanager.repository.ImportInsertBenchmark
+ * </pre>
+ * 先输出数据库版本，再输出每种写法插入 rows 条需求 (连同各自的架构需求记录) 的耗时与行/秒 (只统计最后一轮，之前为预热)。
+ * 每轮结束时核对两张表的行数，写入不完整时直接失败，不输出结果。
+ */
+public class ImportInsertBenchmark {
+
+    private static final int ROWS = Integer.getInteger("bench.rows", 20_000);
+    private static final int CHUNK_SIZE = 1000;
+    private static final int ROUNDS = Integer.getInteger("bench.rounds", 3);
+    private static final int ALLOCATION_SIZE = SequenceBlockRepository.ALLOCATION_SIZE;
+
+    private static final String INSERT_IDENTITY_SQL =
+            "INSERT INTO bench_requirements (req_id, name, tech_leader, status) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_ARCH_IDENTITY_SQL =
+            "INSERT INTO bench_architectural_requirements (requirement_id) VALUES (?)";
+    private static final String INSERT_POOLED_SQL =
+            "INSERT INTO bench_requirements (id, req_id, name, tech_leader, status) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_ARCH_POOLED_SQL =
+            "INSERT INTO bench_architectural_requirements (id, requirement_id) VALUES (?, ?)";
+
+    public static void main(String[] args) throws SQLException {
+        String url = System.getProperty("bench.url", "jdbc:mysql://localhost:3306/bench");
+        String user = System.getProperty("bench.user", "root");
+        String password = System.getProperty("bench.password", "");
+        String separator = url.contains("?") ? "&" : "?";
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            System.out.printf("%s %s, %s %s, %,d rows x %d rounds%n", metaData.getDatabaseProductName(),
+                    metaData.getDatabaseProductVersion(), metaData.getDriverName(), metaData.getDriverVersion(),
+                    ROWS, ROUNDS);
+        }
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            boolean warmup = round < ROUNDS;
+            try (Connection plain = DriverManager.getConnection(url, user, password)) {
+                run("identity / row-by-row", warmup, plain, ImportInsertBenchmark::insertRowByRow);
+                run("identity / batch     ", warmup, plain, ImportInsertBenchmark::insertIdentityBatch);
+            }
+            try (Connection rewriting = DriverManager.getConnection(url + separator + "rewriteBatchedStatements=true", user, password)) {
+                run("pooled / rewrite     ", warmup, rewriting, ImportInsertBenchmark::insertPooledBatch);
+            }
+        }
+    }
+
+    private interface Inserter {
+        void insertChunk(Connection connection, int from, int to) throws SQLException;
+    }
+
+    private static void run(String name, boolean warmup, Connection connection, Inserter inserter) throws SQLException {
+        createTables(connection);
+        try {
+            connection.setAutoCommit(false);
+            long start = System.nanoTime();
+            for (int from = 0; from < ROWS; from += CHUNK_SIZE) {
+                inserter.insertChunk(connection, from, Math.min(from + CHUNK_SIZE, ROWS));
+                connection.commit();
+            }
+            long elapsed = System.nanoTime() - start;
+            verifyRowCounts(connection);
+            if (!warmup) {
+                double seconds = elapsed / 1_000_000_000.0;
+                System.out.printf("%s  %,d rows  %.2f s  %,.0f rows/s%n", name, ROWS, seconds, ROWS / seconds);
+            }
+        } finally {
+            connection.setAutoCommit(true);
+            dropTables(connection);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // 三种写法
+    // ---------------------------------------------------------------
+
+    private static void insertRowByRow(Connection connection, int from, int to) throws SQLException {
+        try (PreparedStatement requirement = connection.prepareStatement(INSERT_IDENTITY_SQL, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement arch = connection.prepareStatement(INSERT_ARCH_IDENTITY_SQL)) {
+            for (int i = from; i < to; i++) {
+                setRow(requirement, 1, i);
+                requirement.executeUpdate();
+                try (ResultSet keys = requirement.getGeneratedKeys()) {
+                    keys.next();
+                    arch.setInt(1, keys.getInt(1));
+                }
+                arch.executeUpdate();
+            }
+        }
+    }
+
+    private static void insertIdentityBatch(Connection connection, int from, int to) throws SQLException {
+        try (PreparedStatement requirement = connection.prepareStatement(INSERT_IDENTITY_SQL, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement arch = connection.prepareStatement(INSERT_ARCH_IDENTITY_SQL)) {
+            for (int i = from; i < to; i++) {
+                setRow(requirement, 1, i);
+                requirement.addBatch();
+            }
+            requirement.executeBatch();
+            try (ResultSet keys = requirement.getGeneratedKeys()) {
+                while (keys.next()) {
+                    arch.setInt(1, keys.getInt(1));
+                    arch.addBatch();
+                }
+            }
+            arch.executeBatch();
+        }
+    }
+
+    private static void insertPooledBatch(Connection connection, int from, int to) throws SQLException {
+        int firstId = allocate(connection, "bench_requirements_seq", to - from);
+        int firstArchId = allocate(connection, "bench_architectural_requirements_seq", to - from);
+        try (PreparedStatement requirement = connection.prepareStatement(INSERT_POOLED_SQL);
+             PreparedStatement arch = connection.prepareStatement(INSERT_ARCH_POOLED_SQL)) {
+            for (int i = from; i < to; i++) {
+                requirement.setInt(1, firstId + i - from);
+                setRow(requirement, 2, i);
+                requirement.addBatch();
+                arch.setInt(1, firstArchId + i - from);
+                arch.setInt(2, firstId + i - from);
+                arch.addBatch();
+            }
+            requirement.executeBatch();
+            arch.executeBatch();
+        }
+    }
+
+    /**
+     * 与 SequenceBlockRepository.allocate 相同的分配方式 (这里与插入共用一个连接，分配后立即提交)。
+     */
+    private static int allocate(Connection connection, String sequenceTable, int count) throws SQLException {
+        int blocks = (count + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+        try (Statement statement = connection.createStatement()) {
+            long hiValue;
+            try (ResultSet rs = statement.executeQuery("SELECT next_val FROM " + sequenceTable + " FOR UPDATE")) {
+                rs.next();
+                hiValue = rs.getLong(1);
+            }
+            statement.executeUpdate("UPDATE " + sequenceTable + " SET next_val = " + (hiValue + (long) blocks * ALLOCATION_SIZE));
+            connection.commit();
+            return Math.toIntExact(hiValue - ALLOCATION_SIZE + 1);
+        }
+    }
+
+    private static void setRow(PreparedStatement ps, int index, int i) throws SQLException {
+        ps.setString(index, String.format("R%08d", i));
+        ps.setString(index + 1, "需求名称 " + i);
+        ps.setString(index + 2, "leader" + (i % 300));
+        ps.setString(index + 3, "进行中");
+    }
+
+    private static void verifyRowCounts(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT (SELECT COUNT(*) FROM bench_requirements), " +
+                     "(SELECT COUNT(*) FROM bench_architectural_requirements)")) {
+            rs.next();
+            if (rs.getInt(1) != ROWS || rs.getInt(2) != ROWS) {
+                throw new IllegalStateException(String.format("expected %d rows in each table, got %d / %d",
+                        ROWS, rs.getInt(1), rs.getInt(2)));
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // 临时表
+    // ---------------------------------------------------------------
+
+    private static void createTables(Connection connection) throws SQLException {
+        dropTables(connection);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE bench_requirements (id INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "req_id VARCHAR(50) NOT NULL UNIQUE, name VARCHAR(255), tech_leader VARCHAR(255), status VARCHAR(255)) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4");
+            statement.execute("CREATE TABLE bench_architectural_requirements (id INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "requirement_id INT NOT NULL, FOREIGN KEY (requirement_id) REFERENCES bench_requirements (id)) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4");
+            statement.execute("CREATE TABLE bench_requirements_seq (next_val BIGINT) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4");
+            statement.execute("INSERT INTO bench_requirements_seq VALUES (" + (ALLOCATION_SIZE + 1) + ")");
+            statement.execute("CREATE TABLE bench_architectural_requirements_seq (next_val BIGINT) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4");
+            statement.execute("INSERT INTO bench_architectural_requirements_seq VALUES (" + (ALLOCATION_SIZE + 1) + ")");
+        }
+    }
+
+    private static void dropTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_architectural_requirements, bench_requirements, " +
+                    "bench_requirements_seq, bench_architectural_requirements_seq");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.reqsmanager.search;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * BitmapIndex 在百万级需求上的组合筛选耗时。
+ * 不是单元测试，不会在 mvn test 中执行。运行方式：
+ * <pre>
+ * mvn -q test-compile
+ * java -cp target/classes:target/test-classes com.example.reqsmanager.search.BitmapIndexBenchmark
+ * </pre>
+ * 输出构建耗时，以及不同条件组合的平均查询耗时与命中数；每个组合的命中数都与逐行比对的结果核对。
+ */
+public class BitmapIndexBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int QUERIES = 200;
+    private static final String[] STATUSES = {"进行中", "已投产", "已暂停", "已取消"};
+    private static final int TECH_LEADERS = 300;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        String[][] rows = new String[ROWS + 1][];
+        BitmapIndex<RequirementIndexField> index = new BitmapIndex<>(RequirementIndexField.class);
+        long start = System.nanoTime();
+        for (int id = 1; id <= ROWS; id++) {
+            String[] values = new String[RequirementIndexField.values().length];
+            values[RequirementIndexField.STATUS.ordinal()] = STATUSES[Math.min(random.nextInt(10), 3)];
+            values[RequirementIndexField.TECH_LEADER.ordinal()] = "leader" + random.nextInt(TECH_LEADERS);
+            values[RequirementIndexField.GROUP_NAME.ordinal()] = "group" + random.nextInt(20);
+            values[RequirementIndexField.REQ_TYPE.ordinal()] = "type" + random.nextInt(6);
+            // 约 10% 的需求没有架构需求记录
+            if (random.nextInt(10) > 0) {
+                values[RequirementIndexField.IMPORTANT_REQUIREMENT.ordinal()] = Boolean.toString(random.nextInt(10) < 3);
+                values[RequirementIndexField.SUMMARY_DESIGN_SUBMITTED.ordinal()] = Boolean.toString(random.nextBoolean());
+                values[RequirementIndexField.INVOLVES_ARCH_DECISION.ordinal()] = Boolean.toString(random.nextInt(20) == 0);
+                values[RequirementIndexField.INVOLVES_INFRA.ordinal()] = Boolean.toString(random.nextInt(10) == 0);
+                values[RequirementIndexField.INVOLVES_SENIOR_REPORT.ordinal()] = Boolean.toString(random.nextInt(50) == 0);
+            }
+            rows[id] = values;
+            index.put(id, values);
+        }
+        System.out.printf("build  %,d rows  %d ms%n", ROWS, (System.nanoTime() - start) / 1_000_000);
+
+        // 模拟后续的修改：1% 的行改状态，0.1% 的行删除
+        for (int i = 0; i < ROWS / 100; i++) {
+            int id = 1 + random.nextInt(ROWS);
+            if (rows[id] != null) {
+                rows[id][RequirementIndexField.STATUS.ordinal()] = STATUSES[random.nextInt(4)];
+                index.put(id, rows[id]);
+            }
+        }
+        for (int i = 0; i < ROWS / 1000; i++) {
+            int id = 1 + random.nextInt(ROWS);
+            rows[id] = null;
+            index.remove(id);
+        }
+
+        List<Map<RequirementIndexField, List<String>>> queries = List.of(
+                criteria(RequirementIndexField.STATUS, "已暂停"),
+                criteria(RequirementIndexField.STATUS, "进行中", RequirementIndexField.IMPORTANT_REQUIREMENT, "true"),
+                criteria(RequirementIndexField.TECH_LEADER, "leader7", RequirementIndexField.STATUS, "进行中"),
+                criteria(RequirementIndexField.IMPORTANT_REQUIREMENT, "true", RequirementIndexField.SUMMARY_DESIGN_SUBMITTED, "false"),
+                criteria(RequirementIndexField.TECH_LEADER, "LEADER42", RequirementIndexField.IMPORTANT_REQUIREMENT, "true",
+                        RequirementIndexField.SUMMARY_DESIGN_SUBMITTED, "true"),
+                criteria(RequirementIndexField.INVOLVES_SENIOR_REPORT, "true", RequirementIndexField.INVOLVES_INFRA, "true"),
+                Map.of(RequirementIndexField.STATUS, List.of("已暂停", "已取消"),
+                        RequirementIndexField.GROUP_NAME, List.of("group3", "group4")));
+        for (int round = 1; round <= 3; round++) {
+            for (Map<RequirementIndexField, List<String>> query : queries) {
+                int hits = 0;
+                long queryStart = System.nanoTime();
+                for (int i = 0; i < QUERIES; i++) {
+                    hits = index.find(query, null).toArray().length;
+                }
+                double micros = (System.nanoTime() - queryStart) / 1_000.0 / QUERIES;
+                if (round == 3) {
+                    int expected = bruteForce(rows, query);
+                    System.out.printf("%-70s %9.1f us/query  hits=%d%s%n", query, micros, hits,
+                            hits == expected ? "" : "  MISMATCH expected=" + expected);
+                }
+            }
+        }
+    }
+
+    private static Map<RequirementIndexField, List<String>> criteria(Object... fieldValuePairs) {
+        Map<RequirementIndexField, List<String>> criteria = new EnumMap<>(RequirementIndexField.class);
+        for (int i = 0; i < fieldValuePairs.length; i += 2) {
+            criteria.put((RequirementIndexField) fieldValuePairs[i], List.of((String) fieldValuePairs[i + 1]));
+        }
+        return criteria;
+    }
+
+    private static int bruteForce(String[][] rows, Map<RequirementIndexField, List<String>> query) {
+        int count = 0;
+        for (String[] row : rows) {
+            if (row != null && query.entrySet().stream().allMatch(entry -> entry.getValue().stream()
+                    .anyMatch(value -> value.equalsIgnoreCase(row[entry.getKey().ordinal()])))) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.reqsmanager.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CompressedBitmap 的正确性：数组块 / 位图块在 4096 个元素处的相互转换、跨块类型的交并运算、删除到空。
+ * 结果都与 TreeSet 的参考结果逐个比对。
+ */
+class CompressedBitmapTests {
+
+    private static final int THRESHOLD = 4096;
+
+    @Test
+    void growsPastArrayThresholdAndShrinksBack() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+        // 同一块内的偶数，第 4097 个元素使数组块转为位图块
+        for (int i = 0; i <= THRESHOLD; i++) {
+            bitmap.add(i * 2);
+            expected.add(i * 2);
+        }
+        assertSameElements(bitmap, expected);
+        assertThat(bitmap.contains(1)).isFalse();
+
+        // 位图块删除到 4096 个时转回数组块，之后仍可正常增删
+        bitmap.remove(0);
+        expected.remove(0);
+        assertSameElements(bitmap, expected);
+        bitmap.remove(2);
+        expected.remove(2);
+        assertSameElements(bitmap, expected);
+        bitmap.add(1);
+        expected.add(1);
+        assertSameElements(bitmap, expected);
+    }
+
+    @Test
+    void outOfOrderInsertAtThresholdConvertsToBitmap() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 1; i <= THRESHOLD; i++) {
+            bitmap.add(i * 3);
+            expected.add(i * 3);
+        }
+        // 插入到中间 (非追加) 的第 4097 个元素
+        bitmap.add(4);
+        expected.add(4);
+        assertSameElements(bitmap, expected);
+    }
+
+    @Test
+    void duplicatesDoNotChangeCardinality() {
+        CompressedBitmap bitmap = CompressedBitmap.of(List.of(5, 5, 70_000, 5, 70_000));
+        assertThat(bitmap.cardinality()).isEqualTo(2);
+
+        CompressedBitmap dense = new CompressedBitmap();
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 10_000; i++) {
+                dense.add(i);
+            }
+        }
+        assertThat(dense.cardinality()).isEqualTo(10_000);
+    }
+
+    @Test
+    void removeToEmpty() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        int[] values = IntStream.range(0, 6000).map(i -> i * 17).toArray();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        // 不存在的块、块内不存在的值
+        bitmap.remove(Integer.MAX_VALUE);
+        bitmap.remove(1);
+        assertThat(bitmap.cardinality()).isEqualTo(values.length);
+
+        for (int value : values) {
+            bitmap.remove(value);
+        }
+        assertThat(bitmap.isEmpty()).isTrue();
+        assertThat(bitmap.cardinality()).isZero();
+        assertThat(bitmap.toArray()).isEmpty();
+        assertThat(bitmap.contains(0)).isFalse();
+
+        bitmap.add(65_536);
+        assertThat(bitmap.toArray()).containsExactly(65_536);
+    }
+
+    @Test
+    void andOrAcrossContainerTypes() {
+        // 块 0：位图 ∩ 数组；块 1：数组 ∩ 数组；块 2：位图 ∩ 位图 (交集不足 4096，转回数组)；块 3 / 4 只在一侧
+        TreeSet<Integer> left = new TreeSet<>();
+        TreeSet<Integer> right = new TreeSet<>();
+        addRange(left, 0, 0, 10_000, 1);
+        addRange(right, 0, 0, 10_000, 7);
+        addRange(left, 1, 0, 3000, 2);
+        addRange(right, 1, 0, 3000, 3);
+        addRange(left, 2, 0, 20_000, 2);
+        addRange(right, 2, 15_000, 40_000, 1);
+        addRange(left, 3, 0, 100, 1);
+        addRange(right, 4, 0, 5000, 1);
+
+        CompressedBitmap a = CompressedBitmap.of(left);
+        CompressedBitmap b = CompressedBitmap.of(right);
+
+        TreeSet<Integer> intersection = new TreeSet<>(left);
+        intersection.retainAll(right);
+        TreeSet<Integer> union = new TreeSet<>(left);
+        union.addAll(right);
+
+        assertSameElements(CompressedBitmap.and(a, b), intersection);
+        assertSameElements(CompressedBitmap.and(b, a), intersection);
+        assertSameElements(CompressedBitmap.or(a, b), union);
+        assertSameElements(CompressedBitmap.or(b, a), union);
+
+        // 参数不被修改
+        assertSameElements(a, left);
+        assertSameElements(b, right);
+    }
+
+    @Test
+    void orOfTwoArraysExceedingThresholdBecomesBitmap() {
+        TreeSet<Integer> left = new TreeSet<>();
+        TreeSet<Integer> right = new TreeSet<>();
+        addRange(left, 0, 0, 6000, 2);
+        addRange(right, 0, 1, 6000, 2);
+        CompressedBitmap union = CompressedBitmap.or(CompressedBitmap.of(left), CompressedBitmap.of(right));
+
+        TreeSet<Integer> expected = new TreeSet<>(left);
+        expected.addAll(right);
+        assertSameElements(union, expected);
+
+        // 结果可以继续修改，且删除后转回数组块
+        for (int i = 0; i < 2000; i++) {
+            union.remove(i);
+            expected.remove(i);
+        }
+        assertSameElements(union, expected);
+    }
+
+    @Test
+    void andWithEmptyAndDisjointBitmaps() {
+        CompressedBitmap values = CompressedBitmap.of(List.of(1, 2, 3, 65_537));
+        assertThat(CompressedBitmap.and(values, new CompressedBitmap()).isEmpty()).isTrue();
+        assertThat(CompressedBitmap.and(values, CompressedBitmap.of(List.of(4, 65_536))).isEmpty()).isTrue();
+        assertThat(CompressedBitmap.or(values, new CompressedBitmap()).toArray()).containsExactly(1, 2, 3, 65_537);
+    }
+
+    @Test
+    void copyIsIndependent() {
+        CompressedBitmap original = new CompressedBitmap();
+        for (int i = 0; i < 5000; i++) {
+            original.add(i);
+        }
+        CompressedBitmap copy = original.copy();
+        copy.remove(0);
+        copy.add(100_000);
+        assertThat(original.cardinality()).isEqualTo(5000);
+        assertThat(original.contains(0)).isTrue();
+        assertThat(original.contains(100_000)).isFalse();
+        assertThat(copy.cardinality()).isEqualTo(5000);
+    }
+
+    @Test
+    void randomOperationsMatchTreeSet() {
+        Random random = new Random(42);
+        CompressedBitmap bitmap = new CompressedBitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            // 集中在 3 个块内，使块在数组与位图之间反复转换
+            int value = random.nextInt(3) * 65_536 + random.nextInt(9000);
+            if (random.nextInt(3) == 0) {
+                bitmap.remove(value);
+                expected.remove(value);
+            } else {
+                bitmap.add(value);
+                expected.add(value);
+            }
+        }
+        assertSameElements(bitmap, expected);
+    }
+
+    private static void addRange(TreeSet<Integer> set, int high, int from, int to, int step) {
+        for (int low = from; low < to && low < 65_536; low += step) {
+            set.add(high << 16 | low);
+        }
+    }
+
+    private static void assertSameElements(CompressedBitmap bitmap, TreeSet<Integer> expected) {
+        assertThat(bitmap.cardinality()).isEqualTo(expected.size());
+        assertThat(bitmap.isEmpty()).isEqualTo(expected.isEmpty());
+        assertThat(bitmap.toArray()).containsExactly(expected.stream().mapToInt(Integer::intValue).toArray());
+        for (int value : expected) {
+            assertThat(bitmap.contains(value)).isTrue();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.reqsmanager.search;
+
+/**
+ * TrigramIndex 在百万级编号上的子串查询耗时。
+ * 不是单元测试，不会在 mvn test 中执行。运行方式：
+ * <pre>
+ * mvn -q test-compile
+ * java -cp target/classes:target/test-classes com.example.reqsmanager.search.TrigramIndexBenchmark
+ * </pre>
+ * 输出构建耗时，以及不同区分度的片段的平均查询耗时与命中数 (-1 表示命中过多，调用方会退回 LIKE)。
+ */
+public class TrigramIndexBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int LIMIT = 2000;
+    private static final int QUERIES = 2_000;
+
+    public static void main(String[] args) {
+        TrigramIndex index = new TrigramIndex();
+        long start = System.nanoTime();
+        for (int id = 1; id <= ROWS; id++) {
+            // 形如 REQ-2023-000001 ... 的编号，分布在 2021-2025 五个年份
+            index.put(id, String.format("REQ-%d-%06d", 2021 + id % 5, id / 5));
+        }
+        System.out.printf("build  %,d rows  %d ms%n", ROWS, (System.nanoTime() - start) / 1_000_000);
+
+        String[] fragments = {"2025-0", "2023-01234", "012345", "req-2024-19999", "99999", "XYZ"};
+        for (int round = 1; round <= 3; round++) {
+            for (String fragment : fragments) {
+                int hits = 0;
+                long queryStart = System.nanoTime();
+                for (int i = 0; i < QUERIES; i++) {
+                    int[] ids = index.findContaining(fragment, LIMIT);
+                    hits = ids == null ? -1 : ids.length;
+                }
+                double micros = (System.nanoTime() - queryStart) / 1_000.0 / QUERIES;
+                if (round == 3) {
+                    System.out.printf("%-16s %8.1f us/query  hits=%d%n", fragment, micros, hits);
+                }
+            }
+        }
+    }
+}
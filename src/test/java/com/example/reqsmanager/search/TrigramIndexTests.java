@@ -0,0 +1,176 @@
+package com.example.reqsmanager.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * TrigramIndex 的子串查找：大小写、修改与删除后的倒排表、命中数上限，以及与逐个比对结果的一致性。
+ */
+class TrigramIndexTests {
+
+    @Test
+    void findsSubstringsIgnoringCase() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "REQ-2024-001");
+        index.put(2, "req-2024-002");
+        index.put(3, "OPS-2023-001");
+
+        assertThat(index.findContaining("2024", 10)).containsExactly(1, 2);
+        assertThat(index.findContaining("Req-2024", 10)).containsExactly(1, 2);
+        assertThat(index.findContaining("-001", 10)).containsExactly(1, 3);
+        assertThat(index.findContaining("REQ-2024-001", 10)).containsExactly(1);
+        assertThat(index.findContaining("xyz", 10)).isEmpty();
+        // 每个三元组都存在，但没有值包含整个片段
+        assertThat(index.findContaining("2023-002", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void repeatedGramsInOneValue() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "aaaaaa");
+        index.put(2, "aaab");
+
+        assertThat(index.findContaining("aaa", 10)).containsExactly(1, 2);
+        assertThat(index.findContaining("aaaa", 10)).containsExactly(1);
+
+        index.remove(1);
+        assertThat(index.findContaining("aaa", 10)).containsExactly(2);
+    }
+
+    @Test
+    void putReplacesPreviousValue() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(7, "ALPHA-1");
+        index.put(7, "BETA-1");
+
+        assertThat(index.findContaining("alpha", 10)).isEmpty();
+        assertThat(index.findContaining("beta", 10)).containsExactly(7);
+        assertThat(index.size()).isEqualTo(1);
+
+        // 相同的值 (大小写不同) 不重复计数
+        index.put(7, "beta-1");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removeAndNullValue() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "abc-1");
+        index.put(2, "abc-2");
+
+        index.remove(1);
+        index.put(2, null);
+        index.remove(99);
+
+        assertThat(index.findContaining("abc", 10)).isEmpty();
+        assertThat(index.size()).isZero();
+
+        index.put(1, "abc-3");
+        assertThat(index.findContaining("abc", 10)).containsExactly(1);
+    }
+
+    @Test
+    void shortValuesAreStoredButNeverMatch() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "ab");
+        index.put(2, "abcd");
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.findContaining("abc", 10)).containsExactly(2);
+
+        index.put(1, "abc");
+        assertThat(index.findContaining("abc", 10)).containsExactly(1, 2);
+    }
+
+    @Test
+    void returnsNullWhenHitsExceedLimit() {
+        TrigramIndex index = new TrigramIndex();
+        for (int id = 1; id <= 5; id++) {
+            index.put(id, "REQ-" + id);
+        }
+
+        assertThat(index.findContaining("req", 5)).containsExactly(1, 2, 3, 4, 5);
+        assertThat(index.findContaining("req", 4)).isNull();
+        assertThat(index.findContaining("req-3", 1)).containsExactly(3);
+    }
+
+    @Test
+    void rejectsFragmentsShorterThanThreeCharacters() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "abc");
+
+        assertThatThrownBy(() -> index.findContaining("ab", 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.findContaining(null, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void outOfOrderIdsAndGrowth() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(5000, "needle-b");
+        index.put(3, "needle-a");
+        index.put(2500, "needle-c");
+
+        assertThat(index.findContaining("needle", 10)).containsExactly(3, 2500, 5000);
+    }
+
+    @Test
+    void clearRemovesEverything() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "abcdef");
+        index.clear();
+
+        assertThat(index.size()).isZero();
+        assertThat(index.findContaining("abc", 10)).isEmpty();
+    }
+
+    @Test
+    void randomValuesMatchBruteForce() {
+        Random random = new Random(42);
+        TrigramIndex index = new TrigramIndex();
+        Map<Integer, String> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            int id = 1 + random.nextInt(3000);
+            if (random.nextInt(5) == 0) {
+                index.remove(id);
+                expected.remove(id);
+            } else {
+                String value = randomValue(random);
+                index.put(id, value);
+                expected.put(id, value.toLowerCase(Locale.ROOT));
+            }
+        }
+        assertThat(index.size()).isEqualTo(expected.size());
+
+        for (int i = 0; i < 200; i++) {
+            String fragment = randomValue(random).substring(0, 3 + random.nextInt(2));
+            String normalized = fragment.toLowerCase(Locale.ROOT);
+            int[] bruteForce = expected.entrySet().stream()
+                    .filter(entry -> entry.getValue().contains(normalized))
+                    .mapToInt(Map.Entry::getKey)
+                    .sorted()
+                    .toArray();
+            assertThat(index.findContaining(fragment, Integer.MAX_VALUE - 1)).containsExactly(bruteForce);
+        }
+    }
+
+    /**
+     * 由小字母表组成的短编号，保证片段有一定的命中率。
+     */
+    private static String randomValue(Random random) {
+        String alphabet = "abAB01-";
+        StringBuilder value = new StringBuilder();
+        int length = 4 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            value.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return value.toString();
+    }
+}